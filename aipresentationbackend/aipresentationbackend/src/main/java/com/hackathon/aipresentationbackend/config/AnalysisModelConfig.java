@@ -0,0 +1,62 @@
+package com.hackathon.aipresentationbackend.config;
+
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import com.hackathon.aipresentationbackend.service.llm.AnalysisModel;
+import com.hackathon.aipresentationbackend.service.llm.GeminiAnalysisModel;
+import com.hackathon.aipresentationbackend.service.llm.OpenAiCompatibleAnalysisModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+/**
+ * Registers the analysis model backends the AnalysisModelRouter chooses between.
+ * The fast Gemini model takes typical scripts, the large-context model takes long ones,
+ * and an optional OpenAI-compatible local server can be enabled alongside them.
+ */
+@Configuration
+public class AnalysisModelConfig {
+
+    @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com/v1beta}")
+    private String geminiBaseUrl;
+
+    @Value("${gemini.api.key}")
+    private String geminiApiKey;
+
+    @Bean
+    public AnalysisModel geminiFastModel(
+            WebClient webClient,
+            PipelineMetrics pipelineMetrics,
+            @Value("${analysis.models.gemini-fast.model:models/gemini-1.5-flash-latest}") String model,
+            @Value("${analysis.models.gemini-fast.max-prompt-chars:24000}") int maxPromptChars) {
+        return new GeminiAnalysisModel("gemini-fast", webClient, geminiBaseUrl, model, geminiApiKey, maxPromptChars,
+                pipelineMetrics);
+    }
+
+    @Bean
+    public AnalysisModel geminiLargeContextModel(
+            WebClient webClient,
+            PipelineMetrics pipelineMetrics,
+            @Value("${analysis.models.gemini-large.model:models/gemini-1.5-pro-latest}") String model,
+            @Value("${analysis.models.gemini-large.max-prompt-chars:2000000}") int maxPromptChars) {
+        return new GeminiAnalysisModel("gemini-large", webClient, geminiBaseUrl, model, geminiApiKey, maxPromptChars,
+                pipelineMetrics);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "analysis.models.local.enabled", havingValue = "true")
+    public AnalysisModel localOpenAiCompatibleModel(
+            WebClient webClient,
+            PipelineMetrics pipelineMetrics,
+            @Value("${analysis.models.local.base-url:http://localhost:8000/v1}") String baseUrl,
+            @Value("${analysis.models.local.model:local-model}") String model,
+            @Value("${analysis.models.local.api-key:}") String apiKey,
+            @Value("${analysis.models.local.max-prompt-chars:16000}") int maxPromptChars,
+            @Value("${analysis.models.local.timeout:60s}") Duration timeout) {
+        return new OpenAiCompatibleAnalysisModel("local", webClient, baseUrl, model, apiKey, maxPromptChars, timeout,
+                pipelineMetrics);
+    }
+}
@@ -0,0 +1,45 @@
+package com.hackathon.aipresentationbackend.config;
+
+import org.springframework.boot.DefaultPropertiesPropertySource;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Defaults for the Spring Boot settings the application relies on. They are added with the lowest
+ * precedence, so the application config and command line arguments override any of them.
+ * The application's own settings have their defaults where they are injected.
+ */
+public class ApplicationDefaults implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        DefaultPropertiesPropertySource.addOrMerge(defaults(), environment.getPropertySources());
+    }
+
+    private static Map<String, Object> defaults() {
+        Map<String, Object> defaults = new LinkedHashMap<>();
+        // Rehearsal history and the analysis job queue: an embedded H2 database file in the working directory,
+        // whose tables are created from schema.sql if they do not exist yet
+        defaults.put("spring.datasource.url", "jdbc:h2:file:./data/rehearsal-history;DB_CLOSE_ON_EXIT=FALSE");
+        defaults.put("spring.datasource.username", "sa");
+        defaults.put("spring.datasource.password", "");
+        defaults.put("spring.sql.init.mode", "always");
+        // Actuator, including the Prometheus scrape endpoint
+        defaults.put("management.endpoints.web.exposure.include", "health,info,metrics,prometheus");
+        defaults.put("management.metrics.tags.application", "presentation-coach");
+        defaults.put("management.metrics.distribution.percentiles-histogram.presentation.pipeline.stage", "true");
+        // Rehearsals are infrequent and slow, so every one is worth a trace. Context propagation carries the
+        // current span into Reactor operators, so WebClient calls made from blocking code are its children.
+        defaults.put("management.tracing.sampling.probability", "1.0");
+        defaults.put("spring.reactor.context-propagation", "auto");
+        // Streamed speech is written as an async request for as long as synthesis takes, which for a long script is
+        // well past the container's 30 second default, even with Murf slow to answer. Server-sent event endpoints
+        // returning a Flux are streamed by Spring MVC without a timeout.
+        defaults.put("spring.mvc.async.request-timeout", "30m");
+        return defaults;
+    }
+}
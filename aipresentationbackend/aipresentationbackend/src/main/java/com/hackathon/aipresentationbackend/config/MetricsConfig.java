@@ -0,0 +1,51 @@
+package com.hackathon.aipresentationbackend.config;
+
+import com.hackathon.aipresentationbackend.service.AudioBlobStore;
+import com.hackathon.aipresentationbackend.service.TempFileJanitor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes the storage components' own counters as meters. The Actuator defaults, which expose the
+ * Prometheus scrape endpoint, are in {@link ApplicationDefaults}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder tempFileJanitorMetrics(TempFileJanitor janitor) {
+        return registry -> {
+            FunctionCounter.builder("presentation.temp.reclaimed.files", janitor, TempFileJanitor::getFilesReclaimed)
+                    .description("Temp audio files deleted by the janitor")
+                    .register(registry);
+            FunctionCounter.builder("presentation.temp.reclaimed", janitor, TempFileJanitor::getBytesReclaimed)
+                    .description("Temp audio bytes deleted by the janitor")
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("presentation.temp.rejected.uploads", janitor, TempFileJanitor::getUploadsRejected)
+                    .description("Uploads rejected because temp storage was full")
+                    .register(registry);
+            Gauge.builder("presentation.temp.leased.files", janitor, TempFileJanitor::getLeasedFileCount)
+                    .description("Temp files held by in-flight requests")
+                    .register(registry);
+            Gauge.builder("presentation.temp.directory.size", janitor, TempFileJanitor::getDirectoryBytes)
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder audioBlobStoreMetrics(AudioBlobStore audioBlobStore) {
+        return registry -> {
+            Gauge.builder("presentation.audio.blobs.size", audioBlobStore, AudioBlobStore::getTotalBytes)
+                    .description("Generated speech stored locally")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("presentation.audio.blobs.count", audioBlobStore, AudioBlobStore::getBlobCount)
+                    .register(registry);
+        };
+    }
+}
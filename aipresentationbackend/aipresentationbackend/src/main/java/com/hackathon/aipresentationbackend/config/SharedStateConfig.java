@@ -0,0 +1,60 @@
+package com.hackathon.aipresentationbackend.config;
+
+import com.hackathon.aipresentationbackend.service.shared.InMemorySharedStateStore;
+import com.hackathon.aipresentationbackend.service.shared.RateLimiter;
+import com.hackathon.aipresentationbackend.service.shared.RespSharedStateStore;
+import com.hackathon.aipresentationbackend.service.shared.SharedStateStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Chooses where state shared between servers is kept: this server's memory by default, or a
+ * Redis-compatible server when shared-state.type=redis, so caches, job status and rate limits hold
+ * across every server behind the load balancer.
+ */
+@Configuration
+public class SharedStateConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "shared-state.type", havingValue = "memory", matchIfMissing = true)
+    public SharedStateStore inMemorySharedStateStore(
+            @Value("${shared-state.memory.max-entries:10000}") int maxEntries) {
+        return new InMemorySharedStateStore(maxEntries);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "shared-state.type", havingValue = "redis")
+    public SharedStateStore redisSharedStateStore(
+            MeterRegistry meterRegistry,
+            @Value("${shared-state.redis.host:localhost}") String host,
+            @Value("${shared-state.redis.port:6379}") int port,
+            @Value("${shared-state.redis.password:}") String password,
+            @Value("${shared-state.redis.database:0}") int database,
+            @Value("${shared-state.redis.timeout:500ms}") Duration timeout,
+            @Value("${shared-state.redis.pool-size:16}") int poolSize,
+            @Value("${shared-state.redis.key-prefix:orator:}") String keyPrefix) {
+        RespSharedStateStore store = new RespSharedStateStore(
+                new RespSharedStateStore.Settings(host, port, password, database, timeout, poolSize, keyPrefix));
+        FunctionCounter.builder("presentation.shared.state.failures", store, RespSharedStateStore::getFailures)
+                .description("Shared state store commands that failed and were treated as misses")
+                .register(meterRegistry);
+        return store;
+    }
+
+    /**
+     * Limits rehearsals submitted for analysis per user, across all servers
+     */
+    @Bean
+    public RateLimiter analysisRateLimiter(
+            SharedStateStore sharedStateStore,
+            @Value("${rate-limit.analysis.per-user:0}") int limit,
+            @Value("${rate-limit.analysis.window:1m}") Duration window) {
+        return new RateLimiter(sharedStateStore, "analysis", limit, window);
+    }
+}
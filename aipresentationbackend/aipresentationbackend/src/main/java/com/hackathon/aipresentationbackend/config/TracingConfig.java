@@ -0,0 +1,22 @@
+package com.hackathon.aipresentationbackend.config;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Every rehearsal is traced (see {@link ApplicationDefaults}). Spans are exported over OTLP once
+ * management.otlp.tracing.endpoint points at a collector, for example http://localhost:4318/v1/traces,
+ * and can also be written to the application log by setting tracing.log-spans=true, which needs no collector at all.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.log-spans", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
@@ -6,8 +6,9 @@ import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
 public class WebClientConfig {
+    // Spring Boot's builder records every request as an observation, so vendor calls get their own spans
     @Bean
-    public WebClient webClient(){
-        return WebClient.builder().build();
+    public WebClient webClient(WebClient.Builder builder){
+        return builder.build();
     }
 }
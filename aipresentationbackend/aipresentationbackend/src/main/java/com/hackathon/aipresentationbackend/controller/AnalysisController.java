@@ -2,6 +2,9 @@ package com.hackathon.aipresentationbackend.controller;
 
 import com.hackathon.aipresentationbackend.model.AnalysisResponse;
 import com.hackathon.aipresentationbackend.service.AnalysisService;
+import com.hackathon.aipresentationbackend.service.admission.AdmissionService;
+import com.hackathon.aipresentationbackend.service.history.RehearsalHistoryService;
+import com.hackathon.aipresentationbackend.service.shared.RateLimiter;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,23 +18,36 @@ import java.io.IOException;
 public class AnalysisController {
 
     private final AnalysisService analysisService;
+    private final RateLimiter analysisRateLimiter;
+    private final AdmissionService admissionService;
 
-    public AnalysisController(AnalysisService analysisService){
+    public AnalysisController(AnalysisService analysisService, RateLimiter analysisRateLimiter,
+                              AdmissionService admissionService){
         this.analysisService = analysisService;
+        this.analysisRateLimiter = analysisRateLimiter;
+        this.admissionService = admissionService;
     }
 
     /**
      * This is the main endpoint for the application.
      * It accepts a multipart/form-data request containing both an audio file and the original script text.
+     * The result is kept in the history of the user named by the X-User-Id header.
+     * Users over the rate-limit.analysis limit get 429 Too Many Requests with a Retry-After header.
+     * When the server is busy the request waits its turn by the length of its recording, or gets 429 with
+     * error code OVERLOADED if the wait would be too long.
      */
     @PostMapping(value = "/analyze", consumes = "multipart/form-data")
     public ResponseEntity<AnalysisResponse> analyzeDelivery(
             @RequestParam("audioFile") MultipartFile audioFile,
-            @RequestParam("originalScript") String originalScript) {
+            @RequestParam("originalScript") String originalScript,
+            @RequestHeader(value = HistoryController.USER_HEADER, defaultValue = RehearsalHistoryService.ANONYMOUS) String userId) {
 
-        try {
+        String historyUserId = HistoryController.validUserId(userId);
+        analysisRateLimiter.acquire(historyUserId);
+        AdmissionService.Permit permit = admissionService.admit(historyUserId, audioFile, originalScript);
+        try (permit) {
             // This method correctly handles both the file and the script
-            AnalysisResponse response = analysisService.transcribeAndAnalyze(audioFile, originalScript);
+            AnalysisResponse response = analysisService.transcribeAndAnalyze(audioFile, originalScript, historyUserId);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             // Your GlobalExceptionHandler will catch and format errors from the service
@@ -0,0 +1,55 @@
+package com.hackathon.aipresentationbackend.controller;
+
+import com.hackathon.aipresentationbackend.model.AnalysisJob;
+import com.hackathon.aipresentationbackend.service.history.RehearsalHistoryService;
+import com.hackathon.aipresentationbackend.service.jobs.AnalysisJobService;
+import com.hackathon.aipresentationbackend.service.shared.RateLimiter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/v1")
+@CrossOrigin(origins = {"http://localhost:8081", "https://d56632c13c30.ngrok-free.app/"})
+public class AnalysisJobController {
+
+    private final AnalysisJobService analysisJobService;
+    private final RateLimiter analysisRateLimiter;
+
+    public AnalysisJobController(AnalysisJobService analysisJobService, RateLimiter analysisRateLimiter) {
+        this.analysisJobService = analysisJobService;
+        this.analysisRateLimiter = analysisRateLimiter;
+    }
+
+    /**
+     * Queues the same analysis as /analyze and returns straight away.
+     * The job survives a server restart; poll the Location header until its status is done or failed.
+     * Counts against the same per-user rate limit as /analyze.
+     */
+    @PostMapping(value = "/analyze/jobs", consumes = "multipart/form-data")
+    public ResponseEntity<AnalysisJob> submitAnalysis(
+            @RequestParam("audioFile") MultipartFile audioFile,
+            @RequestParam("originalScript") String originalScript,
+            @RequestHeader(value = HistoryController.USER_HEADER, defaultValue = RehearsalHistoryService.ANONYMOUS) String userId) {
+        String historyUserId = HistoryController.validUserId(userId);
+        analysisRateLimiter.acquire(historyUserId);
+        AnalysisJob job = analysisJobService.submit(audioFile, originalScript, historyUserId);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/analyze/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * A queued analysis's progress, with its result once it is done
+     */
+    @GetMapping("/analyze/jobs/{id}")
+    public ResponseEntity<AnalysisJob> getAnalysis(
+            @RequestHeader(value = HistoryController.USER_HEADER, defaultValue = RehearsalHistoryService.ANONYMOUS) String userId,
+            @PathVariable String id) {
+        return analysisJobService.find(HistoryController.validUserId(userId), id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
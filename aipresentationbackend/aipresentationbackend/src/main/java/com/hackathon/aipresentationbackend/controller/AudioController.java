@@ -0,0 +1,96 @@
+package com.hackathon.aipresentationbackend.controller;
+
+import com.hackathon.aipresentationbackend.service.AudioBlobStore;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RestController
+@RequestMapping("/api/v1")
+@CrossOrigin(origins = {"http://localhost:8081", "https://d56632c13c30.ngrok-free.app/"})
+public class AudioController {
+
+    private final AudioBlobStore audioBlobStore;
+
+    public AudioController(AudioBlobStore audioBlobStore) {
+        this.audioBlobStore = audioBlobStore;
+    }
+
+    /**
+     * Serves generated speech stored on this server. Range requests get 206 partial content,
+     * and a matching If-None-Match gets 304. If the local copy is missing, the client is
+     * redirected to Murf's URL while it is still known, and the file is downloaded again.
+     * The file is kept from eviction until its body has been written.
+     */
+    @GetMapping("/audio/{name}")
+    public ResponseEntity<Resource> getAudio(@PathVariable String name, WebRequest request) {
+        Optional<AudioBlobStore.AudioBlob> blob = audioBlobStore.acquire(name);
+        if (blob.isEmpty()) {
+            return audioBlobStore.restore(name)
+                    .map(source -> ResponseEntity.status(HttpStatus.FOUND).location(URI.create(source)).<Resource>build())
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        }
+
+        AudioBlobStore.AudioBlob audio = blob.get();
+        if (request.checkNotModified(audio.eTag())) {
+            audioBlobStore.release(audio);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(audio.eTag()).build();
+        }
+        // Content never changes for a name, so clients may keep it as long as they like
+        return ResponseEntity.ok()
+                .eTag(audio.eTag())
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                .contentType(audio.contentType())
+                .body(new ServedAudioResource(audio));
+    }
+
+    /**
+     * The stored file, released back to the store once a stream over it is closed
+     */
+    private final class ServedAudioResource extends FileSystemResource {
+        private final AudioBlobStore.AudioBlob audio;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ServedAudioResource(AudioBlobStore.AudioBlob audio) {
+            super(audio.path());
+            this.audio = audio;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                return new FilterInputStream(super.getInputStream()) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            release();
+                        }
+                    }
+                };
+            } catch (IOException | RuntimeException e) {
+                release();
+                throw e;
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                audioBlobStore.release(audio);
+            }
+        }
+    }
+}
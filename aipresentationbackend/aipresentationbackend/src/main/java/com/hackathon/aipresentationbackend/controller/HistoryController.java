@@ -0,0 +1,78 @@
+package com.hackathon.aipresentationbackend.controller;
+
+import com.hackathon.aipresentationbackend.model.RehearsalRecord;
+import com.hackathon.aipresentationbackend.model.RehearsalSummary;
+import com.hackathon.aipresentationbackend.model.ScriptProgress;
+import com.hackathon.aipresentationbackend.service.history.RehearsalHistoryService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1")
+@CrossOrigin(origins = {"http://localhost:8081", "https://d56632c13c30.ngrok-free.app/"})
+public class HistoryController {
+    /**
+     * Names the user whose history a request reads or adds to; requests without it share the anonymous history
+     */
+    public static final String USER_HEADER = "X-User-Id";
+    private static final int MAX_LIMIT = 100;
+
+    private final RehearsalHistoryService rehearsalHistory;
+
+    public HistoryController(RehearsalHistoryService rehearsalHistory) {
+        this.rehearsalHistory = rehearsalHistory;
+    }
+
+    /**
+     * The user's most recent rehearsals, newest first
+     */
+    @GetMapping("/history")
+    public ResponseEntity<List<RehearsalSummary>> getRecentRehearsals(
+            @RequestHeader(value = USER_HEADER, defaultValue = RehearsalHistoryService.ANONYMOUS) String userId,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(rehearsalHistory.findRecent(validUserId(userId), Math.clamp(limit, 1, MAX_LIMIT)));
+    }
+
+    /**
+     * A stored rehearsal with its full feedback, transcript and word timings, without analyzing it again
+     */
+    @GetMapping("/history/{id}")
+    public ResponseEntity<RehearsalRecord> getRehearsal(
+            @RequestHeader(value = USER_HEADER, defaultValue = RehearsalHistoryService.ANONYMOUS) String userId,
+            @PathVariable long id) {
+        return rehearsalHistory.findRehearsal(validUserId(userId), id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Score progress on every script the user has rehearsed
+     */
+    @GetMapping("/history/scripts")
+    public ResponseEntity<List<ScriptProgress>> getProgress(
+            @RequestHeader(value = USER_HEADER, defaultValue = RehearsalHistoryService.ANONYMOUS) String userId) {
+        return ResponseEntity.ok(rehearsalHistory.findProgress(validUserId(userId)));
+    }
+
+    /**
+     * The score of each rehearsal of one script, oldest first, for plotting a trend
+     */
+    @GetMapping("/history/scripts/{scriptId}")
+    public ResponseEntity<List<RehearsalSummary>> getScriptScores(
+            @RequestHeader(value = USER_HEADER, defaultValue = RehearsalHistoryService.ANONYMOUS) String userId,
+            @PathVariable String scriptId) {
+        return ResponseEntity.ok(rehearsalHistory.findScores(validUserId(userId), scriptId));
+    }
+
+    static String validUserId(String userId) {
+        if (userId.isBlank() || userId.length() > RehearsalHistoryService.MAX_USER_ID_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    USER_HEADER + " must be 1 to " + RehearsalHistoryService.MAX_USER_ID_LENGTH + " characters");
+        }
+        return userId;
+    }
+}
@@ -1,13 +1,26 @@
 package com.hackathon.aipresentationbackend.controller;
 
 import com.hackathon.aipresentationbackend.model.SpeechRequest;
+import com.hackathon.aipresentationbackend.model.SpeechPlaylist;
 import com.hackathon.aipresentationbackend.model.SpeechResponse;
+import com.hackathon.aipresentationbackend.model.SpeechSegment;
+import com.hackathon.aipresentationbackend.model.ToneBatchRequest;
+import com.hackathon.aipresentationbackend.model.ToneBatchResponse;
 import com.hackathon.aipresentationbackend.model.ToneRehearsalRequest;
+import com.hackathon.aipresentationbackend.model.ToneVariationResult;
 import com.hackathon.aipresentationbackend.model.VoiceOption;
 import com.hackathon.aipresentationbackend.service.MurfService;
+import com.hackathon.aipresentationbackend.service.SegmentedSpeechService;
+import com.hackathon.aipresentationbackend.service.SpeechStreamingService;
+import com.hackathon.aipresentationbackend.service.ToneRehearsalService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -16,9 +29,17 @@ import java.util.List;
 @CrossOrigin(origins = {"http://localhost:8081", "https://d56632c13c30.ngrok-free.app/"})
 public class PresentationController {
     private final MurfService murfService;
+    private final ToneRehearsalService toneRehearsalService;
+    private final SegmentedSpeechService segmentedSpeechService;
+    private final SpeechStreamingService speechStreamingService;
 
-    public PresentationController(MurfService murfService){
+    public PresentationController(MurfService murfService, ToneRehearsalService toneRehearsalService,
+                                  SegmentedSpeechService segmentedSpeechService,
+                                  SpeechStreamingService speechStreamingService){
         this.murfService=murfService;
+        this.toneRehearsalService=toneRehearsalService;
+        this.segmentedSpeechService=segmentedSpeechService;
+        this.speechStreamingService=speechStreamingService;
     }
 @PostMapping("/generate-speech")
  public ResponseEntity<SpeechResponse> generateSpeech(@Valid @RequestBody SpeechRequest request){
@@ -26,11 +47,52 @@ public class PresentationController {
 
    return  ResponseEntity.ok(response);
  }
+ /**
+  * Synthesizes the text sentence group by sentence group and returns the ordered playlist manifest
+  */
+ @PostMapping(value = "/generate-speech/segments", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<SpeechPlaylist> generateSegmentedSpeech(@Valid @RequestBody SpeechRequest request){
+    return ResponseEntity.ok(segmentedSpeechService.generatePlaylist(request));
+  }
+ /**
+  * Same as the segments endpoint, but sends each segment as a server-sent event, in order, as soon as it can play
+  */
+ @PostMapping(value = "/generate-speech/segments", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<SpeechSegment>> streamSegmentedSpeech(@Valid @RequestBody SpeechRequest request){
+    return segmentedSpeechService.streamSegments(request)
+            .map(segment -> ServerSentEvent.builder(segment).event("segment").id(String.valueOf(segment.getIndex())).build());
+  }
+ /**
+  * Streams the speech as one MP3 with chunked transfer, starting as soon as the first segment is synthesized
+  */
+ @PostMapping(value = "/generate-speech/stream", produces = "audio/mpeg")
+  public ResponseEntity<StreamingResponseBody> streamSpeech(@Valid @RequestBody SpeechRequest request){
+    StreamingResponseBody body = out -> speechStreamingService.streamAudio(request, out);
+    return ResponseEntity.ok()
+            .cacheControl(CacheControl.noStore())
+            .contentType(MediaType.parseMediaType("audio/mpeg"))
+            .body(body);
+  }
  @PostMapping("/tone-rehearsal")
   public ResponseEntity<SpeechResponse> rehearseTone(@RequestBody ToneRehearsalRequest toneRehearsalRequest){
     SpeechResponse response=murfService.generateToneVariation(toneRehearsalRequest);
     return ResponseEntity.ok(response);
   }
+ /**
+  * Renders the sentence in every requested tone and voice concurrently and returns all results together
+  */
+ @PostMapping(value = "/tone-rehearsal/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<ToneBatchResponse> rehearseTones(@Valid @RequestBody ToneBatchRequest request){
+    return ResponseEntity.ok(toneRehearsalService.generateVariations(request));
+  }
+ /**
+  * Same as the batch endpoint, but sends each result as a server-sent event as soon as it is ready
+  */
+ @PostMapping(value = "/tone-rehearsal/batch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<ToneVariationResult>> streamTones(@Valid @RequestBody ToneBatchRequest request){
+    return toneRehearsalService.streamVariations(request)
+            .map(result -> ServerSentEvent.builder(result).event("variation").id(String.valueOf(result.getIndex())).build());
+  }
  @GetMapping("/voices")
   public ResponseEntity<List<VoiceOption>> getAvailableVoices(){
      List<VoiceOption> voices=murfService.getAvailableVoices();
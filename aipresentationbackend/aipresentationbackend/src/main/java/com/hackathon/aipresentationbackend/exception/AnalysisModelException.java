@@ -0,0 +1,53 @@
+package com.hackathon.aipresentationbackend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception thrown when an analysis model backend fails or no model can serve a request
+ */
+public class AnalysisModelException extends ResponseStatusException {
+
+    /**
+     * Create a new AnalysisModelException with a message and status
+     *
+     * @param message The error message
+     * @param status  The HTTP status code
+     */
+    public AnalysisModelException(String message, HttpStatus status) {
+        super(status, message);
+    }
+
+    /**
+     * Create a new AnalysisModelException with a message, status, and cause
+     *
+     * @param message The error message
+     * @param status  The HTTP status code
+     * @param cause   The cause of the exception
+     */
+    public AnalysisModelException(String message, HttpStatus status, Throwable cause) {
+        super(status, message, cause);
+    }
+
+    /**
+     * Get a descriptive error code based on the status
+     *
+     * @return A string error code
+     */
+    public String getErrorCode() {
+        HttpStatusCode status = this.getStatusCode();
+
+        if (status.equals(HttpStatus.PAYLOAD_TOO_LARGE)) {
+            return "ANALYSIS_MODEL_PROMPT_TOO_LARGE";
+        } else if (status.equals(HttpStatus.TOO_MANY_REQUESTS)) {
+            return "ANALYSIS_MODEL_RATE_LIMIT";
+        } else if (status.is5xxServerError()) {
+            return "ANALYSIS_MODEL_SERVER_ERROR";
+        } else if (status.is4xxClientError()) {
+            return "ANALYSIS_MODEL_CLIENT_ERROR";
+        } else {
+            return "ANALYSIS_MODEL_ERROR";
+        }
+    }
+}
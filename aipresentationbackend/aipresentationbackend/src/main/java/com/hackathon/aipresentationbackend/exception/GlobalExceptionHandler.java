@@ -1,5 +1,9 @@
 package com.hackathon.aipresentationbackend.exception;
 
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import com.hackathon.aipresentationbackend.model.ErrorResponse;
 import org.springframework.validation.FieldError;
@@ -11,6 +15,12 @@ import java.time.LocalDateTime;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final ObjectProvider<Tracer> tracer;
+
+    public GlobalExceptionHandler(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer;
+    }
+
     //handler for custom murf ai exception
     @ExceptionHandler(MurfApiException.class)
     public ResponseEntity<ErrorResponse> handleMurfApiException(MurfApiException e){
@@ -20,6 +30,7 @@ public class GlobalExceptionHandler {
           errorResponse.setError("Murf Api Error");
           errorResponse.setErrorCode(e.getErrorCode());
           errorResponse.setMessage(e.getReason());
+          errorResponse.setTraceId(currentTraceId());
 
           return new ResponseEntity<>(errorResponse,e.getStatusCode());
     }
@@ -31,6 +42,7 @@ public class GlobalExceptionHandler {
         errorResponse.setError("Gemini Api Error");
         errorResponse.setErrorCode(e.getErrorCode());
         errorResponse.setMessage(e.getReason());
+        errorResponse.setTraceId(currentTraceId());
 
         return new ResponseEntity<>(errorResponse,e.getStatusCode());
     }
@@ -42,6 +54,7 @@ public class GlobalExceptionHandler {
         errorResponse.setError("Assembly Api Error");
         errorResponse.setErrorCode(e.getErrorCode());
         errorResponse.setMessage(e.getReason());
+        errorResponse.setTraceId(currentTraceId());
 
         return new ResponseEntity<>(errorResponse,e.getStatusCode());
     }
@@ -53,11 +66,43 @@ public class GlobalExceptionHandler {
         errorResponse.setError("Audio Processing Error");
         errorResponse.setErrorCode(e.getErrorCode());
         errorResponse.setMessage(e.getReason());
+        errorResponse.setTraceId(currentTraceId());
 
         return new ResponseEntity<>(errorResponse,e.getStatusCode());
     }
+    @ExceptionHandler(AnalysisModelException.class)
+    public ResponseEntity<ErrorResponse> handleAnalysisModelException(AnalysisModelException e){
+        ErrorResponse errorResponse=new ErrorResponse();
+        errorResponse.setTimestamp(LocalDateTime.now());
+        errorResponse.setStatus(e.getStatusCode().value());
+        errorResponse.setError("Analysis Model Error");
+        errorResponse.setErrorCode(e.getErrorCode());
+        errorResponse.setMessage(e.getReason());
+        errorResponse.setTraceId(currentTraceId());
 
+        return new ResponseEntity<>(errorResponse,e.getStatusCode());
+    }
+    @ExceptionHandler(RateLimitException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitException(RateLimitException e){
+        ErrorResponse errorResponse=new ErrorResponse();
+        errorResponse.setTimestamp(LocalDateTime.now());
+        errorResponse.setStatus(e.getStatusCode().value());
+        errorResponse.setError("Too Many Requests");
+        errorResponse.setErrorCode(e.getErrorCode());
+        errorResponse.setMessage(e.getReason());
+        errorResponse.setTraceId(currentTraceId());
 
+        return ResponseEntity.status(e.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
 
-
+    /**
+     * The trace ID of the request being handled, or null when tracing is off
+     */
+    private String currentTraceId() {
+        Tracer current = tracer.getIfAvailable();
+        Span span = current == null ? null : current.currentSpan();
+        return span == null ? null : span.context().traceId();
+    }
 }
@@ -0,0 +1,53 @@
+package com.hackathon.aipresentationbackend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a client has made more requests than its limit allows, or when the server is
+ * too busy to take the request on; answered with 429 Too Many Requests and a Retry-After header
+ */
+public class RateLimitException extends ResponseStatusException {
+    private final Duration retryAfter;
+    private final String errorCode;
+
+    /**
+     * Create a new RateLimitException with a message and the time until the client may try again
+     *
+     * @param message    The error message
+     * @param retryAfter How long the client should wait before retrying
+     */
+    public RateLimitException(String message, Duration retryAfter) {
+        this(message, retryAfter, "RATE_LIMITED");
+    }
+
+    /**
+     * Create a new RateLimitException with a message, the time until the client may try again and an error code
+     *
+     * @param message    The error message
+     * @param retryAfter How long the client should wait before retrying
+     * @param errorCode  The error code, such as OVERLOADED when load is being shed
+     */
+    public RateLimitException(String message, Duration retryAfter, String errorCode) {
+        super(HttpStatus.TOO_MANY_REQUESTS, message);
+        this.retryAfter = retryAfter;
+        this.errorCode = errorCode;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Whole seconds to wait, rounded up, as sent in the Retry-After header
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+}
@@ -0,0 +1,70 @@
+package com.hackathon.aipresentationbackend.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+/**
+ * A rehearsal queued for analysis: how far it has got and, once it is done, its analysis
+ */
+public class AnalysisJob {
+    private final String id;
+    private final String status;
+    private final int attempts;
+    private final String error;
+    private final Instant createdAt;
+    private final Instant updatedAt;
+    private final String result;
+
+    public AnalysisJob(String id, String status, int attempts, String error, Instant createdAt, Instant updatedAt,
+                       String result) {
+        this.id = id;
+        this.status = status;
+        this.attempts = attempts;
+        this.error = error;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.result = result;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * The last stage completed: queued, uploaded, submitted, transcribed, analyzed, done or failed
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Failed attempts so far; a failed stage is retried from the last checkpoint
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Why the last attempt failed, or null
+     */
+    public String getError() {
+        return error;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * The analysis, as returned by /analyze, once the job is done
+     */
+    @JsonRawValue
+    public String getResult() {
+        return result;
+    }
+}
@@ -1,5 +1,7 @@
 package com.hackathon.aipresentationbackend.model;
 
+import java.util.List;
+
 public class AnalysisResponse {
 
     // --- Fields ---
@@ -9,6 +11,10 @@ public class AnalysisResponse {
     private final String audioUrl;
     private final String spokenTranscript;
     private final VoiceRecommendation voiceRecommendation; // New field for voice recommendation
+    private final SpeechActivity speechActivity;
+    private final Long rehearsalId;
+    private final String scriptId;
+    private final List<SectionAnalysis> sections;
 
     // --- Private Constructor ---
     // This constructor now correctly accepts only a Builder object.
@@ -19,6 +25,10 @@ public class AnalysisResponse {
         this.audioUrl = builder.audioUrl;
         this.spokenTranscript = builder.spokenTranscript; // Gets the transcript from the builder
         this.voiceRecommendation = builder.voiceRecommendation; // New field
+        this.speechActivity = builder.speechActivity;
+        this.rehearsalId = builder.rehearsalId;
+        this.scriptId = builder.scriptId;
+        this.sections = builder.sections;
     }
 
     // --- Getters ---
@@ -46,6 +56,31 @@ public class AnalysisResponse {
         return voiceRecommendation;
     }
 
+    public SpeechActivity getSpeechActivity() {
+        return speechActivity;
+    }
+
+    /**
+     * Id of this rehearsal in the history, or null if it could not be stored
+     */
+    public Long getRehearsalId() {
+        return rehearsalId;
+    }
+
+    /**
+     * Identifies the script across rehearsals, for looking up its score trend
+     */
+    public String getScriptId() {
+        return scriptId;
+    }
+
+    /**
+     * Feedback on each paragraph, when the script was analyzed paragraph by paragraph
+     */
+    public List<SectionAnalysis> getSections() {
+        return sections;
+    }
+
     // --- Static nested Builder class ---
     public static class Builder {
         private int score;
@@ -54,6 +89,10 @@ public class AnalysisResponse {
         private String audioUrl;
         private String spokenTranscript;
         private VoiceRecommendation voiceRecommendation;
+        private SpeechActivity speechActivity;
+        private Long rehearsalId;
+        private String scriptId;
+        private List<SectionAnalysis> sections;
 
         public Builder score(int score) {
             this.score = score;
@@ -85,6 +124,26 @@ public class AnalysisResponse {
             return this;
         }
 
+        public Builder speechActivity(SpeechActivity speechActivity) {
+            this.speechActivity = speechActivity;
+            return this;
+        }
+
+        public Builder rehearsalId(Long rehearsalId) {
+            this.rehearsalId = rehearsalId;
+            return this;
+        }
+
+        public Builder scriptId(String scriptId) {
+            this.scriptId = scriptId;
+            return this;
+        }
+
+        public Builder sections(List<SectionAnalysis> sections) {
+            this.sections = sections;
+            return this;
+        }
+
         // --- Final build method ---
         // This now correctly calls the private constructor.
         public AnalysisResponse build() {
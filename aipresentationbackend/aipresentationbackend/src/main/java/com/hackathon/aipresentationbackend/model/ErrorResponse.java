@@ -13,6 +13,7 @@ public class ErrorResponse {
     private String errorCode;
     private String message;
     private Map<String,String> validationErrors;
+    private String traceId;
 
     public LocalDateTime getTimestamp() {
         return timestamp;
@@ -61,4 +62,15 @@ public class ErrorResponse {
     public void setValidationErrors(Map<String, String> validationErrors) {
         this.validationErrors = validationErrors;
     }
+
+    /**
+     * Trace of the failed request, for finding its spans in the tracing backend
+     */
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public void setTraceId(String traceId) {
+        this.traceId = traceId;
+    }
 }
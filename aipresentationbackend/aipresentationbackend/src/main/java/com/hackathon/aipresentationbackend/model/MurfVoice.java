@@ -1,5 +1,11 @@
 package com.hackathon.aipresentationbackend.model;
 
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * Enum representing specific Murf AI voices with their characteristics
  * Based on popular Murf AI voice options
@@ -47,6 +53,30 @@ public enum MurfVoice {
     GRACE("grace", VoiceGender.FEMALE, VoiceAge.MIDDLE_AGED, ToneType.EMPATHETIC,
           "Compassionate, caring voice for empathetic delivery");
     
+    private static final Map<ToneType, MurfVoice[]> BY_TONE = new EnumMap<>(ToneType.class);
+    private static final Map<VoiceGender, Map<ToneType, MurfVoice[]>> BY_GENDER_AND_TONE = new EnumMap<>(VoiceGender.class);
+    private static final Map<String, MurfVoice> BY_ID = new HashMap<>();
+    
+    static {
+        for (ToneType tone : ToneType.values()) {
+            BY_TONE.put(tone, Arrays.stream(values())
+                    .filter(voice -> voice.primaryTone == tone)
+                    .toArray(MurfVoice[]::new));
+        }
+        for (VoiceGender gender : VoiceGender.values()) {
+            Map<ToneType, MurfVoice[]> byTone = new EnumMap<>(ToneType.class);
+            for (ToneType tone : ToneType.values()) {
+                byTone.put(tone, Arrays.stream(BY_TONE.get(tone))
+                        .filter(voice -> voice.gender == gender)
+                        .toArray(MurfVoice[]::new));
+            }
+            BY_GENDER_AND_TONE.put(gender, byTone);
+        }
+        for (MurfVoice voice : values()) {
+            BY_ID.put(voice.voiceId.toLowerCase(Locale.ROOT), voice);
+        }
+    }
+    
     private final String voiceId;
     private final VoiceGender gender;
     private final VoiceAge age;
@@ -85,18 +115,14 @@ public enum MurfVoice {
      * Find voices by tone type
      */
     public static MurfVoice[] getVoicesByTone(ToneType tone) {
-        return java.util.Arrays.stream(MurfVoice.values())
-                .filter(voice -> voice.primaryTone == tone)
-                .toArray(MurfVoice[]::new);
+        return tone == null ? new MurfVoice[0] : BY_TONE.get(tone).clone();
     }
     
     /**
      * Find voices by gender and tone
      */
     public static MurfVoice[] getVoicesByGenderAndTone(VoiceGender gender, ToneType tone) {
-        return java.util.Arrays.stream(MurfVoice.values())
-                .filter(voice -> voice.gender == gender && voice.primaryTone == tone)
-                .toArray(MurfVoice[]::new);
+        return gender == null || tone == null ? new MurfVoice[0] : BY_GENDER_AND_TONE.get(gender).get(tone).clone();
     }
     
     /**
@@ -107,10 +133,9 @@ public enum MurfVoice {
             return null;
         }
         
-        for (MurfVoice voice : MurfVoice.values()) {
-            if (voice.voiceId.equalsIgnoreCase(voiceId.trim())) {
-                return voice;
-            }
+        MurfVoice voice = BY_ID.get(voiceId.trim().toLowerCase(Locale.ROOT));
+        if (voice != null) {
+            return voice;
         }
         
         throw new IllegalArgumentException("Invalid voice ID: " + voiceId);
@@ -0,0 +1,55 @@
+package com.hackathon.aipresentationbackend.model;
+
+/**
+ * A pause detected between stretches of speech in a recording.
+ * Positions are reported on the original recording's timeline, alongside where the pause
+ * sits in the trimmed audio that was sent for transcription.
+ */
+public class PauseSegment {
+
+    private final long startMillis;
+    private final long durationMillis;
+    private final long processedStartMillis;
+    private final long keptMillis;
+
+    public PauseSegment(long startMillis, long durationMillis, long processedStartMillis, long keptMillis) {
+        this.startMillis = startMillis;
+        this.durationMillis = durationMillis;
+        this.processedStartMillis = processedStartMillis;
+        this.keptMillis = keptMillis;
+    }
+
+    // --- Getters ---
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public long getProcessedStartMillis() {
+        return processedStartMillis;
+    }
+
+    /**
+     * How much of the pause remains in the trimmed audio; less than the duration when it was compressed
+     */
+    public long getKeptMillis() {
+        return keptMillis;
+    }
+
+    public boolean isCompressed() {
+        return keptMillis < durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "PauseSegment{" +
+                "startMillis=" + startMillis +
+                ", durationMillis=" + durationMillis +
+                ", keptMillis=" + keptMillis +
+                '}';
+    }
+}
@@ -0,0 +1,85 @@
+package com.hackathon.aipresentationbackend.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+/**
+ * A stored rehearsal with everything the analysis returned, so earlier attempts can be shown again
+ * without re-running them. Speech activity and word timings are stored and returned as JSON.
+ */
+public class RehearsalRecord {
+    private final long id;
+    private final String scriptId;
+    private final Instant createdAt;
+    private final int score;
+    private final String positiveFeedback;
+    private final String improvementPoints;
+    private final String spokenTranscript;
+    private final String audioUrl;
+    private final String speechActivity;
+    private final String wordTimings;
+
+    public RehearsalRecord(long id, String scriptId, Instant createdAt, int score, String positiveFeedback,
+                           String improvementPoints, String spokenTranscript, String audioUrl,
+                           String speechActivity, String wordTimings) {
+        this.id = id;
+        this.scriptId = scriptId;
+        this.createdAt = createdAt;
+        this.score = score;
+        this.positiveFeedback = positiveFeedback;
+        this.improvementPoints = improvementPoints;
+        this.spokenTranscript = spokenTranscript;
+        this.audioUrl = audioUrl;
+        this.speechActivity = speechActivity;
+        this.wordTimings = wordTimings;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getScriptId() {
+        return scriptId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public String getPositiveFeedback() {
+        return positiveFeedback;
+    }
+
+    public String getImprovementPoints() {
+        return improvementPoints;
+    }
+
+    public String getSpokenTranscript() {
+        return spokenTranscript;
+    }
+
+    /**
+     * The generated ideal delivery; served by this server unless its local copy has been evicted
+     */
+    public String getAudioUrl() {
+        return audioUrl;
+    }
+
+    @JsonRawValue
+    public String getSpeechActivity() {
+        return speechActivity;
+    }
+
+    /**
+     * AssemblyAI's words with start and end times in milliseconds
+     */
+    @JsonRawValue
+    public String getWordTimings() {
+        return wordTimings;
+    }
+}
@@ -0,0 +1,36 @@
+package com.hackathon.aipresentationbackend.model;
+
+import java.time.Instant;
+
+/**
+ * One stored rehearsal in a history list or score trend, without its transcript and feedback
+ */
+public class RehearsalSummary {
+    private final long id;
+    private final String scriptId;
+    private final Instant createdAt;
+    private final int score;
+
+    public RehearsalSummary(long id, String scriptId, Instant createdAt, int score) {
+        this.id = id;
+        this.scriptId = scriptId;
+        this.createdAt = createdAt;
+        this.score = score;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getScriptId() {
+        return scriptId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getScore() {
+        return score;
+    }
+}
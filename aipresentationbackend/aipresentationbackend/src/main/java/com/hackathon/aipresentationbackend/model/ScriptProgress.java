@@ -0,0 +1,71 @@
+package com.hackathon.aipresentationbackend.model;
+
+import java.time.Instant;
+
+/**
+ * How a user's scores on one script have moved across their rehearsals of it
+ */
+public class ScriptProgress {
+    private final String scriptId;
+    private final String scriptPreview;
+    private final int attempts;
+    private final int firstScore;
+    private final int latestScore;
+    private final int bestScore;
+    private final double averageScore;
+    private final Instant lastRehearsedAt;
+
+    public ScriptProgress(String scriptId, String scriptPreview, int attempts, int firstScore, int latestScore,
+                          int bestScore, double averageScore, Instant lastRehearsedAt) {
+        this.scriptId = scriptId;
+        this.scriptPreview = scriptPreview;
+        this.attempts = attempts;
+        this.firstScore = firstScore;
+        this.latestScore = latestScore;
+        this.bestScore = bestScore;
+        this.averageScore = averageScore;
+        this.lastRehearsedAt = lastRehearsedAt;
+    }
+
+    public String getScriptId() {
+        return scriptId;
+    }
+
+    /**
+     * The start of the script, to tell scripts apart in a list
+     */
+    public String getScriptPreview() {
+        return scriptPreview;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int getFirstScore() {
+        return firstScore;
+    }
+
+    public int getLatestScore() {
+        return latestScore;
+    }
+
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    public double getAverageScore() {
+        return averageScore;
+    }
+
+    /**
+     * Latest score minus the first one
+     */
+    public int getImprovement() {
+        return latestScore - firstScore;
+    }
+
+    public Instant getLastRehearsedAt() {
+        return lastRehearsedAt;
+    }
+}
@@ -0,0 +1,46 @@
+package com.hackathon.aipresentationbackend.model;
+
+/**
+ * Feedback on the delivery of one paragraph of the script
+ */
+public class SectionAnalysis {
+    private final int index;
+    private final int score;
+    private final String positiveFeedback;
+    private final String improvementPoints;
+    private final boolean reused;
+
+    public SectionAnalysis(int index, int score, String positiveFeedback, String improvementPoints, boolean reused) {
+        this.index = index;
+        this.score = score;
+        this.positiveFeedback = positiveFeedback;
+        this.improvementPoints = improvementPoints;
+        this.reused = reused;
+    }
+
+    /**
+     * Position of the paragraph in the script, from 0
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public String getPositiveFeedback() {
+        return positiveFeedback;
+    }
+
+    public String getImprovementPoints() {
+        return improvementPoints;
+    }
+
+    /**
+     * Whether this feedback was kept from an earlier rehearsal in which the paragraph and its delivery were the same
+     */
+    public boolean isReused() {
+        return reused;
+    }
+}
@@ -0,0 +1,109 @@
+package com.hackathon.aipresentationbackend.model;
+
+import java.util.List;
+
+/**
+ * Summary of where speech and silence were found in a recording by voice-activity detection,
+ * and how much silence was removed before transcription.
+ */
+public class SpeechActivity {
+
+    private final boolean speechDetected;
+    private final long originalDurationMillis;
+    private final long processedDurationMillis;
+    private final long leadingSilenceMillis;
+    private final long trailingSilenceMillis;
+    private final List<PauseSegment> pauses;
+
+    public SpeechActivity(boolean speechDetected, long originalDurationMillis, long processedDurationMillis,
+                          long leadingSilenceMillis, long trailingSilenceMillis, List<PauseSegment> pauses) {
+        this.speechDetected = speechDetected;
+        this.originalDurationMillis = originalDurationMillis;
+        this.processedDurationMillis = processedDurationMillis;
+        this.leadingSilenceMillis = leadingSilenceMillis;
+        this.trailingSilenceMillis = trailingSilenceMillis;
+        this.pauses = List.copyOf(pauses);
+    }
+
+    // --- Getters ---
+
+    public boolean isSpeechDetected() {
+        return speechDetected;
+    }
+
+    public long getOriginalDurationMillis() {
+        return originalDurationMillis;
+    }
+
+    public long getProcessedDurationMillis() {
+        return processedDurationMillis;
+    }
+
+    public long getLeadingSilenceMillis() {
+        return leadingSilenceMillis;
+    }
+
+    public long getTrailingSilenceMillis() {
+        return trailingSilenceMillis;
+    }
+
+    public List<PauseSegment> getPauses() {
+        return pauses;
+    }
+
+    public int getPauseCount() {
+        return pauses.size();
+    }
+
+    public long getLongestPauseMillis() {
+        return pauses.stream().mapToLong(PauseSegment::getDurationMillis).max().orElse(0);
+    }
+
+    public long getTotalPauseMillis() {
+        return pauses.stream().mapToLong(PauseSegment::getDurationMillis).sum();
+    }
+
+    /**
+     * Maps a position in the trimmed audio (for example a word timestamp from the transcript)
+     * back onto the original recording's timeline
+     *
+     * @param processedMillis Position in the trimmed audio
+     * @return The matching position in the original recording
+     */
+    public long toOriginalMillis(long processedMillis) {
+        long original = processedMillis + leadingSilenceMillis;
+        for (PauseSegment pause : pauses) {
+            if (pause.getProcessedStartMillis() + pause.getKeptMillis() > processedMillis) {
+                break;
+            }
+            original += pause.getDurationMillis() - pause.getKeptMillis();
+        }
+        return original;
+    }
+
+    /**
+     * Maps transcript word timings from the trimmed audio back onto the original recording's timeline,
+     * so pacing is judged on how the speaker actually delivered it
+     *
+     * @param words Word timings from the transcript of the trimmed audio, or null
+     * @return Copies of the words with original start and end times, or null if there were none
+     */
+    public List<TranscriptionResponse.Word> toOriginalTimeline(List<TranscriptionResponse.Word> words) {
+        if (words == null) {
+            return null;
+        }
+        return words.stream().map(word -> {
+            TranscriptionResponse.Word mapped = new TranscriptionResponse.Word();
+            mapped.setText(word.getText());
+            mapped.setStart(toOriginalMillis(word.getStart()));
+            mapped.setEnd(toOriginalMillis(word.getEnd()));
+            mapped.setConfidence(word.getConfidence());
+            mapped.setSpeaker(word.getSpeaker());
+            return mapped;
+        }).toList();
+    }
+
+    private Double toOriginalMillis(Double processedMillis) {
+        return processedMillis == null ? null : (double) toOriginalMillis(processedMillis.longValue());
+    }
+}
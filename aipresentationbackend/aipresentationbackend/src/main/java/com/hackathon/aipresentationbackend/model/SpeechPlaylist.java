@@ -0,0 +1,56 @@
+package com.hackathon.aipresentationbackend.model;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Ordered playlist manifest for a script synthesized segment by segment.
+ * Playing the segments' audio in order renders the whole script.
+ */
+public class SpeechPlaylist {
+    private final String voiceId;
+    private final Double speed;
+    private final String tone;
+    private final List<SpeechSegment> segments;
+
+    public SpeechPlaylist(String voiceId, Double speed, String tone, List<SpeechSegment> segments) {
+        this.voiceId = voiceId;
+        this.speed = speed;
+        this.tone = tone;
+        this.segments = List.copyOf(segments);
+    }
+
+    public String getVoiceId() {
+        return voiceId;
+    }
+
+    public Double getSpeed() {
+        return speed;
+    }
+
+    public String getTone() {
+        return tone;
+    }
+
+    public List<SpeechSegment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * True when every segment has audio
+     */
+    public boolean isComplete() {
+        return segments.stream().allMatch(SpeechSegment::isSuccess);
+    }
+
+    /**
+     * Sum of the segments' reported durations
+     */
+    public int getTotalDuration() {
+        return segments.stream().map(SpeechSegment::getDuration).filter(Objects::nonNull).mapToInt(Integer::intValue).sum();
+    }
+
+    public long getCachedSegments() {
+        return segments.stream().filter(SpeechSegment::isCached).count();
+    }
+}
@@ -40,6 +40,9 @@ public class SpeechRequest {
     @Size(max = 50, message = "Tone must not exceed 50 characters")
     private String tone; // Optional for tone rehearsal
 
+    @Pattern(regexp = "(?i)MP3|WAV|FLAC", message = "Format must be one of: MP3, WAV, FLAC")
+    private String format; // Optional audio format; Murf's default when missing
+
     /**
      * No-argument constructor.
      * Required by your test and by frameworks like Jackson for deserialization.
@@ -64,6 +67,14 @@ public class SpeechRequest {
         this.tone = tone;
     }
 
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
     /**
      * All-arguments constructor.
      * Used by your test and for creating instances directly.
@@ -0,0 +1,64 @@
+package com.hackathon.aipresentationbackend.model;
+
+/**
+ * One synthesized piece of a segmented script: its audio, or why it could not be generated
+ */
+public class SpeechSegment {
+    private final int index;
+    private final String text;
+    private final String audioUrl;
+    private final Integer duration;
+    private final boolean cached;
+    private final String error;
+
+    private SpeechSegment(int index, String text, String audioUrl, Integer duration, boolean cached, String error) {
+        this.index = index;
+        this.text = text;
+        this.audioUrl = audioUrl;
+        this.duration = duration;
+        this.cached = cached;
+        this.error = error;
+    }
+
+    public static SpeechSegment success(int index, String text, SpeechResponse speech, boolean cached) {
+        return new SpeechSegment(index, text, speech.getAudioUrl(), speech.getDuration(), cached, null);
+    }
+
+    public static SpeechSegment failure(int index, String text, String error) {
+        return new SpeechSegment(index, text, null, null, false, error);
+    }
+
+    /**
+     * Playback position of this segment in the script
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getAudioUrl() {
+        return audioUrl;
+    }
+
+    public Integer getDuration() {
+        return duration;
+    }
+
+    /**
+     * Whether the audio was reused from an earlier synthesis of the same text
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,119 @@
+package com.hackathon.aipresentationbackend.model;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Request model for rehearsing one sentence in several tones, and optionally several voices, at once
+ */
+public class ToneBatchRequest {
+
+    /**
+     * Upper bound on tone and voice combinations in one batch
+     */
+    public static final int MAX_VARIATIONS = 16;
+
+    @NotBlank(message = "Sentence is required")
+    @Size(max = 1000, message = "Sentence must not exceed 1000 characters")
+    private String sentence;
+
+    @NotBlank(message = "Voice ID is required")
+    private String voiceId;
+
+    // Empty or missing means every supported tone
+    private List<String> tones;
+
+    // Additional voices to render each tone in, besides voiceId
+    private List<String> voiceIds;
+
+    public ToneBatchRequest() {
+    }
+
+    public ToneBatchRequest(String sentence, String voiceId, List<String> tones) {
+        this.sentence = sentence;
+        this.voiceId = voiceId;
+        this.tones = tones;
+    }
+
+    public String getSentence() {
+        return sentence;
+    }
+
+    public void setSentence(String sentence) {
+        this.sentence = sentence;
+    }
+
+    public String getVoiceId() {
+        return voiceId;
+    }
+
+    public void setVoiceId(String voiceId) {
+        this.voiceId = voiceId;
+    }
+
+    public List<String> getTones() {
+        return tones;
+    }
+
+    public void setTones(List<String> tones) {
+        this.tones = tones;
+    }
+
+    public List<String> getVoiceIds() {
+        return voiceIds;
+    }
+
+    public void setVoiceIds(List<String> voiceIds) {
+        this.voiceIds = voiceIds;
+    }
+
+    /**
+     * Expands the batch into one rehearsal request per distinct voice and tone, voice by voice,
+     * in the order they were requested
+     */
+    public List<ToneRehearsalRequest> toRehearsalRequests() {
+        List<ToneRehearsalRequest> requests = new ArrayList<>();
+        for (String voice : distinctVoices()) {
+            for (ToneType tone : distinctTones()) {
+                requests.add(new ToneRehearsalRequest(sentence, voice, tone.getValue()));
+            }
+        }
+        return requests;
+    }
+
+    @AssertTrue(message = "Tones must be any of: confident, conversational, urgent, empathetic")
+    public boolean isTonesValid() {
+        return tones == null || tones.stream().allMatch(ToneType::isValidTone);
+    }
+
+    @AssertTrue(message = "A batch can hold at most " + MAX_VARIATIONS + " tone and voice combinations")
+    public boolean isBatchSizeValid() {
+        return !isTonesValid() || distinctVoices().size() * distinctTones().size() <= MAX_VARIATIONS;
+    }
+
+    private Set<String> distinctVoices() {
+        Set<String> voices = new LinkedHashSet<>();
+        if (voiceId != null && !voiceId.isBlank()) {
+            voices.add(voiceId);
+        }
+        if (voiceIds != null) {
+            voiceIds.stream().filter(id -> id != null && !id.isBlank()).forEach(voices::add);
+        }
+        return voices;
+    }
+
+    private Set<ToneType> distinctTones() {
+        if (tones == null || tones.isEmpty()) {
+            return new LinkedHashSet<>(List.of(ToneType.values()));
+        }
+        Set<ToneType> distinct = new LinkedHashSet<>();
+        tones.forEach(tone -> distinct.add(ToneType.fromValue(tone)));
+        return distinct;
+    }
+}
@@ -0,0 +1,28 @@
+package com.hackathon.aipresentationbackend.model;
+
+import java.util.List;
+
+/**
+ * Response model for a batch rehearsal, with results in request order
+ */
+public class ToneBatchResponse {
+    private final String sentence;
+    private final List<ToneVariationResult> variations;
+
+    public ToneBatchResponse(String sentence, List<ToneVariationResult> variations) {
+        this.sentence = sentence;
+        this.variations = List.copyOf(variations);
+    }
+
+    public String getSentence() {
+        return sentence;
+    }
+
+    public List<ToneVariationResult> getVariations() {
+        return variations;
+    }
+
+    public long getSucceeded() {
+        return variations.stream().filter(ToneVariationResult::isSuccess).count();
+    }
+}
@@ -0,0 +1,55 @@
+package com.hackathon.aipresentationbackend.model;
+
+/**
+ * Outcome of one tone and voice combination in a batch rehearsal: the generated speech, or why it failed
+ */
+public class ToneVariationResult {
+    private final int index;
+    private final String tone;
+    private final String voiceId;
+    private final SpeechResponse speech;
+    private final String error;
+
+    private ToneVariationResult(int index, String tone, String voiceId, SpeechResponse speech, String error) {
+        this.index = index;
+        this.tone = tone;
+        this.voiceId = voiceId;
+        this.speech = speech;
+        this.error = error;
+    }
+
+    public static ToneVariationResult success(int index, ToneRehearsalRequest request, SpeechResponse speech) {
+        return new ToneVariationResult(index, request.getTone(), request.getVoiceId(), speech, null);
+    }
+
+    public static ToneVariationResult failure(int index, ToneRehearsalRequest request, String error) {
+        return new ToneVariationResult(index, request.getTone(), request.getVoiceId(), null, error);
+    }
+
+    /**
+     * Position of this combination in the batch, so streamed results can be matched to the request
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getTone() {
+        return tone;
+    }
+
+    public String getVoiceId() {
+        return voiceId;
+    }
+
+    public SpeechResponse getSpeech() {
+        return speech;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
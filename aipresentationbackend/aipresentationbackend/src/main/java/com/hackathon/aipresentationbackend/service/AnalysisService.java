@@ -153,15 +153,26 @@
 //}
 package com.hackathon.aipresentationbackend.service;
 
+import com.hackathon.aipresentationbackend.exception.AudioProcessingException;
 import com.hackathon.aipresentationbackend.model.AnalysisResponse;
+import com.hackathon.aipresentationbackend.model.SpeechActivity;
 import com.hackathon.aipresentationbackend.model.SpeechRequest;
 import com.hackathon.aipresentationbackend.model.SpeechResponse;
+import com.hackathon.aipresentationbackend.model.TranscriptionResponse;
+import com.hackathon.aipresentationbackend.model.VoiceRecommendation;
+import com.hackathon.aipresentationbackend.service.audio.PreparedAudio;
+import com.hackathon.aipresentationbackend.service.audio.StoredAudio;
+import com.hackathon.aipresentationbackend.service.history.RehearsalHistoryService;
+import com.hackathon.aipresentationbackend.service.sections.SectionAnalysisService;
+import io.micrometer.core.instrument.LongTaskTimer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 
 @Service
 public class AnalysisService {
@@ -171,11 +182,26 @@ public class AnalysisService {
     private final GeminiService geminiService;
     private final MurfService murfService;
     private final AssemblyAIService assemblyAIService;
+    private final AudioProcessingService audioProcessingService;
+    private final PipelineMetrics pipelineMetrics;
+    private final RehearsalHistoryService rehearsalHistory;
+    private final SectionAnalysisService sectionAnalysis;
+    private final SpeechStreamingService speechStreamingService;
+    private final VoiceAnalysisService voiceAnalysisService;
 
-    public AnalysisService(GeminiService geminiService, MurfService murfService, AssemblyAIService assemblyAIService) {
+    public AnalysisService(GeminiService geminiService, MurfService murfService, AssemblyAIService assemblyAIService,
+                           AudioProcessingService audioProcessingService, PipelineMetrics pipelineMetrics,
+                           RehearsalHistoryService rehearsalHistory, SectionAnalysisService sectionAnalysis,
+                           SpeechStreamingService speechStreamingService, VoiceAnalysisService voiceAnalysisService) {
         this.geminiService = geminiService;
         this.murfService = murfService;
         this.assemblyAIService = assemblyAIService;
+        this.audioProcessingService = audioProcessingService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.rehearsalHistory = rehearsalHistory;
+        this.sectionAnalysis = sectionAnalysis;
+        this.speechStreamingService = speechStreamingService;
+        this.voiceAnalysisService = voiceAnalysisService;
     }
 
     /**
@@ -183,6 +209,7 @@ public class AnalysisService {
      * 1. Transcribes the audio file to get the spoken text.
      * 2. Sends the transcript and original script to Gemini for analysis.
      * 3. Generates audio feedback from the improvement points provided by Gemini.
+     * 4. Stores the result in the user's rehearsal history.
      *
      * @param audioFile The audio file recorded by the user.
      * @param originalScript The original script the user was practicing.
@@ -191,36 +218,187 @@ public class AnalysisService {
      * @throws InterruptedException if the transcription polling is interrupted.
      */
     public AnalysisResponse transcribeAndAnalyze(MultipartFile audioFile, String originalScript) throws IOException, InterruptedException {
+        return transcribeAndAnalyze(audioFile, originalScript, RehearsalHistoryService.ANONYMOUS);
+    }
+
+    /**
+     * Same as above, recording the rehearsal in the given user's history.
+     */
+    public AnalysisResponse transcribeAndAnalyze(MultipartFile audioFile, String originalScript, String userId) throws IOException, InterruptedException {
+        LongTaskTimer.Sample rehearsal = pipelineMetrics.startRehearsal();
+        try {
+            return runRehearsal(audioFile, originalScript, userId);
+        } finally {
+            rehearsal.stop();
+        }
+    }
+
+    private AnalysisResponse runRehearsal(MultipartFile audioFile, String originalScript, String userId) throws IOException, InterruptedException {
         log.info("Starting full transcription and analysis process...");
 
-        // Step 1: Transcribe the audio to get the spoken text
-        String spokenTranscript = assemblyAIService.transcribeAudio(audioFile);
+        // Step 1: Trim silence from the recording, then transcribe it to get the spoken text
+        SpeechActivity speechActivity = null;
+        TranscriptionResponse transcript;
+        StoredAudio storedUpload = pipelineMetrics.time("store", () -> storeUpload(audioFile));
+        if (storedUpload == null) {
+            transcript = assemblyAIService.transcribe(audioFile);
+        } else {
+            // The upload and the prepared file are both deleted when this request's stores close
+            try (storedUpload) {
+                PreparedAudio preparedAudio = pipelineMetrics.time("prepare", () -> prepareForTranscription(storedUpload));
+                if (preparedAudio == null) {
+                    transcript = assemblyAIService.transcribe(storedUpload);
+                } else {
+                    speechActivity = preparedAudio.getSpeechActivity();
+                    try (StoredAudio storedPrepared = audioProcessingService.openPrepared(preparedAudio)) {
+                        transcript = assemblyAIService.transcribe(storedPrepared);
+                    }
+                }
+            }
+        }
 
         // Step 2: Send both scripts to Gemini for analysis
-        AnalysisResponse analysisFromGemini = geminiService.analyzePresentation(originalScript, spokenTranscript);
+        AnalysisResponse analysisFromGemini = analyzeDelivery(originalScript, transcript.getText());
+
+        // Steps 3 and 4
+        return completeRehearsal(originalScript, analysisFromGemini, transcript, speechActivity, userId);
+    }
+
+    /**
+     * Trims silence from a stored recording and uploads it for transcription, without waiting for the transcript.
+     * Used by queued jobs, which checkpoint the upload before submitting it.
+     *
+     * @param storedUpload The recording; it is not closed
+     * @return Where AssemblyAI keeps the audio, and the speech activity if the recording could be prepared
+     */
+    public UploadedRecording uploadRecording(StoredAudio storedUpload) {
+        PreparedAudio preparedAudio = pipelineMetrics.time("prepare", () -> prepareForTranscription(storedUpload));
+        if (preparedAudio == null) {
+            return new UploadedRecording(assemblyAIService.upload(storedUpload), null);
+        }
+        try (StoredAudio storedPrepared = audioProcessingService.openPrepared(preparedAudio)) {
+            return new UploadedRecording(assemblyAIService.upload(storedPrepared), preparedAudio.getSpeechActivity());
+        }
+    }
+
+    /**
+     * Analyzes the delivery, unless this exact delivery was analyzed before.
+     * Scripts with several paragraphs are analyzed paragraph by paragraph, so only edited ones are sent again.
+     */
+    public AnalysisResponse analyzeDelivery(String originalScript, String spokenTranscript) {
+        return rehearsalHistory.findAnalysis(originalScript, spokenTranscript)
+                .orElseGet(() -> sectionAnalysis.appliesTo(originalScript)
+                        ? sectionAnalysis.analyze(originalScript, spokenTranscript)
+                        : geminiService.analyzePresentation(originalScript, spokenTranscript));
+    }
+
+    /**
+     * Generates the ideal delivery for an analyzed rehearsal, recommends a voice for it, and stores the result in
+     * the user's history
+     *
+     * @return The response for the client
+     */
+    public AnalysisResponse completeRehearsal(String originalScript, AnalysisResponse analysisFromGemini,
+                                              TranscriptionResponse transcript, SpeechActivity speechActivity, String userId) {
+        String spokenTranscript = transcript.getText();
 
         // --- THIS IS THE UPDATED LOGIC ---
         // Step 3: Generate an IDEAL audio delivery of the ORIGINAL script.
+        String audioUrl = null;
         try {
             log.info("Generating ideal audio delivery for the original script.");
 
             // CORRECTED: The voice is now set to Marcus
             SpeechRequest speechRequest = new SpeechRequest(originalScript, "en-US-marcus", 1.0, "conversational");
-            SpeechResponse speechResponse = murfService.generateSpeech(speechRequest);
-
-            // Create a new, final response that includes the Gemini analysis AND the new audio URL.
-            return new AnalysisResponse.Builder()
-                    .score(analysisFromGemini.getScore())
-                    .positiveFeedback(analysisFromGemini.getPositiveFeedback())
-                    .improvementPoints(analysisFromGemini.getImprovementPoints())
-                    .spokenTranscript(spokenTranscript) // It's good practice to return the transcript too
-                    .audioUrl(speechResponse.getAudioUrl())
-                    .build();
-
+            if (sectionAnalysis.isEnabled()) {
+                // Built from cached segments, so unchanged paragraphs are not synthesized again.
+                // It is stitched together in the background; the client's request for it waits until it is ready.
+                audioUrl = speechStreamingService.storeAudioInBackground(speechRequest);
+            } else {
+                SpeechResponse speechResponse = murfService.generateSpeech(speechRequest);
+                audioUrl = speechResponse.getAudioUrl();
+            }
         } catch (Exception e) {
             log.error("Failed to generate ideal audio delivery, returning analysis without it. Error: {}", e.getMessage());
             // If audio generation fails, we still return the valuable text feedback from Gemini.
-            return analysisFromGemini;
+        }
+
+        // Create a new, final response that includes the Gemini analysis AND the new audio URL.
+        AnalysisResponse.Builder response = new AnalysisResponse.Builder()
+                .score(analysisFromGemini.getScore())
+                .positiveFeedback(analysisFromGemini.getPositiveFeedback())
+                .improvementPoints(analysisFromGemini.getImprovementPoints())
+                .spokenTranscript(spokenTranscript) // It's good practice to return the transcript too
+                .audioUrl(audioUrl)
+                .speechActivity(speechActivity)
+                .sections(analysisFromGemini.getSections())
+                .voiceRecommendation(recommendVoice(spokenTranscript, transcript.getWords(), speechActivity));
+
+        // Step 4: Keep the result so the user can compare it with later attempts
+        AnalysisResponse analysis = response.build();
+        Long rehearsalId = pipelineMetrics.time("history",
+                () -> rehearsalHistory.record(userId, originalScript, analysis, transcript.getWords()));
+        return response
+                .rehearsalId(rehearsalId)
+                .scriptId(RehearsalHistoryService.scriptId(originalScript))
+                .build();
+    }
+
+    /**
+     * Recommends a voice for the ideal delivery from what the user said and how they paced it.
+     * The transcript's word timings are on the trimmed audio, so they are moved back onto the original
+     * recording first; otherwise the pauses the user actually took would be missing from the pacing.
+     */
+    private VoiceRecommendation recommendVoice(String spokenTranscript, List<TranscriptionResponse.Word> words,
+                                               SpeechActivity speechActivity) {
+        List<TranscriptionResponse.Word> timings = speechActivity == null ? words : speechActivity.toOriginalTimeline(words);
+        return voiceAnalysisService.analyzeAndRecommendVoice(spokenTranscript, null, timings);
+    }
+
+    /**
+     * @param uploadUrl      Where AssemblyAI keeps the uploaded audio
+     * @param speechActivity Silence found in the recording, or null if it was uploaded as-is
+     */
+    public record UploadedRecording(String uploadUrl, SpeechActivity speechActivity) {
+    }
+
+    /**
+     * Writes the recording to disk once so every stage of this request can share it.
+     * Returns null when the upload fails validation; it is then sent to transcription as-is.
+     * A full temp volume is not a validation failure, so that rejection is passed on to the client.
+     */
+    private StoredAudio storeUpload(MultipartFile audioFile) {
+        try {
+            return audioProcessingService.storeUpload(audioFile);
+        } catch (AudioProcessingException e) {
+            if (e.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE) {
+                throw e;
+            }
+            log.warn("Could not store {}, uploading the original recording: {}",
+                    audioFile.getOriginalFilename(), e.getReason());
+            return null;
+        }
+    }
+
+    /**
+     * Converts the recording and trims its silence before upload.
+     * Returns null when the recording should be uploaded as-is: the format cannot be decoded
+     * here, or no speech was detected and trimming would leave nothing to transcribe.
+     */
+    private PreparedAudio prepareForTranscription(StoredAudio storedUpload) {
+        try {
+            PreparedAudio preparedAudio = audioProcessingService.prepareForTranscription(storedUpload);
+            SpeechActivity activity = preparedAudio.getSpeechActivity();
+            if (activity != null && !activity.isSpeechDetected()) {
+                log.warn("No speech detected in {}, uploading the original recording", storedUpload.getOriginalFilename());
+                audioProcessingService.discardPrepared(preparedAudio);
+                return null;
+            }
+            return preparedAudio;
+        } catch (AudioProcessingException e) {
+            log.warn("Could not prepare {} for transcription, uploading the original recording: {}",
+                    storedUpload.getOriginalFilename(), e.getReason());
+            return null;
         }
     }
 
@@ -152,9 +152,11 @@ import com.hackathon.aipresentationbackend.exception.AssemblyAIException;
 import com.hackathon.aipresentationbackend.model.AudioUploadResponse;
 import com.hackathon.aipresentationbackend.model.TranscriptionRequest;
 import com.hackathon.aipresentationbackend.model.TranscriptionResponse;
+import com.hackathon.aipresentationbackend.service.audio.StoredAudio;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -169,6 +171,8 @@ import java.io.IOException;
 import java.time.Duration;
 import java.util.Base64;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class AssemblyAIService {
@@ -182,20 +186,49 @@ public class AssemblyAIService {
     private static final Duration PROCESS_TIMEOUT = Duration.ofMinutes(5);
 
     private final WebClient webClient;
+    private final PipelineMetrics pipelineMetrics;
 
     @Value("${assemblyai.api.key}")
     private String assemblyApiKey;
 
-    public AssemblyAIService(WebClient webClient) {
+    @Value("${assemblyai.api.base-url:" + ASSEMBLY_AI_BASE_URL + "}")
+    private String assemblyAiBaseUrl = ASSEMBLY_AI_BASE_URL;
+
+    public AssemblyAIService(WebClient webClient, PipelineMetrics pipelineMetrics) {
         this.webClient = webClient;
+        this.pipelineMetrics = pipelineMetrics;
     }
 
     /**
      * Public method to handle MultipartFile uploads.
      */
     public String transcribeAudio(MultipartFile audioFile) throws IOException {
+        return transcribe(audioFile).getText();
+    }
+
+    /**
+     * Same as transcribeAudio, but returns the whole transcript including word timings.
+     */
+    public TranscriptionResponse transcribe(MultipartFile audioFile) throws IOException {
         log.info("Starting transcription process for file: {}", audioFile.getOriginalFilename());
-        return executeTranscription(audioFile.getBytes());
+        return executeTranscription(uploadAudio(audioFile.getBytes()));
+    }
+
+    /**
+     * Public method to handle audio held in a memory-mapped store.
+     * The mapping is streamed to the upload request as is, without copying it onto the heap.
+     */
+    public String transcribeAudio(StoredAudio storedAudio) {
+        return transcribe(storedAudio).getText();
+    }
+
+    /**
+     * Same as transcribeAudio, but returns the whole transcript including word timings.
+     */
+    public TranscriptionResponse transcribe(StoredAudio storedAudio) {
+        log.info("Starting transcription process for stored audio: {} ({} bytes)",
+                storedAudio.getOriginalFilename(), storedAudio.size());
+        return executeTranscription(uploadAudio(storedAudio));
     }
 
     /**
@@ -204,30 +237,76 @@ public class AssemblyAIService {
     public String transcribeAudio(String base64Audio) {
         log.info("Starting transcription process for Base64 audio string.");
         byte[] audioData = Base64.getDecoder().decode(base64Audio);
-        return executeTranscription(audioData);
+        return executeTranscription(uploadAudio(audioData)).getText();
+    }
+
+    /**
+     * Uploads the audio on its own, for callers that checkpoint each step of a transcription
+     *
+     * @return The URL AssemblyAI keeps the audio under, to {@link #submit}
+     */
+    public String upload(StoredAudio storedAudio) {
+        log.info("Uploading stored audio: {} ({} bytes)", storedAudio.getOriginalFilename(), storedAudio.size());
+        return await(pipelineMetrics.time("upload", uploadAudio(storedAudio)), "Audio upload failed");
+    }
+
+    /**
+     * Starts transcribing audio that was uploaded before
+     *
+     * @return The transcript's id, to {@link #awaitTranscript}
+     */
+    public String submit(String uploadUrl) {
+        return await(submitTranscriptionRequest(uploadUrl), "Transcription request failed").getId();
+    }
+
+    /**
+     * Waits for a submitted transcript to finish. It may have been submitted by another process,
+     * so a restarted server picks up where it left off instead of uploading the audio again.
+     *
+     * @return The finished transcript, which has failed if AssemblyAI could not transcribe the audio
+     */
+    public TranscriptionResponse awaitTranscript(String transcriptId) {
+        return await(pipelineMetrics.time("transcription", pollUntilComplete(transcriptId)), "Transcription failed");
+    }
+
+    /**
+     * Blocks for one step of a transcription, reporting any failure as an AssemblyAIException
+     */
+    private <T> T await(Mono<T> step, String failure) {
+        try {
+            T result = step.block(PROCESS_TIMEOUT);
+            if (result == null) {
+                throw new AssemblyAIException(failure + ": no response", HttpStatus.BAD_GATEWAY);
+            }
+            return result;
+        } catch (AssemblyAIException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new AssemblyAIException(failure + ": " + e.getMessage(), HttpStatus.BAD_GATEWAY, e);
+        }
     }
 
     /**
      * Private helper method containing the core transcription logic.
-     * This is called by both public transcribeAudio methods.
+     * This is called by all public transcription methods.
      */
-    private String executeTranscription(byte[] audioData) {
+    private TranscriptionResponse executeTranscription(Mono<String> upload) {
         try {
-            String transcriptionText = uploadAudio(audioData)
+            TranscriptionResponse transcript = pipelineMetrics.time("upload", upload)
                     .flatMap(this::submitTranscriptionRequest)
-                    .flatMap(this::pollUntilComplete)
+                    .flatMap(submitted -> pipelineMetrics.time("transcription", pollUntilComplete(submitted)))
                     .map(finalResponse -> {
                         if (finalResponse.hasFailed()) {
                             throw new AssemblyAIException("Transcription failed: " + finalResponse.getError(), HttpStatus.INTERNAL_SERVER_ERROR);
                         }
-                        return finalResponse.getText();
+                        return finalResponse;
                     })
                     .block(PROCESS_TIMEOUT);
 
-            if (transcriptionText == null) {
+            if (transcript == null || transcript.getText() == null) {
                 throw new AssemblyAIException("Transcription process timed out or returned no text.", HttpStatus.REQUEST_TIMEOUT);
             }
-            return transcriptionText;
+            return transcript;
 
         } catch (Exception e) {
             log.error("An unexpected error occurred during transcription", e);
@@ -240,7 +319,7 @@ public class AssemblyAIService {
 
     private Mono<String> uploadAudio(byte[] audioData) {
         return webClient.post()
-                .uri(ASSEMBLY_AI_BASE_URL + UPLOAD_ENDPOINT)
+                .uri(assemblyAiBaseUrl + UPLOAD_ENDPOINT)
                 .header(HttpHeaders.AUTHORIZATION, assemblyApiKey)
                 .bodyValue(audioData)
                 .retrieve()
@@ -248,6 +327,18 @@ public class AssemblyAIService {
                 .map(AudioUploadResponse::getUploadUrl);
     }
 
+    private Mono<String> uploadAudio(StoredAudio storedAudio) {
+        // Each subscription wraps a fresh view, since writing the body consumes the buffer's position
+        return Mono.defer(() -> webClient.post()
+                .uri(assemblyAiBaseUrl + UPLOAD_ENDPOINT)
+                .header(HttpHeaders.AUTHORIZATION, assemblyApiKey)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .bodyValue(DefaultDataBufferFactory.sharedInstance.wrap(storedAudio.asByteBuffer()))
+                .retrieve()
+                .bodyToMono(AudioUploadResponse.class)
+                .map(AudioUploadResponse::getUploadUrl));
+    }
+
     private Mono<TranscriptionResponse> submitTranscriptionRequest(String audioUrl) {
         // Configure transcription to capture filler words and improve speech analysis
         TranscriptionRequest request = new TranscriptionRequest.Builder()
@@ -261,7 +352,7 @@ public class AssemblyAIService {
                 
         log.info("Submitting transcription request with filler word detection enabled");
         return webClient.post()
-                .uri(ASSEMBLY_AI_BASE_URL + TRANSCRIPT_ENDPOINT)
+                .uri(assemblyAiBaseUrl + TRANSCRIPT_ENDPOINT)
                 .header(HttpHeaders.AUTHORIZATION, assemblyApiKey)
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(request)
@@ -274,27 +365,45 @@ public class AssemblyAIService {
         if (isTerminalStatus(initialResponse)) {
             return Mono.just(initialResponse);
         }
+        return pollUntilComplete(initialResponse.getId());
+    }
 
-        return getTranscription(initialResponse.getId())
-                .expand(response -> {
-                    if (isTerminalStatus(response)) {
-                        log.info("Polling complete. Final status: {}", response.getStatus());
-                        return Mono.empty();
-                    }
-                    return Mono.delay(POLLING_INTERVAL).flatMap(d -> getTranscription(response.getId()));
-                })
-                .filter(this::isTerminalStatus)
-                .next();
+    private Mono<TranscriptionResponse> pollUntilComplete(String transcriptionId) {
+        // Queue time is measured from submission until AssemblyAI first reports the job as started
+        return Mono.defer(() -> {
+            long submittedAt = System.nanoTime();
+            AtomicInteger polls = new AtomicInteger();
+            AtomicBoolean queued = new AtomicBoolean(true);
+            return getTranscription(transcriptionId)
+                    .expand(response -> {
+                        if (isTerminalStatus(response)) {
+                            log.info("Polling complete. Final status: {}", response.getStatus());
+                            return Mono.empty();
+                        }
+                        return Mono.delay(POLLING_INTERVAL).flatMap(d -> getTranscription(response.getId()));
+                    })
+                    .doOnNext(response -> {
+                        polls.incrementAndGet();
+                        if (!"queued".equalsIgnoreCase(response.getStatus()) && queued.compareAndSet(true, false)) {
+                            pipelineMetrics.record("transcription.queue", Duration.ofNanos(System.nanoTime() - submittedAt));
+                        }
+                    })
+                    .filter(this::isTerminalStatus)
+                    .next()
+                    .doOnSuccess(response -> pipelineMetrics.recordTranscriptionPolls(polls.get()));
+        });
     }
 
     private Mono<TranscriptionResponse> getTranscription(String transcriptionId) {
         return webClient.get()
-                .uri(ASSEMBLY_AI_BASE_URL + TRANSCRIPT_ENDPOINT + "/" + transcriptionId)
+                .uri(assemblyAiBaseUrl + TRANSCRIPT_ENDPOINT + "/" + transcriptionId)
                 .header(HttpHeaders.AUTHORIZATION, assemblyApiKey)
                 .retrieve()
                 .bodyToMono(TranscriptionResponse.class)
                 .doOnNext(res -> log.debug("Polling status for {}: {}", transcriptionId, res.getStatus()))
-                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1)).filter(this::isRetryableException));
+                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
+                        .filter(this::isRetryableException)
+                        .doBeforeRetry(signal -> pipelineMetrics.recordRetry("assemblyai")));
     }
 
     private boolean isTerminalStatus(TranscriptionResponse response) {
@@ -0,0 +1,487 @@
+package com.hackathon.aipresentationbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps local copies of generated speech so clients replay it from this server instead of Murf's CDN.
+ * Each Murf audio URL is downloaded once in the background when it is registered, and clients are
+ * given a local URL for it straight away; a request that arrives before the download finishes waits
+ * for it. Files are immutable and named by a hash of their source URL, which doubles as their ETag,
+ * and each downloaded file's source URL is kept in a sidecar file next to it, so it survives a restart.
+ * The directory is kept under its size limit by deleting the least recently served files that are
+ * not being served right now. An evicted file's sidecar stays, since its local URL lives on in cached
+ * segments, rehearsal history and clients, so the URL can still be redirected and the file downloaded again.
+ */
+@Service
+public class AudioBlobStore {
+    private static final Logger log = LoggerFactory.getLogger(AudioBlobStore.class);
+    public static final String PATH_PREFIX = "/api/v1/audio/";
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{32}\\.(mp3|wav|flac|bin)");
+    private static final Duration DOWNLOAD_TIMEOUT = Duration.ofSeconds(60);
+    private static final String SOURCE_SUFFIX = ".source";
+    private static final int MAX_CACHED_SOURCES = 1024;
+    // A file acquired for serving is released when its response is written; this bounds the wait when it never is
+    private static final Duration SERVE_TIMEOUT = Duration.ofMinutes(10);
+    // Sidecars of evicted files older than this are removed on start
+    private static final Duration SOURCE_RETENTION = Duration.ofDays(30);
+
+    private final WebClient webClient;
+    private final File directory;
+    private final long maxBytes;
+    private final String publicBaseUrl;
+
+    // Blob name -> size, least recently served first
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Path>> downloads = new ConcurrentHashMap<>();
+    // Blob name -> source URL, for pending and failed downloads and recently used files; the sidecar files hold the rest
+    private final LinkedHashMap<String, String> sources = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_CACHED_SOURCES;
+        }
+    };
+    // Blob name -> files being served and when the last of them was acquired
+    private final Map<String, Serving> serving = new HashMap<>();
+    private long totalBytes;
+
+    @Autowired
+    public AudioBlobStore(WebClient webClient,
+                          @Value("${audio.blobs.directory:${java.io.tmpdir}/presentation-coach-audio}") String directory,
+                          @Value("${audio.blobs.max-size:1GB}") DataSize maxSize,
+                          @Value("${audio.blobs.public-base-url:}") String publicBaseUrl) {
+        this.webClient = webClient;
+        this.directory = new File(directory);
+        this.maxBytes = maxSize.toBytes();
+        this.publicBaseUrl = publicBaseUrl.endsWith("/") ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1) : publicBaseUrl;
+        loadExisting();
+    }
+
+    /**
+     * Starts downloading the remote audio file in the background, if it isn't stored already
+     *
+     * @param remoteUrl Murf's URL for the file
+     * @return The URL this server serves the file from
+     */
+    public String register(String remoteUrl) {
+        String name = blobName(remoteUrl);
+        synchronized (this) {
+            sources.putIfAbsent(name, remoteUrl);
+        }
+        if (!contains(name)) {
+            CompletableFuture<Path> created = new CompletableFuture<>();
+            if (downloads.putIfAbsent(name, created) == null) {
+                try {
+                    download(name, remoteUrl, created);
+                } catch (RuntimeException e) {
+                    downloads.remove(name, created);
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        return publicBaseUrl + PATH_PREFIX + name;
+    }
+
+    /**
+     * Stores audio produced on this server, such as speech stitched together from segments.
+     * Nothing is written when a file for the key is already stored, since a key always names the same content.
+     * A writer that fails leaves nothing behind.
+     *
+     * @param key       Identifies the content, e.g. the text and voice it was synthesized from
+     * @param extension File extension of the content: mp3, wav or flac
+     * @return The URL this server serves the file from
+     */
+    public String store(String key, String extension, BlobWriter writer) throws IOException {
+        String name = generatedName(key, extension);
+        if (!contains(name)) {
+            write(name, writer);
+        }
+        return publicBaseUrl + PATH_PREFIX + name;
+    }
+
+    /**
+     * Like {@link #store}, but returns the URL straight away and writes the file on the executor.
+     * A request for the file while it is being written waits for it, as for a download.
+     *
+     * @param writers Ways to produce the content, tried in order until one succeeds; if all fail the URL is not found
+     * @return The URL this server serves the file from
+     */
+    public String storeInBackground(String key, String extension, Executor executor, BlobWriter... writers) {
+        String name = generatedName(key, extension);
+        if (!contains(name)) {
+            CompletableFuture<Path> created = new CompletableFuture<>();
+            if (downloads.putIfAbsent(name, created) == null) {
+                try {
+                    executor.execute(() -> writeFirst(name, writers, created));
+                } catch (RuntimeException e) {
+                    downloads.remove(name, created);
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        return publicBaseUrl + PATH_PREFIX + name;
+    }
+
+    /**
+     * Finds a stored file, waiting for it if its download is still running
+     *
+     * @param name Blob name, as in the last path segment of the local URL
+     * @return The file, or empty if it is unknown, evicted, or its download failed
+     */
+    public Optional<AudioBlob> find(String name) {
+        if (name == null || !BLOB_NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        CompletableFuture<Path> pending = downloads.get(name);
+        if (pending != null) {
+            try {
+                pending.get(DOWNLOAD_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            } catch (ExecutionException | TimeoutException e) {
+                return Optional.empty();
+            }
+        }
+        Path path = directory.toPath().resolve(name);
+        synchronized (this) {
+            // A lookup marks the file as recently used
+            if (index.get(name) == null || !Files.exists(path)) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new AudioBlob(name, path, path.toFile().length(),
+                MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM)));
+    }
+
+    /**
+     * Like {@link #find}, but the file is not evicted until it is released, so it can still be read after this returns
+     *
+     * @return The file, which the caller must pass to {@link #release} once it has been served
+     */
+    public Optional<AudioBlob> acquire(String name) {
+        Optional<AudioBlob> blob = find(name);
+        synchronized (this) {
+            if (blob.isEmpty() || !index.containsKey(name)) {
+                return Optional.empty();
+            }
+            Serving current = serving.get(name);
+            serving.put(name, new Serving(current == null ? 1 : current.count() + 1, System.nanoTime()));
+        }
+        return blob;
+    }
+
+    /**
+     * Lets a file returned by {@link #acquire} be evicted again
+     */
+    public synchronized void release(AudioBlob blob) {
+        Serving current = serving.get(blob.name());
+        if (current == null) {
+            return;
+        }
+        if (current.count() <= 1) {
+            serving.remove(blob.name());
+        } else {
+            serving.put(blob.name(), new Serving(current.count() - 1, current.acquiredNanos()));
+        }
+    }
+
+    /**
+     * Resolves a URL returned by {@link #register}, for callers that read the audio on this server
+     */
+    public Optional<AudioBlob> findByUrl(String url) {
+        if (url == null || !url.startsWith(publicBaseUrl + PATH_PREFIX)) {
+            return Optional.empty();
+        }
+        return find(url.substring(publicBaseUrl.length() + PATH_PREFIX.length()));
+    }
+
+    /**
+     * Murf's URL for a registered file, for redirecting when the local copy is unavailable
+     */
+    public Optional<String> findSource(String name) {
+        if (name == null || !BLOB_NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            String cached = sources.get(name);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        Path sidecar = directory.toPath().resolve(name + SOURCE_SUFFIX);
+        try {
+            String source = Files.readString(sidecar, StandardCharsets.UTF_8);
+            synchronized (this) {
+                sources.put(name, source);
+            }
+            return Optional.of(source);
+        } catch (IOException e) {
+            // Stored by this server, never registered, or its sidecar has expired
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Murf's URL for a registered file that is no longer stored, starting a new download of it
+     * so later requests are served locally again
+     *
+     * @return The URL to redirect to meanwhile, or empty if the file's source is unknown
+     */
+    public Optional<String> restore(String name) {
+        Optional<String> source = findSource(name);
+        source.ifPresent(remoteUrl -> {
+            try {
+                register(remoteUrl);
+            } catch (RuntimeException e) {
+                log.warn("Could not download audio {} again: {}", name, e.getMessage());
+            }
+        });
+        return source;
+    }
+
+    /**
+     * Murf's URL for a URL returned by {@link #register}, so another server can keep its own copy of the file.
+     * URLs that are not served by this server are returned as they are; audio stored here by {@link #store} has no source.
+     */
+    public Optional<String> findSourceByUrl(String url) {
+        if (url == null || !url.startsWith(publicBaseUrl + PATH_PREFIX)) {
+            return Optional.ofNullable(url);
+        }
+        return findSource(url.substring(publicBaseUrl.length() + PATH_PREFIX.length()));
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getBlobCount() {
+        return index.size();
+    }
+
+    private synchronized boolean contains(String name) {
+        return index.containsKey(name);
+    }
+
+    private void writeFirst(String name, BlobWriter[] writers, CompletableFuture<Path> result) {
+        Exception failure = null;
+        for (BlobWriter writer : writers) {
+            try {
+                Path path = write(name, writer);
+                downloads.remove(name, result);
+                result.complete(path);
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to store audio {}: {}", name, e.getMessage());
+                failure = e;
+            }
+        }
+        downloads.remove(name, result);
+        result.completeExceptionally(failure != null ? failure : new IllegalArgumentException("No writer for audio " + name));
+    }
+
+    private Path write(String name, BlobWriter writer) throws IOException {
+        directory.mkdirs();
+        // Concurrent writers of the same key each use their own partial file; the content is the same whichever moves last
+        Path partial = Files.createTempFile(directory.toPath(), name + ".", ".part");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                writer.write(out);
+            }
+            Path target = directory.toPath().resolve(name);
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            added(name, Files.size(target));
+            return target;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private void download(String name, String remoteUrl, CompletableFuture<Path> result) {
+        Path target = directory.toPath().resolve(name);
+        Path partial = directory.toPath().resolve(name + ".part");
+        directory.mkdirs();
+        Flux<DataBuffer> body = webClient.get().uri(URI.create(remoteUrl)).retrieve().bodyToFlux(DataBuffer.class);
+        DataBufferUtils.write(body, partial)
+                .timeout(DOWNLOAD_TIMEOUT)
+                .then(Mono.fromCallable(() -> {
+                    // The sidecar goes first, so a stored file always has one
+                    Files.writeString(directory.toPath().resolve(name + SOURCE_SUFFIX), remoteUrl, StandardCharsets.UTF_8);
+                    Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    added(name, Files.size(target));
+                    return target;
+                }))
+                .subscribe(path -> {
+                    downloads.remove(name, result);
+                    result.complete(path);
+                }, e -> {
+                    log.warn("Failed to store audio {} locally: {}", name, e.getMessage());
+                    try {
+                        Files.deleteIfExists(partial);
+                    } catch (IOException ignored) {
+                        // The partial file is never indexed, and the next start removes it
+                    }
+                    downloads.remove(name, result);
+                    result.completeExceptionally(e);
+                });
+    }
+
+    private synchronized void added(String name, long size) {
+        Long previous = index.put(name, size);
+        totalBytes += size - (previous == null ? 0 : previous);
+        evict(name);
+    }
+
+    /**
+     * Deletes the least recently served files until the store is under its limit, keeping the newest file
+     * and files being served; the store may stay over its limit until they are released
+     */
+    private synchronized void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            String name = entry.getKey();
+            if (name.equals(keep) || isServing(name)) {
+                continue;
+            }
+            try {
+                // The sidecar stays, so the file's URL still resolves to its source
+                Files.deleteIfExists(directory.toPath().resolve(name));
+            } catch (IOException e) {
+                log.warn("Failed to evict audio {}: {}", name, e.getMessage());
+                continue;
+            }
+            totalBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+    private boolean isServing(String name) {
+        Serving current = serving.get(name);
+        if (current == null) {
+            return false;
+        }
+        if (System.nanoTime() - current.acquiredNanos() > SERVE_TIMEOUT.toNanos()) {
+            log.warn("Audio {} was acquired {} time(s) and not released, evicting it anyway", name, current.count());
+            serving.remove(name);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Indexes files left by a previous run, oldest first, and removes abandoned partial downloads
+     * and expired sidecars of evicted files
+     */
+    private synchronized void loadExisting() {
+        File[] files = directory.listFiles(File::isFile);
+        if (files == null) {
+            return;
+        }
+        long expired = System.currentTimeMillis() - SOURCE_RETENTION.toMillis();
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            String name = file.getName();
+            if (BLOB_NAME.matcher(name).matches()) {
+                index.put(name, file.length());
+                totalBytes += file.length();
+            } else if (name.endsWith(".part")) {
+                file.delete();
+            } else if (name.endsWith(SOURCE_SUFFIX) && file.lastModified() < expired
+                    && !new File(directory, name.substring(0, name.length() - SOURCE_SUFFIX.length())).isFile()) {
+                file.delete();
+            }
+        }
+        evict(null);
+    }
+
+    /**
+     * A hash of the source URL, with the file's extension so the content type can be served
+     */
+    static String blobName(String remoteUrl) {
+        String path = URI.create(remoteUrl).getPath();
+        String lower = path == null ? "" : path.toLowerCase(Locale.ROOT);
+        String extension = lower.endsWith(".mp3") ? "mp3" : lower.endsWith(".wav") ? "wav"
+                : lower.endsWith(".flac") ? "flac" : "bin";
+        return hashName(remoteUrl) + "." + extension;
+    }
+
+    private static String generatedName(String key, String extension) {
+        String name = hashName("generated:" + key) + "." + extension;
+        if (!BLOB_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Unsupported audio extension: " + extension);
+        }
+        return name;
+    }
+
+    private static String hashName(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Serving(int count, long acquiredNanos) {
+    }
+
+    /**
+     * Writes the content of a file being stored
+     */
+    @FunctionalInterface
+    public interface BlobWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * A stored audio file. Its name never refers to different content, so it is also a strong ETag.
+     */
+    public record AudioBlob(String name, Path path, long size, MediaType contentType) {
+        public String eTag() {
+            return "\"" + name.substring(0, name.indexOf('.')) + "\"";
+        }
+    }
+}
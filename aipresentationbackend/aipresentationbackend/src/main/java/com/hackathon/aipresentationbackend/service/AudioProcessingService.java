@@ -1,6 +1,18 @@
 package com.hackathon.aipresentationbackend.service;
 
 import com.hackathon.aipresentationbackend.exception.AudioProcessingException;
+import com.hackathon.aipresentationbackend.model.SpeechActivity;
+import com.hackathon.aipresentationbackend.service.audio.AudioEncoding;
+import com.hackathon.aipresentationbackend.service.audio.AudioFileWriter;
+import com.hackathon.aipresentationbackend.service.audio.AudioInfo;
+import com.hackathon.aipresentationbackend.service.audio.AudioProbe;
+import com.hackathon.aipresentationbackend.service.audio.ForwardOnlyChannel;
+import com.hackathon.aipresentationbackend.service.audio.PcmSink;
+import com.hackathon.aipresentationbackend.service.audio.PreparedAudio;
+import com.hackathon.aipresentationbackend.service.audio.SpeechAudioTranscoder;
+import com.hackathon.aipresentationbackend.service.audio.StoredAudio;
+import com.hackathon.aipresentationbackend.service.audio.TempFileLeases;
+import com.hackathon.aipresentationbackend.service.audio.VoiceActivityDetector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,9 +23,12 @@ import org.springframework.web.multipart.MultipartFile;
 import javax.sound.sampled.*;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 /**
@@ -24,13 +39,43 @@ public class AudioProcessingService {
     private static final Logger logger = LoggerFactory.getLogger(AudioProcessingService.class);
     
     private static final Set<String> SUPPORTED_AUDIO_FORMATS = new HashSet<>(
-            Arrays.asList("audio/mpeg", "audio/mp3", "audio/wav", "audio/x-wav", "audio/m4a", "audio/x-m4a")
+            Arrays.asList("audio/mpeg", "audio/mp3", "audio/wav", "audio/x-wav", "audio/m4a", "audio/x-m4a",
+                    "audio/mp4", "audio/webm")
     );
     
     private static final long MAX_FILE_SIZE_BYTES = 100 * 1024 * 1024; // 100MB
+    private static final long ESTIMATED_BYTES_PER_SECOND = 16_000; // 128 kbps, as browsers record speech
     
-    @Value("${audio.temp.directory:${java.io.tmpdir}/presentation-coach}")
-    private String tempDirectory;
+    @Value("${audio.vad.enabled:true}")
+    private boolean vadEnabled = true;
+    
+    @Value("${audio.vad.threshold-dbfs:-40}")
+    private double vadThresholdDb = -40;
+    
+    @Value("${audio.vad.compress-pauses:true}")
+    private boolean vadCompressPauses = true;
+    
+    @Value("${audio.vad.compress-after-ms:1500}")
+    private int vadCompressAfterMillis = 1500;
+    
+    @Value("${audio.vad.kept-pause-ms:600}")
+    private int vadKeptPauseMillis = 600;
+    
+    @Value("${audio.vad.min-pause-ms:250}")
+    private int vadMinPauseMillis = 250;
+    
+    @Value("${audio.upload.encoding:FLAC}")
+    private AudioEncoding uploadEncoding = AudioEncoding.FLAC;
+    
+    private final SpeechAudioTranscoder transcoder = new SpeechAudioTranscoder();
+    
+    private final AudioProbe audioProbe = new AudioProbe();
+    
+    private final TempFileJanitor tempFileJanitor;
+    
+    public AudioProcessingService(TempFileJanitor tempFileJanitor) {
+        this.tempFileJanitor = tempFileJanitor;
+    }
     
     /**
      * Validates an audio file for format and size constraints
@@ -55,7 +100,7 @@ public class AudioProcessingService {
         String contentType = audioFile.getContentType();
         if (contentType == null || !SUPPORTED_AUDIO_FORMATS.contains(contentType.toLowerCase())) {
             throw new AudioProcessingException(
-                    "Unsupported audio format. Supported formats: MP3, WAV, M4A",
+                    "Unsupported audio format. Supported formats: MP3, WAV, M4A, WebM",
                     HttpStatus.UNSUPPORTED_MEDIA_TYPE
             );
         }
@@ -65,7 +110,8 @@ public class AudioProcessingService {
     }
     
     /**
-     * Converts an audio file to a standardized format (WAV)
+     * Converts an audio file to the format speech engines expect: 16 kHz mono 16-bit WAV.
+     * The upload is decoded, downmixed and resampled as a stream, so only the converted file is written to disk.
      *
      * @param audioFile The audio file to convert
      * @return The converted file
@@ -73,60 +119,113 @@ public class AudioProcessingService {
      */
     public File convertAudioFormat(MultipartFile audioFile) {
         validateAudioFile(audioFile);
-        
-        try {
-            // Create temp directory if it doesn't exist
-            File tempDir = new File(tempDirectory);
-            if (!tempDir.exists()) {
-                tempDir.mkdirs();
-            }
-            
-            // Create a temporary file for the original upload
-            String originalFilename = audioFile.getOriginalFilename();
-            String fileExtension = originalFilename != null ? 
-                    originalFilename.substring(originalFilename.lastIndexOf(".")) : ".tmp";
-            
-            File originalFile = File.createTempFile("original_", fileExtension, tempDir);
-            audioFile.transferTo(originalFile);
+        try (InputStream input = audioFile.getInputStream()) {
+            return unleased(transcode(input, audioFile.getSize(), estimateDurationMillis(audioFile), "converted_",
+                    AudioEncoding.WAV, false));
+        } catch (IOException e) {
+            throw new AudioProcessingException("Failed to process audio file", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+    
+    /**
+     * Hands a converted file over to the caller, who deletes it
+     */
+    private static File unleased(PreparedAudio converted) {
+        release(converted.getLease());
+        return converted.getFile();
+    }
+    
+    /**
+     * Converts an audio file for transcription in the configured upload encoding (FLAC by default),
+     * trimming leading and trailing silence and shortening long pauses when voice-activity detection is enabled
+     *
+     * @param audioFile The audio file to prepare
+     * @return The converted file and, when detection ran, where speech and pauses were found
+     * @throws AudioProcessingException If conversion fails
+     */
+    public PreparedAudio prepareForTranscription(MultipartFile audioFile) {
+        validateAudioFile(audioFile);
+        try (InputStream input = audioFile.getInputStream()) {
+            return logActivity(transcode(input, audioFile.getSize(), estimateDurationMillis(audioFile), "prepared_",
+                    uploadEncoding, vadEnabled));
+        } catch (IOException e) {
+            throw new AudioProcessingException("Failed to process audio file", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+    
+    /**
+     * Prepares a stored upload for transcription, reading it from the shared mapping
+     *
+     * @param storedAudio The stored upload
+     * @return The converted file and, when detection ran, where speech and pauses were found
+     * @throws AudioProcessingException If conversion fails
+     */
+    public PreparedAudio prepareForTranscription(StoredAudio storedAudio) {
+        long durationMillis = estimateDurationMillis(storedAudio.openChannel(), storedAudio.size(), storedAudio.getOriginalFilename());
+        return logActivity(transcode(storedAudio.openStream(), storedAudio.size(), durationMillis, "prepared_",
+                uploadEncoding, vadEnabled));
+    }
+    
+    private PreparedAudio logActivity(PreparedAudio prepared) {
+        SpeechActivity activity = prepared.getSpeechActivity();
+        if (activity != null) {
+            logger.info("Voice activity: {} ms -> {} ms (leading {} ms, trailing {} ms, {} pause(s))",
+                    activity.getOriginalDurationMillis(), activity.getProcessedDurationMillis(),
+                    activity.getLeadingSilenceMillis(), activity.getTrailingSilenceMillis(), activity.getPauseCount());
+        }
+        return prepared;
+    }
+    
+    /**
+     * Streams audio through the transcoder, and optionally voice-activity detection, into a new temp file.
+     * The file is leased from creation, so the janitor leaves it alone while it is written, and its room in the
+     * temp directory stays reserved until it is complete.
+     */
+    private PreparedAudio transcode(InputStream input, long sourceBytes, long durationMillis, String prefix,
+                                    AudioEncoding encoding, boolean detectVoiceActivity) {
+        File convertedFile = null;
+        TempFileLeases.Lease lease = null;
+        // Uncompressed 16-bit mono at the speech sample rate; FLAC output is smaller, so this is an upper bound
+        try (TempFileJanitor.Reservation reservation =
+                     tempFileJanitor.ensureCapacity(durationMillis * SpeechAudioTranscoder.SPEECH_SAMPLE_RATE * 2 / 1000)) {
+            convertedFile = File.createTempFile(prefix, encoding.getExtension(), getTempDirectory());
+            lease = tempFileJanitor.lease(convertedFile);
             
-            // If already WAV format, just return the file
-            if (audioFile.getContentType() != null && 
-                    (audioFile.getContentType().contains("wav") || audioFile.getContentType().contains("x-wav"))) {
-                logger.info("Audio file already in WAV format, no conversion needed");
-                return originalFile;
+            AudioFormat sourceFormat;
+            long convertedBytes;
+            VoiceActivityDetector detector = null;
+            try (AudioFileWriter writer = encoding.open(convertedFile.toPath(), SpeechAudioTranscoder.SPEECH_SAMPLE_RATE)) {
+                PcmSink sink = writer;
+                if (detectVoiceActivity) {
+                    detector = new VoiceActivityDetector(SpeechAudioTranscoder.SPEECH_SAMPLE_RATE, vadThresholdDb,
+                            vadCompressPauses, vadCompressAfterMillis, vadKeptPauseMillis, vadMinPauseMillis, writer);
+                    sink = detector;
+                }
+                sourceFormat = transcoder.transcode(input, sink);
+                convertedBytes = writer.getFileBytes();
             }
             
-            // Create output WAV file
-            File convertedFile = File.createTempFile("converted_", ".wav", tempDir);
-            
-            // Use AudioSystem for conversion
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(originalFile);
-            AudioFormat format = new AudioFormat(44100, 16, 2, true, false);
-            AudioInputStream convertedStream = AudioSystem.getAudioInputStream(format, audioInputStream);
-            
-            AudioSystem.write(convertedStream, AudioFileFormat.Type.WAVE, convertedFile);
-            
-            // Close streams
-            audioInputStream.close();
-            convertedStream.close();
-            
-            // Delete original temp file
-            originalFile.delete();
-            
-            logger.info("Audio file converted successfully to WAV format: {}", convertedFile.getName());
-            return convertedFile;
+            logger.info("Audio file converted to {} Hz mono {}: {} (source {} Hz, {} channel(s); {} -> {} bytes)",
+                    SpeechAudioTranscoder.SPEECH_SAMPLE_RATE, encoding, convertedFile.getName(), sourceFormat.getSampleRate(),
+                    sourceFormat.getChannels(), sourceBytes, convertedBytes);
+            return new PreparedAudio(convertedFile, detector != null ? detector.getActivity() : null, lease);
             
         } catch (UnsupportedAudioFileException e) {
+            release(lease);
+            cleanupTempFile(convertedFile);
             throw new AudioProcessingException("Unsupported audio format for conversion", 
                     HttpStatus.UNSUPPORTED_MEDIA_TYPE, e);
         } catch (IOException e) {
+            release(lease);
+            cleanupTempFile(convertedFile);
             throw new AudioProcessingException("Failed to process audio file", 
                     HttpStatus.INTERNAL_SERVER_ERROR, e);
         }
     }
     
     /**
-     * Extracts metadata from an audio file
+     * Extracts metadata from an audio file by probing its container headers.
+     * The upload is read as a forward-only stream and payload bytes are skipped, so nothing is copied to disk.
      *
      * @param audioFile The audio file
      * @return Map containing metadata (duration, format, channels, etc.)
@@ -135,40 +234,21 @@ public class AudioProcessingService {
     public Map<String, Object> extractAudioMetadata(MultipartFile audioFile) {
         validateAudioFile(audioFile);
         
-        Map<String, Object> metadata = new HashMap<>();
-        File tempFile = null;
-        
-        try {
-            // Create temp file
-            File tempDir = new File(tempDirectory);
-            if (!tempDir.exists()) {
-                tempDir.mkdirs();
-            }
-            
-            tempFile = File.createTempFile("metadata_", ".tmp", tempDir);
-            audioFile.transferTo(tempFile);
-            
-            // Extract audio format information
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(tempFile);
-            AudioFormat format = audioInputStream.getFormat();
-            
-            // Calculate duration
-            long frames = audioInputStream.getFrameLength();
-            double durationInSeconds = (frames == -1) ? -1 : frames / format.getFrameRate();
+        try (SeekableByteChannel channel = new ForwardOnlyChannel(audioFile.getInputStream(), audioFile.getSize())) {
+            AudioInfo info = audioProbe.probe(channel);
+            long durationMicros = info.getDurationMicros();
             
-            // Populate metadata
+            Map<String, Object> metadata = new HashMap<>();
             metadata.put("filename", audioFile.getOriginalFilename());
             metadata.put("contentType", audioFile.getContentType());
             metadata.put("sizeBytes", audioFile.getSize());
-            metadata.put("durationSeconds", durationInSeconds);
-            metadata.put("sampleRate", format.getSampleRate());
-            metadata.put("channels", format.getChannels());
-            metadata.put("encoding", format.getEncoding().toString());
-            metadata.put("frameRate", format.getFrameRate());
-            metadata.put("frameSize", format.getFrameSize());
-            metadata.put("bigEndian", format.isBigEndian());
-            
-            audioInputStream.close();
+            metadata.put("durationMicros", durationMicros);
+            metadata.put("durationSeconds", durationMicros == AudioInfo.UNKNOWN_DURATION ? -1 : durationMicros / 1_000_000.0);
+            metadata.put("sampleRate", info.getSampleRate());
+            metadata.put("channels", info.getChannels());
+            metadata.put("container", info.getContainer());
+            metadata.put("encoding", info.getCodec());
+            metadata.put("bitsPerSample", info.getBitsPerSample());
             
             logger.info("Audio metadata extracted successfully for: {}", audioFile.getOriginalFilename());
             return metadata;
@@ -179,12 +259,37 @@ public class AudioProcessingService {
         } catch (IOException e) {
             throw new AudioProcessingException("Failed to extract audio metadata", 
                     HttpStatus.INTERNAL_SERVER_ERROR, e);
-        } finally {
-            // Clean up temp file
-            if (tempFile != null && tempFile.exists()) {
-                tempFile.delete();
+        }
+    }
+    
+    /**
+     * Estimates how long a recording plays from its container headers, without validating or copying it.
+     * When the headers do not say, as with recordings streamed from a browser, the length is worked out
+     * from the file size at a typical speech bitrate.
+     *
+     * @param audioFile The audio file
+     * @return Estimated duration in milliseconds
+     */
+    public long estimateDurationMillis(MultipartFile audioFile) {
+        try {
+            return estimateDurationMillis(new ForwardOnlyChannel(audioFile.getInputStream(), audioFile.getSize()),
+                    audioFile.getSize(), audioFile.getOriginalFilename());
+        } catch (IOException e) {
+            logger.debug("Could not read {}: {}", audioFile.getOriginalFilename(), e.getMessage());
+            return audioFile.getSize() * 1000 / ESTIMATED_BYTES_PER_SECOND;
+        }
+    }
+    
+    private long estimateDurationMillis(SeekableByteChannel source, long sizeBytes, String filename) {
+        try (SeekableByteChannel channel = source) {
+            long durationMicros = audioProbe.probe(channel).getDurationMicros();
+            if (durationMicros != AudioInfo.UNKNOWN_DURATION) {
+                return durationMicros / 1000;
             }
+        } catch (UnsupportedAudioFileException | IOException e) {
+            logger.debug("Could not probe the duration of {}: {}", filename, e.getMessage());
         }
+        return sizeBytes * 1000 / ESTIMATED_BYTES_PER_SECOND;
     }
     
     /**
@@ -207,30 +312,105 @@ public class AudioProcessingService {
     }
     
     /**
-     * Cleans up all temporary files in the temp directory
+     * Deletes a prepared file that will not be uploaded, and releases its lease
+     *
+     * @param preparedAudio The prepared audio
+     */
+    public void discardPrepared(PreparedAudio preparedAudio) {
+        release(preparedAudio.getLease());
+        cleanupTempFile(preparedAudio.getFile());
+    }
+    
+    private static void release(TempFileLeases.Lease lease) {
+        if (lease != null) {
+            lease.close();
+        }
+    }
+    
+    /**
+     * Cleans up all temporary files in the temp directory that no in-flight request has leased,
+     * leaving files created in the last few minutes that may not have been leased yet
      *
      * @return The number of files deleted
      */
     public int cleanupAllTempFiles() {
-        File tempDir = new File(tempDirectory);
-        if (!tempDir.exists() || !tempDir.isDirectory()) {
-            return 0;
-        }
-        
-        File[] tempFiles = tempDir.listFiles();
-        if (tempFiles == null) {
-            return 0;
+        int deletedCount = tempFileJanitor.deleteUnleased();
+        logger.info("Cleaned up {} temporary audio files", deletedCount);
+        return deletedCount;
+    }
+    
+    /**
+     * Writes an upload to the temp directory once and maps it read-only, so metadata extraction, conversion
+     * and upload can all read the same bytes. The caller closes the result to delete the file.
+     *
+     * @param audioFile The uploaded audio file
+     * @return The stored upload
+     * @throws AudioProcessingException If the file is invalid or cannot be stored
+     */
+    public StoredAudio storeUpload(MultipartFile audioFile) {
+        validateAudioFile(audioFile);
+        File storedFile = createTempFile(audioFile);
+        TempFileLeases.Lease lease = tempFileJanitor.lease(storedFile);
+        try {
+            return StoredAudio.map(storedFile.toPath(), audioFile.getOriginalFilename(), audioFile.getContentType(), lease);
+        } catch (IOException e) {
+            lease.close();
+            cleanupTempFile(storedFile);
+            throw new AudioProcessingException("Failed to store audio file", 
+                    HttpStatus.INTERNAL_SERVER_ERROR, e);
         }
-        
-        int deletedCount = 0;
-        for (File file : tempFiles) {
-            if (file.isFile() && file.delete()) {
-                deletedCount++;
+    }
+    
+    /**
+     * Copies a file kept elsewhere, such as a queued job's recording, into the temp directory and maps the copy,
+     * so it can be prepared and uploaded like a fresh upload. Closing the result deletes the copy only.
+     *
+     * @param source           The file to copy, which is left in place
+     * @param originalFilename Name the client gave the recording
+     * @param contentType      Content type the client declared, or null
+     * @return The stored copy
+     * @throws AudioProcessingException If the file cannot be copied, or with 503 if temp storage is full
+     */
+    public StoredAudio storeCopy(Path source, String originalFilename, String contentType) {
+        File copy = null;
+        TempFileLeases.Lease lease = null;
+        try (TempFileJanitor.Reservation reservation = tempFileJanitor.ensureCapacity(Files.size(source))) {
+            String fileExtension = originalFilename != null && originalFilename.lastIndexOf('.') >= 0 ?
+                    originalFilename.substring(originalFilename.lastIndexOf('.')) : ".tmp";
+            copy = File.createTempFile("upload_", fileExtension, getTempDirectory());
+            lease = tempFileJanitor.lease(copy);
+            Files.copy(source, copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return StoredAudio.map(copy.toPath(), originalFilename, contentType, lease);
+        } catch (IOException e) {
+            if (lease != null) {
+                lease.close();
             }
+            if (copy != null) {
+                cleanupTempFile(copy);
+            }
+            throw new AudioProcessingException("Failed to copy stored audio file",
+                    HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    /**
+     * Maps a prepared file read-only for upload, leasing it until the returned store is closed and deletes it
+     *
+     * @param preparedAudio The prepared audio
+     * @return The stored file
+     * @throws AudioProcessingException If the file cannot be mapped; it is deleted in that case
+     */
+    public StoredAudio openPrepared(PreparedAudio preparedAudio) {
+        File file = preparedAudio.getFile();
+        TempFileLeases.Lease lease = preparedAudio.getLease() != null ? preparedAudio.getLease() : tempFileJanitor.lease(file);
+        try {
+            return StoredAudio.map(file.toPath(), file.getName(), null, lease);
+        } catch (IOException e) {
+            lease.close();
+            cleanupTempFile(file);
+            throw new AudioProcessingException("Failed to read prepared audio file", 
+                    HttpStatus.INTERNAL_SERVER_ERROR, e);
         }
-        
-        logger.info("Cleaned up {} temporary audio files", deletedCount);
-        return deletedCount;
     }
     
     /**
@@ -238,21 +418,15 @@ public class AudioProcessingService {
      *
      * @param multipartFile The multipart file
      * @return The temporary file
-     * @throws AudioProcessingException If file creation fails
+     * @throws AudioProcessingException If file creation fails, or with 503 if temp storage is full
      */
     public File createTempFile(MultipartFile multipartFile) {
-        try {
-            // Create temp directory if it doesn't exist
-            File tempDir = new File(tempDirectory);
-            if (!tempDir.exists()) {
-                tempDir.mkdirs();
-            }
-            
+        try (TempFileJanitor.Reservation reservation = tempFileJanitor.ensureCapacity(multipartFile.getSize())) {
             String originalFilename = multipartFile.getOriginalFilename();
-            String fileExtension = originalFilename != null ? 
-                    originalFilename.substring(originalFilename.lastIndexOf(".")) : ".tmp";
+            String fileExtension = originalFilename != null && originalFilename.lastIndexOf('.') >= 0 ? 
+                    originalFilename.substring(originalFilename.lastIndexOf('.')) : ".tmp";
             
-            File tempFile = File.createTempFile("upload_", fileExtension, tempDir);
+            File tempFile = File.createTempFile("upload_", fileExtension, getTempDirectory());
             multipartFile.transferTo(tempFile);
             
             logger.info("Temporary file created: {}", tempFile.getName());
@@ -263,4 +437,8 @@ public class AudioProcessingService {
                     HttpStatus.INTERNAL_SERVER_ERROR, e);
         }
     }
+    
+    private File getTempDirectory() {
+        return tempFileJanitor.getDirectory();
+    }
 }
\ No newline at end of file
@@ -5,50 +5,73 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hackathon.aipresentationbackend.exception.GeminiApiException;
 import com.hackathon.aipresentationbackend.model.AnalysisResponse;
+import com.hackathon.aipresentationbackend.service.llm.AnalysisModelRouter;
+import com.hackathon.aipresentationbackend.service.shared.SharedStateStore;
+import com.hackathon.aipresentationbackend.service.support.SingleFlight;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
-import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.concurrent.TimeoutException;
+import java.util.Optional;
 
 @Service
 public class GeminiService {
     private static final Logger log = LoggerFactory.getLogger(GeminiService.class);
-    private static final String GEMINI_API_BASE_URL = "https://generativelanguage.googleapis.com/v1beta";
-    private static final String GEMINI_MODEL = "models/gemini-1.5-flash-latest"; // Updated to a valid, recent model
-    private static final String GENERATE_CONTENT_ENDPOINT = ":generateContent";
 
-    private final WebClient webClient;
+    private final AnalysisModelRouter modelRouter;
     private final ObjectMapper objectMapper;
-
-    @Value("${gemini.api.key}")
-    private String geminiApiKey;
-
-    public GeminiService(WebClient webClient, ObjectMapper objectMapper) {
-        this.webClient = webClient;
+    private final PipelineMetrics pipelineMetrics;
+    private final SingleFlight<String, String> promptFlight = new SingleFlight<>();
+    private final SharedStateStore sharedState;
+    private final Duration cacheTtl;
+
+    /**
+     * @param sharedState Caches analysis replies so an identical prompt sent to any server is answered without the model
+     * @param cacheTtl    How long a cached reply is reused; zero turns the cache off
+     */
+    public GeminiService(AnalysisModelRouter modelRouter, ObjectMapper objectMapper, PipelineMetrics pipelineMetrics,
+                         SharedStateStore sharedState, @Value("${analysis.cache-ttl:24h}") Duration cacheTtl) {
+        this.modelRouter = modelRouter;
         this.objectMapper = objectMapper;
+        this.pipelineMetrics = pipelineMetrics;
+        this.sharedState = sharedState;
+        this.cacheTtl = cacheTtl;
+        pipelineMetrics.monitor("analysis.prompt", promptFlight);
     }
 
+    /**
+     * Analyzes the delivery, reusing the model's earlier reply to the same prompt while it is cached.
+     * Only replies that parse are cached.
+     */
     public AnalysisResponse analyzePresentation(String originalScript, String spokenTranscript) {
         log.info("Analyzing presentation with original script length: {}, spoken transcript length: {}",
                 originalScript.length(), spokenTranscript.length());
 
         try {
             String prompt = createAnalysisPrompt(originalScript, spokenTranscript);
-            Map<String, Object> response = callGeminiApi(prompt);
-            return parseAnalysisResponse(response);
-        } catch (WebClientResponseException e) {
-            log.error("Gemini API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+            String hash = sha256(prompt);
+            String cacheKey = "analysis:" + hash;
+            Optional<String> cached = cacheTtl.isPositive() ? sharedState.get(cacheKey) : Optional.empty();
+            if (cacheTtl.isPositive()) {
+                pipelineMetrics.recordCacheLookup("analysis.replies", cached.isPresent());
+            }
+            String response = cached.orElseGet(() -> generate(prompt, hash));
+            AnalysisResponse analysis = pipelineMetrics.time("analysis.parse", () -> parseAnalysisResponse(response));
+            if (cached.isEmpty() && cacheTtl.isPositive()) {
+                sharedState.put(cacheKey, response, cacheTtl);
+            }
+            return analysis;
+        } catch (ResponseStatusException e) {
+            log.error("Analysis model error: {} - {}", e.getStatusCode(), e.getReason());
             throw new GeminiApiException("Failed to analyze presentation",
                     HttpStatus.valueOf(e.getStatusCode().value()), e);
         } catch (Exception e) {
@@ -62,11 +85,11 @@ public class GeminiService {
         log.info("Generating improvement suggestions for presentation");
         try {
             String prompt = createImprovementSuggestionsPrompt(originalScript, spokenTranscript);
-            Map<String, Object> response = callGeminiApi(prompt);
+            String response = generate(prompt);
             return parseImprovementSuggestions(response);
-        } catch (WebClientResponseException e) {
-            log.error("Gemini API error when generating suggestions: {} - {}",
-                    e.getStatusCode(), e.getResponseBodyAsString());
+        } catch (ResponseStatusException e) {
+            log.error("Analysis model error when generating suggestions: {} - {}",
+                    e.getStatusCode(), e.getReason());
             throw new GeminiApiException("Failed to generate improvement suggestions",
                     HttpStatus.valueOf(e.getStatusCode().value()), e);
         } catch (Exception e) {
@@ -80,11 +103,11 @@ public class GeminiService {
         log.info("Calculating delivery score for presentation");
         try {
             String prompt = createScoringPrompt(originalScript, spokenTranscript);
-            Map<String, Object> response = callGeminiApi(prompt);
+            String response = generate(prompt);
             return parseDeliveryScore(response);
-        } catch (WebClientResponseException e) {
-            log.error("Gemini API error when calculating score: {} - {}",
-                    e.getStatusCode(), e.getResponseBodyAsString());
+        } catch (ResponseStatusException e) {
+            log.error("Analysis model error when calculating score: {} - {}",
+                    e.getStatusCode(), e.getReason());
             throw new GeminiApiException("Failed to calculate delivery score",
                     HttpStatus.valueOf(e.getStatusCode().value()), e);
         } catch (Exception e) {
@@ -96,38 +119,29 @@ public class GeminiService {
 
 
 
-    private Map<String, Object> callGeminiApi(String prompt) {
-        log.debug("Calling Gemini API with prompt length: {}", prompt.length());
-
-        Map<String, Object> requestBody = new HashMap<>();
-        Map<String, Object> content = new HashMap<>();
-        content.put("parts", List.of(Map.of("text", prompt)));
-        content.put("role", "user");
-        requestBody.put("contents", List.of(content));
+    /**
+     * Sends a prompt to the model router, sharing the reply with identical prompts already in flight.
+     * Prompts are keyed by their SHA-256 hash so long scripts are not held as map keys.
+     */
+    private String generate(String prompt) {
+        return generate(prompt, sha256(prompt));
+    }
 
-        String apiUrl = GEMINI_API_BASE_URL + "/" + GEMINI_MODEL + GENERATE_CONTENT_ENDPOINT + "?key=" + geminiApiKey;
-        log.info("Calling Gemini API at URL: {}", apiUrl);
+    private String generate(String prompt, String hash) {
+        return pipelineMetrics.time("analysis",
+                () -> promptFlight.execute(hash, () -> modelRouter.generate(prompt)));
+    }
 
+    private static String sha256(String text) {
         try {
-            return webClient.post()
-                    .uri(apiUrl)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .retryWhen(Retry.backoff(3, Duration.ofSeconds(2))
-                            .filter(this::isRetryableException)
-                            .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) ->
-                                    new GeminiApiException("Gemini API call failed after retries.",
-                                            HttpStatus.SERVICE_UNAVAILABLE, retrySignal.failure())))
-                    .timeout(Duration.ofSeconds(30), Mono.error(new TimeoutException("Gemini API call timed out after 30 seconds.")))
-                    .block();
-        } catch (WebClientResponseException e) {
-            log.error("Gemini API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
-            throw new GeminiApiException("Failed to call Gemini API", HttpStatus.valueOf(e.getStatusCode().value()), e);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 
-    private String createAnalysisPrompt(String originalScript, String spokenTranscript) {
+    String createAnalysisPrompt(String originalScript, String spokenTranscript) {
         return "You are an expert presentation coach. Your task is to analyze a presentation delivery by comparing the original script with the spoken transcript. " +
                 "Focus on content accuracy, but also identify potential areas for improvement in delivery style, such as the use of filler words (e.g., 'um', 'ah', 'like'), pacing, and clarity. " +
                 "\n\n" +
@@ -172,25 +186,7 @@ public class GeminiService {
                 "\n}";
     }
 
-    @SuppressWarnings("unchecked")
-    private String extractTextFromResponse(Map<String, Object> response) {
-        if (response == null || !response.containsKey("candidates")) {
-            throw new GeminiApiException("Invalid response from Gemini API: missing 'candidates'", HttpStatus.INTERNAL_SERVER_ERROR);
-        }
-        List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.get("candidates");
-        if (candidates.isEmpty()) {
-            if (response.containsKey("promptFeedback")) {
-                log.warn("Gemini response blocked. Feedback: {}", response.get("promptFeedback"));
-                throw new GeminiApiException("Request blocked due to safety settings.", HttpStatus.BAD_REQUEST);
-            }
-            throw new GeminiApiException("No content returned from Gemini API.", HttpStatus.INTERNAL_SERVER_ERROR);
-        }
-        Map<String, Object> content = (Map<String, Object>) candidates.get(0).get("content");
-        List<Map<String, Object>> parts = (List<Map<String, Object>>) content.get("parts");
-        return (String) parts.get(0).get("text");
-    }
-
-    private String cleanJsonString(String rawText) {
+    String cleanJsonString(String rawText) {
         int startIndex = rawText.indexOf('{');
         int endIndex = rawText.lastIndexOf('}');
 
@@ -207,9 +203,8 @@ public class GeminiService {
         throw new GeminiApiException("Malformed JSON content in Gemini response", HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
-    private AnalysisResponse parseAnalysisResponse(Map<String, Object> response) {
+    AnalysisResponse parseAnalysisResponse(String text) {
         try {
-            String text = extractTextFromResponse(response);
             String jsonContent = cleanJsonString(text);
             JsonNode rootNode = objectMapper.readTree(jsonContent);
 
@@ -224,9 +219,8 @@ public class GeminiService {
         }
     }
 
-    private List<String> parseImprovementSuggestions(Map<String, Object> response) {
+    private List<String> parseImprovementSuggestions(String text) {
         try {
-            String text = extractTextFromResponse(response);
             String jsonContent = cleanJsonString(text);
             return objectMapper.readValue(jsonContent, new TypeReference<List<String>>() {});
         } catch (Exception e) {
@@ -235,9 +229,8 @@ public class GeminiService {
         }
     }
 
-    private int parseDeliveryScore(Map<String, Object> response) {
+    private int parseDeliveryScore(String text) {
         try {
-            String text = extractTextFromResponse(response);
             String jsonContent = cleanJsonString(text);
             JsonNode rootNode = objectMapper.readTree(jsonContent);
             int score = rootNode.path("score").asInt(0);
@@ -247,14 +240,4 @@ public class GeminiService {
             throw new GeminiApiException("Failed to parse delivery score", HttpStatus.INTERNAL_SERVER_ERROR, e);
         }
     }
-
-    private boolean isRetryableException(Throwable throwable) {
-        if (throwable instanceof WebClientResponseException) {
-            HttpStatus status = HttpStatus.valueOf(((WebClientResponseException) throwable).getStatusCode().value());
-            return status.is5xxServerError() || status == HttpStatus.TOO_MANY_REQUESTS;
-        }
-        return throwable instanceof TimeoutException;
-    }
-
-
 }
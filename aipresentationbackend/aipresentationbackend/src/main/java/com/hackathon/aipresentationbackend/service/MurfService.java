@@ -6,6 +6,7 @@ import com.hackathon.aipresentationbackend.model.SpeechResponse;
 import com.hackathon.aipresentationbackend.model.ToneRehearsalRequest;
 import com.hackathon.aipresentationbackend.model.ToneType;
 import com.hackathon.aipresentationbackend.model.VoiceOption;
+import com.hackathon.aipresentationbackend.service.support.SingleFlight;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,9 +17,9 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
@@ -27,18 +28,40 @@ public class MurfService {
     private static final Logger log = LoggerFactory.getLogger(MurfService.class);
     private static final String MURF_API_BASE_URL = "https://api.murf.ai/v1";
     private static final String SPEECH_ENDPOINT = "/speech/generate";
-    private static final String VOICES_ENDPOINT = "/voices";
 
     private final WebClient webClient;
+    private final VoiceCatalogService voiceCatalogService;
+    private final AudioBlobStore audioBlobStore;
+    private final PipelineMetrics pipelineMetrics;
+    private final SingleFlight<SpeechKey, SpeechResponse> speechFlight = new SingleFlight<>();
 
     @Value("${murf.api.key}")
     private String murfApiKey;
 
-    public MurfService(WebClient webClient) {
+    @Value("${murf.api.base-url:" + MURF_API_BASE_URL + "}")
+    private String murfBaseUrl = MURF_API_BASE_URL;
+
+    /**
+     * @param audioBlobStore Local copies of generated audio; when null, clients are given Murf's URLs
+     */
+    public MurfService(WebClient webClient, VoiceCatalogService voiceCatalogService, AudioBlobStore audioBlobStore,
+                       PipelineMetrics pipelineMetrics) {
         this.webClient = webClient;
+        this.voiceCatalogService = voiceCatalogService;
+        this.audioBlobStore = audioBlobStore;
+        this.pipelineMetrics = pipelineMetrics;
+        pipelineMetrics.monitor("murf.speech", speechFlight);
     }
 
+    /**
+     * Generates speech for the request. Identical requests made while one is already in flight
+     * share that call's result instead of each calling the Murf API.
+     */
     public SpeechResponse generateSpeech(SpeechRequest request) {
+        return speechFlight.execute(SpeechKey.of(request), () -> pipelineMetrics.time("speech", () -> requestSpeech(request)));
+    }
+
+    private SpeechResponse requestSpeech(SpeechRequest request) {
         log.info("Generating speech with text length: {}, voice: {}, speed: {}",
                 request.getText().length(), request.getVoiceId(), request.getSpeed());
 
@@ -51,9 +74,12 @@ public class MurfService {
             if (request.getTone() != null && !request.getTone().isEmpty()) {
                 requestBody.put("tone", request.getTone());
             }
+            if (request.getFormat() != null) {
+                requestBody.put("format", request.getFormat().toUpperCase(Locale.ROOT));
+            }
 
             Map response = webClient.post()
-                    .uri(MURF_API_BASE_URL + SPEECH_ENDPOINT)
+                    .uri(murfBaseUrl + SPEECH_ENDPOINT)
                     .header("Content-Type", "application/json")
                     .header("Accept", "application/json")
                     .header("api-key", murfApiKey)
@@ -62,6 +88,7 @@ public class MurfService {
                     .bodyToMono(Map.class)
                     .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
                             .filter(this::isRetryableException)
+                            .doBeforeRetry(signal -> pipelineMetrics.recordRetry("murf"))
                             .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) ->
                                     new MurfApiException("Failed to generate speech after retries",
                                             HttpStatus.INTERNAL_SERVER_ERROR, retrySignal.failure())))
@@ -79,7 +106,7 @@ public class MurfService {
                     ((Number) response.get("duration")).intValue() : null;
 
             return SpeechResponse.withAudioUrl(
-                    audioUrl,
+                    localAudioUrl(audioUrl),
                     duration,
                     request.getVoiceId(),
                     request.getSpeed()
@@ -129,44 +156,15 @@ public class MurfService {
         return generateSpeech(speechRequest);
     }
 
+    /**
+     * Returns the cached voice catalog; see {@link VoiceCatalogService}
+     */
     public List<VoiceOption> getAvailableVoices() {
-        log.info("Fetching available voices from Murf API");
-
-        try {
-            // For the hackathon, we return a predefined list.
-            // In a real application, you would make a WebClient call here.
-            return getPredefinedVoices();
-        } catch (WebClientResponseException e) {
-            log.error("Murf API error when fetching voices: {} - {}",
-                    e.getStatusCode(), e.getResponseBodyAsString());
-            throw new MurfApiException("Failed to fetch available voices: " + e.getMessage(),
-                    HttpStatus.valueOf(e.getStatusCode().value()), e);
-        } catch (Exception e) {
-            log.error("Error fetching available voices: {}", e.getMessage(), e);
-            throw new MurfApiException("Failed to fetch available voices: " + e.getMessage(),
-                    HttpStatus.INTERNAL_SERVER_ERROR, e);
-        }
+        return voiceCatalogService.getVoices();
     }
 
     public boolean voiceSupportsTone(String voiceId, String tone) {
-        List<VoiceOption> voices = getAvailableVoices();
-        return voices.stream()
-                .filter(voice -> voice.getVoiceId().equals(voiceId))
-                .anyMatch(voice -> voice.supportsTone(tone));
-    }
-
-    private List<VoiceOption> getPredefinedVoices() {
-        List<VoiceOption> voices = new ArrayList<>();
-        
-        // Use only known working voice IDs - we'll use en-US-julia as base and create variations
-        // In a real implementation, you would get these from Murf AI's actual voice list
-        voices.add(VoiceOption.createProfessionalMale("en-US-julia", "Marcus", "American"));
-        voices.add(VoiceOption.createProfessionalFemale("en-US-julia", "Julia", "American"));
-        voices.add(VoiceOption.createProfessionalMale("en-US-julia", "Thomas", "British"));
-        voices.add(VoiceOption.createProfessionalFemale("en-US-julia", "Emily", "British"));
-        voices.add(VoiceOption.createConversationalMale("en-US-julia", "Alex", "American"));
-        voices.add(VoiceOption.createConversationalFemale("en-US-julia", "Sophia", "American"));
-        return voices;
+        return voiceCatalogService.voiceSupportsTone(voiceId, tone);
     }
 
     /**
@@ -194,6 +192,33 @@ public class MurfService {
         }
     }
 
+    /**
+     * Starts keeping a local copy of Murf's file and returns the URL it will be served from.
+     * Murf's URL is returned instead if the file cannot be stored locally.
+     */
+    private String localAudioUrl(String audioUrl) {
+        if (audioBlobStore == null || audioUrl == null) {
+            return audioUrl;
+        }
+        try {
+            return audioBlobStore.register(audioUrl);
+        } catch (RuntimeException e) {
+            log.warn("Could not store generated audio locally, returning Murf's URL: {}", e.getMessage());
+            return audioUrl;
+        }
+    }
+
+    /**
+     * The parts of a speech request that determine the generated audio
+     */
+    private record SpeechKey(String text, String voiceId, Double speed, String tone, String format) {
+        static SpeechKey of(SpeechRequest request) {
+            String tone = request.getTone() == null || request.getTone().isEmpty() ? null : request.getTone();
+            String format = request.getFormat() == null ? null : request.getFormat().toUpperCase(Locale.ROOT);
+            return new SpeechKey(request.getText(), request.getVoiceId(), request.getSpeed(), tone, format);
+        }
+    }
+
     private boolean isRetryableException(Throwable throwable) {
         if (throwable instanceof WebClientResponseException) {
             HttpStatus status = HttpStatus.valueOf(((WebClientResponseException) throwable).getStatusCode().value());
@@ -0,0 +1,251 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.hackathon.aipresentationbackend.service.admission.AdmissionService;
+import com.hackathon.aipresentationbackend.service.support.ExpiringLruCache;
+import com.hackathon.aipresentationbackend.service.support.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Records where time goes in the rehearsal pipeline, exposed through Actuator.
+ * Every stage (upload, transcription, analysis, speech, ...) is an observation, which is recorded as a
+ * tag on one timer, so stage latencies and SLOs can be compared in a single query, and as a trace span.
+ * Vendor requests made while a stage is running become child spans of it. Retries, shared calls and
+ * cache lookups are counters, and rehearsals in progress are a long task timer.
+ */
+@Component
+public class PipelineMetrics {
+    public static final String STAGE_TIMER = "presentation.pipeline.stage";
+    public static final String RETRIES = "presentation.pipeline.retries";
+    public static final String REHEARSALS = "presentation.rehearsals.active";
+    public static final String TRANSCRIPTION_POLLS = "presentation.transcription.polls";
+    public static final String ANALYSIS_TOKENS = "presentation.analysis.tokens";
+    public static final String ANALYSIS_SECTIONS = "presentation.analysis.sections";
+    public static final String ADMISSION_QUEUE = "presentation.admission.queue";
+    public static final String ADMISSION_QUEUED_WORK = "presentation.admission.queue.work";
+    public static final String ADMISSION_RUNNING = "presentation.admission.running";
+    public static final String ADMISSION_WAIT = "presentation.admission.wait";
+    public static final String ADMISSION_SHED = "presentation.admission.shed";
+
+    private static final String STAGE = "stage";
+    private static final String OUTCOME = "outcome";
+    private static final String SUCCESS = "success";
+    private static final String ERROR = "error";
+    private static final String CANCELLED = "cancelled";
+
+    private final MeterRegistry registry;
+    private final ObservationRegistry observationRegistry;
+    private final LongTaskTimer rehearsals;
+
+    /**
+     * Records stage timers without tracing, for use outside the application context
+     */
+    public PipelineMetrics(MeterRegistry registry) {
+        this(registry, meterOnly(registry));
+    }
+
+    @Autowired
+    public PipelineMetrics(MeterRegistry registry, ObservationRegistry observationRegistry) {
+        this.registry = registry;
+        this.observationRegistry = observationRegistry;
+        this.rehearsals = LongTaskTimer.builder(REHEARSALS)
+                .description("Full rehearsal analyses currently in progress")
+                .register(registry);
+    }
+
+    /**
+     * Runs a blocking stage and records its latency, tagged with whether it threw.
+     * The stage is the current observation while it runs, so calls it makes are traced as its children.
+     */
+    public <T> T time(String stage, Supplier<T> call) {
+        Observation observation = stageObservation(stage).start();
+        try (Observation.Scope scope = observation.openScope()) {
+            T result = call.get();
+            observation.lowCardinalityKeyValue(OUTCOME, SUCCESS);
+            return result;
+        } catch (RuntimeException | Error e) {
+            observation.lowCardinalityKeyValue(OUTCOME, ERROR);
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    /**
+     * Times a reactive stage from subscription until it completes, fails or is cancelled, as when a blocking
+     * caller gives up waiting or is interrupted. The stage is the parent observation in the Reactor context,
+     * so WebClient requests it makes are its children.
+     */
+    public <T> Mono<T> time(String stage, Mono<T> call) {
+        return Mono.defer(() -> {
+            Observation observation = stageObservation(stage).start();
+            return call.contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation))
+                    .doOnSuccess(result -> observation.lowCardinalityKeyValue(OUTCOME, SUCCESS).stop())
+                    .doOnError(e -> observation.lowCardinalityKeyValue(OUTCOME, ERROR).error(e).stop())
+                    .doOnCancel(() -> observation.lowCardinalityKeyValue(OUTCOME, CANCELLED).stop());
+        });
+    }
+
+    /**
+     * Records a stage that was measured by the caller, such as time spent waiting in a remote queue.
+     * It has no span of its own; its tags match the ones observations produce so they share one timer.
+     */
+    public void record(String stage, Duration elapsed) {
+        Timer.builder(STAGE_TIMER)
+                .description("Latency of each step in the rehearsal pipeline")
+                .tags(STAGE, stage, OUTCOME, SUCCESS, "error", "none")
+                .register(registry)
+                .record(elapsed);
+    }
+
+    public void recordRetry(String dependency) {
+        Counter.builder(RETRIES)
+                .description("Calls to an external API that were retried")
+                .tag("dependency", dependency)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordTranscriptionPolls(int polls) {
+        DistributionSummary.builder(TRANSCRIPTION_POLLS)
+                .description("Status requests made before a transcription finished")
+                .register(registry)
+                .record(polls);
+    }
+
+    /**
+     * @param type "prompt" or "completion"
+     */
+    public void recordTokens(String model, String type, long tokens) {
+        DistributionSummary.builder(ANALYSIS_TOKENS)
+                .description("Tokens used per analysis model call")
+                .baseUnit("tokens")
+                .tags("model", model, "type", type)
+                .register(registry)
+                .record(tokens);
+    }
+
+    /**
+     * @param result "analyzed" for paragraphs sent to the model, "reused" for ones answered from history
+     */
+    public void recordSections(String result, int sections) {
+        Counter.builder(ANALYSIS_SECTIONS)
+                .description("Script paragraphs analyzed on their own")
+                .tag("result", result)
+                .register(registry)
+                .increment(sections);
+    }
+
+    /**
+     * Marks a rehearsal as in progress until the returned sample is stopped
+     */
+    public LongTaskTimer.Sample startRehearsal() {
+        return rehearsals.start();
+    }
+
+    /**
+     * Publishes how often callers shared an identical call instead of running their own
+     */
+    public void monitor(String name, SingleFlight<?, ?> flight) {
+        FunctionCounter.builder("presentation.singleflight.calls", flight, SingleFlight::getExecutions)
+                .description("Calls run or shared by coalescing identical in-flight requests")
+                .tags("name", name, "result", "executed")
+                .register(registry);
+        FunctionCounter.builder("presentation.singleflight.calls", flight, SingleFlight::getCoalesced)
+                .description("Calls run or shared by coalescing identical in-flight requests")
+                .tags("name", name, "result", "coalesced")
+                .register(registry);
+        Gauge.builder("presentation.singleflight.in.flight", flight, SingleFlight::getInFlight)
+                .tag("name", name)
+                .register(registry);
+    }
+
+    /**
+     * Publishes a cache under Micrometer's standard cache meter names
+     */
+    public void monitor(String name, ExpiringLruCache<?, ?> cache) {
+        FunctionCounter.builder("cache.gets", cache, ExpiringLruCache::getHits)
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, ExpiringLruCache::getMisses)
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", cache, ExpiringLruCache::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    /**
+     * Counts a lookup in a cache kept in the shared state store, under the same meter names as {@link #monitor(String, ExpiringLruCache)}
+     */
+    public void recordCacheLookup(String name, boolean hit) {
+        Counter.builder("cache.gets")
+                .tags("cache", name, "result", hit ? "hit" : "miss")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Publishes how many analyses are running and, per priority class, how many wait and their estimated work
+     */
+    public void monitor(AdmissionService admission) {
+        for (AdmissionService.Priority priority : AdmissionService.Priority.values()) {
+            Gauge.builder(ADMISSION_QUEUE, admission, a -> a.getQueueDepth(priority))
+                    .description("Analysis requests waiting to start")
+                    .tag("priority", priority.tag())
+                    .register(registry);
+            Gauge.builder(ADMISSION_QUEUED_WORK, admission, a -> a.getQueuedSeconds(priority))
+                    .description("Estimated analysis time of the requests waiting to start")
+                    .baseUnit("seconds")
+                    .tag("priority", priority.tag())
+                    .register(registry);
+        }
+        Gauge.builder(ADMISSION_RUNNING, admission, AdmissionService::getRunning)
+                .description("Analyses admitted and still running")
+                .register(registry);
+    }
+
+    public void recordAdmissionWait(String priority, Duration waited) {
+        Timer.builder(ADMISSION_WAIT)
+                .description("Time analysis requests waited before starting")
+                .tag("priority", priority)
+                .register(registry)
+                .record(waited);
+    }
+
+    public void recordAdmissionShed(String priority) {
+        Counter.builder(ADMISSION_SHED)
+                .description("Analysis requests turned away because their wait would be too long")
+                .tag("priority", priority)
+                .register(registry)
+                .increment();
+    }
+
+    private Observation stageObservation(String stage) {
+        return Observation.createNotStarted(STAGE_TIMER, observationRegistry)
+                .contextualName(stage)
+                .lowCardinalityKeyValue(STAGE, stage);
+    }
+
+    private static ObservationRegistry meterOnly(MeterRegistry registry) {
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(registry));
+        return observationRegistry;
+    }
+}
@@ -0,0 +1,257 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.exception.MurfApiException;
+import com.hackathon.aipresentationbackend.model.SpeechPlaylist;
+import com.hackathon.aipresentationbackend.model.SpeechRequest;
+import com.hackathon.aipresentationbackend.model.SpeechResponse;
+import com.hackathon.aipresentationbackend.model.SpeechSegment;
+import com.hackathon.aipresentationbackend.service.shared.SharedStateStore;
+import com.hackathon.aipresentationbackend.service.speech.ScriptSegmenter;
+import com.hackathon.aipresentationbackend.service.support.ExpiringLruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Synthesizes long scripts segment by segment instead of as one Murf request.
+ * The script is split into sentence groups, which are synthesized concurrently (up to the configured
+ * limit) and returned in script order, so the first segment can play as soon as it is ready. Each
+ * segment's audio is cached by its text, voice, speed and tone, so editing a script only
+ * re-synthesizes the sentences that changed. The cache is kept in memory and backed by the shared state
+ * store, so a segment synthesized by one server is not synthesized again by another. The store holds Murf's
+ * URL for the audio, since each server serves its own local copy. A segment that still fails after its
+ * retries is reported in the playlist without discarding the others.
+ */
+@Service
+public class SegmentedSpeechService {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedSpeechService.class);
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(500);
+
+    private final MurfService murfService;
+    private final AudioBlobStore audioBlobStore;
+    private final PipelineMetrics pipelineMetrics;
+    private final ScriptSegmenter segmenter;
+    private final ExpiringLruCache<SegmentKey, SpeechResponse> cache;
+    private final SharedStateStore sharedState;
+    private final ObjectMapper objectMapper;
+    private final Duration cacheTtl;
+    private final int maxConcurrency;
+    private final int retries;
+
+    @Autowired
+    public SegmentedSpeechService(MurfService murfService, AudioBlobStore audioBlobStore, PipelineMetrics pipelineMetrics,
+                                  SharedStateStore sharedState, ObjectMapper objectMapper,
+                                  @Value("${murf.segments.max-chars:400}") int maxSegmentChars,
+                                  @Value("${murf.segments.max-concurrency:4}") int maxConcurrency,
+                                  @Value("${murf.segments.retries:1}") int retries,
+                                  @Value("${murf.segments.cache-size:1000}") int cacheSize,
+                                  @Value("${murf.segments.cache-ttl:12h}") Duration cacheTtl) {
+        this(murfService, audioBlobStore, pipelineMetrics, sharedState, objectMapper, maxSegmentChars, maxConcurrency, retries,
+                cacheSize, cacheTtl, Clock.systemUTC());
+    }
+
+    /**
+     * @param audioBlobStore Local copies of generated audio; when null, Murf's URLs are given to clients as they are
+     */
+    SegmentedSpeechService(MurfService murfService, AudioBlobStore audioBlobStore, PipelineMetrics pipelineMetrics,
+                           SharedStateStore sharedState, ObjectMapper objectMapper, int maxSegmentChars, int maxConcurrency, int retries,
+                           int cacheSize, Duration cacheTtl, Clock clock) {
+        this.murfService = murfService;
+        this.audioBlobStore = audioBlobStore;
+        this.pipelineMetrics = pipelineMetrics;
+        this.sharedState = sharedState;
+        this.objectMapper = objectMapper;
+        this.cacheTtl = cacheTtl;
+        this.segmenter = new ScriptSegmenter(maxSegmentChars);
+        this.cache = new ExpiringLruCache<>(cacheSize, cacheTtl, clock);
+        pipelineMetrics.monitor("speech.segments", cache);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.retries = Math.max(0, retries);
+    }
+
+    /**
+     * Synthesizes every segment and waits for all of them
+     *
+     * @return The playlist manifest, with segments in script order
+     */
+    public SpeechPlaylist generatePlaylist(SpeechRequest request) {
+        List<SpeechSegment> segments = streamSegments(request).collectList().block();
+        return new SpeechPlaylist(request.getVoiceId(), request.getSpeed(), request.getTone(),
+                segments == null ? List.of() : segments);
+    }
+
+    /**
+     * Synthesizes the segments concurrently, emitting them in script order as each becomes playable
+     */
+    public Flux<SpeechSegment> streamSegments(SpeechRequest request) {
+        List<String> texts = segmenter.segment(request.getText());
+        log.info("Synthesizing script of {} characters as {} segments, voice: {}",
+                request.getText().length(), texts.size(), request.getVoiceId());
+
+        return Flux.range(0, texts.size())
+                .flatMapSequential(index -> synthesize(index, texts.get(index), request), maxConcurrency);
+    }
+
+    public long getCacheHits() {
+        return cache.getHits();
+    }
+
+    public long getCacheMisses() {
+        return cache.getMisses();
+    }
+
+    private Mono<SpeechSegment> synthesize(int index, String text, SpeechRequest request) {
+        String tone = request.getTone() == null || request.getTone().isEmpty() ? null : request.getTone();
+        String format = request.getFormat() == null ? null : request.getFormat().toUpperCase(Locale.ROOT);
+        SegmentKey key = new SegmentKey(text, request.getVoiceId(), request.getSpeed(), tone, format);
+        SpeechResponse cached = cache.get(key);
+        if (cached != null) {
+            return Mono.just(SpeechSegment.success(index, text, cached, true));
+        }
+
+        return Mono.fromCallable(() -> findShared(key))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(shared -> shared
+                        .map(speech -> {
+                            cache.put(key, speech);
+                            return Mono.just(SpeechSegment.success(index, text, speech, true));
+                        })
+                        .orElseGet(() -> synthesizeWithMurf(index, text, key)));
+    }
+
+    private Mono<SpeechSegment> synthesizeWithMurf(int index, String text, SegmentKey key) {
+        SpeechRequest segmentRequest = new SpeechRequest(text, key.voiceId(), key.speed(), key.tone());
+        segmentRequest.setFormat(key.format());
+        return Mono.fromCallable(() -> murfService.generateSpeech(segmentRequest))
+                .subscribeOn(Schedulers.boundedElastic())
+                .retryWhen(Retry.backoff(retries, RETRY_BACKOFF)
+                        .filter(SegmentedSpeechService::isRetryable)
+                        .doBeforeRetry(signal -> pipelineMetrics.recordRetry("murf.segment"))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .map(speech -> {
+                    cache.put(key, speech);
+                    shareSpeech(key, speech);
+                    return SpeechSegment.success(index, text, speech, false);
+                })
+                .onErrorResume(e -> {
+                    log.warn("Segment {} of {} characters failed: {}", index, text.length(), e.getMessage());
+                    String reason = e instanceof ResponseStatusException status && status.getReason() != null
+                            ? status.getReason() : e.getMessage();
+                    return Mono.just(SpeechSegment.failure(index, text, reason));
+                });
+    }
+
+    private Optional<SpeechResponse> findShared(SegmentKey key) {
+        Optional<String> json = sharedState.get(key.sharedKey());
+        Optional<SharedSpeech> shared;
+        try {
+            shared = json.isEmpty() ? Optional.empty()
+                    : Optional.of(objectMapper.readValue(json.get(), SharedSpeech.class)).filter(speech -> speech.sourceUrl() != null);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable shared speech segment: {}", e.getMessage());
+            shared = Optional.empty();
+        }
+        pipelineMetrics.recordCacheLookup("speech.segments.shared", shared.isPresent());
+        return shared.map(speech -> speech.toResponse(localAudioUrl(speech.sourceUrl())));
+    }
+
+    /**
+     * Shares speech that Murf hosts under Murf's own URL, which any server can keep a local copy of.
+     * Inline base64 audio and audio without a remote source stay in this server's cache only.
+     */
+    private void shareSpeech(SegmentKey key, SpeechResponse speech) {
+        if (!speech.hasAudioUrl()) {
+            return;
+        }
+        Optional<String> sourceUrl = audioBlobStore == null ? Optional.of(speech.getAudioUrl())
+                : audioBlobStore.findSourceByUrl(speech.getAudioUrl());
+        if (sourceUrl.isEmpty()) {
+            return;
+        }
+        try {
+            sharedState.put(key.sharedKey(), objectMapper.writeValueAsString(SharedSpeech.of(sourceUrl.get(), speech)), cacheTtl);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not share speech segment: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts keeping a local copy of a segment another server synthesized, as MurfService does for its own
+     */
+    private String localAudioUrl(String sourceUrl) {
+        if (audioBlobStore == null) {
+            return sourceUrl;
+        }
+        try {
+            return audioBlobStore.register(sourceUrl);
+        } catch (RuntimeException e) {
+            log.warn("Could not store shared audio locally, returning Murf's URL: {}", e.getMessage());
+            return sourceUrl;
+        }
+    }
+
+    /**
+     * Only failures MurfService has not retried already are worth another attempt for this segment:
+     * a server error Murf reported, or the whole request timing out. MurfService retries failed calls
+     * itself and wraps whatever it gives up on, like any unexpected error, as a 500 with the cause.
+     */
+    private static boolean isRetryable(Throwable throwable) {
+        if (!(throwable instanceof MurfApiException murfApiException)
+                || !murfApiException.getStatusCode().is5xxServerError()) {
+            return false;
+        }
+        if (murfApiException.getCause() == null) {
+            return true;
+        }
+        for (Throwable cause = murfApiException.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The parts of a segment request that determine its audio
+     */
+    private record SegmentKey(String text, String voiceId, Double speed, String tone, String format) {
+        String sharedKey() {
+            return SharedStateStore.hashedKey("speech", text, voiceId, speed, tone, format);
+        }
+    }
+
+    /**
+     * A segment's speech as kept in the shared state store, with Murf's URL rather than a server's local one;
+     * SpeechResponse is built by its Builder
+     */
+    private record SharedSpeech(String sourceUrl, Integer duration, String voiceUsed, Double speedUsed) {
+        static SharedSpeech of(String sourceUrl, SpeechResponse speech) {
+            return new SharedSpeech(sourceUrl, speech.getDuration(), speech.getVoiceUsed(), speech.getSpeedUsed());
+        }
+
+        SpeechResponse toResponse(String audioUrl) {
+            return new SpeechResponse.Builder()
+                    .audioUrl(audioUrl)
+                    .duration(duration)
+                    .voiceUsed(voiceUsed)
+                    .speedUsed(speedUsed)
+                    .build();
+        }
+    }
+}
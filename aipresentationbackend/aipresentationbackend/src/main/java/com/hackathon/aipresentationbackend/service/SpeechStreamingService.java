@@ -0,0 +1,221 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.hackathon.aipresentationbackend.exception.MurfApiException;
+import com.hackathon.aipresentationbackend.model.SpeechRequest;
+import com.hackathon.aipresentationbackend.model.SpeechResponse;
+import com.hackathon.aipresentationbackend.model.SpeechSegment;
+import com.hackathon.aipresentationbackend.service.speech.Mp3SegmentWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * Streams a script's speech as one MP3 while it is still being synthesized.
+ * Segments come from the {@link SegmentedSpeechService} in script order; each one's audio is fetched
+ * from Murf and copied to the client buffer by buffer, flushing at every segment boundary, so playback
+ * can start once the first segment is ready while later segments are synthesized in the background.
+ * The same audio can also be stored as one file, for rehearsal results to link to.
+ */
+@Service
+public class SpeechStreamingService {
+    private static final Logger log = LoggerFactory.getLogger(SpeechStreamingService.class);
+    private static final Duration DOWNLOAD_TIMEOUT = Duration.ofSeconds(30);
+    private static final String STREAM_FORMAT = "MP3";
+
+    private final SegmentedSpeechService segmentedSpeechService;
+    private final MurfService murfService;
+    private final WebClient webClient;
+    private final AudioBlobStore audioBlobStore;
+    private final Executor storeExecutor;
+
+    @Autowired
+    public SpeechStreamingService(SegmentedSpeechService segmentedSpeechService, MurfService murfService,
+                                  WebClient webClient, AudioBlobStore audioBlobStore) {
+        this(segmentedSpeechService, murfService, webClient, audioBlobStore, task -> Schedulers.boundedElastic().schedule(task));
+    }
+
+    SpeechStreamingService(SegmentedSpeechService segmentedSpeechService, MurfService murfService, WebClient webClient,
+                           AudioBlobStore audioBlobStore, Executor storeExecutor) {
+        this.segmentedSpeechService = segmentedSpeechService;
+        this.murfService = murfService;
+        this.webClient = webClient;
+        this.audioBlobStore = audioBlobStore;
+        this.storeExecutor = storeExecutor;
+    }
+
+    /**
+     * Writes the speech for the request to the stream as MP3. A segment that cannot be synthesized or
+     * fetched is skipped, leaving a gap, because the response is already playing by then.
+     *
+     * @return The number of audio bytes written
+     * @throws MurfApiException With status 502 if no segment produced audio
+     */
+    public long streamAudio(SpeechRequest request, OutputStream out) throws IOException {
+        return writeAudio(request, out, false);
+    }
+
+    /**
+     * Synthesizes the request's speech into one MP3 kept in the {@link AudioBlobStore}, so it plays from a single URL.
+     * Segments already in the speech cache are not synthesized again, so after a script is edited only its
+     * changed paragraphs cost Murf calls, and a script that was stored before is served without any.
+     *
+     * @return The local URL of the stored audio
+     * @throws MurfApiException With status 502 if any segment could not be generated, since a stored file must be complete
+     */
+    public String storeAudio(SpeechRequest request) throws IOException {
+        return audioBlobStore.store(storeKey(request), "mp3", out -> writeAudio(request, out, true));
+    }
+
+    /**
+     * Returns the URL {@link #storeAudio} gives the request's speech straight away, and stores it in the background.
+     * A client asking for the file before it is stored waits for it. If a segment cannot be generated or
+     * fetched, the whole script is synthesized by Murf in one request instead, so the audio is not lost.
+     *
+     * @return The local URL the audio will be served from
+     */
+    public String storeAudioInBackground(SpeechRequest request) {
+        return audioBlobStore.storeInBackground(storeKey(request), "mp3", storeExecutor,
+                out -> writeAudio(request, out, true),
+                out -> writeWholeScript(request, out));
+    }
+
+    private static String storeKey(SpeechRequest request) {
+        return String.join("|", STREAM_FORMAT, request.getVoiceId(), String.valueOf(request.getSpeed()),
+                String.valueOf(request.getTone()), request.getText());
+    }
+
+    private void writeWholeScript(SpeechRequest request, OutputStream out) throws IOException {
+        SpeechResponse speech = murfService.generateSpeech(mp3Request(request));
+        if (!speech.hasAudioUrl()) {
+            throw new MurfApiException("Murf returned no audio URL for the script", HttpStatus.BAD_GATEWAY);
+        }
+        Mp3SegmentWriter writer = new Mp3SegmentWriter(out);
+        writer.startSegment();
+        try {
+            copy(speech.getAudioUrl(), writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.endSegment();
+        writer.flush();
+        log.info("Stored the script's audio from one Murf request, {} bytes", writer.getBytesWritten());
+    }
+
+    private static SpeechRequest mp3Request(SpeechRequest request) {
+        SpeechRequest mp3Request = new SpeechRequest(request.getText(), request.getVoiceId(), request.getSpeed(), request.getTone());
+        mp3Request.setFormat(STREAM_FORMAT);
+        return mp3Request;
+    }
+
+    private long writeAudio(SpeechRequest request, OutputStream out, boolean complete) throws IOException {
+        SpeechRequest mp3Request = mp3Request(request);
+
+        Mp3SegmentWriter writer = new Mp3SegmentWriter(out);
+        int streamed = 0;
+        int skipped = 0;
+        // Closing the stream cancels synthesis of the remaining segments if the client goes away
+        try (Stream<SpeechSegment> segments = segmentedSpeechService.streamSegments(mp3Request).toStream()) {
+            Iterator<SpeechSegment> iterator = segments.iterator();
+            while (iterator.hasNext()) {
+                SpeechSegment segment = iterator.next();
+                if (!segment.isSuccess() || segment.getAudioUrl() == null) {
+                    if (complete) {
+                        throw new MurfApiException("Segment " + segment.getIndex() + " could not be generated: "
+                                + segment.getError(), HttpStatus.BAD_GATEWAY);
+                    }
+                    log.warn("Skipping segment {} of the audio stream: {}", segment.getIndex(), segment.getError());
+                    skipped++;
+                    continue;
+                }
+                writer.startSegment();
+                try {
+                    copy(segment.getAudioUrl(), writer);
+                } catch (UncheckedIOException e) {
+                    // Writing to the client failed; nothing left to stream to
+                    throw e.getCause();
+                } catch (RuntimeException e) {
+                    if (complete) {
+                        throw new MurfApiException("Segment " + segment.getIndex() + " could not be downloaded",
+                                HttpStatus.BAD_GATEWAY, e);
+                    }
+                    log.warn("Skipping segment {} of the audio stream, download failed: {}", segment.getIndex(), e.getMessage());
+                    skipped++;
+                    continue;
+                }
+                writer.endSegment();
+                writer.flush();
+                streamed++;
+            }
+        }
+
+        if (streamed == 0 && skipped > 0) {
+            throw new MurfApiException("No audio could be generated for the script", HttpStatus.BAD_GATEWAY);
+        }
+        log.info("Streamed {} segment(s), {} bytes of audio, {} skipped", streamed, writer.getBytesWritten(), skipped);
+        return writer.getBytesWritten();
+    }
+
+    /**
+     * Copies a segment's audio from the local blob store when it is stored there, otherwise from Murf.
+     * A local URL whose file was evicted is fetched from its source, never from this server over HTTP.
+     */
+    private void copy(String audioUrl, Mp3SegmentWriter writer) {
+        Optional<AudioBlobStore.AudioBlob> local = audioBlobStore.findByUrl(audioUrl);
+        if (local.isPresent()) {
+            try (InputStream input = Files.newInputStream(local.get().path())) {
+                byte[] buffer = new byte[16 * 1024];
+                for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+                    writeToClient(writer, buffer, read);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Stored audio could not be read: " + e.getMessage(), e);
+            }
+            return;
+        }
+        String source = audioBlobStore.findSourceByUrl(audioUrl)
+                .orElseThrow(() -> new IllegalStateException("Stored audio is no longer available: " + audioUrl));
+        webClient.get()
+                .uri(source)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .doOnNext(buffer -> {
+                    try {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        writeToClient(writer, bytes, bytes.length);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .blockLast(DOWNLOAD_TIMEOUT);
+    }
+
+    /**
+     * Failures writing to the client are unchecked so they pass through the download pipeline,
+     * and are told apart from download failures by their type
+     */
+    private static void writeToClient(Mp3SegmentWriter writer, byte[] bytes, int length) {
+        try {
+            writer.write(bytes, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
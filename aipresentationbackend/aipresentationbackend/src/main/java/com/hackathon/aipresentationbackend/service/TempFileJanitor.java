@@ -0,0 +1,252 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.hackathon.aipresentationbackend.exception.AudioProcessingException;
+import com.hackathon.aipresentationbackend.service.audio.TempFileLeases;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Owns the audio temp directory and keeps it bounded.
+ * A scheduled sweep deletes files older than the maximum age, then the oldest files until the
+ * directory is back under its size limit. Files leased by in-flight requests are never deleted,
+ * and neither are files younger than the minimum age, which covers files between creation and lease.
+ * New uploads are rejected with 503 when accepting them would exceed the directory limit or leave
+ * the volume with less than the reserved free space. An accepted file's size stays reserved until it
+ * has been written, so concurrent uploads cannot all pass the check against the same free space.
+ */
+@Service
+public class TempFileJanitor {
+    private static final Logger log = LoggerFactory.getLogger(TempFileJanitor.class);
+
+    private final File directory;
+    private final long maxAgeMillis;
+    private final long minAgeMillis;
+    private final long maxDirectoryBytes;
+    private final long minFreeBytes;
+    private final Clock clock;
+    private final TempFileLeases leases = new TempFileLeases();
+    private long reservedBytes;
+
+    private final AtomicLong filesReclaimed = new AtomicLong();
+    private final AtomicLong bytesReclaimed = new AtomicLong();
+    private final AtomicLong uploadsRejected = new AtomicLong();
+
+    @Autowired
+    public TempFileJanitor(@Value("${audio.temp.directory:${java.io.tmpdir}/presentation-coach}") String directory,
+                           @Value("${audio.temp.max-age:30m}") Duration maxAge,
+                           @Value("${audio.temp.min-age:2m}") Duration minAge,
+                           @Value("${audio.temp.max-directory-size:2GB}") DataSize maxDirectorySize,
+                           @Value("${audio.temp.min-free-space:512MB}") DataSize minFreeSpace) {
+        this(directory, maxAge, minAge, maxDirectorySize, minFreeSpace, Clock.systemUTC());
+    }
+
+    TempFileJanitor(String directory, Duration maxAge, Duration minAge, DataSize maxDirectorySize,
+                    DataSize minFreeSpace, Clock clock) {
+        this.directory = new File(directory);
+        this.maxAgeMillis = maxAge.toMillis();
+        this.minAgeMillis = minAge.toMillis();
+        this.maxDirectoryBytes = maxDirectorySize.toBytes();
+        this.minFreeBytes = minFreeSpace.toBytes();
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the temp directory, creating it if it doesn't exist
+     */
+    public File getDirectory() {
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        return directory;
+    }
+
+    /**
+     * Protects a temp file from cleanup until the lease is closed
+     */
+    public TempFileLeases.Lease lease(File file) {
+        return leases.acquire(file.toPath());
+    }
+
+    /**
+     * Reserves room for a new file, sweeping once first if there is none in case space can be reclaimed.
+     * The caller closes the reservation once the file is written, when its size counts in the directory
+     * instead, or when writing it fails.
+     *
+     * @param incomingBytes Expected size of the new file
+     * @return The reservation; closing it more than once has no further effect
+     * @throws AudioProcessingException With status 503 if the file would not fit
+     */
+    public Reservation ensureCapacity(long incomingBytes) {
+        if (tryReserve(incomingBytes)) {
+            return new Reservation(incomingBytes);
+        }
+        sweep(incomingBytes);
+        if (!tryReserve(incomingBytes)) {
+            uploadsRejected.incrementAndGet();
+            log.warn("Rejecting {} byte audio file: temp storage is full", incomingBytes);
+            throw new AudioProcessingException("Audio storage is temporarily full, please retry shortly",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return new Reservation(incomingBytes);
+    }
+
+    /**
+     * Deletes expired files, then the oldest files while the directory is over its size limit
+     *
+     * @return The number of files deleted
+     */
+    @Scheduled(fixedDelayString = "${audio.temp.sweep-interval:1m}", initialDelayString = "${audio.temp.sweep-interval:1m}")
+    public int sweep() {
+        return sweep(0);
+    }
+
+    /**
+     * Sweeps as usual, but also evicts until the directory has room for a file of the given size
+     */
+    private synchronized int sweep(long reserveBytes) {
+        long sizeLimit = maxDirectoryBytes - reservedBytes - reserveBytes;
+        List<File> candidates = new ArrayList<>();
+        long totalBytes = 0;
+        long now = clock.millis();
+        for (File file : listFiles()) {
+            totalBytes += file.length();
+            if (now - file.lastModified() >= minAgeMillis && !leases.isLeased(file.toPath())) {
+                candidates.add(file);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(File::lastModified));
+
+        int deleted = 0;
+        for (File file : candidates) {
+            boolean expired = now - file.lastModified() >= maxAgeMillis;
+            if (!expired && totalBytes <= sizeLimit) {
+                break;
+            }
+            long length = file.length();
+            if (delete(file)) {
+                totalBytes -= length;
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            log.info("Temp janitor reclaimed {} file(s); {} bytes remain in {}", deleted, totalBytes, directory);
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes every file in the temp directory that no request has leased and that is past the minimum age,
+     * however far it is from expiring
+     *
+     * @return The number of files deleted
+     */
+    public synchronized int deleteUnleased() {
+        int deleted = 0;
+        long now = clock.millis();
+        for (File file : listFiles()) {
+            if (now - file.lastModified() >= minAgeMillis && !leases.isLeased(file.toPath()) && delete(file)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    public long getFilesReclaimed() {
+        return filesReclaimed.get();
+    }
+
+    public long getBytesReclaimed() {
+        return bytesReclaimed.get();
+    }
+
+    public long getUploadsRejected() {
+        return uploadsRejected.get();
+    }
+
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    public int getLeasedFileCount() {
+        return leases.size();
+    }
+
+    /**
+     * Total size of the files currently in the temp directory
+     */
+    public long getDirectoryBytes() {
+        long total = 0;
+        for (File file : listFiles()) {
+            total += file.length();
+        }
+        return total;
+    }
+
+    private synchronized boolean tryReserve(long incomingBytes) {
+        File dir = getDirectory();
+        long pendingBytes = reservedBytes + incomingBytes;
+        if (getDirectoryBytes() + pendingBytes > maxDirectoryBytes || dir.getUsableSpace() - pendingBytes < minFreeBytes) {
+            return false;
+        }
+        reservedBytes = pendingBytes;
+        return true;
+    }
+
+    private synchronized void release(long bytes) {
+        reservedBytes -= bytes;
+    }
+
+    private boolean delete(File file) {
+        long length = file.length();
+        if (!file.delete()) {
+            log.warn("Temp janitor failed to delete {}", file.getName());
+            return false;
+        }
+        filesReclaimed.incrementAndGet();
+        bytesReclaimed.addAndGet(length);
+        return true;
+    }
+
+    private List<File> listFiles() {
+        File[] files = directory.listFiles(File::isFile);
+        return files == null ? List.of() : List.of(files);
+    }
+
+    /**
+     * Room held for a file that is being written
+     */
+    public final class Reservation implements AutoCloseable {
+        private final long bytes;
+        private boolean released;
+
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!released) {
+                released = true;
+                release(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.hackathon.aipresentationbackend.model.SpeechResponse;
+import com.hackathon.aipresentationbackend.model.ToneBatchRequest;
+import com.hackathon.aipresentationbackend.model.ToneBatchResponse;
+import com.hackathon.aipresentationbackend.model.ToneRehearsalRequest;
+import com.hackathon.aipresentationbackend.model.ToneVariationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Renders one sentence in several tones and voices concurrently.
+ * Each combination is a {@link MurfService#generateToneVariation} call on the bounded elastic
+ * scheduler, with at most the configured number of Murf calls in flight across all batches. A failed
+ * combination is reported in its result instead of failing the whole batch.
+ */
+@Service
+public class ToneRehearsalService {
+    private static final Logger log = LoggerFactory.getLogger(ToneRehearsalService.class);
+    private static final String VARIATION_FAILED = "Speech could not be generated for this voice and tone";
+
+    private final MurfService murfService;
+    private final int maxConcurrency;
+    // Shared by every batch, so concurrent batches together stay within the limit
+    private final Semaphore murfCalls;
+
+    public ToneRehearsalService(MurfService murfService,
+                                @Value("${murf.tone-batch.max-concurrency:4}") int maxConcurrency) {
+        this.murfService = murfService;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.murfCalls = new Semaphore(this.maxConcurrency, true);
+    }
+
+    /**
+     * Generates every combination and waits for all of them
+     *
+     * @return Results in request order
+     */
+    public ToneBatchResponse generateVariations(ToneBatchRequest request) {
+        List<ToneVariationResult> results = streamVariations(request)
+                .sort(Comparator.comparingInt(ToneVariationResult::getIndex))
+                .collectList()
+                .block();
+        return new ToneBatchResponse(request.getSentence(), results == null ? List.of() : results);
+    }
+
+    /**
+     * Generates every combination, emitting each result as soon as it completes
+     */
+    public Flux<ToneVariationResult> streamVariations(ToneBatchRequest request) {
+        List<ToneRehearsalRequest> variations = request.toRehearsalRequests();
+        log.info("Generating {} tone variations with up to {} concurrent Murf calls", variations.size(), maxConcurrency);
+
+        return Flux.range(0, variations.size())
+                .flatMap(index -> generate(index, variations.get(index)), maxConcurrency);
+    }
+
+    private Mono<ToneVariationResult> generate(int index, ToneRehearsalRequest variation) {
+        return Mono.fromCallable(() -> ToneVariationResult.success(index, variation, generateLimited(variation)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    // The detail can carry Murf's response body, so it stays in the log
+                    log.warn("Tone variation {} with voice {} failed: {}", variation.getTone(),
+                            variation.getVoiceId(), e.getMessage());
+                    return Mono.just(ToneVariationResult.failure(index, variation, VARIATION_FAILED));
+                });
+    }
+
+    private SpeechResponse generateLimited(ToneRehearsalRequest variation) throws InterruptedException {
+        murfCalls.acquire();
+        try {
+            return murfService.generateToneVariation(variation);
+        } finally {
+            murfCalls.release();
+        }
+    }
+}
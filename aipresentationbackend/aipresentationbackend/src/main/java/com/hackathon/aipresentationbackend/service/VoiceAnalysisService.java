@@ -1,12 +1,15 @@
 package com.hackathon.aipresentationbackend.service;
 
 import com.hackathon.aipresentationbackend.model.*;
+import com.hackathon.aipresentationbackend.service.tone.ToneClassification;
+import com.hackathon.aipresentationbackend.service.tone.ToneClassifier;
+import com.hackathon.aipresentationbackend.service.tone.ToneKeywordDetector;
+import com.hackathon.aipresentationbackend.service.tone.ToneScores;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -18,11 +21,23 @@ public class VoiceAnalysisService {
 
     private static final Logger log = LoggerFactory.getLogger(VoiceAnalysisService.class);
 
-    private final MurfService murfService;
+    // Preferred voices by name, lower-cased to match the catalog's name index
+    private static final List<String> BUSINESS_VOICES = List.of("julia", "marcus", "emily");
+    private static final List<String> AUTHORITY_VOICES = List.of("marcus", "julia");
+    private static final List<String> FRIENDLY_VOICES = List.of("alex", "sophia", "julia");
+    private static final List<String> ENERGETIC_VOICES = List.of("marcus", "emily", "thomas");
+    private static final List<String> WARM_VOICES = List.of("sophia", "julia", "alex");
+
+    private final VoiceCatalogService voiceCatalogService;
+    private final ToneKeywordDetector toneKeywordDetector;
+    private final ToneClassifier toneClassifier;
 
     @Autowired
-    public VoiceAnalysisService(MurfService murfService) {
-        this.murfService = murfService;
+    public VoiceAnalysisService(VoiceCatalogService voiceCatalogService, ToneKeywordDetector toneKeywordDetector,
+                                ToneClassifier toneClassifier) {
+        this.voiceCatalogService = voiceCatalogService;
+        this.toneKeywordDetector = toneKeywordDetector;
+        this.toneClassifier = toneClassifier;
     }
 
     /**
@@ -30,28 +45,35 @@ public class VoiceAnalysisService {
      * This integrates with your existing VoiceOption system
      */
     public VoiceRecommendation analyzeAndRecommendVoice(String speechText, String detectedTone) {
+        return analyzeAndRecommendVoice(speechText, detectedTone, null);
+    }
+
+    /**
+     * Analyze speech text and recommend a voice, using the transcript's word timings to judge pacing
+     *
+     * @param words Word timings from the transcript, or null if there are none
+     */
+    public VoiceRecommendation analyzeAndRecommendVoice(String speechText, String detectedTone,
+                                                        List<TranscriptionResponse.Word> words) {
         log.info("Analyzing speech for voice recommendation, detected tone: {}", detectedTone);
 
         try {
-            // Get available voices from your existing system
-            List<VoiceOption> availableVoices = murfService.getAvailableVoices();
-            log.info("Available voices: {}", availableVoices.stream().map(VoiceOption::getName).toList());
+            // Scan the speech once for tone keywords and content cues
+            ToneScores toneScores = toneKeywordDetector.analyze(speechText);
 
-            // Determine recommended tone based on detected issues
-            ToneType recommendedTone = determineRecommendedTone(speechText, detectedTone);
-            log.info("Recommended tone: {}", recommendedTone);
+            // Score every tone with the classifier; its probability is the recommendation's confidence
+            ToneClassification classification = toneClassifier.classify(speechText, toneScores, detectedTone, words);
+            ToneType recommendedTone = classification.getTone();
+            log.info("Recommended tone: {} (probabilities {})", recommendedTone, classification.getProbabilities());
 
-            // Select best voice from available options
-            VoiceOption bestVoice = selectBestVoice(availableVoices, recommendedTone, speechText);
+            // Select best voice from the cached catalog
+            VoiceOption bestVoice = selectBestVoice(recommendedTone, toneScores);
             log.info("Selected voice: {} for tone: {}", bestVoice.getName(), recommendedTone);
 
             // Generate recommendation reason
             String reason = generateRecommendationReason(detectedTone, recommendedTone, bestVoice);
 
-            // Calculate confidence score
-            double confidence = calculateConfidenceScore(speechText, detectedTone, recommendedTone);
-
-            return new VoiceRecommendation(bestVoice, recommendedTone, reason, confidence);
+            return new VoiceRecommendation(bestVoice, recommendedTone, reason, classification.getConfidence());
 
         } catch (Exception e) {
             log.error("Error in voice analysis: {}", e.getMessage(), e);
@@ -60,85 +82,46 @@ public class VoiceAnalysisService {
         }
     }
 
-    /**
-     * Determine what tone would help improve the speech
-     */
-    private ToneType determineRecommendedTone(String speechText, String detectedTone) {
-        String lowerText = speechText.toLowerCase();
-        String lowerDetectedTone = detectedTone.toLowerCase();
-
-        // If speech has hesitation markers, recommend confidence
-        if (lowerText.contains("um") || lowerText.contains("uh") ||
-                lowerDetectedTone.contains("hesitant") || lowerDetectedTone.contains("uncertain")) {
-            return ToneType.CONFIDENT;
-        }
-
-        // If speech is about results/business, recommend confidence
-        if (lowerText.contains("results") || lowerText.contains("growth") ||
-                lowerText.contains("achievement") || lowerText.contains("success")) {
-            return ToneType.CONFIDENT;
-        }
-
-        // If speech is about support/help, recommend empathy
-        if (lowerText.contains("support") || lowerText.contains("help") ||
-                lowerText.contains("understand") || lowerText.contains("together")) {
-            return ToneType.EMPATHETIC;
-        }
-
-        // If speech has urgency markers, recommend urgent tone
-        if (lowerText.contains("urgent") || lowerText.contains("immediately") ||
-                lowerText.contains("quickly") || lowerText.contains("deadline")) {
-            return ToneType.URGENT;
-        }
-
-        // Default to conversational for most cases
-        return ToneType.CONVERSATIONAL;
-    }
-
     /**
      * Select the best voice from available options with intelligent selection
      */
-    private VoiceOption selectBestVoice(List<VoiceOption> availableVoices, ToneType recommendedTone, String speechText) {
-        // Filter voices that support the recommended tone
-        List<VoiceOption> suitableVoices = availableVoices.stream()
-                .filter(voice -> voice.supportsTone(recommendedTone))
-                .toList();
+    private VoiceOption selectBestVoice(ToneType recommendedTone, ToneScores toneScores) {
+        // Voices that support the recommended tone
+        List<VoiceOption> suitableVoices = voiceCatalogService.findByTone(recommendedTone);
 
         if (suitableVoices.isEmpty()) {
             // If no voices support the tone, return the first available voice
+            List<VoiceOption> availableVoices = voiceCatalogService.getVoices();
             return availableVoices.isEmpty() ? getDefaultVoiceOption() : availableVoices.get(0);
         }
 
         // Smart voice selection based on content and tone
-        String lowerText = speechText.toLowerCase();
-
         // For confident tone - prefer variety based on content
         if (recommendedTone == ToneType.CONFIDENT) {
             // For business/professional content
-            if (lowerText.contains("business") || lowerText.contains("professional") ||
-                    lowerText.contains("quarterly") || lowerText.contains("results")) {
+            if (toneScores.hasCue("business")) {
                 // Alternate between Marcus and Julia for business
-                return selectByNamePreference(suitableVoices, Arrays.asList("Julia", "Marcus", "Emily"));
+                return selectByNamePreference(suitableVoices, recommendedTone, BUSINESS_VOICES);
             }
             // For presentations with authority needs
-            if (lowerText.contains("team") || lowerText.contains("everyone")) {
-                return selectByNamePreference(suitableVoices, Arrays.asList("Marcus", "Julia"));
+            if (toneScores.hasCue("authority")) {
+                return selectByNamePreference(suitableVoices, recommendedTone, AUTHORITY_VOICES);
             }
         }
 
         // For conversational tone - prefer friendly voices
         if (recommendedTone == ToneType.CONVERSATIONAL) {
-            return selectByNamePreference(suitableVoices, Arrays.asList("Alex", "Sophia", "Julia"));
+            return selectByNamePreference(suitableVoices, recommendedTone, FRIENDLY_VOICES);
         }
 
         // For urgent tone - prefer energetic voices
         if (recommendedTone == ToneType.URGENT) {
-            return selectByNamePreference(suitableVoices, Arrays.asList("Marcus", "Emily", "Thomas"));
+            return selectByNamePreference(suitableVoices, recommendedTone, ENERGETIC_VOICES);
         }
 
         // For empathetic tone - prefer warm voices
         if (recommendedTone == ToneType.EMPATHETIC) {
-            return selectByNamePreference(suitableVoices, Arrays.asList("Sophia", "Julia", "Alex"));
+            return selectByNamePreference(suitableVoices, recommendedTone, WARM_VOICES);
         }
 
         // Default: rotate through available voices to avoid always picking the same one
@@ -146,15 +129,12 @@ public class VoiceAnalysisService {
     }
 
     /**
-     * Select voice by name preference order
+     * Select voice by name preference order, using the catalog's name index rather than scanning the voices
      */
-    private VoiceOption selectByNamePreference(List<VoiceOption> voices, List<String> preferredNames) {
+    private VoiceOption selectByNamePreference(List<VoiceOption> voices, ToneType tone, List<String> preferredNames) {
         for (String preferredName : preferredNames) {
-            VoiceOption preferred = voices.stream()
-                    .filter(voice -> voice.getName().equalsIgnoreCase(preferredName))
-                    .findFirst()
-                    .orElse(null);
-            if (preferred != null) {
+            VoiceOption preferred = voiceCatalogService.voiceNamed(preferredName);
+            if (preferred != null && preferred.supportsTone(tone)) {
                 return preferred;
             }
         }
@@ -198,22 +178,6 @@ public class VoiceAnalysisService {
         };
     }
 
-    /**
-     * Calculate confidence score based on analysis quality
-     */
-    private double calculateConfidenceScore(String speechText, String detectedTone, ToneType recommendedTone) {
-        double baseScore = 0.7; // Base confidence
-
-        // Higher confidence for longer speeches (more data to analyze)
-        if (speechText.length() > 200) baseScore += 0.1;
-        if (speechText.length() > 500) baseScore += 0.1;
-
-        // Higher confidence for clear tone detection
-        if (!detectedTone.equals("neutral")) baseScore += 0.1;
-
-        return Math.min(0.95, baseScore); // Cap at 95%
-    }
-
     /**
      * Default recommendation when analysis fails
      */
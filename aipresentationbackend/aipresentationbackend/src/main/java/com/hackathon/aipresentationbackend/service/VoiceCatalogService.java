@@ -0,0 +1,275 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.model.ToneType;
+import com.hackathon.aipresentationbackend.model.VoiceOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Serves the Murf voice catalog from memory so voice lookups never call Murf on the request path.
+ * The bundled catalog is loaded on construction, the live catalog is fetched from Murf shortly after
+ * the application starts and then on a fixed interval, and each load replaces an immutable snapshot
+ * indexed by voice ID, name, tone, gender and accent. A failed refresh keeps the current snapshot.
+ */
+@Service
+public class VoiceCatalogService {
+    private static final Logger log = LoggerFactory.getLogger(VoiceCatalogService.class);
+    private static final String MURF_API_BASE_URL = "https://api.murf.ai/v1";
+    private static final String VOICES_ENDPOINT = "/speech/voices";
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(15);
+
+    // Murf styles that deliver one of the app's tones; other styles, such as "Sad" or "Wizard", are left out
+    private static final Map<String, ToneType> STYLE_TONES = Map.ofEntries(
+            Map.entry("confident", ToneType.CONFIDENT),
+            Map.entry("assertive", ToneType.CONFIDENT),
+            Map.entry("inspirational", ToneType.CONFIDENT),
+            Map.entry("newscast", ToneType.CONFIDENT),
+            Map.entry("conversational", ToneType.CONVERSATIONAL),
+            Map.entry("narration", ToneType.CONVERSATIONAL),
+            Map.entry("storytelling", ToneType.CONVERSATIONAL),
+            Map.entry("urgent", ToneType.URGENT),
+            Map.entry("promo", ToneType.URGENT),
+            Map.entry("excited", ToneType.URGENT),
+            Map.entry("empathetic", ToneType.EMPATHETIC),
+            Map.entry("calm", ToneType.EMPATHETIC));
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final String murfApiKey;
+
+    @Value("${murf.api.base-url:" + MURF_API_BASE_URL + "}")
+    private String murfBaseUrl = MURF_API_BASE_URL;
+
+    private final Map<String, List<String>> bundledTones;
+    private volatile Catalog catalog;
+
+    public VoiceCatalogService(WebClient webClient, ObjectMapper objectMapper,
+                               @Value("${murf.api.key}") String murfApiKey,
+                               @Value("${murf.voices.fallback:classpath:voices/murf-voices.json}") Resource fallback) {
+        this.webClient = webClient;
+        this.objectMapper = objectMapper;
+        this.murfApiKey = murfApiKey;
+        this.catalog = loadFallback(fallback);
+        Map<String, List<String>> tones = new HashMap<>();
+        catalog.voices.forEach(voice -> tones.put(voice.getVoiceId(), voice.getSupportedTones()));
+        this.bundledTones = Map.copyOf(tones);
+    }
+
+    /**
+     * Starts a refresh on a worker thread, so the scheduler's threads are not held while Murf responds
+     */
+    @Scheduled(initialDelayString = "${murf.voices.refresh-initial-delay:30s}",
+            fixedDelayString = "${murf.voices.refresh-interval:6h}")
+    public void scheduleRefresh() {
+        Schedulers.boundedElastic().schedule(this::refresh);
+    }
+
+    /**
+     * Replaces the catalog with Murf's current voice list, keeping the existing one if the fetch fails
+     *
+     * @return true if the catalog was replaced
+     */
+    public boolean refresh() {
+        try {
+            String body = webClient.get()
+                    .uri(murfBaseUrl + VOICES_ENDPOINT)
+                    .header("api-key", murfApiKey)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .block(FETCH_TIMEOUT);
+            List<VoiceOption> voices = parse(objectMapper.readTree(body), bundledTones);
+            if (voices.isEmpty()) {
+                log.warn("Murf returned an empty voice list, keeping {} cached voices", catalog.voices.size());
+                return false;
+            }
+            catalog = new Catalog(voices);
+            log.info("Voice catalog refreshed from Murf with {} voices", voices.size());
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to refresh voice catalog from Murf, keeping {} cached voices: {}",
+                    catalog.voices.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    public List<VoiceOption> getVoices() {
+        return catalog.voices;
+    }
+
+    public Optional<VoiceOption> findById(String voiceId) {
+        return Optional.ofNullable(voiceId).map(catalog.byId::get);
+    }
+
+    public Optional<VoiceOption> findByName(String name) {
+        return Optional.ofNullable(name).map(key -> catalog.byName.get(normalize(key)));
+    }
+
+    public List<VoiceOption> findByTone(String tone) {
+        return lookup(catalog.byTone, tone);
+    }
+
+    /**
+     * Voices supporting one of the app's tones, precomputed for every tone when the catalog loads
+     */
+    public List<VoiceOption> findByTone(ToneType tone) {
+        return tone == null ? List.of() : catalog.byToneType.get(tone);
+    }
+
+    public List<VoiceOption> findByGender(String gender) {
+        return lookup(catalog.byGender, gender);
+    }
+
+    public List<VoiceOption> findByAccent(String accent) {
+        return lookup(catalog.byAccent, accent);
+    }
+
+    /**
+     * Looks up a voice by an already lower-cased name without allocating, for the recommendation path
+     */
+    VoiceOption voiceNamed(String normalizedName) {
+        return catalog.byName.get(normalizedName);
+    }
+
+    public boolean voiceSupportsTone(String voiceId, String tone) {
+        return tone != null && findById(voiceId).map(voice -> voice.supportsTone(tone)).orElse(false);
+    }
+
+    private static List<VoiceOption> lookup(Map<String, List<VoiceOption>> index, String key) {
+        return key == null ? List.of() : index.getOrDefault(normalize(key), List.of());
+    }
+
+    private Catalog loadFallback(Resource fallback) {
+        try (InputStream input = fallback.getInputStream()) {
+            List<VoiceOption> voices = parse(objectMapper.readTree(input), Map.of());
+            log.info("Loaded {} bundled voices from {}", voices.size(), fallback.getDescription());
+            return new Catalog(voices);
+        } catch (IOException e) {
+            throw new IllegalStateException("Bundled voice catalog could not be read: " + fallback.getDescription(), e);
+        }
+    }
+
+    /**
+     * Converts Murf's voice list, translating each voice's styles into the app's tones
+     *
+     * @param bundledTones Tones by voice ID, kept for voices none of whose styles translate
+     */
+    private static List<VoiceOption> parse(JsonNode root, Map<String, List<String>> bundledTones) {
+        List<VoiceOption> voices = new ArrayList<>();
+        for (JsonNode node : root) {
+            String voiceId = node.path("voiceId").asText(null);
+            if (voiceId == null || voiceId.isEmpty()) {
+                continue;
+            }
+            List<String> tones = new ArrayList<>();
+            for (JsonNode style : node.path("availableStyles")) {
+                ToneType tone = STYLE_TONES.get(normalize(style.asText()));
+                if (tone != null && !tones.contains(tone.getValue())) {
+                    tones.add(tone.getValue());
+                }
+            }
+            if (tones.isEmpty()) {
+                tones.addAll(bundledTones.getOrDefault(voiceId, List.of()));
+            }
+            voices.add(new VoiceOption.Builder()
+                    .voiceId(voiceId)
+                    .name(displayName(node.path("displayName").asText(voiceId)))
+                    .gender(node.path("gender").asText(null))
+                    .accent(node.path("accent").asText(null))
+                    .description(node.path("description").asText(null))
+                    .supportedTones(List.copyOf(tones))
+                    .build());
+        }
+        return voices;
+    }
+
+    /**
+     * Murf suffixes display names with a gender marker, e.g. "Marcus (M)"
+     */
+    private static String displayName(String name) {
+        int marker = name.indexOf(" (");
+        return marker > 0 ? name.substring(0, marker) : name;
+    }
+
+    private static String normalize(String key) {
+        return key.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One immutable, fully indexed version of the catalog
+     */
+    private static final class Catalog {
+        private final List<VoiceOption> voices;
+        private final Map<String, VoiceOption> byId;
+        private final Map<String, VoiceOption> byName;
+        private final Map<String, List<VoiceOption>> byTone;
+        private final Map<ToneType, List<VoiceOption>> byToneType;
+        private final Map<String, List<VoiceOption>> byGender;
+        private final Map<String, List<VoiceOption>> byAccent;
+
+        private Catalog(List<VoiceOption> voices) {
+            Map<String, VoiceOption> ids = new LinkedHashMap<>();
+            Map<String, VoiceOption> names = new HashMap<>();
+            Map<String, List<VoiceOption>> tones = new HashMap<>();
+            for (VoiceOption voice : voices) {
+                ids.putIfAbsent(voice.getVoiceId(), voice);
+                names.putIfAbsent(normalize(voice.getName()), voice);
+                for (String tone : voice.getSupportedTones()) {
+                    tones.computeIfAbsent(tone, key -> new ArrayList<>()).add(voice);
+                }
+            }
+            this.voices = List.copyOf(ids.values());
+            this.byId = Map.copyOf(ids);
+            this.byName = Map.copyOf(names);
+            this.byTone = freeze(tones);
+            EnumMap<ToneType, List<VoiceOption>> toneTypes = new EnumMap<>(ToneType.class);
+            for (ToneType tone : ToneType.values()) {
+                toneTypes.put(tone, byTone.getOrDefault(tone.getValue(), List.of()));
+            }
+            this.byToneType = Collections.unmodifiableMap(toneTypes);
+            this.byGender = group(this.voices, VoiceOption::getGender);
+            this.byAccent = group(this.voices, VoiceOption::getAccent);
+        }
+
+        private static Map<String, List<VoiceOption>> group(List<VoiceOption> voices,
+                                                            Function<VoiceOption, String> attribute) {
+            Map<String, List<VoiceOption>> groups = new HashMap<>();
+            for (VoiceOption voice : voices) {
+                String value = attribute.apply(voice);
+                if (value != null) {
+                    groups.computeIfAbsent(normalize(value), key -> new ArrayList<>()).add(voice);
+                }
+            }
+            return freeze(groups);
+        }
+
+        private static Map<String, List<VoiceOption>> freeze(Map<String, List<VoiceOption>> groups) {
+            Map<String, List<VoiceOption>> frozen = new HashMap<>();
+            groups.forEach((key, value) -> frozen.put(key, List.copyOf(value)));
+            return Map.copyOf(frozen);
+        }
+    }
+}
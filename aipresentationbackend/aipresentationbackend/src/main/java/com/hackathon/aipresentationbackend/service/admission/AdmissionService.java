@@ -0,0 +1,482 @@
+package com.hackathon.aipresentationbackend.service.admission;
+
+import com.hackathon.aipresentationbackend.exception.RateLimitException;
+import com.hackathon.aipresentationbackend.service.AudioProcessingService;
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Decides when a rehearsal analysis may start, so a burst of hour-long recordings cannot take every
+ * slot while short practice clips wait behind them.
+ * Each request's cost is estimated up front from how long its recording plays and how long its script is,
+ * and the recording's length puts it in a priority class. While fewer than max-concurrent analyses run it
+ * starts straight away; otherwise it queues in its class. Some slots are reserved for the short class, so
+ * standard and long recordings can never hold all of them. Classes share freed slots in proportion to their
+ * weights, and within a class each user's requests take turns with other users', so one user sending many
+ * recordings only delays their own. A request whose estimated wait is already over its class's maximum
+ * is turned away with 429 and a Retry-After, instead of queueing past the point the client would give up,
+ * and so is one still waiting when that maximum has passed.
+ */
+@Service
+public class AdmissionService {
+    private static final Logger log = LoggerFactory.getLogger(AdmissionService.class);
+    private static final Pattern WORD = Pattern.compile("\\S+");
+
+    public enum Priority {
+        SHORT, STANDARD, LONG;
+
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * @param maxWait Longest estimated wait a request of this class is queued for
+     * @param weight  Share of freed slots given to this class while others are waiting too
+     */
+    public record PriorityClass(Duration maxWait, int weight) {
+    }
+
+    /**
+     * @param maxConcurrent        Analyses run at once on this server; 0 admits everything straight away
+     * @param reservedShortSlots   Slots only short recordings may use
+     * @param maxQueued            Requests waiting across all classes; each holds a request thread
+     * @param baseCost             Estimated time of an analysis apart from its recording and script
+     * @param costPerAudioMinute   Estimated time added by each minute of recording
+     * @param costPerThousandWords Estimated time added by each thousand words of script
+     * @param shortMaxAudio        Longest recording in the short class
+     * @param standardMaxAudio     Longest recording in the standard class; longer ones are in the long class
+     */
+    public record Settings(int maxConcurrent, int reservedShortSlots, int maxQueued, Duration baseCost,
+                           Duration costPerAudioMinute, Duration costPerThousandWords, Duration shortMaxAudio, Duration standardMaxAudio,
+                           Map<Priority, PriorityClass> classes) {
+    }
+
+    /**
+     * What a request is expected to take, and the class it queues in
+     */
+    public record Cost(Priority priority, long audioMillis, int scriptWords, Duration estimate) {
+    }
+
+    private final AudioProcessingService audioProcessingService;
+    private final PipelineMetrics pipelineMetrics;
+    private final Settings settings;
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+    private final Set<Ticket> running = new HashSet<>();
+    private final Permit unlimited = new Permit(null);
+    private double virtualTime;
+
+    @Autowired
+    public AdmissionService(AudioProcessingService audioProcessingService, PipelineMetrics pipelineMetrics,
+                            @Value("${admission.max-concurrent:32}") int maxConcurrent,
+                            @Value("${admission.short.reserved-slots:8}") int reservedShortSlots,
+                            @Value("${admission.max-queued:60}") int maxQueued,
+                            @Value("${server.tomcat.threads.max:200}") int requestThreads,
+                            @Value("${admission.cost.base:10s}") Duration baseCost,
+                            @Value("${admission.cost.per-audio-minute:15s}") Duration costPerAudioMinute,
+                            @Value("${admission.cost.per-thousand-words:10s}") Duration costPerThousandWords,
+                            @Value("${admission.short.max-audio:5m}") Duration shortMaxAudio,
+                            @Value("${admission.short.max-wait:30s}") Duration shortMaxWait,
+                            @Value("${admission.short.weight:6}") int shortWeight,
+                            @Value("${admission.standard.max-audio:20m}") Duration standardMaxAudio,
+                            @Value("${admission.standard.max-wait:2m}") Duration standardMaxWait,
+                            @Value("${admission.standard.weight:3}") int standardWeight,
+                            @Value("${admission.long.max-wait:10m}") Duration longMaxWait,
+                            @Value("${admission.long.weight:1}") int longWeight) {
+        this(audioProcessingService, pipelineMetrics, new Settings(Math.max(0, maxConcurrent),
+                Math.max(0, Math.min(reservedShortSlots, maxConcurrent - 1)),
+                queueLimit(Math.max(0, maxConcurrent), maxQueued, requestThreads), baseCost,
+                costPerAudioMinute, costPerThousandWords, shortMaxAudio, standardMaxAudio, Map.of(
+                        Priority.SHORT, new PriorityClass(shortMaxWait, Math.max(1, shortWeight)),
+                        Priority.STANDARD, new PriorityClass(standardMaxWait, Math.max(1, standardWeight)),
+                        Priority.LONG, new PriorityClass(longMaxWait, Math.max(1, longWeight)))),
+                Clock.systemUTC());
+    }
+
+    /**
+     * Queued and running analyses each hold a request thread, so together they are kept to half of them,
+     * leaving the rest for history, audio and every other endpoint
+     */
+    private static int queueLimit(int maxConcurrent, int maxQueued, int requestThreads) {
+        int limit = Math.max(0, requestThreads / 2 - maxConcurrent);
+        if (maxQueued > limit) {
+            log.warn("admission.max-queued={} with {} running would hold more than half of the {} request threads; queueing at most {}",
+                    maxQueued, maxConcurrent, requestThreads, limit);
+            return limit;
+        }
+        return maxQueued;
+    }
+
+    AdmissionService(AudioProcessingService audioProcessingService, PipelineMetrics pipelineMetrics,
+                     Settings settings, Clock clock) {
+        this.audioProcessingService = audioProcessingService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.settings = settings;
+        this.clock = clock;
+        for (Priority priority : Priority.values()) {
+            lanes.put(priority, new Lane(settings.classes().get(priority).weight()));
+        }
+        if (isEnabled()) {
+            pipelineMetrics.monitor(this);
+        }
+    }
+
+    public boolean isEnabled() {
+        return settings.maxConcurrent() > 0;
+    }
+
+    /**
+     * Waits until the rehearsal may be analyzed. Close the permit once the analysis is done.
+     *
+     * @throws RateLimitException If the wait for its class is estimated to be over the class's maximum
+     */
+    public Permit admit(String userId, MultipartFile audioFile, String script) {
+        if (!isEnabled()) {
+            return unlimited;
+        }
+        return admit(userId, estimate(audioProcessingService.estimateDurationMillis(audioFile), script));
+    }
+
+    public Cost estimate(long audioMillis, String script) {
+        int words = script == null ? 0 : (int) WORD.matcher(script).results().count();
+        Duration estimate = settings.baseCost()
+                .plusMillis(Math.round(audioMillis / 60_000.0 * settings.costPerAudioMinute().toMillis()))
+                .plusMillis(Math.round(words / 1000.0 * settings.costPerThousandWords().toMillis()));
+        Priority priority = audioMillis <= settings.shortMaxAudio().toMillis() ? Priority.SHORT
+                : audioMillis <= settings.standardMaxAudio().toMillis() ? Priority.STANDARD
+                : Priority.LONG;
+        return new Cost(priority, audioMillis, words, estimate);
+    }
+
+    /**
+     * Waits until a request of the given cost may start. Close the permit once it is done.
+     *
+     * @throws RateLimitException If the wait for its class is estimated to be over the class's maximum
+     */
+    public Permit admit(String userId, Cost cost) {
+        if (!isEnabled()) {
+            return unlimited;
+        }
+        Ticket ticket = new Ticket(userId, cost, clock.millis(), lock.newCondition());
+        lock.lock();
+        try {
+            // Anything still queued is waiting for a slot its class may not take, so a startable ticket jumps no one
+            if (canStart(cost.priority())) {
+                start(ticket);
+            } else {
+                shedIfOverloaded(ticket);
+                enqueue(ticket);
+                awaitStart(ticket);
+            }
+        } finally {
+            lock.unlock();
+        }
+        pipelineMetrics.recordAdmissionWait(cost.priority().tag(), Duration.ofMillis(ticket.startedAt - ticket.queuedAt));
+        return new Permit(ticket);
+    }
+
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth(Priority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority).size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Estimated seconds of analysis waiting in a class's queue
+     */
+    public double getQueuedSeconds(Priority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority).queuedMillis / 1000.0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void shedIfOverloaded(Ticket ticket) {
+        Priority priority = ticket.cost.priority();
+        Duration wait = estimatedWait(ticket);
+        Duration maxWait = settings.classes().get(priority).maxWait();
+        boolean full = queued() >= settings.maxQueued();
+        if (!full && wait.compareTo(maxWait) <= 0) {
+            return;
+        }
+        pipelineMetrics.recordAdmissionShed(priority.tag());
+        log.info("Turning away a {} rehearsal from {}: estimated wait {}s, limit {}s, {} queued",
+                priority.tag(), ticket.userId, wait.toSeconds(), maxWait.toSeconds(), queued());
+        throw overloaded(wait.compareTo(maxWait) > 0 ? wait.minus(maxWait) : Duration.ofSeconds(1));
+    }
+
+    private static RateLimitException overloaded(Duration retryAfter) {
+        return new RateLimitException("The server is busy analyzing other rehearsals. Please try again in "
+                + Math.max(1, retryAfter.toSeconds()) + " seconds.", retryAfter, "OVERLOADED");
+    }
+
+    /**
+     * When a slot the ticket's class may use would come free, found by handing those slots in turn to the
+     * requests that start before it: the ones ahead of it in its own class, and what the other classes are
+     * served meanwhile by weight. Slots start out free when the analysis in them is estimated to finish.
+     */
+    private Duration estimatedWait(Ticket ticket) {
+        Priority priority = ticket.cost.priority();
+        Lane own = lanes.get(priority);
+        ArrayDeque<Ticket> mine = own.byUser.get(ticket.userId);
+        int turn = (mine == null ? 0 : mine.size()) + 1;
+        List<Long> ahead = new ArrayList<>();
+        for (ArrayDeque<Ticket> tickets : own.byUser.values()) {
+            int count = tickets == mine ? tickets.size() : Math.min(tickets.size(), turn);
+            Iterator<Ticket> iterator = tickets.iterator();
+            for (int i = 0; i < count; i++) {
+                ahead.add(iterator.next().cost.estimate().toMillis());
+            }
+        }
+        double rounds = (ahead.size() + 1) / (double) own.weight;
+        for (Lane lane : lanes.values()) {
+            if (lane != own && lane.size > 0) {
+                int served = (int) Math.min(lane.size, Math.ceil(rounds * lane.weight));
+                for (int i = 0; i < served; i++) {
+                    ahead.add(lane.queuedMillis / lane.size);
+                }
+            }
+        }
+
+        PriorityQueue<Long> freeAt = new PriorityQueue<>();
+        long now = clock.millis();
+        int usable = priority == Priority.SHORT ? settings.maxConcurrent() : sharedSlots();
+        for (Ticket started : running) {
+            if (priority == Priority.SHORT || started.cost.priority() != Priority.SHORT) {
+                freeAt.add(Math.max(0, started.cost.estimate().toMillis() - (now - started.startedAt)));
+            }
+        }
+        while (freeAt.size() < usable) {
+            freeAt.add(0L);
+        }
+        for (long cost : ahead) {
+            freeAt.add(freeAt.poll() + cost);
+        }
+        return Duration.ofMillis(freeAt.peek());
+    }
+
+    /**
+     * Slots standard and long recordings may hold between them
+     */
+    private int sharedSlots() {
+        return settings.maxConcurrent() - settings.reservedShortSlots();
+    }
+
+    private boolean canStart(Priority priority) {
+        if (running.size() >= settings.maxConcurrent()) {
+            return false;
+        }
+        if (priority == Priority.SHORT) {
+            return true;
+        }
+        int shared = 0;
+        for (Ticket started : running) {
+            if (started.cost.priority() != Priority.SHORT) {
+                shared++;
+            }
+        }
+        return shared < sharedSlots();
+    }
+
+    private void enqueue(Ticket ticket) {
+        Lane lane = lanes.get(ticket.cost.priority());
+        if (lane.size == 0) {
+            lane.start = Math.max(lane.start, virtualTime);
+        }
+        lane.byUser.computeIfAbsent(ticket.userId, user -> new ArrayDeque<>()).addLast(ticket);
+        lane.size++;
+        lane.queuedMillis += ticket.cost.estimate().toMillis();
+    }
+
+    private void awaitStart(Ticket ticket) {
+        long remaining = settings.classes().get(ticket.cost.priority()).maxWait().toNanos();
+        try {
+            while (!ticket.started) {
+                if (remaining <= 0) {
+                    dequeue(ticket);
+                    pipelineMetrics.recordAdmissionShed(ticket.cost.priority().tag());
+                    log.info("A {} rehearsal from {} waited its limit without starting", ticket.cost.priority().tag(), ticket.userId);
+                    throw overloaded(estimatedWait(ticket));
+                }
+                remaining = ticket.condition.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (ticket.started) {
+                running.remove(ticket);
+                dispatch();
+            } else {
+                dequeue(ticket);
+            }
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting to analyze the rehearsal", e);
+        }
+    }
+
+    private void dequeue(Ticket ticket) {
+        Lane lane = lanes.get(ticket.cost.priority());
+        ArrayDeque<Ticket> tickets = lane.byUser.get(ticket.userId);
+        if (tickets != null && tickets.remove(ticket)) {
+            if (tickets.isEmpty()) {
+                lane.byUser.remove(ticket.userId);
+            }
+            lane.size--;
+            lane.queuedMillis -= ticket.cost.estimate().toMillis();
+        }
+    }
+
+    /**
+     * Starts queued requests while slots are free. Of the classes that may take a free slot, the one whose
+     * next request would finish first in virtual time goes next (weighted fair queueing), and within it the
+     * user at the front of the rotation.
+     */
+    private void dispatch() {
+        while (running.size() < settings.maxConcurrent() && queued() > 0) {
+            Lane next = null;
+            for (Map.Entry<Priority, Lane> entry : lanes.entrySet()) {
+                Lane lane = entry.getValue();
+                if (lane.size > 0 && canStart(entry.getKey())
+                        && (next == null || lane.start + lane.stride < next.start + next.stride)) {
+                    next = lane;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            virtualTime = next.start;
+            next.start += next.stride;
+            Ticket ticket = next.poll();
+            start(ticket);
+            ticket.condition.signal();
+        }
+    }
+
+    private void start(Ticket ticket) {
+        ticket.started = true;
+        ticket.startedAt = clock.millis();
+        running.add(ticket);
+    }
+
+    private void finish(Ticket ticket) {
+        lock.lock();
+        try {
+            running.remove(ticket);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int queued() {
+        int queued = 0;
+        for (Lane lane : lanes.values()) {
+            queued += lane.size;
+        }
+        return queued;
+    }
+
+    /**
+     * A started analysis; closing it lets the next queued one start
+     */
+    public final class Permit implements AutoCloseable {
+        private final Ticket ticket;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Permit(Ticket ticket) {
+            this.ticket = ticket;
+        }
+
+        @Override
+        public void close() {
+            if (ticket != null && closed.compareAndSet(false, true)) {
+                finish(ticket);
+            }
+        }
+    }
+
+    /**
+     * One priority class's queue. Users take turns in the order they first queued; a user with more
+     * requests waiting goes back to the end of the rotation after each one.
+     */
+    private static final class Lane {
+        private final int weight;
+        private final double stride;
+        private final LinkedHashMap<String, ArrayDeque<Ticket>> byUser = new LinkedHashMap<>();
+        private int size;
+        private long queuedMillis;
+        private double start;
+
+        private Lane(int weight) {
+            this.weight = weight;
+            this.stride = 1.0 / weight;
+        }
+
+        private Ticket poll() {
+            Map.Entry<String, ArrayDeque<Ticket>> first = byUser.entrySet().iterator().next();
+            byUser.remove(first.getKey());
+            Ticket ticket = first.getValue().pollFirst();
+            if (!first.getValue().isEmpty()) {
+                byUser.put(first.getKey(), first.getValue());
+            }
+            size--;
+            queuedMillis -= ticket.cost.estimate().toMillis();
+            return ticket;
+        }
+    }
+
+    private static final class Ticket {
+        private final String userId;
+        private final Cost cost;
+        private final long queuedAt;
+        private final Condition condition;
+        private boolean started;
+        private long startedAt;
+
+        private Ticket(String userId, Cost cost, long queuedAt, Condition condition) {
+            this.userId = userId;
+            this.cost = cost;
+            this.queuedAt = queuedAt;
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * File formats the audio pipeline can write
+ */
+public enum AudioEncoding {
+    WAV(".wav"),
+    FLAC(".flac");
+
+    private final String extension;
+
+    AudioEncoding(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Opens a writer that encodes mono 16-bit PCM at the given sample rate into the target file
+     */
+    public AudioFileWriter open(Path target, int sampleRate) throws IOException {
+        return switch (this) {
+            case WAV -> new WavFileWriter(target, sampleRate);
+            case FLAC -> new FlacFileWriter(target, sampleRate);
+        };
+    }
+}
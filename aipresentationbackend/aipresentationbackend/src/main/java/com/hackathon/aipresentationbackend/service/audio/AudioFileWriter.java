@@ -0,0 +1,18 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import java.io.IOException;
+
+/**
+ * Final pipeline stage that encodes mono 16-bit PCM into an audio file.
+ * The file is complete once {@link #finish()} has been called.
+ */
+public interface AudioFileWriter extends PcmSink, AutoCloseable {
+
+    /**
+     * @return Number of bytes written to the file so far, including headers
+     */
+    long getFileBytes();
+
+    @Override
+    void close() throws IOException;
+}
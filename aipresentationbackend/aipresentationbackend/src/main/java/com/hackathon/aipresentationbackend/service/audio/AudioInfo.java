@@ -0,0 +1,69 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+/**
+ * Stream properties read from an audio file's container headers
+ */
+public class AudioInfo {
+    public static final long UNKNOWN_DURATION = -1;
+
+    private final String container;
+    private final String codec;
+    private final long durationMicros;
+    private final int sampleRate;
+    private final int channels;
+    private final int bitsPerSample;
+
+    public AudioInfo(String container, String codec, long durationMicros, int sampleRate, int channels,
+                     int bitsPerSample) {
+        this.container = container;
+        this.codec = codec;
+        this.durationMicros = durationMicros;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.bitsPerSample = bitsPerSample;
+    }
+
+    /**
+     * @return The container format: WAV, MP3, M4A, MP4, WEBM or MATROSKA
+     */
+    public String getContainer() {
+        return container;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    /**
+     * @return Duration in microseconds, or {@link #UNKNOWN_DURATION} if the headers do not say
+     */
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * @return Bits per sample for PCM audio, 0 for compressed codecs
+     */
+    public int getBitsPerSample() {
+        return bitsPerSample;
+    }
+
+    @Override
+    public String toString() {
+        return "AudioInfo{" +
+                "container='" + container + '\'' +
+                ", codec='" + codec + '\'' +
+                ", durationMicros=" + durationMicros +
+                ", sampleRate=" + sampleRate +
+                ", channels=" + channels +
+                '}';
+    }
+}
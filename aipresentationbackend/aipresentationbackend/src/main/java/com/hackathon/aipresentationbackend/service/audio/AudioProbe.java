@@ -0,0 +1,583 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Reads duration, sample rate and channel count from WAV, MP3, M4A/MP4 and WebM/Matroska headers.
+ * Only header structures are read; audio payloads are skipped over with forward seeks, so the cost
+ * does not grow with the length of the recording. MP3 duration comes from the Xing/Info or VBRI
+ * header when present, and is otherwise derived from the constant bitrate and file size.
+ * WebM duration comes from the Duration element, and is otherwise estimated from the block timecodes
+ * in the first clusters, scaled up to the file size.
+ */
+public class AudioProbe {
+    private static final int MP3_SYNC_SEARCH_BYTES = 64 * 1024;
+    private static final long MKV_CLUSTER_SCAN_BYTES = 1024 * 1024;
+
+    // Bitrates in kbps, indexed by [MPEG-1 ? 0 : 1][layer 1..3][bitrate index]
+    private static final int[][][] MP3_BITRATES = {
+            {
+                    {},
+                    {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+                    {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+                    {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320}
+            },
+            {
+                    {},
+                    {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+                    {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160},
+                    {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}
+            }
+    };
+    private static final int[] MP3_SAMPLE_RATES = {44100, 48000, 32000};
+
+    private static final long EBML_HEADER = 0x1A45DFA3L;
+    private static final long EBML_DOC_TYPE = 0x4282;
+    private static final long MKV_SEGMENT = 0x18538067L;
+    private static final long MKV_INFO = 0x1549A966L;
+    private static final long MKV_TIMECODE_SCALE = 0x2AD7B1;
+    private static final long MKV_DURATION = 0x4489;
+    private static final long MKV_TRACKS = 0x1654AE6BL;
+    private static final long MKV_TRACK_ENTRY = 0xAE;
+    private static final long MKV_TRACK_NUMBER = 0xD7;
+    private static final long MKV_TRACK_TYPE = 0x83;
+    private static final long MKV_CODEC_ID = 0x86;
+    private static final long MKV_AUDIO = 0xE1;
+    private static final long MKV_SAMPLING_FREQUENCY = 0xB5;
+    private static final long MKV_CHANNELS = 0x9F;
+    private static final long MKV_CLUSTER = 0x1F43B675L;
+    private static final long MKV_CLUSTER_TIMECODE = 0xE7;
+    private static final long MKV_BLOCK_GROUP = 0xA0;
+    private static final long MKV_BLOCK = 0xA1;
+    private static final long MKV_SIMPLE_BLOCK = 0xA3;
+    private static final int MKV_AUDIO_TRACK_TYPE = 2;
+
+    private final long clusterScanBytes;
+
+    public AudioProbe() {
+        this(MKV_CLUSTER_SCAN_BYTES);
+    }
+
+    /**
+     * @param clusterScanBytes How far into the clusters of a WebM file without a Duration element to read block timecodes
+     */
+    AudioProbe(long clusterScanBytes) {
+        this.clusterScanBytes = clusterScanBytes;
+    }
+
+    /**
+     * Probes the audio file readable from the channel's current position
+     *
+     * @param channel The audio file; only forward seeks are made beyond the first few kilobytes
+     * @return The stream properties
+     * @throws UnsupportedAudioFileException If the container is not recognized or its headers are incomplete
+     * @throws IOException                   If reading fails
+     */
+    public AudioInfo probe(SeekableByteChannel channel) throws UnsupportedAudioFileException, IOException {
+        ProbeInput input = new ProbeInput(channel);
+        long start = input.position();
+        if (!input.ensure(12)) {
+            throw new UnsupportedAudioFileException("File is too short to be audio");
+        }
+        String header = input.ascii(12);
+        input.seek(start);
+        long magic = input.u32();
+        input.seek(start);
+
+        try {
+            if (header.startsWith("RIFF") && header.endsWith("WAVE")) {
+                return probeWav(input);
+            }
+            if (magic == EBML_HEADER) {
+                return probeMatroska(input);
+            }
+            if ("ftyp".equals(header.substring(4, 8))) {
+                return probeMp4(input);
+            }
+            if (header.startsWith("ID3") || ((magic >>> 21) & 0x7FF) == 0x7FF) {
+                return probeMp3(input);
+            }
+        } catch (EOFException e) {
+            throw new UnsupportedAudioFileException("Audio headers are truncated: " + e.getMessage());
+        }
+        throw new UnsupportedAudioFileException("Unrecognized audio container");
+    }
+
+    private AudioInfo probeWav(ProbeInput input) throws IOException, UnsupportedAudioFileException {
+        input.skip(12);
+        int formatTag = -1;
+        int channels = 0;
+        long sampleRate = 0;
+        long byteRate = 0;
+        int bitsPerSample = 0;
+
+        while (input.ensure(8)) {
+            String chunkId = input.ascii(4);
+            long chunkSize = input.u32le();
+            long chunkStart = input.position();
+            if ("fmt ".equals(chunkId)) {
+                formatTag = input.u16le();
+                channels = input.u16le();
+                sampleRate = input.u32le();
+                byteRate = input.u32le();
+                input.u16le(); // block align
+                bitsPerSample = input.u16le();
+            } else if ("data".equals(chunkId)) {
+                if (formatTag == -1 || byteRate == 0) {
+                    break;
+                }
+                long available = input.size() - chunkStart;
+                // Streaming writers leave the size as 0 or 0xFFFFFFFF until the recording ends
+                long dataBytes = chunkSize == 0 || chunkSize == 0xFFFFFFFFL || chunkSize > available
+                        ? available : chunkSize;
+                return new AudioInfo("WAV", wavCodec(formatTag), dataBytes * 1_000_000 / byteRate,
+                        (int) sampleRate, channels, bitsPerSample);
+            }
+            input.seek(chunkStart + chunkSize + (chunkSize & 1));
+        }
+        throw new UnsupportedAudioFileException("WAV file has no readable fmt and data chunks");
+    }
+
+    private static String wavCodec(int formatTag) {
+        return switch (formatTag) {
+            case 0x0001, 0xFFFE -> "PCM";
+            case 0x0003 -> "IEEE_FLOAT";
+            case 0x0006 -> "ALAW";
+            case 0x0007 -> "ULAW";
+            case 0x0055 -> "MP3";
+            default -> String.format("WAVE_FORMAT_0x%04X", formatTag);
+        };
+    }
+
+    private AudioInfo probeMp3(ProbeInput input) throws IOException, UnsupportedAudioFileException {
+        long start = input.position();
+        if ("ID3".equals(input.ascii(3))) {
+            input.skip(2); // version
+            int flags = input.u8();
+            long tagSize = (input.u8() << 21) | (input.u8() << 14) | (input.u8() << 7) | input.u8();
+            input.seek(start + 10 + tagSize + ((flags & 0x10) != 0 ? 10 : 0));
+        } else {
+            input.seek(start);
+        }
+
+        long searchEnd = input.position() + MP3_SYNC_SEARCH_BYTES;
+        while (input.position() < searchEnd && input.ensure(4)) {
+            long headerPosition = input.position();
+            long header = input.u32();
+            Mp3Frame frame = Mp3Frame.parse(header);
+            if (frame != null) {
+                return mp3Info(input, headerPosition, frame);
+            }
+            input.seek(headerPosition + 1);
+        }
+        throw new UnsupportedAudioFileException("No MPEG audio frame found");
+    }
+
+    private AudioInfo mp3Info(ProbeInput input, long headerPosition, Mp3Frame frame) throws IOException {
+        long duration = AudioInfo.UNKNOWN_DURATION;
+
+        input.seek(headerPosition + 4 + frame.sideInfoBytes());
+        if (input.ensure(12)) {
+            String tag = input.ascii(4);
+            if ("Xing".equals(tag) || "Info".equals(tag)) {
+                long flags = input.u32();
+                if ((flags & 1) != 0) {
+                    duration = frame.durationMicros(input.u32());
+                }
+            }
+        }
+        if (duration == AudioInfo.UNKNOWN_DURATION) {
+            input.seek(headerPosition + 4 + 32);
+            if (input.ensure(18) && "VBRI".equals(input.ascii(4))) {
+                input.skip(10); // version, delay, quality, byte count
+                duration = frame.durationMicros(input.u32());
+            }
+        }
+        if (duration == AudioInfo.UNKNOWN_DURATION) {
+            long audioBytes = input.size() - headerPosition;
+            duration = audioBytes * 8_000 / frame.bitrateKbps;
+        }
+        return new AudioInfo("MP3", "MP3", duration, frame.sampleRate, frame.channels, 0);
+    }
+
+    /**
+     * The fields of an MPEG audio frame header that duration calculation needs
+     */
+    private record Mp3Frame(boolean mpeg1, int layer, int bitrateKbps, int sampleRate, int channels) {
+
+        static Mp3Frame parse(long header) {
+            if (((header >>> 21) & 0x7FF) != 0x7FF) {
+                return null;
+            }
+            int versionBits = (int) (header >>> 19) & 3;
+            int layerBits = (int) (header >>> 17) & 3;
+            int bitrateIndex = (int) (header >>> 12) & 0xF;
+            int sampleRateIndex = (int) (header >>> 10) & 3;
+            if (versionBits == 1 || layerBits == 0 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+                return null;
+            }
+            boolean mpeg1 = versionBits == 3;
+            int layer = 4 - layerBits;
+            int divisor = mpeg1 ? 1 : versionBits == 2 ? 2 : 4;
+            int channels = ((header >>> 6) & 3) == 3 ? 1 : 2;
+            return new Mp3Frame(mpeg1, layer, MP3_BITRATES[mpeg1 ? 0 : 1][layer][bitrateIndex],
+                    MP3_SAMPLE_RATES[sampleRateIndex] / divisor, channels);
+        }
+
+        int samplesPerFrame() {
+            return layer == 1 ? 384 : layer == 2 || mpeg1 ? 1152 : 576;
+        }
+
+        /**
+         * Size of the Layer III side information, after which an Xing/Info header sits
+         */
+        int sideInfoBytes() {
+            if (mpeg1) {
+                return channels == 1 ? 17 : 32;
+            }
+            return channels == 1 ? 9 : 17;
+        }
+
+        long durationMicros(long frames) {
+            return frames * samplesPerFrame() * 1_000_000 / sampleRate;
+        }
+    }
+
+    private AudioInfo probeMp4(ProbeInput input) throws IOException, UnsupportedAudioFileException {
+        Mp4Movie movie = new Mp4Movie();
+        long end = input.size();
+        while (input.position() + 8 <= end && input.ensure(8)) {
+            long boxStart = input.position();
+            long size = input.u32();
+            String type = input.ascii(4);
+            if (size == 1) {
+                size = input.u64();
+            } else if (size == 0) {
+                size = end - boxStart;
+            }
+            if (size < 8) {
+                break;
+            }
+            if ("ftyp".equals(type)) {
+                movie.brand = input.ascii(4);
+            } else if ("moov".equals(type)) {
+                readMp4Boxes(input, boxStart + size, movie);
+                break;
+            }
+            input.seek(boxStart + size);
+        }
+        if (!movie.audioFound) {
+            throw new UnsupportedAudioFileException("MP4 file has no audio track");
+        }
+
+        long duration = AudioInfo.UNKNOWN_DURATION;
+        if (movie.audioTimescale > 0 && movie.audioDuration > 0) {
+            duration = movie.audioDuration * 1_000_000 / movie.audioTimescale;
+        } else if (movie.movieTimescale > 0 && movie.movieDuration > 0) {
+            duration = movie.movieDuration * 1_000_000 / movie.movieTimescale;
+        }
+        String container = "M4A ".equals(movie.brand) ? "M4A" : "MP4";
+        return new AudioInfo(container, movie.audioCodec, duration, movie.audioSampleRate, movie.audioChannels, 0);
+    }
+
+    private void readMp4Boxes(ProbeInput input, long end, Mp4Movie movie) throws IOException {
+        while (input.position() + 8 <= end) {
+            long boxStart = input.position();
+            long size = input.u32();
+            String type = input.ascii(4);
+            if (size == 1) {
+                size = input.u64();
+            } else if (size == 0) {
+                size = end - boxStart;
+            }
+            if (size < 8) {
+                return;
+            }
+            long boxEnd = boxStart + size;
+            switch (type) {
+                case "trak" -> {
+                    movie.startTrack();
+                    readMp4Boxes(input, boxEnd, movie);
+                    movie.endTrack();
+                }
+                case "mdia", "minf", "stbl" -> readMp4Boxes(input, boxEnd, movie);
+                case "mvhd" -> {
+                    long[] timing = readMp4Timing(input);
+                    movie.movieTimescale = timing[0];
+                    movie.movieDuration = timing[1];
+                }
+                case "mdhd" -> {
+                    long[] timing = readMp4Timing(input);
+                    movie.trackTimescale = timing[0];
+                    movie.trackDuration = timing[1];
+                }
+                case "hdlr" -> {
+                    input.skip(8); // version, flags, pre-defined
+                    movie.trackHandler = input.ascii(4);
+                }
+                case "stsd" -> {
+                    input.skip(8); // version, flags, entry count
+                    input.skip(4); // entry size
+                    movie.trackCodec = input.ascii(4);
+                    input.skip(6 + 2 + 2 + 2 + 4); // reserved, data reference index, version, revision, vendor
+                    movie.trackChannels = input.u16();
+                    input.skip(2 + 2 + 2); // sample size, compression id, packet size
+                    movie.trackSampleRate = (int) (input.u32() >>> 16);
+                }
+                default -> {
+                }
+            }
+            input.seek(boxEnd);
+        }
+    }
+
+    /**
+     * Reads the timescale and duration from an mvhd or mdhd box
+     */
+    private long[] readMp4Timing(ProbeInput input) throws IOException {
+        int version = input.u8();
+        input.skip(3); // flags
+        if (version == 1) {
+            input.skip(16); // creation and modification times
+            return new long[]{input.u32(), input.u64()};
+        }
+        input.skip(8);
+        long timescale = input.u32();
+        long duration = input.u32();
+        return new long[]{timescale, duration == 0xFFFFFFFFL ? 0 : duration};
+    }
+
+    /**
+     * Header values collected while walking the moov box; the first sound track is the one reported
+     */
+    private static final class Mp4Movie {
+        private String brand;
+        private long movieTimescale;
+        private long movieDuration;
+        private long trackTimescale;
+        private long trackDuration;
+        private String trackHandler;
+        private String trackCodec;
+        private int trackChannels;
+        private int trackSampleRate;
+        private boolean audioFound;
+        private long audioTimescale;
+        private long audioDuration;
+        private String audioCodec;
+        private int audioChannels;
+        private int audioSampleRate;
+
+        void startTrack() {
+            trackTimescale = 0;
+            trackDuration = 0;
+            trackHandler = null;
+            trackCodec = null;
+            trackChannels = 0;
+            trackSampleRate = 0;
+        }
+
+        void endTrack() {
+            if (!audioFound && "soun".equals(trackHandler)) {
+                audioFound = true;
+                audioTimescale = trackTimescale;
+                audioDuration = trackDuration;
+                audioCodec = trackCodec;
+                audioChannels = trackChannels;
+                audioSampleRate = trackSampleRate;
+            }
+        }
+    }
+
+    private AudioInfo probeMatroska(ProbeInput input) throws IOException, UnsupportedAudioFileException {
+        MatroskaState state = new MatroskaState();
+
+        // Master elements are entered rather than skipped, so their children are read in the same loop;
+        // this also copes with the unknown-size Segment and Cluster elements live recorders write
+        while (input.ensure(2)) {
+            if (state.firstClusterStart >= 0 && input.position() - state.firstClusterStart > clusterScanBytes) {
+                state.clustersCut = true;
+                break;
+            }
+            long id = readElementId(input);
+            long size = readElementSize(input);
+            long dataStart = input.position();
+
+            if (id == EBML_HEADER || id == MKV_SEGMENT || id == MKV_INFO || id == MKV_TRACKS
+                    || id == MKV_AUDIO || id == MKV_BLOCK_GROUP) {
+                continue;
+            }
+            if (id == MKV_TRACK_ENTRY) {
+                state.endTrack();
+                continue;
+            }
+            if (id == MKV_CLUSTER) {
+                state.endTrack();
+                if (state.durationTicks >= 0) {
+                    break;
+                }
+                if (state.firstClusterStart < 0) {
+                    state.firstClusterStart = dataStart;
+                }
+                continue;
+            }
+            if (size < 0) {
+                break;
+            }
+
+            if (id == EBML_DOC_TYPE) {
+                state.docType = readString(input, size);
+            } else if (id == MKV_TIMECODE_SCALE) {
+                state.timecodeScale = readUnsigned(input, size);
+            } else if (id == MKV_DURATION) {
+                state.durationTicks = readFloat(input, (int) size);
+            } else if (id == MKV_TRACK_NUMBER) {
+                state.trackNumber = readUnsigned(input, size);
+            } else if (id == MKV_TRACK_TYPE) {
+                state.trackType = (int) readUnsigned(input, size);
+            } else if (id == MKV_CODEC_ID) {
+                String codec = readString(input, size);
+                state.trackCodec = codec != null ? codec.trim() : null;
+            } else if (id == MKV_SAMPLING_FREQUENCY) {
+                state.trackSampleRate = (int) Math.round(readFloat(input, (int) size));
+            } else if (id == MKV_CHANNELS) {
+                state.trackChannels = (int) readUnsigned(input, size);
+            } else if (id == MKV_CLUSTER_TIMECODE) {
+                state.clusterTimecode = readUnsigned(input, size);
+            } else if (id == MKV_SIMPLE_BLOCK || id == MKV_BLOCK) {
+                long track = readElementSize(input);
+                short relativeTimecode = (short) input.u16();
+                if (track == state.audioTrackNumber && state.clusterTimecode + relativeTimecode > state.lastBlockTicks) {
+                    state.lastBlockTicks = state.clusterTimecode + relativeTimecode;
+                    state.lastBlockOffset = dataStart - state.firstClusterStart;
+                }
+            }
+            input.seek(dataStart + size);
+        }
+        state.endTrack();
+
+        if (!state.audioFound) {
+            throw new UnsupportedAudioFileException("Matroska file has no audio track");
+        }
+        long duration = AudioInfo.UNKNOWN_DURATION;
+        if (state.durationTicks >= 0) {
+            duration = Math.round(state.durationTicks * state.timecodeScale / 1000.0);
+        } else if (state.lastBlockTicks >= 0) {
+            duration = state.lastBlockTicks * state.timecodeScale / 1000;
+            if (state.clustersCut && state.lastBlockOffset > 0) {
+                // Only the first clusters were read; assume the rest of the file holds audio at the same bitrate
+                long clusterBytes = input.size() - state.firstClusterStart;
+                duration = Math.round(duration * ((double) clusterBytes / state.lastBlockOffset));
+            }
+        }
+        String container = "webm".equals(state.docType) ? "WEBM" : "MATROSKA";
+        return new AudioInfo(container, state.audioCodec, duration, state.audioSampleRate, state.audioChannels, 0);
+    }
+
+    /**
+     * Reads an EBML element ID, keeping its length marker bits as the specification does
+     */
+    private long readElementId(ProbeInput input) throws IOException, UnsupportedAudioFileException {
+        int first = input.u8();
+        int length = Integer.numberOfLeadingZeros(first) - 23;
+        if (length < 1 || length > 4) {
+            throw new UnsupportedAudioFileException("Invalid EBML element ID");
+        }
+        long id = first;
+        for (int i = 1; i < length; i++) {
+            id = (id << 8) | input.u8();
+        }
+        return id;
+    }
+
+    /**
+     * Reads an EBML variable-length size, returning -1 for the reserved "unknown size" value
+     */
+    private long readElementSize(ProbeInput input) throws IOException, UnsupportedAudioFileException {
+        int first = input.u8();
+        int length = Integer.numberOfLeadingZeros(first) - 23;
+        if (length < 1 || length > 8) {
+            throw new UnsupportedAudioFileException("Invalid EBML element size");
+        }
+        long value = first & (0xFF >>> length);
+        boolean allOnes = value == (0xFF >>> length);
+        for (int i = 1; i < length; i++) {
+            int next = input.u8();
+            allOnes &= next == 0xFF;
+            value = (value << 8) | next;
+        }
+        return allOnes ? -1 : value;
+    }
+
+    /**
+     * Reads an unsigned integer element, or returns 0 for one longer than eight bytes
+     */
+    private long readUnsigned(ProbeInput input, long size) throws IOException {
+        return size <= 8 ? input.unsigned((int) size) : 0;
+    }
+
+    /**
+     * Reads a string element, or returns null for one too large to be a real doc type or codec ID;
+     * the caller seeks past the element either way
+     */
+    private String readString(ProbeInput input, long size) throws IOException {
+        return size <= ProbeInput.MAX_FIELD_BYTES ? input.ascii((int) size) : null;
+    }
+
+    private double readFloat(ProbeInput input, int size) throws IOException {
+        return switch (size) {
+            case 4 -> Float.intBitsToFloat((int) input.u32());
+            case 8 -> Double.longBitsToDouble(input.u64());
+            default -> {
+                input.skip(size);
+                yield -1;
+            }
+        };
+    }
+
+    /**
+     * Values collected while walking Matroska elements; the first audio track is the one reported
+     */
+    private static final class MatroskaState {
+        private String docType;
+        private long timecodeScale = 1_000_000;
+        private double durationTicks = -1;
+        private long trackNumber;
+        private int trackType;
+        private String trackCodec;
+        private int trackSampleRate = 8000;
+        private int trackChannels = 1;
+        private boolean inTrack;
+        private boolean audioFound;
+        private long audioTrackNumber = -1;
+        private String audioCodec;
+        private int audioSampleRate;
+        private int audioChannels;
+        private long clusterTimecode;
+        private long lastBlockTicks = -1;
+        private long firstClusterStart = -1;
+        private long lastBlockOffset;
+        private boolean clustersCut;
+
+        /**
+         * Closes the track entry being read, if any, and starts collecting a fresh one
+         */
+        void endTrack() {
+            if (inTrack && !audioFound && trackType == MKV_AUDIO_TRACK_TYPE) {
+                audioFound = true;
+                audioTrackNumber = trackNumber;
+                audioCodec = trackCodec;
+                audioSampleRate = trackSampleRate;
+                audioChannels = trackChannels;
+            }
+            inTrack = true;
+            trackNumber = 0;
+            trackType = 0;
+            trackCodec = null;
+            trackSampleRate = 8000;
+            trackChannels = 1;
+        }
+    }
+}
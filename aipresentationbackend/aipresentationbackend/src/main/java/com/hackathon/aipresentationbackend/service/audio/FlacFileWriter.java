@@ -0,0 +1,423 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Losslessly encodes mono 16-bit PCM to a FLAC file.
+ * Each block of samples is coded with whichever fixed linear predictor (order 0-4) leaves the
+ * smallest residual, and the residual is Rice coded with per-partition parameters; blocks that do
+ * not compress are stored verbatim. Speech at 16 kHz typically shrinks to about half the WAV size.
+ * Like {@link WavFileWriter}, the STREAMINFO header is written as a placeholder and patched on
+ * {@link #finish()} once the sample count and MD5 signature are known.
+ */
+public class FlacFileWriter implements AudioFileWriter {
+    static final int BLOCK_SIZE = 4096;
+    private static final int HEADER_BYTES = 42;
+    private static final int BITS_PER_SAMPLE = 16;
+    private static final int MAX_FIXED_ORDER = 4;
+    private static final int MAX_PARTITION_ORDER = 8;
+    private static final int MAX_RICE_PARAMETER = 14;
+
+    private static final int[] CRC8_TABLE = crcTable(0x07, 8);
+    private static final int[] CRC16_TABLE = crcTable(0x8005, 16);
+
+    private final FileChannel channel;
+    private final int sampleRate;
+    private final MessageDigest md5;
+    private final int[] block = new int[BLOCK_SIZE];
+    private final int[] residual = new int[BLOCK_SIZE];
+    private final byte[] pcmBytes = new byte[BLOCK_SIZE * 2];
+    private final BitWriter frame = new BitWriter(BLOCK_SIZE * 3);
+
+    private int blockCount;
+    private long frameNumber;
+    private long totalSamples;
+    private long fileBytes;
+    private int minFrameBytes = Integer.MAX_VALUE;
+    private int maxFrameBytes;
+    private boolean finished;
+
+    public FlacFileWriter(Path target, int sampleRate) throws IOException {
+        this.channel = FileChannel.open(target, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.sampleRate = sampleRate;
+        try {
+            this.md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+        fileBytes = writeFully(header(new byte[16]));
+    }
+
+    @Override
+    public void write(short[] samples, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            block[blockCount++] = samples[i];
+            if (blockCount == BLOCK_SIZE) {
+                encodeBlock();
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (blockCount > 0) {
+            encodeBlock();
+        }
+        channel.write(header(md5.digest()), 0);
+        channel.force(false);
+        finished = true;
+    }
+
+    @Override
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void encodeBlock() throws IOException {
+        int n = blockCount;
+        updateDigest(n);
+
+        frame.reset();
+        writeFrameHeader(n);
+        writeSubframe(n);
+        frame.alignToByte();
+        frame.writeBits(crc(CRC16_TABLE, 16, frame.bytes, frame.length()), 16);
+
+        int frameBytes = frame.length();
+        fileBytes += writeFully(ByteBuffer.wrap(frame.bytes, 0, frameBytes));
+        if (n == BLOCK_SIZE) {
+            minFrameBytes = Math.min(minFrameBytes, frameBytes);
+        }
+        maxFrameBytes = Math.max(maxFrameBytes, frameBytes);
+        totalSamples += n;
+        frameNumber++;
+        blockCount = 0;
+    }
+
+    private void writeFrameHeader(int n) {
+        frame.writeBits(0b11111111111110, 14);
+        frame.writeBits(0, 1);
+        frame.writeBits(0, 1); // fixed block size stream
+        frame.writeBits(n == BLOCK_SIZE ? 0b1100 : 0b0111, 4);
+        frame.writeBits(0b0000, 4); // sample rate from STREAMINFO
+        frame.writeBits(0b0000, 4); // mono
+        frame.writeBits(0b100, 3); // 16 bits per sample
+        frame.writeBits(0, 1);
+        writeUtf8(frameNumber);
+        if (n != BLOCK_SIZE) {
+            frame.writeBits(n - 1, 16);
+        }
+        frame.writeBits(crc(CRC8_TABLE, 8, frame.bytes, frame.length()), 8);
+    }
+
+    private void writeSubframe(int n) {
+        if (isConstant(n)) {
+            frame.writeBits(0, 8);
+            frame.writeBits(block[0], BITS_PER_SAMPLE);
+            return;
+        }
+
+        int order = chooseFixedOrder(n);
+        computeResidual(order, n);
+        int partitionOrder = choosePartitionOrder(order, n);
+        long fixedBits = (long) order * BITS_PER_SAMPLE + residualBits(order, n, partitionOrder);
+        if (fixedBits >= (long) n * BITS_PER_SAMPLE) {
+            frame.writeBits(0b000001 << 1, 8);
+            for (int i = 0; i < n; i++) {
+                frame.writeBits(block[i], BITS_PER_SAMPLE);
+            }
+            return;
+        }
+
+        frame.writeBits((0b001000 | order) << 1, 8);
+        for (int i = 0; i < order; i++) {
+            frame.writeBits(block[i], BITS_PER_SAMPLE);
+        }
+        frame.writeBits(0b00, 2); // Rice coding with 4-bit parameters
+        frame.writeBits(partitionOrder, 4);
+        int partitionSize = n >> partitionOrder;
+        for (int partition = 0, start = order; partition < (1 << partitionOrder); partition++) {
+            int end = (partition + 1) * partitionSize;
+            int parameter = riceParameter(start, end);
+            frame.writeBits(parameter, 4);
+            for (int i = start; i < end; i++) {
+                int value = zigZag(residual[i]);
+                frame.writeUnary(value >>> parameter);
+                frame.writeBits(value, parameter);
+            }
+            start = end;
+        }
+    }
+
+    private boolean isConstant(int n) {
+        for (int i = 1; i < n; i++) {
+            if (block[i] != block[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Picks the predictor order with the smallest total absolute residual
+     */
+    private int chooseFixedOrder(int n) {
+        long[] totals = new long[MAX_FIXED_ORDER + 1];
+        for (int i = MAX_FIXED_ORDER; i < n; i++) {
+            int x0 = block[i], x1 = block[i - 1], x2 = block[i - 2], x3 = block[i - 3], x4 = block[i - 4];
+            totals[0] += Math.abs(x0);
+            totals[1] += Math.abs(x0 - x1);
+            totals[2] += Math.abs(x0 - 2 * x1 + x2);
+            totals[3] += Math.abs(x0 - 3 * x1 + 3 * x2 - x3);
+            totals[4] += Math.abs(x0 - 4 * x1 + 6 * x2 - 4 * x3 + x4);
+        }
+        int best = 0;
+        for (int order = 1; order <= MAX_FIXED_ORDER && order < n; order++) {
+            if (totals[order] < totals[best]) {
+                best = order;
+            }
+        }
+        return best;
+    }
+
+    private void computeResidual(int order, int n) {
+        for (int i = order; i < n; i++) {
+            residual[i] = switch (order) {
+                case 0 -> block[i];
+                case 1 -> block[i] - block[i - 1];
+                case 2 -> block[i] - 2 * block[i - 1] + block[i - 2];
+                case 3 -> block[i] - 3 * block[i - 1] + 3 * block[i - 2] - block[i - 3];
+                default -> block[i] - 4 * block[i - 1] + 6 * block[i - 2] - 4 * block[i - 3] + block[i - 4];
+            };
+        }
+    }
+
+    private int choosePartitionOrder(int order, int n) {
+        int best = 0;
+        long bestBits = Long.MAX_VALUE;
+        for (int partitionOrder = 0; partitionOrder <= MAX_PARTITION_ORDER; partitionOrder++) {
+            if (n % (1 << partitionOrder) != 0 || (n >> partitionOrder) <= order) {
+                break;
+            }
+            long bits = residualBits(order, n, partitionOrder);
+            if (bits < bestBits) {
+                bestBits = bits;
+                best = partitionOrder;
+            }
+        }
+        return best;
+    }
+
+    private long residualBits(int order, int n, int partitionOrder) {
+        int partitionSize = n >> partitionOrder;
+        long bits = 6;
+        for (int partition = 0, start = order; partition < (1 << partitionOrder); partition++) {
+            int end = (partition + 1) * partitionSize;
+            bits += 4 + riceBits(start, end, riceParameter(start, end));
+            start = end;
+        }
+        return bits;
+    }
+
+    /**
+     * Estimates the Rice parameter from the mean residual, then checks its neighbours exactly
+     */
+    private int riceParameter(int start, int end) {
+        int count = end - start;
+        if (count == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = start; i < end; i++) {
+            sum += zigZag(residual[i]);
+        }
+        long mean = sum / count;
+        int estimate = mean > 0 ? Math.min(MAX_RICE_PARAMETER, 63 - Long.numberOfLeadingZeros(mean)) : 0;
+
+        int best = estimate;
+        long bestBits = riceBits(start, end, estimate);
+        for (int parameter = Math.max(0, estimate - 1); parameter <= Math.min(MAX_RICE_PARAMETER, estimate + 1); parameter++) {
+            long bits = riceBits(start, end, parameter);
+            if (bits < bestBits) {
+                bestBits = bits;
+                best = parameter;
+            }
+        }
+        return best;
+    }
+
+    private long riceBits(int start, int end, int parameter) {
+        long bits = (long) (end - start) * (parameter + 1);
+        for (int i = start; i < end; i++) {
+            bits += zigZag(residual[i]) >>> parameter;
+        }
+        return bits;
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private void writeUtf8(long value) {
+        if (value < 0x80) {
+            frame.writeBits((int) value, 8);
+            return;
+        }
+        int continuationBytes = 1;
+        while (value >= 1L << (5 * continuationBytes + 6)) {
+            continuationBytes++;
+        }
+        int leadBits = 6 - continuationBytes;
+        int leadMarker = (0xFF << (7 - continuationBytes)) & 0xFF;
+        frame.writeBits(leadMarker | (int) (value >>> (6 * continuationBytes)) & ((1 << leadBits) - 1), 8);
+        for (int shift = 6 * (continuationBytes - 1); shift >= 0; shift -= 6) {
+            frame.writeBits(0x80 | (int) ((value >>> shift) & 0x3F), 8);
+        }
+    }
+
+    private void updateDigest(int n) {
+        for (int i = 0; i < n; i++) {
+            pcmBytes[2 * i] = (byte) block[i];
+            pcmBytes[2 * i + 1] = (byte) (block[i] >> 8);
+        }
+        md5.update(pcmBytes, 0, 2 * n);
+    }
+
+    private ByteBuffer header(byte[] signature) {
+        boolean singleBlock = frameNumber <= 1 && totalSamples < BLOCK_SIZE;
+        int blockSize = singleBlock && totalSamples >= 16 ? (int) totalSamples : BLOCK_SIZE;
+
+        BitWriter header = new BitWriter(HEADER_BYTES);
+        header.writeBits('f', 8);
+        header.writeBits('L', 8);
+        header.writeBits('a', 8);
+        header.writeBits('C', 8);
+        header.writeBits(1, 1); // last metadata block
+        header.writeBits(0, 7); // STREAMINFO
+        header.writeBits(34, 24);
+        header.writeBits(blockSize, 16);
+        header.writeBits(blockSize, 16);
+        header.writeBits(minFrameBytes == Integer.MAX_VALUE ? maxFrameBytes : minFrameBytes, 24);
+        header.writeBits(maxFrameBytes, 24);
+        header.writeBits(sampleRate, 20);
+        header.writeBits(0, 3); // one channel
+        header.writeBits(BITS_PER_SAMPLE - 1, 5);
+        header.writeBits((int) (totalSamples >>> 32), 4);
+        header.writeBits((int) totalSamples, 32);
+        for (byte b : signature) {
+            header.writeBits(b, 8);
+        }
+        return ByteBuffer.wrap(header.bytes, 0, header.length());
+    }
+
+    private long writeFully(ByteBuffer bytes) throws IOException {
+        long written = 0;
+        while (bytes.hasRemaining()) {
+            written += channel.write(bytes);
+        }
+        return written;
+    }
+
+    private static int crc(int[] table, int width, byte[] data, int length) {
+        int crc = 0;
+        for (int i = 0; i < length; i++) {
+            crc = width == 8
+                    ? table[(crc ^ data[i]) & 0xFF]
+                    : ((crc << 8) ^ table[((crc >>> 8) ^ data[i]) & 0xFF]) & 0xFFFF;
+        }
+        return crc;
+    }
+
+    private static int[] crcTable(int polynomial, int width) {
+        int[] table = new int[256];
+        int topBit = 1 << (width - 1);
+        int mask = (1 << width) - 1;
+        for (int i = 0; i < 256; i++) {
+            int crc = i << (width - 8);
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & topBit) != 0 ? (crc << 1) ^ polynomial : crc << 1;
+            }
+            table[i] = crc & mask;
+        }
+        return table;
+    }
+
+    /**
+     * Big-endian bit packer over a reusable byte array
+     */
+    private static final class BitWriter {
+        private byte[] bytes;
+        private int bytePosition;
+        private long accumulator;
+        private int accumulatedBits;
+
+        private BitWriter(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void reset() {
+            bytePosition = 0;
+            accumulator = 0;
+            accumulatedBits = 0;
+        }
+
+        /**
+         * Writes the low {@code bits} bits of the value, most significant first
+         */
+        void writeBits(int value, int bits) {
+            if (bits == 0) {
+                return;
+            }
+            accumulator = (accumulator << bits) | (value & ((1L << bits) - 1));
+            accumulatedBits += bits;
+            while (accumulatedBits >= 8) {
+                accumulatedBits -= 8;
+                put((byte) (accumulator >>> accumulatedBits));
+            }
+        }
+
+        void writeUnary(int zeros) {
+            while (zeros >= 31) {
+                writeBits(0, 31);
+                zeros -= 31;
+            }
+            writeBits(1, zeros + 1);
+        }
+
+        void alignToByte() {
+            if (accumulatedBits > 0) {
+                writeBits(0, 8 - accumulatedBits);
+            }
+        }
+
+        /**
+         * Number of complete bytes written; only exact once the writer is byte-aligned
+         */
+        int length() {
+            return bytePosition;
+        }
+
+        private void put(byte value) {
+            if (bytePosition == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[bytePosition++] = value;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Read-only {@link SeekableByteChannel} over an InputStream of known length.
+ * Seeking forward skips bytes without reading them into memory; seeking backward is not supported,
+ * so callers that need to look back keep their own buffer (as {@link ProbeInput} does).
+ */
+public class ForwardOnlyChannel implements SeekableByteChannel {
+    private static final int TRANSFER_BUFFER_BYTES = 8192;
+
+    private final InputStream input;
+    private final long size;
+    private long position;
+    private boolean open = true;
+
+    public ForwardOnlyChannel(InputStream input, long size) {
+        this.input = input;
+        this.size = size;
+    }
+
+    @Override
+    public int read(ByteBuffer destination) throws IOException {
+        ensureOpen();
+        int requested = Math.min(destination.remaining(), TRANSFER_BUFFER_BYTES);
+        if (requested == 0) {
+            return 0;
+        }
+        int read;
+        if (destination.hasArray()) {
+            read = input.read(destination.array(), destination.arrayOffset() + destination.position(), requested);
+            if (read > 0) {
+                destination.position(destination.position() + read);
+            }
+        } else {
+            byte[] transfer = new byte[requested];
+            read = input.read(transfer);
+            if (read > 0) {
+                destination.put(transfer, 0, read);
+            }
+        }
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < position) {
+            throw new IOException("Cannot seek backward from " + position + " to " + newPosition);
+        }
+        long remaining = newPosition - position;
+        while (remaining > 0) {
+            long skipped = input.skip(remaining);
+            if (skipped <= 0) {
+                if (input.read() == -1) {
+                    break;
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public int write(ByteBuffer source) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        input.close();
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
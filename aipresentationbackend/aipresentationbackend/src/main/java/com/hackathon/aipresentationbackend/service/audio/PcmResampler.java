@@ -0,0 +1,97 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import java.io.IOException;
+
+/**
+ * Streaming sample-rate converter for mono 16-bit PCM.
+ * When downsampling, input passes through a windowed-sinc low-pass filter first so speech
+ * energy above the new Nyquist frequency does not alias; output samples are then linearly
+ * interpolated. All state lives in fixed-size arrays allocated once per instance.
+ */
+public class PcmResampler implements PcmSink {
+    private static final int FILTER_TAPS = 31;
+    private static final int OUTPUT_BLOCK = 4096;
+
+    private final PcmSink downstream;
+    private final double step;
+    private final float[] taps;
+    private final float[] history = new float[FILTER_TAPS];
+    private final short[] output = new short[OUTPUT_BLOCK];
+
+    private int historyIndex;
+    private int outputCount;
+    private long inputIndex;
+    private double nextOutputTime;
+    private float previous;
+
+    public PcmResampler(float sourceRate, float targetRate, PcmSink downstream) {
+        this.downstream = downstream;
+        this.step = sourceRate / targetRate;
+        this.taps = step > 1.0 ? lowPassTaps(0.45 / step) : null;
+    }
+
+    @Override
+    public void write(short[] samples, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            float current = taps != null ? filter(samples[i]) : samples[i];
+            while (nextOutputTime <= inputIndex) {
+                double fraction = nextOutputTime - (inputIndex - 1);
+                emit(previous + (float) ((current - previous) * fraction));
+                nextOutputTime += step;
+            }
+            previous = current;
+            inputIndex++;
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (outputCount > 0) {
+            downstream.write(output, 0, outputCount);
+            outputCount = 0;
+        }
+        downstream.finish();
+    }
+
+    private float filter(short sample) {
+        history[historyIndex] = sample;
+        float sum = 0;
+        int index = historyIndex;
+        for (float tap : taps) {
+            sum += tap * history[index];
+            index = index == 0 ? FILTER_TAPS - 1 : index - 1;
+        }
+        historyIndex = historyIndex == FILTER_TAPS - 1 ? 0 : historyIndex + 1;
+        return sum;
+    }
+
+    private void emit(float value) throws IOException {
+        output[outputCount++] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(value)));
+        if (outputCount == OUTPUT_BLOCK) {
+            downstream.write(output, 0, outputCount);
+            outputCount = 0;
+        }
+    }
+
+    /**
+     * Hamming-windowed sinc low-pass taps normalised to unity gain
+     *
+     * @param cutoff Cutoff frequency as a fraction of the input sample rate
+     */
+    private static float[] lowPassTaps(double cutoff) {
+        float[] taps = new float[FILTER_TAPS];
+        int middle = FILTER_TAPS / 2;
+        double sum = 0;
+        for (int i = 0; i < FILTER_TAPS; i++) {
+            int n = i - middle;
+            double sinc = n == 0 ? 2 * cutoff : Math.sin(2 * Math.PI * cutoff * n) / (Math.PI * n);
+            double window = 0.54 - 0.46 * Math.cos(2 * Math.PI * i / (FILTER_TAPS - 1));
+            taps[i] = (float) (sinc * window);
+            sum += taps[i];
+        }
+        for (int i = 0; i < FILTER_TAPS; i++) {
+            taps[i] = (float) (taps[i] / sum);
+        }
+        return taps;
+    }
+}
@@ -0,0 +1,27 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import java.io.IOException;
+
+/**
+ * Receives blocks of mono 16-bit PCM samples from a stage of the audio pipeline.
+ * Callers may reuse the sample array as soon as {@link #write} returns.
+ */
+public interface PcmSink {
+
+    /**
+     * Consumes samples from the given array range
+     *
+     * @param samples The sample buffer
+     * @param offset  Index of the first sample to consume
+     * @param length  Number of samples to consume
+     * @throws IOException If the samples cannot be written downstream
+     */
+    void write(short[] samples, int offset, int length) throws IOException;
+
+    /**
+     * Signals that no more samples will arrive so buffered state can be flushed
+     *
+     * @throws IOException If flushing downstream fails
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,41 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import com.hackathon.aipresentationbackend.model.SpeechActivity;
+
+import java.io.File;
+
+/**
+ * A converted recording ready to upload for transcription, together with what
+ * voice-activity detection removed from it
+ */
+public class PreparedAudio {
+
+    private final File file;
+    private final SpeechActivity speechActivity;
+    private final TempFileLeases.Lease lease;
+
+    public PreparedAudio(File file, SpeechActivity speechActivity) {
+        this(file, speechActivity, null);
+    }
+
+    /**
+     * @param lease Protects the file from temp cleanup until it is uploaded; whoever opens the file takes it over
+     */
+    public PreparedAudio(File file, SpeechActivity speechActivity, TempFileLeases.Lease lease) {
+        this.file = file;
+        this.speechActivity = speechActivity;
+        this.lease = lease;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public SpeechActivity getSpeechActivity() {
+        return speechActivity;
+    }
+
+    public TempFileLeases.Lease getLease() {
+        return lease;
+    }
+}
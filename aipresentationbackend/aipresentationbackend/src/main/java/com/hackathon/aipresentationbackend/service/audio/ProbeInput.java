@@ -0,0 +1,129 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered reader over a {@link SeekableByteChannel} for parsing container headers.
+ * Seeks inside the current buffer are free; seeks past it move the channel without reading
+ * the bytes in between, so probing a large file only touches the headers.
+ */
+class ProbeInput {
+    private static final int BUFFER_BYTES = 8192;
+
+    /**
+     * The largest field {@link #ensure} can buffer; larger fields have to be skipped
+     */
+    static final int MAX_FIELD_BYTES = BUFFER_BYTES;
+
+    private final SeekableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).flip();
+    private long bufferStart;
+
+    ProbeInput(SeekableByteChannel channel) throws IOException {
+        this.channel = channel;
+        this.bufferStart = channel.position();
+    }
+
+    long position() {
+        return bufferStart + buffer.position();
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    void seek(long target) throws IOException {
+        if (target >= bufferStart && target <= bufferStart + buffer.limit()) {
+            buffer.position((int) (target - bufferStart));
+            return;
+        }
+        channel.position(target);
+        bufferStart = target;
+        buffer.clear().flip();
+    }
+
+    void skip(long bytes) throws IOException {
+        seek(position() + bytes);
+    }
+
+    /**
+     * Makes sure at least the given number of bytes can be read without touching the channel
+     *
+     * @return false if the stream ends first
+     */
+    boolean ensure(int bytes) throws IOException {
+        if (bytes > BUFFER_BYTES) {
+            throw new IOException("Header field of " + bytes + " bytes is too large to probe");
+        }
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        bufferStart += buffer.position();
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) == -1) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+
+    int u8() throws IOException {
+        require(1);
+        return buffer.get() & 0xFF;
+    }
+
+    int u16() throws IOException {
+        require(2);
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    long u32() throws IOException {
+        require(4);
+        return buffer.getInt() & 0xFFFFFFFFL;
+    }
+
+    long u64() throws IOException {
+        require(8);
+        return buffer.getLong();
+    }
+
+    int u16le() throws IOException {
+        require(2);
+        return Short.reverseBytes(buffer.getShort()) & 0xFFFF;
+    }
+
+    long u32le() throws IOException {
+        require(4);
+        return Integer.reverseBytes(buffer.getInt()) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Reads an unsigned big-endian integer of 1 to 8 bytes
+     */
+    long unsigned(int bytes) throws IOException {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | u8();
+        }
+        return value;
+    }
+
+    String ascii(int length) throws IOException {
+        require(length);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private void require(int bytes) throws IOException {
+        if (!ensure(bytes)) {
+            throw new EOFException("Unexpected end of audio header at byte " + position());
+        }
+    }
+}
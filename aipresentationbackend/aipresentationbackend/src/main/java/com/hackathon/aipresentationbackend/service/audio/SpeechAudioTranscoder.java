@@ -0,0 +1,98 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams decodable audio into mono 16-bit PCM at the speech sample rate.
+ * Input is decoded, downmixed and resampled block by block, so memory use is bounded by
+ * a few fixed-size buffers that are pooled and reused across conversions.
+ */
+public class SpeechAudioTranscoder {
+    public static final int SPEECH_SAMPLE_RATE = 16000;
+
+    private static final int READ_BUFFER_BYTES = 32 * 1024;
+    private static final int MARK_LIMIT_BYTES = 64 * 1024;
+    private static final int POOLED_BUFFERS = 8;
+
+    private final BlockingQueue<Buffers> pool = new ArrayBlockingQueue<>(POOLED_BUFFERS);
+
+    /**
+     * Decodes the input and pushes speech-rate mono samples into the sink, finishing it at the end
+     *
+     * @param input The encoded audio stream; it is not closed
+     * @param sink  Receives the converted samples
+     * @return The format of the decoded source audio
+     * @throws UnsupportedAudioFileException If the input cannot be decoded to PCM
+     * @throws IOException                   If reading the input or writing to the sink fails
+     */
+    public AudioFormat transcode(InputStream input, PcmSink sink) throws UnsupportedAudioFileException, IOException {
+        InputStream markable = input.markSupported() ? input : new BufferedInputStream(input, MARK_LIMIT_BYTES);
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(markable);
+             AudioInputStream pcm = toSigned16(source)) {
+            AudioFormat format = pcm.getFormat();
+            int channels = format.getChannels();
+            int frameSize = format.getFrameSize();
+            boolean bigEndian = format.isBigEndian();
+            PcmResampler resampler = new PcmResampler(format.getSampleRate(), SPEECH_SAMPLE_RATE, sink);
+
+            Buffers buffers = acquire();
+            try {
+                byte[] bytes = buffers.bytes;
+                short[] mono = buffers.samples;
+                int read;
+                while ((read = pcm.read(bytes, 0, bytes.length)) != -1) {
+                    int frames = read / frameSize;
+                    for (int frame = 0, position = 0; frame < frames; frame++) {
+                        int sum = 0;
+                        for (int channel = 0; channel < channels; channel++, position += 2) {
+                            sum += bigEndian
+                                    ? (short) ((bytes[position] << 8) | (bytes[position + 1] & 0xFF))
+                                    : (short) ((bytes[position + 1] << 8) | (bytes[position] & 0xFF));
+                        }
+                        mono[frame] = (short) (sum / channels);
+                    }
+                    resampler.write(mono, 0, frames);
+                }
+                resampler.finish();
+            } finally {
+                pool.offer(buffers);
+            }
+            return source.getFormat();
+        }
+    }
+
+    private AudioInputStream toSigned16(AudioInputStream source) throws UnsupportedAudioFileException {
+        AudioFormat format = source.getFormat();
+        if (AudioFormat.Encoding.PCM_SIGNED.equals(format.getEncoding()) && format.getSampleSizeInBits() == 16) {
+            return source;
+        }
+        float sampleRate = format.getSampleRate();
+        AudioFormat target = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, sampleRate, 16,
+                format.getChannels(), format.getChannels() * 2, sampleRate, false);
+        if (!AudioSystem.isConversionSupported(target, format)) {
+            throw new UnsupportedAudioFileException("Cannot decode " + format + " to 16-bit PCM");
+        }
+        return AudioSystem.getAudioInputStream(target, source);
+    }
+
+    private Buffers acquire() {
+        Buffers buffers = pool.poll();
+        return buffers != null ? buffers : new Buffers();
+    }
+
+    /**
+     * AudioInputStream only ever returns whole frames, so one block never splits a frame
+     */
+    private static final class Buffers {
+        private final byte[] bytes = new byte[READ_BUFFER_BYTES];
+        private final short[] samples = new short[READ_BUFFER_BYTES / 2];
+    }
+}
@@ -0,0 +1,232 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An audio file written to disk once per request and shared read-only by every stage that needs it.
+ * The file is memory-mapped, so stages read it through the page cache rather than copying it onto
+ * the heap, and each stage gets its own independent view. Closing the store deletes the file.
+ */
+public final class StoredAudio implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(StoredAudio.class);
+
+    private final Path path;
+    private final MappedByteBuffer mapped;
+    private final String originalFilename;
+    private final String contentType;
+    private final TempFileLeases.Lease lease;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private StoredAudio(Path path, MappedByteBuffer mapped, String originalFilename, String contentType,
+                        TempFileLeases.Lease lease) {
+        this.path = path;
+        this.mapped = mapped;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.lease = lease;
+    }
+
+    /**
+     * Maps an existing file read-only and takes ownership of it
+     *
+     * @param path The file, which is deleted when the store is closed
+     * @return The store
+     * @throws IOException If the file cannot be opened or mapped
+     */
+    public static StoredAudio map(Path path) throws IOException {
+        return map(path, path.getFileName().toString(), null);
+    }
+
+    /**
+     * Maps an existing file read-only and takes ownership of it, remembering where it came from
+     *
+     * @param path             The file, which is deleted when the store is closed
+     * @param originalFilename Name the client gave the upload
+     * @param contentType      Content type the client declared, or null
+     * @return The store
+     * @throws IOException If the file cannot be opened or mapped
+     */
+    public static StoredAudio map(Path path, String originalFilename, String contentType) throws IOException {
+        return map(path, originalFilename, contentType, null);
+    }
+
+    /**
+     * Maps an existing file read-only and takes ownership of it and of the lease protecting it from cleanup
+     *
+     * @param path             The file, which is deleted when the store is closed
+     * @param originalFilename Name the client gave the upload
+     * @param contentType      Content type the client declared, or null
+     * @param lease            Lease released once the file is deleted, or null
+     * @return The store
+     * @throws IOException If the file cannot be opened or mapped
+     */
+    public static StoredAudio map(Path path, String originalFilename, String contentType,
+                                  TempFileLeases.Lease lease) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new StoredAudio(path, mapped, originalFilename, contentType, lease);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long size() {
+        return mapped.capacity();
+    }
+
+    /**
+     * @return A read-only view of the whole file with its own position and limit
+     */
+    public ByteBuffer asByteBuffer() {
+        return mapped.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return A channel over the file that supports seeking in both directions
+     */
+    public SeekableByteChannel openChannel() {
+        return new BufferChannel(asByteBuffer());
+    }
+
+    public InputStream openStream() {
+        return new BufferInputStream(asByteBuffer());
+    }
+
+    /**
+     * Deletes the file and releases its lease. The mapping itself is released when its views are garbage collected.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (Files.deleteIfExists(path)) {
+                log.debug("Deleted stored audio file: {}", path.getFileName());
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete stored audio file {}: {}", path.getFileName(), e.getMessage());
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long bytes) {
+            int count = (int) Math.max(0, Math.min(bytes, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    private static final class BufferChannel implements SeekableByteChannel {
+        private final ByteBuffer buffer;
+        private boolean open = true;
+
+        private BufferChannel(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(destination.remaining(), buffer.remaining());
+            destination.put(buffer.slice(buffer.position(), count));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public long position() {
+            return buffer.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) {
+            buffer.position((int) Math.min(newPosition, buffer.limit()));
+            return this;
+        }
+
+        @Override
+        public long size() {
+            return buffer.limit();
+        }
+
+        @Override
+        public int write(ByteBuffer source) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which temp files are in use by in-flight requests so cleanup never deletes them.
+ * Leases are counted, so a file shared by several stages stays protected until the last one releases it.
+ */
+public class TempFileLeases {
+    private final Map<Path, Integer> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Marks a file as in use until the returned lease is closed
+     *
+     * @param file The file to protect
+     * @return The lease; closing it more than once has no further effect
+     */
+    public Lease acquire(Path file) {
+        Path key = file.toAbsolutePath().normalize();
+        counts.merge(key, 1, Integer::sum);
+        return new Lease(key);
+    }
+
+    public boolean isLeased(Path file) {
+        return counts.containsKey(file.toAbsolutePath().normalize());
+    }
+
+    public int size() {
+        return counts.size();
+    }
+
+    /**
+     * One holder's claim on a temp file
+     */
+    public final class Lease implements AutoCloseable {
+        private final Path file;
+        private boolean released;
+
+        private Lease(Path file) {
+            this.file = file;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!released) {
+                released = true;
+                counts.computeIfPresent(file, (key, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+    }
+}
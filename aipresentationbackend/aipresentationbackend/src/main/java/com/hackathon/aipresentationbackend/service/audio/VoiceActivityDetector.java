@@ -0,0 +1,229 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import com.hackathon.aipresentationbackend.model.PauseSegment;
+import com.hackathon.aipresentationbackend.model.SpeechActivity;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pipeline stage that drops silence around speech before it reaches the next sink.
+ * Audio is classified in 20 ms frames: a frame is speech when its energy is above the threshold,
+ * or when it is slightly quieter but has the high zero-crossing rate of a fricative and stands
+ * clear of the tracked noise floor. Leading and trailing silence is trimmed down to a short pad,
+ * and internal pauses longer than the compression limit are shortened. Every pause is recorded
+ * so pause metrics can be reported against the original recording.
+ */
+public class VoiceActivityDetector implements PcmSink {
+    private static final int FRAME_MILLIS = 20;
+    private static final int PADDING_MILLIS = 100;
+    private static final double FRICATIVE_ZERO_CROSSING_RATE = 0.3;
+    private static final double FRICATIVE_MARGIN_DB = 10.0;
+    private static final double NOISE_FLOOR_MARGIN_DB = 10.0;
+    private static final double NOISE_FLOOR_RISE = 0.002;
+    private static final double SILENT_FRAME_DB = -120.0;
+
+    private final PcmSink downstream;
+    private final int sampleRate;
+    private final double thresholdDb;
+    private final long compressAfterSamples;
+    private final int keptPauseSamples;
+    private final long minPauseSamples;
+    private final int storedPauseLimit;
+
+    private final short[] frame;
+    private final short[] ring;
+    private short[] pause = new short[0];
+    private final List<PauseSegment> pauses = new ArrayList<>();
+
+    private int frameCount;
+    private int ringStart;
+    private int ringSize;
+    private int pauseStored;
+    private long pauseRun;
+    private long pauseStart;
+    private boolean started;
+    private long inputSamples;
+    private long outputSamples;
+    private long leadingSamples;
+    private long trailingSamples;
+    private double noiseFloorDb = Double.NaN;
+
+    /**
+     * @param sampleRate          Sample rate of the incoming audio
+     * @param thresholdDb         Frame energy, in dBFS, at or above which a frame counts as speech
+     * @param compressPauses      Whether long internal pauses are shortened
+     * @param compressAfterMillis Pauses longer than this are shortened when compression is enabled
+     * @param keptPauseMillis     How much of a shortened pause remains
+     * @param minPauseMillis      Shortest silence recorded as a pause
+     * @param downstream          Receives the trimmed audio
+     */
+    public VoiceActivityDetector(int sampleRate, double thresholdDb, boolean compressPauses, int compressAfterMillis,
+                                 int keptPauseMillis, int minPauseMillis, PcmSink downstream) {
+        this.downstream = downstream;
+        this.sampleRate = sampleRate;
+        this.thresholdDb = thresholdDb;
+        this.compressAfterSamples = compressPauses ? toSamples(compressAfterMillis) : Long.MAX_VALUE;
+        this.storedPauseLimit = compressPauses ? (int) toSamples(compressAfterMillis) : Integer.MAX_VALUE;
+        this.keptPauseSamples = (int) toSamples(Math.min(keptPauseMillis, compressAfterMillis));
+        this.minPauseSamples = toSamples(minPauseMillis);
+        this.frame = new short[(int) toSamples(FRAME_MILLIS)];
+        this.ring = new short[(int) toSamples(PADDING_MILLIS)];
+    }
+
+    @Override
+    public void write(short[] samples, int offset, int length) throws IOException {
+        int end = offset + length;
+        while (offset < end) {
+            int count = Math.min(frame.length - frameCount, end - offset);
+            System.arraycopy(samples, offset, frame, frameCount, count);
+            frameCount += count;
+            offset += count;
+            if (frameCount == frame.length) {
+                processFrame(frameCount);
+                frameCount = 0;
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (frameCount > 0) {
+            processFrame(frameCount);
+            frameCount = 0;
+        }
+        if (!started) {
+            leadingSamples = inputSamples;
+        } else if (pauseRun > 0) {
+            int pad = Math.min(ring.length, pauseStored);
+            emit(pause, 0, pad);
+            trailingSamples = pauseRun - pad;
+        }
+        downstream.finish();
+    }
+
+    /**
+     * Describes what was trimmed; only complete once {@link #finish()} has been called
+     */
+    public SpeechActivity getActivity() {
+        return new SpeechActivity(started, toMillis(inputSamples), toMillis(outputSamples),
+                toMillis(leadingSamples), toMillis(trailingSamples), pauses);
+    }
+
+    private void processFrame(int length) throws IOException {
+        long frameStart = inputSamples;
+        inputSamples += length;
+
+        if (isSpeech(length)) {
+            if (!started) {
+                started = true;
+                leadingSamples = frameStart - ringSize;
+                emitRing();
+            } else if (pauseRun > 0) {
+                endPause();
+            }
+            emit(frame, 0, length);
+        } else if (!started) {
+            pushRing(length);
+        } else {
+            if (pauseRun == 0) {
+                pauseStart = frameStart;
+            }
+            storePause(length);
+            pushRing(length);
+            pauseRun += length;
+        }
+    }
+
+    private void endPause() throws IOException {
+        long processedStart = outputSamples;
+        if (pauseRun <= compressAfterSamples) {
+            emit(pause, 0, pauseStored);
+        } else {
+            // Keep the start of the pause and the padding just before speech resumes
+            emit(pause, 0, Math.min(Math.max(0, keptPauseSamples - ringSize), pauseStored));
+            emitRing();
+        }
+        if (pauseRun >= minPauseSamples) {
+            pauses.add(new PauseSegment(toMillis(pauseStart), toMillis(pauseRun),
+                    toMillis(processedStart), toMillis(outputSamples - processedStart)));
+        }
+        pauseRun = 0;
+        pauseStored = 0;
+        ringSize = 0;
+    }
+
+    private boolean isSpeech(int length) {
+        double sumOfSquares = 0;
+        int zeroCrossings = 0;
+        for (int i = 0; i < length; i++) {
+            sumOfSquares += (double) frame[i] * frame[i];
+            if (i > 0 && (frame[i] >= 0) != (frame[i - 1] >= 0)) {
+                zeroCrossings++;
+            }
+        }
+        double rms = Math.sqrt(sumOfSquares / length);
+        double energyDb = rms > 0 ? 20 * Math.log10(rms / 32768.0) : SILENT_FRAME_DB;
+        double zeroCrossingRate = length > 1 ? (double) zeroCrossings / (length - 1) : 0;
+
+        if (Double.isNaN(noiseFloorDb)) {
+            noiseFloorDb = energyDb;
+        }
+        boolean speech = energyDb >= thresholdDb
+                || (zeroCrossingRate >= FRICATIVE_ZERO_CROSSING_RATE
+                && energyDb >= thresholdDb - FRICATIVE_MARGIN_DB
+                && energyDb >= noiseFloorDb + NOISE_FLOOR_MARGIN_DB);
+
+        // The floor follows quiet frames immediately and louder ones only slowly
+        noiseFloorDb = energyDb < noiseFloorDb ? energyDb : noiseFloorDb + NOISE_FLOOR_RISE * (energyDb - noiseFloorDb);
+        return speech;
+    }
+
+    private void storePause(int length) {
+        int count = (int) Math.min(length, (long) storedPauseLimit - pauseStored);
+        if (count <= 0) {
+            return;
+        }
+        if (pauseStored + count > pause.length) {
+            pause = Arrays.copyOf(pause, Math.max(pause.length * 2, pauseStored + count));
+        }
+        System.arraycopy(frame, 0, pause, pauseStored, count);
+        pauseStored += count;
+    }
+
+    private void pushRing(int length) {
+        for (int i = 0; i < length; i++) {
+            if (ringSize < ring.length) {
+                ring[(ringStart + ringSize++) % ring.length] = frame[i];
+            } else {
+                ring[ringStart] = frame[i];
+                ringStart = (ringStart + 1) % ring.length;
+            }
+        }
+    }
+
+    private void emitRing() throws IOException {
+        int firstPart = Math.min(ringSize, ring.length - ringStart);
+        emit(ring, ringStart, firstPart);
+        emit(ring, 0, ringSize - firstPart);
+        ringStart = 0;
+        ringSize = 0;
+    }
+
+    private void emit(short[] samples, int offset, int length) throws IOException {
+        if (length > 0) {
+            downstream.write(samples, offset, length);
+            outputSamples += length;
+        }
+    }
+
+    private long toSamples(long millis) {
+        return millis * sampleRate / 1000;
+    }
+
+    private long toMillis(long samples) {
+        return samples * 1000 / sampleRate;
+    }
+}
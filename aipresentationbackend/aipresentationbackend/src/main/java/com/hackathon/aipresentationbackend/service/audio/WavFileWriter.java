@@ -0,0 +1,96 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes mono 16-bit PCM to a WAV file through a single fixed-size byte buffer.
+ * The RIFF header is written as a placeholder and patched with the real sizes on {@link #finish()},
+ * so the total length does not need to be known up front.
+ */
+public class WavFileWriter implements AudioFileWriter {
+    static final int HEADER_BYTES = 44;
+    private static final int BUFFER_BYTES = 16 * 1024;
+
+    private final FileChannel channel;
+    private final int sampleRate;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private long dataBytes;
+    private boolean finished;
+
+    public WavFileWriter(Path target, int sampleRate) throws IOException {
+        this.channel = FileChannel.open(target, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.sampleRate = sampleRate;
+        channel.write(header(0));
+    }
+
+    @Override
+    public void write(short[] samples, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            if (buffer.remaining() < 2) {
+                flush();
+            }
+            buffer.putShort(samples[i]);
+        }
+        dataBytes += 2L * length;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        flush();
+        channel.write(header(dataBytes), 0);
+        channel.force(false);
+        finished = true;
+    }
+
+    /**
+     * @return Number of PCM data bytes written so far, excluding the header
+     */
+    public long getDataBytes() {
+        return dataBytes;
+    }
+
+    @Override
+    public long getFileBytes() {
+        return HEADER_BYTES + dataBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private ByteBuffer header(long dataLength) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put("RIFF".getBytes(StandardCharsets.US_ASCII));
+        header.putInt((int) Math.min(0xFFFFFFFFL, 36 + dataLength));
+        header.put("WAVEfmt ".getBytes(StandardCharsets.US_ASCII));
+        header.putInt(16);
+        header.putShort((short) 1);
+        header.putShort((short) 1);
+        header.putInt(sampleRate);
+        header.putInt(sampleRate * 2);
+        header.putShort((short) 2);
+        header.putShort((short) 16);
+        header.put("data".getBytes(StandardCharsets.US_ASCII));
+        header.putInt((int) Math.min(0xFFFFFFFFL, dataLength));
+        return header.flip();
+    }
+}
@@ -0,0 +1,179 @@
+package com.hackathon.aipresentationbackend.service.history;
+
+import com.hackathon.aipresentationbackend.model.AnalysisResponse;
+import com.hackathon.aipresentationbackend.model.RehearsalRecord;
+import com.hackathon.aipresentationbackend.model.RehearsalSummary;
+import com.hackathon.aipresentationbackend.model.ScriptProgress;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to the rehearsal tables in schema.sql. Every query is served by one of its indexes.
+ */
+@Repository
+public class RehearsalHistoryRepository {
+    private static final int SCRIPT_PREVIEW_CHARS = 80;
+
+    private final JdbcClient jdbcClient;
+
+    public RehearsalHistoryRepository(JdbcClient jdbcClient) {
+        this.jdbcClient = jdbcClient;
+    }
+
+    /**
+     * Stores the script text once, the first time any user rehearses it
+     */
+    public void saveScript(String scriptId, String script, Instant createdAt) {
+        try {
+            jdbcClient.sql("""
+                            INSERT INTO rehearsal_script (script_id, script_text, created_at)
+                            SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM rehearsal_script WHERE script_id = ?)""")
+                    .params(scriptId, script, Timestamp.from(createdAt), scriptId)
+                    .update();
+        } catch (DuplicateKeyException e) {
+            // Another rehearsal of the same script stored it first
+        }
+    }
+
+    /**
+     * @return the new rehearsal's id
+     */
+    public long save(String userId, String scriptId, String transcriptHash, Instant createdAt, AnalysisResponse analysis,
+                     String speechActivityJson, String wordTimingsJson) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcClient.sql("""
+                        INSERT INTO rehearsal (user_id, script_id, transcript_hash, created_at, score, positive_feedback,
+                                               improvement_points, spoken_transcript, audio_url, speech_activity, word_timings)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""")
+                .params(userId, scriptId, transcriptHash, Timestamp.from(createdAt), analysis.getScore(),
+                        analysis.getPositiveFeedback(), analysis.getImprovementPoints(), analysis.getSpokenTranscript(),
+                        analysis.getAudioUrl(), speechActivityJson, wordTimingsJson)
+                .update(keyHolder, "id");
+        return keyHolder.getKeyAs(Number.class).longValue();
+    }
+
+    /**
+     * The most recent analysis of exactly this delivery of the script, by any user
+     */
+    public Optional<AnalysisResponse> findAnalysis(String scriptId, String transcriptHash) {
+        return jdbcClient.sql("""
+                        SELECT score, positive_feedback, improvement_points FROM rehearsal
+                        WHERE script_id = ? AND transcript_hash = ?
+                        ORDER BY created_at DESC FETCH FIRST 1 ROW ONLY""")
+                .params(scriptId, transcriptHash)
+                .query((rs, row) -> new AnalysisResponse.Builder()
+                        .score(rs.getInt("score"))
+                        .positiveFeedback(rs.getString("positive_feedback"))
+                        .improvementPoints(rs.getString("improvement_points"))
+                        .build())
+                .optional();
+    }
+
+    /**
+     * Stored feedback on a paragraph delivered with exactly these words
+     */
+    public Optional<AnalysisResponse> findSectionAnalysis(String sectionHash, String spokenHash) {
+        return jdbcClient.sql("""
+                        SELECT score, positive_feedback, improvement_points FROM section_analysis
+                        WHERE section_hash = ? AND spoken_hash = ?""")
+                .params(sectionHash, spokenHash)
+                .query((rs, row) -> new AnalysisResponse.Builder()
+                        .score(rs.getInt("score"))
+                        .positiveFeedback(rs.getString("positive_feedback"))
+                        .improvementPoints(rs.getString("improvement_points"))
+                        .build())
+                .optional();
+    }
+
+    public void saveSectionAnalysis(String sectionHash, String spokenHash, Instant createdAt, AnalysisResponse analysis) {
+        try {
+            jdbcClient.sql("""
+                            INSERT INTO section_analysis (section_hash, spoken_hash, created_at, score, positive_feedback,
+                                                          improvement_points)
+                            SELECT ?, ?, ?, ?, ?, ? WHERE NOT EXISTS
+                                (SELECT 1 FROM section_analysis WHERE section_hash = ? AND spoken_hash = ?)""")
+                    .params(sectionHash, spokenHash, Timestamp.from(createdAt), analysis.getScore(),
+                            analysis.getPositiveFeedback(), analysis.getImprovementPoints(), sectionHash, spokenHash)
+                    .update();
+        } catch (DuplicateKeyException e) {
+            // The same delivery of the paragraph was analyzed concurrently and stored first
+        }
+    }
+
+    public Optional<RehearsalRecord> findById(String userId, long id) {
+        return jdbcClient.sql("SELECT * FROM rehearsal WHERE id = ? AND user_id = ?")
+                .params(id, userId)
+                .query((rs, row) -> new RehearsalRecord(rs.getLong("id"), rs.getString("script_id"),
+                        instant(rs, "created_at"), rs.getInt("score"), rs.getString("positive_feedback"),
+                        rs.getString("improvement_points"), rs.getString("spoken_transcript"), rs.getString("audio_url"),
+                        rs.getString("speech_activity"), rs.getString("word_timings")))
+                .optional();
+    }
+
+    /**
+     * The user's latest rehearsals of any script, newest first
+     */
+    public List<RehearsalSummary> findRecent(String userId, int limit) {
+        return jdbcClient.sql("""
+                        SELECT id, script_id, created_at, score FROM rehearsal WHERE user_id = ?
+                        ORDER BY created_at DESC, id DESC FETCH FIRST ? ROWS ONLY""")
+                .params(userId, limit)
+                .query(RehearsalHistoryRepository::summary)
+                .list();
+    }
+
+    /**
+     * Every rehearsal of the script by the user, oldest first
+     */
+    public List<RehearsalSummary> findScores(String userId, String scriptId) {
+        return jdbcClient.sql("""
+                        SELECT id, script_id, created_at, score FROM rehearsal WHERE user_id = ? AND script_id = ?
+                        ORDER BY created_at, id""")
+                .params(userId, scriptId)
+                .query(RehearsalHistoryRepository::summary)
+                .list();
+    }
+
+    /**
+     * Score progress on each script the user has rehearsed, most recently rehearsed first
+     */
+    public List<ScriptProgress> findProgress(String userId) {
+        return jdbcClient.sql("""
+                        SELECT r.script_id, COUNT(*) AS attempts,
+                               MAX(r.score) AS best_score, AVG(CAST(r.score AS DOUBLE)) AS average_score,
+                               MAX(r.created_at) AS last_rehearsed_at,
+                               (SELECT f.score FROM rehearsal f WHERE f.user_id = r.user_id AND f.script_id = r.script_id
+                                ORDER BY f.created_at, f.id FETCH FIRST 1 ROW ONLY) AS first_score,
+                               (SELECT l.score FROM rehearsal l WHERE l.user_id = r.user_id AND l.script_id = r.script_id
+                                ORDER BY l.created_at DESC, l.id DESC FETCH FIRST 1 ROW ONLY) AS latest_score,
+                               (SELECT SUBSTRING(s.script_text, 1, ?) FROM rehearsal_script s
+                                WHERE s.script_id = r.script_id) AS script_preview
+                        FROM rehearsal r
+                        WHERE r.user_id = ?
+                        GROUP BY r.user_id, r.script_id
+                        ORDER BY last_rehearsed_at DESC""")
+                .params(SCRIPT_PREVIEW_CHARS, userId)
+                .query((rs, row) -> new ScriptProgress(rs.getString("script_id"), rs.getString("script_preview"),
+                        rs.getInt("attempts"), rs.getInt("first_score"), rs.getInt("latest_score"), rs.getInt("best_score"),
+                        rs.getDouble("average_score"), instant(rs, "last_rehearsed_at")))
+                .list();
+    }
+
+    private static RehearsalSummary summary(ResultSet rs, int row) throws SQLException {
+        return new RehearsalSummary(rs.getLong("id"), rs.getString("script_id"), instant(rs, "created_at"), rs.getInt("score"));
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        return rs.getTimestamp(column).toInstant();
+    }
+}
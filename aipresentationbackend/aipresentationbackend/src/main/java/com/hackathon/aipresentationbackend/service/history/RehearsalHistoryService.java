@@ -0,0 +1,166 @@
+package com.hackathon.aipresentationbackend.service.history;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.model.AnalysisResponse;
+import com.hackathon.aipresentationbackend.model.RehearsalRecord;
+import com.hackathon.aipresentationbackend.model.RehearsalSummary;
+import com.hackathon.aipresentationbackend.model.ScriptProgress;
+import com.hackathon.aipresentationbackend.model.SpeechActivity;
+import com.hackathon.aipresentationbackend.model.TranscriptionResponse;
+import com.hackathon.aipresentationbackend.service.sections.ScriptSections;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps every analysis a user receives, so they can compare attempts at a script and follow their scores
+ * without re-running anything. Scripts and transcripts are identified by their SHA-256 hash, which also
+ * lets an identical delivery be answered from history instead of the analysis model.
+ * History is best effort: a database failure is logged and never fails the rehearsal itself.
+ */
+@Service
+public class RehearsalHistoryService {
+    private static final Logger log = LoggerFactory.getLogger(RehearsalHistoryService.class);
+
+    /**
+     * User id for requests that do not identify their user
+     */
+    public static final String ANONYMOUS = "anonymous";
+    public static final int MAX_USER_ID_LENGTH = 128;
+
+    private final RehearsalHistoryRepository repository;
+    private final ObjectMapper objectMapper;
+    private final boolean reuseAnalysis;
+    private final Clock clock;
+
+    @Autowired
+    public RehearsalHistoryService(RehearsalHistoryRepository repository, ObjectMapper objectMapper,
+                                   @Value("${history.reuse-analysis:true}") boolean reuseAnalysis) {
+        this(repository, objectMapper, reuseAnalysis, Clock.systemUTC());
+    }
+
+    RehearsalHistoryService(RehearsalHistoryRepository repository, ObjectMapper objectMapper, boolean reuseAnalysis,
+                            Clock clock) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.reuseAnalysis = reuseAnalysis;
+        this.clock = clock;
+    }
+
+    public static String scriptId(String script) {
+        return sha256(script.strip());
+    }
+
+    /**
+     * An earlier analysis of the same script and transcript, if reuse is enabled and one is stored
+     */
+    public Optional<AnalysisResponse> findAnalysis(String script, String spokenTranscript) {
+        if (!reuseAnalysis) {
+            return Optional.empty();
+        }
+        try {
+            Optional<AnalysisResponse> analysis = repository.findAnalysis(scriptId(script), sha256(spokenTranscript));
+            analysis.ifPresent(found -> log.info("Reusing the stored analysis of an identical delivery"));
+            return analysis;
+        } catch (DataAccessException e) {
+            log.warn("Could not look up earlier analyses: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Earlier feedback on a paragraph with this fingerprint spoken with the same words, if reuse is enabled
+     *
+     * @param sectionFingerprint The paragraph's {@link ScriptSections#fingerprint}
+     */
+    public Optional<AnalysisResponse> findSectionAnalysis(String sectionFingerprint, String spokenSection) {
+        if (!reuseAnalysis) {
+            return Optional.empty();
+        }
+        try {
+            return repository.findSectionAnalysis(sectionFingerprint, ScriptSections.fingerprint(spokenSection));
+        } catch (DataAccessException e) {
+            log.warn("Could not look up earlier paragraph analyses: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void recordSectionAnalysis(String sectionFingerprint, String spokenSection, AnalysisResponse analysis) {
+        try {
+            repository.saveSectionAnalysis(sectionFingerprint, ScriptSections.fingerprint(spokenSection), clock.instant(), analysis);
+        } catch (DataAccessException e) {
+            log.warn("Could not store the paragraph analysis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stores the rehearsal's analysis, transcript, audio reference and word timings. The transcript's timings
+     * are on the trimmed audio sent for transcription, so they are stored on the original recording's timeline
+     * to line up with the stored speech activity.
+     *
+     * @return the rehearsal's id, or null if it could not be stored
+     */
+    public Long record(String userId, String script, AnalysisResponse analysis, List<TranscriptionResponse.Word> words) {
+        String scriptId = scriptId(script);
+        Instant now = clock.instant();
+        try {
+            repository.saveScript(scriptId, script, now);
+            SpeechActivity activity = analysis.getSpeechActivity();
+            return repository.save(userId, scriptId, sha256(analysis.getSpokenTranscript()), now, analysis,
+                    toJson(activity), toJson(activity == null ? words : activity.toOriginalTimeline(words)));
+        } catch (DataAccessException e) {
+            log.error("Could not store the rehearsal for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    public Optional<RehearsalRecord> findRehearsal(String userId, long id) {
+        return repository.findById(userId, id);
+    }
+
+    public List<RehearsalSummary> findRecent(String userId, int limit) {
+        return repository.findRecent(userId, limit);
+    }
+
+    public List<RehearsalSummary> findScores(String userId, String scriptId) {
+        return repository.findScores(userId, scriptId);
+    }
+
+    public List<ScriptProgress> findProgress(String userId) {
+        return repository.findProgress(userId);
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize {} for the rehearsal history: {}", value.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
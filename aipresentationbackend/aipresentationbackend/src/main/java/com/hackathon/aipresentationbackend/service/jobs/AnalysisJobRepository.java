@@ -0,0 +1,201 @@
+package com.hackathon.aipresentationbackend.service.jobs;
+
+import com.hackathon.aipresentationbackend.model.AnalysisJob;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to the analysis_job table in schema.sql.
+ * Every change to a running job is conditional on the caller still holding its lease, so a server that
+ * lost a job to another one (after a pause longer than the lease) can never overwrite its progress.
+ */
+@Repository
+public class AnalysisJobRepository {
+    private final JdbcClient jdbcClient;
+
+    public AnalysisJobRepository(JdbcClient jdbcClient) {
+        this.jdbcClient = jdbcClient;
+    }
+
+    /**
+     * Every column of a job that a worker needs to resume it
+     */
+    public record JobRecord(String id, String userId, String script, String audioPath, String audioFilename,
+                            String audioContentType, JobStage stage, String uploadUrl, String speechActivityJson,
+                            String transcriptId, String transcriptJson, String analysisJson, int attempts) {
+    }
+
+    public void insert(String id, String userId, String script, String audioPath, String audioFilename,
+                       String audioContentType, Instant now) {
+        jdbcClient.sql("""
+                        INSERT INTO analysis_job (id, user_id, script_text, audio_path, audio_filename, audio_content_type,
+                                                  stage, attempts, available_at, created_at, updated_at)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?)""")
+                .params(id, userId, script, audioPath, audioFilename, audioContentType, JobStage.QUEUED.name(),
+                        Timestamp.from(now), Timestamp.from(now), Timestamp.from(now))
+                .update();
+    }
+
+    public Optional<AnalysisJob> findById(String userId, String id) {
+        return jdbcClient.sql("""
+                        SELECT id, stage, attempts, error, created_at, updated_at, result FROM analysis_job
+                        WHERE id = ? AND user_id = ?""")
+                .params(id, userId)
+                .query((rs, row) -> new AnalysisJob(rs.getString("id"), JobStage.valueOf(rs.getString("stage")).getStatus(),
+                        rs.getInt("attempts"), rs.getString("error"), instant(rs, "created_at"), instant(rs, "updated_at"),
+                        rs.getString("result")))
+                .optional();
+    }
+
+    public Optional<JobRecord> load(String id) {
+        return jdbcClient.sql("SELECT * FROM analysis_job WHERE id = ?")
+                .param(id)
+                .query((rs, row) -> new JobRecord(rs.getString("id"), rs.getString("user_id"), rs.getString("script_text"),
+                        rs.getString("audio_path"), rs.getString("audio_filename"), rs.getString("audio_content_type"),
+                        JobStage.valueOf(rs.getString("stage")), rs.getString("upload_url"), rs.getString("speech_activity"),
+                        rs.getString("transcript_id"), rs.getString("transcript"), rs.getString("analysis"),
+                        rs.getInt("attempts")))
+                .optional();
+    }
+
+    /**
+     * Unfinished jobs that are due and not held by a live lease, oldest first
+     */
+    public List<String> findClaimable(Instant now, int limit) {
+        return jdbcClient.sql("""
+                        SELECT id FROM analysis_job
+                        WHERE stage NOT IN ('DONE', 'FAILED') AND available_at <= ?
+                          AND (lease_expires_at IS NULL OR lease_expires_at < ?)
+                        ORDER BY available_at, created_at FETCH FIRST ? ROWS ONLY""")
+                .params(Timestamp.from(now), Timestamp.from(now), limit)
+                .query(String.class)
+                .list();
+    }
+
+    /**
+     * Takes the job's lease if it is still unclaimed or its lease has expired
+     *
+     * @return Whether this owner now holds the job; false if another server claimed it first
+     */
+    public boolean claim(String id, String owner, Instant now, Instant leaseExpiresAt) {
+        return jdbcClient.sql("""
+                        UPDATE analysis_job SET lease_owner = ?, lease_expires_at = ?
+                        WHERE id = ? AND stage NOT IN ('DONE', 'FAILED') AND available_at <= ?
+                          AND (lease_expires_at IS NULL OR lease_expires_at < ?)""")
+                .params(owner, Timestamp.from(leaseExpiresAt), id, Timestamp.from(now), Timestamp.from(now))
+                .update() == 1;
+    }
+
+    /**
+     * Extends the leases of every unfinished job the owner holds
+     */
+    public int renewLeases(String owner, Instant leaseExpiresAt) {
+        return jdbcClient.sql("""
+                        UPDATE analysis_job SET lease_expires_at = ?
+                        WHERE lease_owner = ? AND stage NOT IN ('DONE', 'FAILED')""")
+                .params(Timestamp.from(leaseExpiresAt), owner)
+                .update();
+    }
+
+    /**
+     * Gives up every lease the owner holds, so its jobs can be claimed straight away
+     */
+    public int releaseLeases(String owner) {
+        return jdbcClient.sql("UPDATE analysis_job SET lease_owner = NULL, lease_expires_at = NULL WHERE lease_owner = ?")
+                .param(owner)
+                .update();
+    }
+
+    public boolean saveUpload(String id, String owner, String uploadUrl, String speechActivityJson, Instant now) {
+        return jdbcClient.sql("""
+                        UPDATE analysis_job SET stage = 'UPLOADED', upload_url = ?, speech_activity = ?, updated_at = ?
+                        WHERE id = ? AND lease_owner = ?""")
+                .params(uploadUrl, speechActivityJson, Timestamp.from(now), id, owner)
+                .update() == 1;
+    }
+
+    public boolean saveTranscriptId(String id, String owner, String transcriptId, Instant now) {
+        return jdbcClient.sql("""
+                        UPDATE analysis_job SET stage = 'SUBMITTED', transcript_id = ?, updated_at = ?
+                        WHERE id = ? AND lease_owner = ?""")
+                .params(transcriptId, Timestamp.from(now), id, owner)
+                .update() == 1;
+    }
+
+    /**
+     * Goes back to the uploaded audio, so the next attempt requests a new transcript
+     */
+    public boolean clearTranscriptId(String id, String owner, Instant now) {
+        return jdbcClient.sql("""
+                        UPDATE analysis_job SET stage = 'UPLOADED', transcript_id = NULL, updated_at = ?
+                        WHERE id = ? AND lease_owner = ?""")
+                .params(Timestamp.from(now), id, owner)
+                .update() == 1;
+    }
+
+    public boolean saveTranscript(String id, String owner, String transcriptJson, Instant now) {
+        return jdbcClient.sql("""
+                        UPDATE analysis_job SET stage = 'TRANSCRIBED', transcript = ?, updated_at = ?
+                        WHERE id = ? AND lease_owner = ?""")
+                .params(transcriptJson, Timestamp.from(now), id, owner)
+                .update() == 1;
+    }
+
+    public boolean saveAnalysis(String id, String owner, String analysisJson, Instant now) {
+        return jdbcClient.sql("""
+                        UPDATE analysis_job SET stage = 'ANALYZED', analysis = ?, updated_at = ?
+                        WHERE id = ? AND lease_owner = ?""")
+                .params(analysisJson, Timestamp.from(now), id, owner)
+                .update() == 1;
+    }
+
+    public boolean complete(String id, String owner, String resultJson, Instant now) {
+        return jdbcClient.sql("""
+                        UPDATE analysis_job SET stage = 'DONE', result = ?, error = NULL, lease_owner = NULL,
+                                                lease_expires_at = NULL, updated_at = ?
+                        WHERE id = ? AND lease_owner = ?""")
+                .params(resultJson, Timestamp.from(now), id, owner)
+                .update() == 1;
+    }
+
+    /**
+     * Records a failed attempt and releases the job until it is due again
+     */
+    public boolean retry(String id, String owner, String error, Instant availableAt, Instant now) {
+        return jdbcClient.sql("""
+                        UPDATE analysis_job SET attempts = attempts + 1, error = ?, available_at = ?, lease_owner = NULL,
+                                                lease_expires_at = NULL, updated_at = ?
+                        WHERE id = ? AND lease_owner = ?""")
+                .params(error, Timestamp.from(availableAt), Timestamp.from(now), id, owner)
+                .update() == 1;
+    }
+
+    public boolean fail(String id, String owner, String error, Instant now) {
+        return jdbcClient.sql("""
+                        UPDATE analysis_job SET stage = 'FAILED', attempts = attempts + 1, error = ?, lease_owner = NULL,
+                                                lease_expires_at = NULL, updated_at = ?
+                        WHERE id = ? AND lease_owner = ?""")
+                .params(error, Timestamp.from(now), id, owner)
+                .update() == 1;
+    }
+
+    /**
+     * Deletes finished jobs last updated before the cutoff
+     */
+    public int deleteFinished(Instant updatedBefore) {
+        return jdbcClient.sql("DELETE FROM analysis_job WHERE stage IN ('DONE', 'FAILED') AND updated_at < ?")
+                .param(Timestamp.from(updatedBefore))
+                .update();
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        return rs.getTimestamp(column).toInstant();
+    }
+}
@@ -0,0 +1,445 @@
+package com.hackathon.aipresentationbackend.service.jobs;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.exception.AssemblyAIException;
+import com.hackathon.aipresentationbackend.exception.AudioProcessingException;
+import com.hackathon.aipresentationbackend.model.AnalysisJob;
+import com.hackathon.aipresentationbackend.model.AnalysisResponse;
+import com.hackathon.aipresentationbackend.model.SectionAnalysis;
+import com.hackathon.aipresentationbackend.model.SpeechActivity;
+import com.hackathon.aipresentationbackend.model.TranscriptionResponse;
+import com.hackathon.aipresentationbackend.service.AnalysisService;
+import com.hackathon.aipresentationbackend.service.AssemblyAIService;
+import com.hackathon.aipresentationbackend.service.AudioProcessingService;
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import com.hackathon.aipresentationbackend.service.audio.StoredAudio;
+import com.hackathon.aipresentationbackend.service.shared.SharedStateStore;
+import io.micrometer.core.instrument.LongTaskTimer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs rehearsal analyses as durable jobs, so a restart does not lose work that is in progress.
+ * The recording is stored with the job, and each stage saves its output (upload URL, transcript id,
+ * transcript, analysis) before the next one starts. A job that was interrupted resumes from its last
+ * checkpoint, so a transcript that AssemblyAI is already working on is polled rather than uploaded again.
+ * Servers sharing the database claim jobs with expiring leases that they renew while running them;
+ * the jobs of a server that stops are taken over once its leases expire, or straight away when it
+ * comes back with the same node id. Each job's status is also published to the shared state store,
+ * so any server can answer a client polling for it.
+ */
+@Service
+public class AnalysisJobService {
+    private static final Logger log = LoggerFactory.getLogger(AnalysisJobService.class);
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final AnalysisJobRepository repository;
+    private final AnalysisService analysisService;
+    private final AssemblyAIService assemblyAIService;
+    private final AudioProcessingService audioProcessingService;
+    private final PipelineMetrics pipelineMetrics;
+    private final ObjectMapper objectMapper;
+    private final SharedStateStore sharedState;
+    private final Settings settings;
+    private final Clock clock;
+    private final Executor executor;
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopping;
+
+    /**
+     * @param directory    Where recordings are kept until their job finishes
+     * @param nodeId       Owner name for this server's leases, unique among servers sharing the queue
+     * @param workers      Jobs run at once on this server
+     * @param lease        How long a claim lasts without being renewed
+     * @param maxAttempts  Attempts at a job before it fails
+     * @param retryBackoff Wait before the first retry, doubled for each later one
+     * @param retention    How long finished jobs are kept
+     */
+    public record Settings(Path directory, String nodeId, int workers, Duration lease, int maxAttempts,
+                           Duration retryBackoff, Duration retention) {
+    }
+
+    @Autowired
+    public AnalysisJobService(AnalysisJobRepository repository, AnalysisService analysisService,
+                              AssemblyAIService assemblyAIService, AudioProcessingService audioProcessingService,
+                              PipelineMetrics pipelineMetrics, ObjectMapper objectMapper, SharedStateStore sharedState,
+                              @Value("${jobs.directory:./data/jobs}") String directory,
+                              @Value("${jobs.node-id:}") String nodeId,
+                              @Value("${jobs.workers:4}") int workers,
+                              @Value("${jobs.lease:60s}") Duration lease,
+                              @Value("${jobs.max-attempts:3}") int maxAttempts,
+                              @Value("${jobs.retry-backoff:10s}") Duration retryBackoff,
+                              @Value("${jobs.retention:7d}") Duration retention) {
+        this(repository, analysisService, assemblyAIService, audioProcessingService, pipelineMetrics, objectMapper,
+                sharedState, new Settings(Paths.get(directory), nodeId.isBlank() ? hostName() : nodeId, Math.max(1, workers), lease,
+                        Math.max(1, maxAttempts), retryBackoff, retention),
+                Clock.systemUTC(), Executors.newFixedThreadPool(Math.max(1, workers),
+                        Thread.ofPlatform().name("analysis-job-", 0).factory()));
+    }
+
+    AnalysisJobService(AnalysisJobRepository repository, AnalysisService analysisService,
+                       AssemblyAIService assemblyAIService, AudioProcessingService audioProcessingService,
+                       PipelineMetrics pipelineMetrics, ObjectMapper objectMapper, SharedStateStore sharedState,
+                       Settings settings, Clock clock, Executor executor) {
+        this.repository = repository;
+        this.analysisService = analysisService;
+        this.assemblyAIService = assemblyAIService;
+        this.audioProcessingService = audioProcessingService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.objectMapper = objectMapper;
+        this.sharedState = sharedState;
+        this.settings = settings;
+        this.clock = clock;
+        this.executor = executor;
+    }
+
+    /**
+     * Stores the recording and queues it for analysis
+     *
+     * @return The queued job, whose id the client polls
+     * @throws AudioProcessingException If the recording cannot be stored
+     */
+    public AnalysisJob submit(MultipartFile audioFile, String originalScript, String userId) {
+        String id = UUID.randomUUID().toString();
+        Path audioPath = settings.directory().resolve(id + extension(audioFile.getOriginalFilename())).toAbsolutePath();
+        try {
+            Files.createDirectories(settings.directory());
+            audioFile.transferTo(audioPath);
+        } catch (IOException e) {
+            throw new AudioProcessingException("Failed to store the recording for analysis", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+        try {
+            repository.insert(id, userId, originalScript, audioPath.toString(), audioFile.getOriginalFilename(),
+                    audioFile.getContentType(), clock.instant());
+        } catch (DataAccessException e) {
+            deleteRecording(audioPath.toString());
+            throw e;
+        }
+        log.info("Queued analysis job {} for user {}", id, userId);
+        return publish(userId, id).orElseThrow();
+    }
+
+    /**
+     * The job from this server's database, or as last published by the server running it
+     */
+    public Optional<AnalysisJob> find(String userId, String id) {
+        return repository.findById(userId, id)
+                .or(() -> sharedState.get(jobKey(userId, id)).map(json -> fromJson(json, PublishedJob.class).toJob()));
+    }
+
+    /**
+     * Takes back the jobs this node held before a restart, so they resume without waiting for their leases
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOwnJobs() {
+        int released = repository.releaseLeases(settings.nodeId());
+        if (released > 0) {
+            log.info("Resuming {} analysis job(s) interrupted on node {}", released, settings.nodeId());
+        }
+    }
+
+    /**
+     * Claims due jobs while this server has idle workers
+     */
+    @Scheduled(fixedDelayString = "${jobs.poll-interval:2s}")
+    public void poll() {
+        int idle = settings.workers() - running.size();
+        if (idle <= 0 || stopping) {
+            return;
+        }
+        Instant now = clock.instant();
+        for (String id : repository.findClaimable(now, idle)) {
+            if (running.contains(id) || !repository.claim(id, settings.nodeId(), now, now.plus(settings.lease()))) {
+                continue;
+            }
+            running.add(id);
+            try {
+                executor.execute(() -> {
+                    try {
+                        run(id);
+                    } finally {
+                        running.remove(id);
+                    }
+                });
+            } catch (RuntimeException e) {
+                running.remove(id);
+                repository.retry(id, settings.nodeId(), "Could not start: " + e.getMessage(), now, now);
+                repository.load(id).ifPresent(job -> publish(job.userId(), id));
+            }
+        }
+    }
+
+    /**
+     * Keeps this server's claims alive while it runs their jobs
+     */
+    @Scheduled(fixedDelayString = "${jobs.heartbeat-interval:20s}")
+    public void renewLeases() {
+        if (!running.isEmpty()) {
+            repository.renewLeases(settings.nodeId(), clock.instant().plus(settings.lease()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.purge-interval:1h}")
+    public void deleteFinishedJobs() {
+        int deleted = repository.deleteFinished(clock.instant().minus(settings.retention()));
+        if (deleted > 0) {
+            log.info("Deleted {} finished analysis job(s)", deleted);
+        }
+    }
+
+    /**
+     * Lets other servers take over this server's jobs straight away instead of after their leases expire.
+     * The leases are released before running jobs are interrupted, so a job stopped by a redeploy resumes
+     * from its last checkpoint without using up an attempt or waiting out a retry backoff.
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        try {
+            repository.releaseLeases(settings.nodeId());
+        } catch (DataAccessException e) {
+            log.warn("Could not release the analysis job leases of node {}: {}", settings.nodeId(), e.getMessage());
+        }
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a claimed job from its last checkpoint to the end, or until a stage fails
+     */
+    void run(String id) {
+        Optional<AnalysisJobRepository.JobRecord> loaded = repository.load(id);
+        if (loaded.isEmpty()) {
+            return;
+        }
+        AnalysisJobRepository.JobRecord job = loaded.get();
+        LongTaskTimer.Sample rehearsal = pipelineMetrics.startRehearsal();
+        try {
+            runStages(job);
+        } catch (LeaseLostException e) {
+            log.warn("Analysis job {} was taken over by another node, stopping", id);
+        } catch (RuntimeException e) {
+            if (stopping) {
+                log.info("Analysis job {} stopped by shutdown; it resumes from its last checkpoint", id);
+                return;
+            }
+            handleFailure(job, e);
+        } finally {
+            rehearsal.stop();
+        }
+    }
+
+    private void runStages(AnalysisJobRepository.JobRecord job) {
+        String id = job.id();
+        String owner = settings.nodeId();
+        String uploadUrl = job.uploadUrl();
+        String transcriptId = job.transcriptId();
+        SpeechActivity speechActivity = fromJson(job.speechActivityJson(), SpeechActivity.class);
+        TranscriptionResponse transcript = fromJson(job.transcriptJson(), TranscriptionResponse.class);
+        AnalysisCheckpoint analysis = fromJson(job.analysisJson(), AnalysisCheckpoint.class);
+        log.info("Running analysis job {} from stage {}", id, job.stage());
+
+        switch (job.stage()) {
+            case QUEUED:
+                try (StoredAudio recording = audioProcessingService.storeCopy(Paths.get(job.audioPath()),
+                        job.audioFilename(), job.audioContentType())) {
+                    AnalysisService.UploadedRecording uploaded = analysisService.uploadRecording(recording);
+                    uploadUrl = uploaded.uploadUrl();
+                    speechActivity = uploaded.speechActivity();
+                }
+                checkpoint(job, repository.saveUpload(id, owner, uploadUrl, toJson(speechActivity), clock.instant()));
+            case UPLOADED:
+                transcriptId = assemblyAIService.submit(uploadUrl);
+                checkpoint(job, repository.saveTranscriptId(id, owner, transcriptId, clock.instant()));
+            case SUBMITTED:
+                transcript = assemblyAIService.awaitTranscript(transcriptId);
+                if (transcript.hasFailed() || transcript.getText() == null) {
+                    // AssemblyAI will not finish this transcript; the next attempt requests a new one
+                    checkpoint(job, repository.clearTranscriptId(id, owner, clock.instant()));
+                    throw new AssemblyAIException("Transcription failed: " + transcript.getError(), HttpStatus.BAD_GATEWAY);
+                }
+                checkpoint(job, repository.saveTranscript(id, owner, toJson(transcript), clock.instant()));
+            case TRANSCRIBED:
+                analysis = AnalysisCheckpoint.of(analysisService.analyzeDelivery(job.script(), transcript.getText()));
+                checkpoint(job, repository.saveAnalysis(id, owner, toJson(analysis), clock.instant()));
+            case ANALYZED:
+                AnalysisResponse response = analysisService.completeRehearsal(job.script(), analysis.toResponse(),
+                        transcript, speechActivity, job.userId());
+                checkpoint(job, repository.complete(id, owner, toJson(response), clock.instant()));
+                deleteRecording(job.audioPath());
+                log.info("Analysis job {} is done", id);
+                break;
+            default:
+                // Finished jobs are never claimed
+        }
+    }
+
+    /**
+     * Retries the job from its last checkpoint after a backoff, or fails it once it is out of attempts
+     */
+    private void handleFailure(AnalysisJobRepository.JobRecord job, RuntimeException e) {
+        String error = e instanceof ResponseStatusException statusException ? statusException.getReason() : e.getMessage();
+        if (error == null) {
+            error = e.getClass().getSimpleName();
+        }
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        Instant now = clock.instant();
+        int attempt = job.attempts() + 1;
+        try {
+            if (attempt >= settings.maxAttempts()) {
+                log.error("Analysis job {} failed after {} attempt(s): {}", job.id(), attempt, error);
+                if (repository.fail(job.id(), settings.nodeId(), error, now)) {
+                    publish(job.userId(), job.id());
+                    deleteRecording(job.audioPath());
+                }
+            } else {
+                Duration backoff = settings.retryBackoff().multipliedBy(1L << Math.min(attempt - 1, 16));
+                log.warn("Analysis job {} failed on attempt {}, retrying in {}: {}", job.id(), attempt, backoff, error);
+                if (repository.retry(job.id(), settings.nodeId(), error, now.plus(backoff), now)) {
+                    publish(job.userId(), job.id());
+                }
+            }
+        } catch (DataAccessException dataAccessException) {
+            // The lease expires and the job is retried by whichever server claims it next
+            log.error("Could not record the failure of analysis job {}: {}", job.id(), dataAccessException.getMessage());
+        }
+    }
+
+    private void checkpoint(AnalysisJobRepository.JobRecord job, boolean saved) {
+        if (!saved) {
+            throw new LeaseLostException();
+        }
+        publish(job.userId(), job.id());
+    }
+
+    private Optional<AnalysisJob> publish(String userId, String id) {
+        Optional<AnalysisJob> job = repository.findById(userId, id);
+        job.ifPresent(view -> sharedState.put(jobKey(userId, id), toJson(PublishedJob.of(view)), settings.retention()));
+        return job;
+    }
+
+    private static String jobKey(String userId, String id) {
+        return SharedStateStore.hashedKey("job", userId, id);
+    }
+
+    private void deleteRecording(String audioPath) {
+        try {
+            Files.deleteIfExists(Paths.get(audioPath));
+        } catch (IOException e) {
+            log.warn("Could not delete the recording {}: {}", audioPath, e.getMessage());
+        }
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not save the " + value.getClass().getSimpleName() + " checkpoint", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read the " + type.getSimpleName() + " checkpoint", e);
+        }
+    }
+
+    private static String extension(String filename) {
+        if (filename == null || filename.lastIndexOf('.') < 0) {
+            return ".bin";
+        }
+        String extension = filename.substring(filename.lastIndexOf('.'));
+        return extension.matches("\\.[A-Za-z0-9]{1,8}") ? extension : ".bin";
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "localhost";
+        }
+    }
+
+    /**
+     * The analysis stage's output. AnalysisResponse is built by its Builder, so it is saved in this form.
+     */
+    record AnalysisCheckpoint(int score, String positiveFeedback, String improvementPoints, List<SectionAnalysis> sections) {
+        static AnalysisCheckpoint of(AnalysisResponse analysis) {
+            return new AnalysisCheckpoint(analysis.getScore(), analysis.getPositiveFeedback(),
+                    analysis.getImprovementPoints(), analysis.getSections());
+        }
+
+        AnalysisResponse toResponse() {
+            return new AnalysisResponse.Builder()
+                    .score(score)
+                    .positiveFeedback(positiveFeedback)
+                    .improvementPoints(improvementPoints)
+                    .sections(sections)
+                    .build();
+        }
+    }
+
+    /**
+     * A job's status as published to the shared state store, with its result as JSON text
+     */
+    record PublishedJob(String id, String status, int attempts, String error, Instant createdAt, Instant updatedAt,
+                        String result) {
+        static PublishedJob of(AnalysisJob job) {
+            return new PublishedJob(job.getId(), job.getStatus(), job.getAttempts(), job.getError(), job.getCreatedAt(),
+                    job.getUpdatedAt(), job.getResult());
+        }
+
+        AnalysisJob toJob() {
+            return new AnalysisJob(id, status, attempts, error, createdAt, updatedAt, result);
+        }
+    }
+
+    /**
+     * Another server holds the job now, so this one must stop without saving anything more
+     */
+    private static class LeaseLostException extends RuntimeException {
+        LeaseLostException() {
+            super("The job's lease was lost", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.hackathon.aipresentationbackend.service.jobs;
+
+import java.util.Locale;
+
+/**
+ * The last checkpoint an analysis job reached. A job runs each stage after its current one in order,
+ * saving that stage's output before moving on.
+ */
+public enum JobStage {
+    /** The recording is stored with the job */
+    QUEUED,
+    /** The recording is uploaded to AssemblyAI */
+    UPLOADED,
+    /** A transcript was requested, and its id saved */
+    SUBMITTED,
+    /** The transcript is saved */
+    TRANSCRIBED,
+    /** The delivery is analyzed */
+    ANALYZED,
+    /** The ideal delivery is generated and the rehearsal is in the user's history */
+    DONE,
+    /** A stage failed on every attempt */
+    FAILED;
+
+    public boolean isFinished() {
+        return this == DONE || this == FAILED;
+    }
+
+    public String getStatus() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
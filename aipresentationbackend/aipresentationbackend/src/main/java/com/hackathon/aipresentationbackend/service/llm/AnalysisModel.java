@@ -0,0 +1,27 @@
+package com.hackathon.aipresentationbackend.service.llm;
+
+/**
+ * A text-generation backend that presentation analysis prompts can be sent to.
+ * Implementations own the wire format of their endpoint and return only the
+ * model's reply text, so prompt building and response parsing stay in GeminiService.
+ */
+public interface AnalysisModel {
+
+    /**
+     * @return A unique name used in logs and routing decisions
+     */
+    String getName();
+
+    /**
+     * @return The largest prompt, in characters, this model should be given
+     */
+    int getMaxPromptChars();
+
+    /**
+     * Sends a prompt to the model
+     *
+     * @param prompt The complete prompt text
+     * @return The raw text of the model's reply
+     */
+    String generate(String prompt);
+}
@@ -0,0 +1,192 @@
+package com.hackathon.aipresentationbackend.service.llm;
+
+import com.hackathon.aipresentationbackend.exception.AnalysisModelException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Exceptions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Chooses which {@link AnalysisModel} serves a prompt.
+ * Models that cannot fit the prompt are skipped; the remaining ones are ranked so that
+ * healthy models predicted to answer within the latency budget come first, smallest
+ * context window first (the fast tier), and models with a high recent error rate come last.
+ * If the chosen model fails with a transient error the next candidate is tried.
+ */
+@Service
+public class AnalysisModelRouter {
+    private static final Logger log = LoggerFactory.getLogger(AnalysisModelRouter.class);
+    private static final double LATENCY_SMOOTHING = 0.3;
+    private static final double ERROR_SMOOTHING = 0.3;
+
+    private final List<ModelHealth> models;
+    private final Duration defaultLatencyBudget;
+    private final double maxErrorRate;
+    private final long errorHalfLifeNanos;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public AnalysisModelRouter(List<AnalysisModel> models,
+                               @Value("${analysis.routing.latency-budget:20s}") Duration defaultLatencyBudget,
+                               @Value("${analysis.routing.max-error-rate:0.5}") double maxErrorRate,
+                               @Value("${analysis.routing.error-half-life:60s}") Duration errorHalfLife) {
+        this(models, defaultLatencyBudget, maxErrorRate, errorHalfLife, System::nanoTime);
+    }
+
+    AnalysisModelRouter(List<AnalysisModel> models, Duration defaultLatencyBudget, double maxErrorRate,
+                        Duration errorHalfLife, LongSupplier nanoClock) {
+        this.models = models.stream().map(ModelHealth::new).toList();
+        this.defaultLatencyBudget = defaultLatencyBudget;
+        this.maxErrorRate = maxErrorRate;
+        this.errorHalfLifeNanos = errorHalfLife.toNanos();
+        this.nanoClock = nanoClock;
+        log.info("Analysis model router configured with models: {}",
+                models.stream().map(AnalysisModel::getName).toList());
+    }
+
+    /**
+     * Sends a prompt to the best available model using the default latency budget
+     *
+     * @param prompt The prompt text
+     * @return The model's reply text
+     */
+    public String generate(String prompt) {
+        return generate(prompt, defaultLatencyBudget);
+    }
+
+    /**
+     * Sends a prompt to the best available model, failing over to the next candidate on transient errors
+     *
+     * @param prompt        The prompt text
+     * @param latencyBudget How long the caller is prepared to wait for the reply
+     * @return The model's reply text
+     * @throws AnalysisModelException If no model can accept a prompt of this size
+     */
+    public String generate(String prompt, Duration latencyBudget) {
+        List<ModelHealth> candidates = rank(prompt.length(), latencyBudget);
+        if (candidates.isEmpty()) {
+            throw new AnalysisModelException(
+                    String.format("No analysis model accepts a prompt of %d characters", prompt.length()),
+                    HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+
+        RuntimeException lastFailure = null;
+        for (ModelHealth candidate : candidates) {
+            long start = nanoClock.getAsLong();
+            try {
+                String text = candidate.model.generate(prompt);
+                candidate.recordSuccess(nanoClock.getAsLong() - start);
+                log.debug("Model {} answered prompt of {} characters", candidate.model.getName(), prompt.length());
+                return text;
+            } catch (RuntimeException e) {
+                // A rejected prompt, such as a safety block, says nothing about the model's health
+                if (!isFailoverEligible(e)) {
+                    throw e;
+                }
+                candidate.recordFailure(nanoClock.getAsLong());
+                lastFailure = e;
+                log.warn("Model {} failed, trying next candidate: {}", candidate.model.getName(), e.getMessage());
+            }
+        }
+        throw lastFailure;
+    }
+
+    /**
+     * Orders the models that can accept a prompt of the given size, best choice first
+     */
+    List<AnalysisModel> candidatesFor(int promptChars, Duration latencyBudget) {
+        return rank(promptChars, latencyBudget).stream().map(health -> health.model).toList();
+    }
+
+    private List<ModelHealth> rank(int promptChars, Duration latencyBudget) {
+        long now = nanoClock.getAsLong();
+        long budgetNanos = latencyBudget.toNanos();
+
+        List<ModelHealth> withinBudget = new ArrayList<>();
+        List<ModelHealth> overBudget = new ArrayList<>();
+        List<ModelHealth> unhealthy = new ArrayList<>();
+        for (ModelHealth health : models) {
+            if (health.model.getMaxPromptChars() < promptChars) {
+                continue;
+            }
+            if (health.errorRate(now) > maxErrorRate) {
+                unhealthy.add(health);
+            } else if (health.latency() <= budgetNanos) {
+                withinBudget.add(health);
+            } else {
+                overBudget.add(health);
+            }
+        }
+
+        withinBudget.sort(Comparator.comparingInt(health -> health.model.getMaxPromptChars()));
+        overBudget.sort(Comparator.comparingDouble(ModelHealth::latency));
+        unhealthy.sort(Comparator.comparingDouble(health -> health.errorRate(now)));
+
+        List<ModelHealth> ranked = new ArrayList<>(withinBudget);
+        ranked.addAll(overBudget);
+        ranked.addAll(unhealthy);
+        return ranked;
+    }
+
+    private boolean isFailoverEligible(Throwable throwable) {
+        Throwable cause = Exceptions.unwrap(throwable);
+        if (cause instanceof ResponseStatusException statusException) {
+            HttpStatus status = HttpStatus.valueOf(statusException.getStatusCode().value());
+            return status.is5xxServerError() || status == HttpStatus.TOO_MANY_REQUESTS
+                    || status == HttpStatus.REQUEST_TIMEOUT;
+        }
+        return cause instanceof TimeoutException || cause instanceof WebClientRequestException;
+    }
+
+    /**
+     * Smoothed latency and error rate observed for one model.
+     * The error rate decays toward zero while the model is idle so a demoted model is retried eventually.
+     */
+    private final class ModelHealth {
+        private final AnalysisModel model;
+        private double latencyNanos;
+        private double errorRate;
+        private long errorUpdatedAt;
+
+        private ModelHealth(AnalysisModel model) {
+            this.model = model;
+        }
+
+        synchronized void recordSuccess(long elapsedNanos) {
+            long now = nanoClock.getAsLong();
+            latencyNanos = latencyNanos == 0 ? elapsedNanos
+                    : LATENCY_SMOOTHING * elapsedNanos + (1 - LATENCY_SMOOTHING) * latencyNanos;
+            errorRate = (1 - ERROR_SMOOTHING) * errorRate(now);
+            errorUpdatedAt = now;
+        }
+
+        synchronized void recordFailure(long now) {
+            errorRate = ERROR_SMOOTHING + (1 - ERROR_SMOOTHING) * errorRate(now);
+            errorUpdatedAt = now;
+        }
+
+        synchronized double latency() {
+            return latencyNanos;
+        }
+
+        synchronized double errorRate(long now) {
+            if (errorRate == 0) {
+                return 0;
+            }
+            double halfLives = (double) (now - errorUpdatedAt) / errorHalfLifeNanos;
+            return errorRate * Math.pow(0.5, halfLives);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.hackathon.aipresentationbackend.service.llm;
+
+import com.hackathon.aipresentationbackend.exception.GeminiApiException;
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Analysis model backed by the Gemini generateContent REST API
+ */
+public class GeminiAnalysisModel implements AnalysisModel {
+    private static final Logger log = LoggerFactory.getLogger(GeminiAnalysisModel.class);
+    private static final String GENERATE_CONTENT_ENDPOINT = ":generateContent";
+
+    private final String name;
+    private final WebClient webClient;
+    private final String baseUrl;
+    private final String model;
+    private final String apiKey;
+    private final int maxPromptChars;
+    private final PipelineMetrics pipelineMetrics;
+
+    public GeminiAnalysisModel(String name, WebClient webClient, String baseUrl, String model,
+                               String apiKey, int maxPromptChars, PipelineMetrics pipelineMetrics) {
+        this.name = name;
+        this.webClient = webClient;
+        this.baseUrl = baseUrl;
+        this.model = model;
+        this.apiKey = apiKey;
+        this.maxPromptChars = maxPromptChars;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getMaxPromptChars() {
+        return maxPromptChars;
+    }
+
+    @Override
+    public String generate(String prompt) {
+        log.debug("Calling Gemini model {} with prompt length: {}", model, prompt.length());
+
+        Map<String, Object> requestBody = new HashMap<>();
+        Map<String, Object> content = new HashMap<>();
+        content.put("parts", List.of(Map.of("text", prompt)));
+        content.put("role", "user");
+        requestBody.put("contents", List.of(content));
+
+        String apiUrl = baseUrl + "/" + model + GENERATE_CONTENT_ENDPOINT + "?key=" + apiKey;
+        log.info("Calling Gemini API model: {}", model);
+
+        try {
+            Map<String, Object> response = webClient.post()
+                    .uri(apiUrl)
+                    .bodyValue(requestBody)
+                    .retrieve()
+                    .bodyToMono(Map.class)
+                    .retryWhen(Retry.backoff(3, Duration.ofSeconds(2))
+                            .filter(this::isRetryableException)
+                            .doBeforeRetry(signal -> pipelineMetrics.recordRetry(name))
+                            .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) ->
+                                    new GeminiApiException("Gemini API call failed after retries.",
+                                            HttpStatus.SERVICE_UNAVAILABLE, retrySignal.failure())))
+                    .timeout(Duration.ofSeconds(30), Mono.error(new TimeoutException("Gemini API call timed out after 30 seconds.")))
+                    .block();
+            recordTokenUsage(response);
+            return extractTextFromResponse(response);
+        } catch (WebClientResponseException e) {
+            log.error("Gemini API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+            throw new GeminiApiException("Failed to call Gemini API", HttpStatus.valueOf(e.getStatusCode().value()), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    String extractTextFromResponse(Map<String, Object> response) {
+        if (response == null || !response.containsKey("candidates")) {
+            throw new GeminiApiException("Invalid response from Gemini API: missing 'candidates'", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.get("candidates");
+        if (candidates.isEmpty()) {
+            if (response.containsKey("promptFeedback")) {
+                log.warn("Gemini response blocked. Feedback: {}", response.get("promptFeedback"));
+                throw new GeminiApiException("Request blocked due to safety settings.", HttpStatus.BAD_REQUEST);
+            }
+            throw new GeminiApiException("No content returned from Gemini API.", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        Map<String, Object> content = (Map<String, Object>) candidates.get(0).get("content");
+        List<Map<String, Object>> parts = (List<Map<String, Object>>) content.get("parts");
+        return (String) parts.get(0).get("text");
+    }
+
+    /**
+     * Records the token counts Gemini reports in usageMetadata, when present
+     */
+    private void recordTokenUsage(Map<String, Object> response) {
+        if (response != null && response.get("usageMetadata") instanceof Map<?, ?> usage) {
+            if (usage.get("promptTokenCount") instanceof Number prompt) {
+                pipelineMetrics.recordTokens(name, "prompt", prompt.longValue());
+            }
+            if (usage.get("candidatesTokenCount") instanceof Number completion) {
+                pipelineMetrics.recordTokens(name, "completion", completion.longValue());
+            }
+        }
+    }
+
+    private boolean isRetryableException(Throwable throwable) {
+        if (throwable instanceof WebClientResponseException) {
+            HttpStatus status = HttpStatus.valueOf(((WebClientResponseException) throwable).getStatusCode().value());
+            return status.is5xxServerError() || status == HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return throwable instanceof TimeoutException;
+    }
+}
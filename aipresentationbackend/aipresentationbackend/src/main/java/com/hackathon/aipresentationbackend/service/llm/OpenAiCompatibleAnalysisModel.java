@@ -0,0 +1,134 @@
+package com.hackathon.aipresentationbackend.service.llm;
+
+import com.hackathon.aipresentationbackend.exception.AnalysisModelException;
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Analysis model backed by an OpenAI-compatible chat completions endpoint,
+ * such as a local llama.cpp, vLLM or Ollama server.
+ */
+public class OpenAiCompatibleAnalysisModel implements AnalysisModel {
+    private static final Logger log = LoggerFactory.getLogger(OpenAiCompatibleAnalysisModel.class);
+    private static final String CHAT_COMPLETIONS_ENDPOINT = "/chat/completions";
+
+    private final String name;
+    private final WebClient webClient;
+    private final String baseUrl;
+    private final String model;
+    private final String apiKey;
+    private final int maxPromptChars;
+    private final Duration timeout;
+    private final PipelineMetrics pipelineMetrics;
+
+    public OpenAiCompatibleAnalysisModel(String name, WebClient webClient, String baseUrl, String model,
+                                         String apiKey, int maxPromptChars, Duration timeout,
+                                         PipelineMetrics pipelineMetrics) {
+        this.name = name;
+        this.webClient = webClient;
+        this.baseUrl = baseUrl;
+        this.model = model;
+        this.apiKey = apiKey;
+        this.maxPromptChars = maxPromptChars;
+        this.timeout = timeout;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getMaxPromptChars() {
+        return maxPromptChars;
+    }
+
+    @Override
+    public String generate(String prompt) {
+        log.info("Calling OpenAI-compatible model {} at {}", model, baseUrl);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("messages", List.of(Map.of("role", "user", "content", prompt)));
+        requestBody.put("temperature", 0.2);
+
+        try {
+            Map<String, Object> response = webClient.post()
+                    .uri(baseUrl + CHAT_COMPLETIONS_ENDPOINT)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .headers(headers -> {
+                        if (apiKey != null && !apiKey.isBlank()) {
+                            headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey);
+                        }
+                    })
+                    .bodyValue(requestBody)
+                    .retrieve()
+                    .bodyToMono(Map.class)
+                    .retryWhen(Retry.backoff(2, Duration.ofSeconds(1))
+                            .filter(this::isRetryableException)
+                            .doBeforeRetry(signal -> pipelineMetrics.recordRetry(name))
+                            .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) ->
+                                    new AnalysisModelException("Model " + name + " failed after retries",
+                                            HttpStatus.SERVICE_UNAVAILABLE, retrySignal.failure())))
+                    .timeout(timeout, Mono.error(new TimeoutException("Model " + name + " timed out after " + timeout)))
+                    .block();
+            recordTokenUsage(response);
+            return extractTextFromResponse(response);
+        } catch (WebClientResponseException e) {
+            log.error("Model {} error: {} - {}", name, e.getStatusCode(), e.getResponseBodyAsString());
+            throw new AnalysisModelException("Failed to call model " + name,
+                    HttpStatus.valueOf(e.getStatusCode().value()), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    String extractTextFromResponse(Map<String, Object> response) {
+        if (response == null || !(response.get("choices") instanceof List<?> choices) || choices.isEmpty()) {
+            throw new AnalysisModelException("Invalid response from model " + name + ": missing 'choices'",
+                    HttpStatus.BAD_GATEWAY);
+        }
+        Map<String, Object> message = (Map<String, Object>) ((Map<String, Object>) choices.get(0)).get("message");
+        Object text = message != null ? message.get("content") : null;
+        if (!(text instanceof String)) {
+            throw new AnalysisModelException("No content returned from model " + name, HttpStatus.BAD_GATEWAY);
+        }
+        return (String) text;
+    }
+
+    /**
+     * Records the token counts reported in the response's usage block, when the server sends one
+     */
+    private void recordTokenUsage(Map<String, Object> response) {
+        if (response != null && response.get("usage") instanceof Map<?, ?> usage) {
+            if (usage.get("prompt_tokens") instanceof Number prompt) {
+                pipelineMetrics.recordTokens(name, "prompt", prompt.longValue());
+            }
+            if (usage.get("completion_tokens") instanceof Number completion) {
+                pipelineMetrics.recordTokens(name, "completion", completion.longValue());
+            }
+        }
+    }
+
+    private boolean isRetryableException(Throwable throwable) {
+        if (throwable instanceof WebClientResponseException) {
+            HttpStatus status = HttpStatus.valueOf(((WebClientResponseException) throwable).getStatusCode().value());
+            return status.is5xxServerError() || status == HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return throwable instanceof TimeoutException;
+    }
+}
@@ -0,0 +1,216 @@
+package com.hackathon.aipresentationbackend.service.sections;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits a script into its paragraphs and works out which part of a transcript delivered each one.
+ * Paragraphs are separated by a blank line, as in {@link com.hackathon.aipresentationbackend.service.speech.ScriptSegmenter},
+ * and are fingerprinted by their words alone, so changes to case, punctuation or spacing keep a paragraph's identity.
+ * The transcript is assigned to paragraphs by aligning its words with the script's (longest common subsequence);
+ * words the speaker added go to the paragraph they were said in.
+ */
+public final class ScriptSections {
+    /**
+     * Largest alignment computed word by word, in script words times transcript words (one byte each).
+     * Longer pairs are split in proportion to the paragraphs' lengths instead.
+     */
+    static final long MAX_ALIGNMENT_CELLS = 4_000_000;
+
+    private static final byte DIAGONAL = 0;
+    private static final byte UP = 1;
+    private static final byte LEFT = 2;
+
+    private ScriptSections() {
+    }
+
+    /**
+     * A paragraph of the script
+     *
+     * @param index       Position of the paragraph in the script, from 0
+     * @param text        The paragraph with its whitespace collapsed
+     * @param fingerprint SHA-256 of the paragraph's normalized words
+     * @param wordCount   Number of words in the paragraph
+     */
+    public record Section(int index, String text, String fingerprint, int wordCount) {
+    }
+
+    public static List<Section> split(String script) {
+        List<Section> sections = new ArrayList<>();
+        if (script == null) {
+            return sections;
+        }
+        for (String paragraph : script.split("\\R\\s*\\R")) {
+            String text = paragraph.strip().replaceAll("\\s+", " ");
+            List<String> words = normalizedWords(text);
+            if (!words.isEmpty()) {
+                sections.add(new Section(sections.size(), text, fingerprint(words), words.size()));
+            }
+        }
+        return sections;
+    }
+
+    /**
+     * SHA-256 of the text's normalized words, so the same words hash the same however they are written
+     */
+    public static String fingerprint(String text) {
+        return fingerprint(normalizedWords(text));
+    }
+
+    /**
+     * Splits the transcript into the parts spoken for each section
+     *
+     * @return One entry per section, in order; empty for a section that was not delivered
+     */
+    public static List<String> alignTranscript(List<Section> sections, String transcript) {
+        return alignTranscript(sections, transcript, MAX_ALIGNMENT_CELLS);
+    }
+
+    static List<String> alignTranscript(List<Section> sections, String transcript, long maxCells) {
+        List<StringBuilder> spoken = new ArrayList<>();
+        sections.forEach(section -> spoken.add(new StringBuilder()));
+        String[] rawWords = transcript == null || transcript.isBlank() ? new String[0] : transcript.strip().split("\\s+");
+        if (sections.isEmpty() || rawWords.length == 0) {
+            return spoken.stream().map(StringBuilder::toString).toList();
+        }
+
+        // The section of every script word, in script order
+        List<String> scriptWords = new ArrayList<>();
+        List<Integer> scriptSections = new ArrayList<>();
+        for (Section section : sections) {
+            for (String word : normalizedWords(section.text())) {
+                scriptWords.add(word);
+                scriptSections.add(section.index());
+            }
+        }
+        String[] spokenWords = new String[rawWords.length];
+        for (int i = 0; i < rawWords.length; i++) {
+            spokenWords[i] = normalize(rawWords[i]);
+        }
+
+        int[] assigned = (long) scriptWords.size() * spokenWords.length <= maxCells
+                ? alignWords(scriptWords, scriptSections, spokenWords)
+                : splitProportionally(sections, spokenWords.length);
+        for (int i = 0; i < rawWords.length; i++) {
+            StringBuilder section = spoken.get(assigned[i]);
+            if (!section.isEmpty()) {
+                section.append(' ');
+            }
+            section.append(rawWords[i]);
+        }
+        return spoken.stream().map(StringBuilder::toString).toList();
+    }
+
+    /**
+     * Assigns each spoken word to the section of the script word it matches. Unmatched words follow
+     * the last matched word before them, or the first one after them at the start of the transcript.
+     */
+    private static int[] alignWords(List<String> scriptWords, List<Integer> scriptSections, String[] spokenWords) {
+        int rows = scriptWords.size();
+        int columns = spokenWords.length;
+        byte[] moves = new byte[rows * columns];
+        int[] previous = new int[columns + 1];
+        int[] current = new int[columns + 1];
+        for (int i = 1; i <= rows; i++) {
+            String scriptWord = scriptWords.get(i - 1);
+            for (int j = 1; j <= columns; j++) {
+                int cell = (i - 1) * columns + (j - 1);
+                if (!spokenWords[j - 1].isEmpty() && scriptWord.equals(spokenWords[j - 1])) {
+                    current[j] = previous[j - 1] + 1;
+                    moves[cell] = DIAGONAL;
+                } else if (previous[j] >= current[j - 1]) {
+                    current[j] = previous[j];
+                    moves[cell] = UP;
+                } else {
+                    current[j] = current[j - 1];
+                    moves[cell] = LEFT;
+                }
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        int[] assigned = new int[columns];
+        Arrays.fill(assigned, -1);
+        for (int i = rows, j = columns; i > 0 && j > 0; ) {
+            byte move = moves[(i - 1) * columns + (j - 1)];
+            if (move == DIAGONAL) {
+                assigned[j - 1] = scriptSections.get(i - 1);
+                i--;
+                j--;
+            } else if (move == UP) {
+                i--;
+            } else {
+                j--;
+            }
+        }
+
+        int section = -1;
+        for (int j = 0; j < columns; j++) {
+            if (assigned[j] >= 0) {
+                section = assigned[j];
+            } else if (section >= 0) {
+                assigned[j] = section;
+            }
+        }
+        // Words before the first match belong to the first matched section, or the first section if nothing matched
+        int first = section < 0 ? 0 : Arrays.stream(assigned).filter(s -> s >= 0).findFirst().orElse(0);
+        for (int j = 0; j < columns && assigned[j] < 0; j++) {
+            assigned[j] = first;
+        }
+        return assigned;
+    }
+
+    private static int[] splitProportionally(List<Section> sections, int spokenWords) {
+        long totalWords = sections.stream().mapToLong(Section::wordCount).sum();
+        int[] assigned = new int[spokenWords];
+        long wordsBefore = 0;
+        int next = 0;
+        for (Section section : sections) {
+            wordsBefore += section.wordCount();
+            int end = (int) (wordsBefore * spokenWords / totalWords);
+            for (; next < end; next++) {
+                assigned[next] = section.index();
+            }
+        }
+        return assigned;
+    }
+
+    private static List<String> normalizedWords(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : text.split("\\s+")) {
+            String normalized = normalize(word);
+            if (!normalized.isEmpty()) {
+                words.add(normalized);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Lower case letters, digits and apostrophes; empty for a word that is only punctuation
+     */
+    private static String normalize(String word) {
+        StringBuilder normalized = new StringBuilder(word.length());
+        word.toLowerCase(Locale.ROOT).codePoints()
+                .filter(c -> Character.isLetterOrDigit(c) || c == '\'')
+                .forEach(normalized::appendCodePoint);
+        return normalized.toString();
+    }
+
+    private static String fingerprint(List<String> words) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(String.join(" ", words).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
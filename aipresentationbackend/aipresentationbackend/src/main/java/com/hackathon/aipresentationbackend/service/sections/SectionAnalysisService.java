@@ -0,0 +1,143 @@
+package com.hackathon.aipresentationbackend.service.sections;
+
+import com.hackathon.aipresentationbackend.model.AnalysisResponse;
+import com.hackathon.aipresentationbackend.model.SectionAnalysis;
+import com.hackathon.aipresentationbackend.service.GeminiService;
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import com.hackathon.aipresentationbackend.service.history.RehearsalHistoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Analyzes a rehearsal paragraph by paragraph, so an edited script only costs model calls for what changed.
+ * The transcript is split between the script's paragraphs ({@link ScriptSections}); a paragraph whose
+ * words and delivery match an earlier rehearsal reuses that rehearsal's feedback, and the others are
+ * analyzed concurrently, at most the configured number at a time. The paragraphs' results are then
+ * combined into one analysis, weighting each score by the paragraph's length.
+ * Off by default: each paragraph is a model call of its own, seeing only that paragraph, so it pays off
+ * for scripts rehearsed and revised many times rather than for one-off rehearsals.
+ */
+@Service
+public class SectionAnalysisService {
+    private static final Logger log = LoggerFactory.getLogger(SectionAnalysisService.class);
+    private static final int MAX_IMPROVEMENT_SECTIONS = 3;
+
+    private final GeminiService geminiService;
+    private final RehearsalHistoryService rehearsalHistory;
+    private final PipelineMetrics pipelineMetrics;
+    private final boolean enabled;
+    private final int maxConcurrency;
+
+    public SectionAnalysisService(GeminiService geminiService, RehearsalHistoryService rehearsalHistory,
+                                  PipelineMetrics pipelineMetrics,
+                                  @Value("${analysis.sections.enabled:false}") boolean enabled,
+                                  @Value("${analysis.sections.max-concurrency:4}") int maxConcurrency) {
+        this.geminiService = geminiService;
+        this.rehearsalHistory = rehearsalHistory;
+        this.pipelineMetrics = pipelineMetrics;
+        this.enabled = enabled;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the script is analyzed by paragraph: sections are enabled and it has more than one paragraph
+     */
+    public boolean appliesTo(String script) {
+        return enabled && ScriptSections.split(script).size() > 1;
+    }
+
+    /**
+     * @throws com.hackathon.aipresentationbackend.exception.GeminiApiException If a paragraph could not be analyzed
+     */
+    public AnalysisResponse analyze(String script, String spokenTranscript) {
+        List<ScriptSections.Section> sections = ScriptSections.split(script);
+        List<String> spoken = ScriptSections.alignTranscript(sections, spokenTranscript);
+
+        List<SectionAnalysis> results = new ArrayList<>();
+        List<ScriptSections.Section> changed = new ArrayList<>();
+        for (ScriptSections.Section section : sections) {
+            Optional<AnalysisResponse> stored = rehearsalHistory.findSectionAnalysis(section.fingerprint(), spoken.get(section.index()));
+            if (stored.isPresent()) {
+                results.add(sectionAnalysis(section, stored.get(), true));
+            } else {
+                changed.add(section);
+            }
+        }
+        log.info("Analyzing {} of {} paragraph(s), reusing the feedback on the rest", changed.size(), sections.size());
+        pipelineMetrics.recordSections("reused", sections.size() - changed.size());
+        pipelineMetrics.recordSections("analyzed", changed.size());
+
+        List<SectionAnalysis> analyzed = Flux.fromIterable(changed)
+                .flatMap(section -> analyze(section, spoken.get(section.index())), maxConcurrency)
+                .collectList()
+                .block();
+        if (analyzed != null) {
+            results.addAll(analyzed);
+        }
+        results.sort(Comparator.comparingInt(SectionAnalysis::getIndex));
+        return combine(sections, results);
+    }
+
+    private Mono<SectionAnalysis> analyze(ScriptSections.Section section, String spokenSection) {
+        return Mono.fromCallable(() -> {
+                    AnalysisResponse analysis = geminiService.analyzePresentation(section.text(), spokenSection);
+                    rehearsalHistory.recordSectionAnalysis(section.fingerprint(), spokenSection, analysis);
+                    return sectionAnalysis(section, analysis, false);
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * The paragraphs' scores averaged by word count. The strongest paragraph supplies the positive
+     * feedback, and the weakest ones the improvement points, each labelled with its paragraph number.
+     */
+    static AnalysisResponse combine(List<ScriptSections.Section> sections, List<SectionAnalysis> results) {
+        double weightedScore = 0;
+        long words = 0;
+        for (SectionAnalysis result : results) {
+            int wordCount = sections.get(result.getIndex()).wordCount();
+            weightedScore += (double) result.getScore() * wordCount;
+            words += wordCount;
+        }
+        int score = words == 0 ? 0 : (int) Math.round(weightedScore / words);
+
+        String positiveFeedback = results.stream()
+                .max(Comparator.comparingInt(SectionAnalysis::getScore).thenComparing(SectionAnalysis::getIndex, Comparator.reverseOrder()))
+                .map(SectionAnalysis::getPositiveFeedback)
+                .orElse(null);
+        String improvementPoints = results.stream()
+                .filter(result -> result.getImprovementPoints() != null && !result.getImprovementPoints().isBlank())
+                .sorted(Comparator.comparingInt(SectionAnalysis::getScore).thenComparingInt(SectionAnalysis::getIndex))
+                .limit(MAX_IMPROVEMENT_SECTIONS)
+                .sorted(Comparator.comparingInt(SectionAnalysis::getIndex))
+                .map(result -> "Paragraph " + (result.getIndex() + 1) + ": " + result.getImprovementPoints().strip())
+                .collect(Collectors.joining("\n"));
+
+        return new AnalysisResponse.Builder()
+                .score(score)
+                .positiveFeedback(positiveFeedback)
+                .improvementPoints(improvementPoints)
+                .sections(List.copyOf(results))
+                .build();
+    }
+
+    private static SectionAnalysis sectionAnalysis(ScriptSections.Section section, AnalysisResponse analysis, boolean reused) {
+        return new SectionAnalysis(section.index(), analysis.getScore(), analysis.getPositiveFeedback(),
+                analysis.getImprovementPoints(), reused);
+    }
+}
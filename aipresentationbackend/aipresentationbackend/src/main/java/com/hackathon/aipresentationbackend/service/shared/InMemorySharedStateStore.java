@@ -0,0 +1,74 @@
+package com.hackathon.aipresentationbackend.service.shared;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Shared state kept in this server's memory, for a single server or when no Redis is configured.
+ * Holds at most the configured number of keys, evicting the least recently used one when full.
+ */
+public class InMemorySharedStateStore implements SharedStateStore {
+    private final Clock clock;
+    private final LinkedHashMap<String, Entry> entries;
+
+    public InMemorySharedStateStore(int maxEntries) {
+        this(maxEntries, Clock.systemUTC());
+    }
+
+    public InMemorySharedStateStore(int maxEntries, Clock clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Optional<String> get(String key) {
+        Entry entry = live(key);
+        return entry == null ? Optional.empty() : Optional.of(entry.value);
+    }
+
+    @Override
+    public synchronized void put(String key, String value, Duration ttl) {
+        entries.put(key, new Entry(value, clock.millis() + ttl.toMillis()));
+    }
+
+    @Override
+    public synchronized long increment(String key, Duration ttl) {
+        Entry entry = live(key);
+        long count = entry == null ? 1 : Long.parseLong(entry.value) + 1;
+        long expiresAt = entry == null ? clock.millis() + ttl.toMillis() : entry.expiresAt;
+        entries.put(key, new Entry(Long.toString(count), expiresAt));
+        return count;
+    }
+
+    @Override
+    public synchronized void delete(String key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Entry live(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && clock.millis() >= entry.expiresAt) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private record Entry(String value, long expiresAt) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.hackathon.aipresentationbackend.service.shared;
+
+import com.hackathon.aipresentationbackend.exception.RateLimitException;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Limits how many requests each subject (a user, say) makes per time window, counted in the shared
+ * state store so the limit holds across every server rather than per server.
+ * Windows are fixed, starting at multiples of the window length; a limit of 0 or less turns it off.
+ */
+public class RateLimiter {
+    private final SharedStateStore store;
+    private final String name;
+    private final int limit;
+    private final long windowMillis;
+    private final Clock clock;
+
+    public RateLimiter(SharedStateStore store, String name, int limit, Duration window) {
+        this(store, name, limit, window, Clock.systemUTC());
+    }
+
+    public RateLimiter(SharedStateStore store, String name, int limit, Duration window, Clock clock) {
+        if (window.toMillis() < 1) {
+            throw new IllegalArgumentException("window must be at least 1ms");
+        }
+        this.store = store;
+        this.name = name;
+        this.limit = limit;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return limit > 0;
+    }
+
+    /**
+     * Counts one request by the subject
+     *
+     * @throws RateLimitException If the subject has used up this window's limit, with the time until the next window
+     */
+    public void acquire(String subject) {
+        if (!isEnabled()) {
+            return;
+        }
+        long now = clock.millis();
+        long window = now / windowMillis;
+        long windowEnd = (window + 1) * windowMillis;
+        long count = store.increment("ratelimit:" + name + ":" + subject + ":" + window, Duration.ofMillis(windowEnd - now));
+        if (count > limit) {
+            throw new RateLimitException("At most " + limit + " " + name + " requests are allowed per "
+                    + Duration.ofMillis(windowMillis).toString().substring(2).toLowerCase(), Duration.ofMillis(windowEnd - now));
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.hackathon.aipresentationbackend.service.shared;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Shared state kept in Redis, or any server speaking its RESP protocol (Valkey, KeyDB, Dragonfly),
+ * so every server behind the load balancer sees the same caches, job status and rate-limit counters.
+ * Commands go over a small pool of plain socket connections; only GET, SET, INCR, DEL and MULTI/EXEC are used.
+ * <p>
+ * A command that fails or times out counts as a miss, as described in {@link SharedStateStore}, and
+ * the connection it used is discarded. The first failure is logged as a warning and the rest at debug
+ * level until the store answers again.
+ */
+public class RespSharedStateStore implements SharedStateStore, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(RespSharedStateStore.class);
+
+    private final Settings settings;
+    private final Semaphore permits;
+    private final BlockingQueue<Connection> idle = new LinkedBlockingQueue<>();
+    private final AtomicBoolean unavailable = new AtomicBoolean();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * @param password  Sent with AUTH when not blank
+     * @param database  Selected with SELECT when not 0
+     * @param timeout   Limit on connecting, on waiting for a pooled connection and on each reply
+     * @param poolSize  Connections open at once
+     * @param keyPrefix Prepended to every key, so several applications can share one server
+     */
+    public record Settings(String host, int port, String password, int database, Duration timeout, int poolSize,
+                           String keyPrefix) {
+    }
+
+    public RespSharedStateStore(Settings settings) {
+        this.settings = settings;
+        this.permits = new Semaphore(Math.max(1, settings.poolSize()));
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        return execute(List.of(List.of("GET", prefixed(key))),
+                replies -> Optional.ofNullable((String) replies.get(0)), Optional.empty());
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        execute(List.of(List.of("SET", prefixed(key), value, "PX", Long.toString(Math.max(1, ttl.toMillis())))),
+                replies -> null, null);
+    }
+
+    /**
+     * Creates the counter with its expiry and increments it in one transaction, so a counter can never
+     * be left without an expiry
+     */
+    @Override
+    public long increment(String key, Duration ttl) {
+        String prefixed = prefixed(key);
+        return execute(List.of(
+                        List.of("MULTI"),
+                        List.of("SET", prefixed, "0", "PX", Long.toString(Math.max(1, ttl.toMillis())), "NX"),
+                        List.of("INCR", prefixed),
+                        List.of("EXEC")),
+                replies -> (Long) ((List<?>) replies.get(3)).get(1), 0L);
+    }
+
+    @Override
+    public void delete(String key) {
+        execute(List.of(List.of("DEL", prefixed(key))), replies -> null, null);
+    }
+
+    /**
+     * Commands that failed since the store was created
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private String prefixed(String key) {
+        return settings.keyPrefix() + key;
+    }
+
+    /**
+     * Sends the commands in one write and reads their replies
+     *
+     * @return The mapped replies, or the fallback if the store could not be reached or replied with an error
+     */
+    private <T> T execute(List<List<String>> commands, Function<List<Object>, T> mapper, T fallback) {
+        if (closed) {
+            return fallback;
+        }
+        long timeoutMillis = settings.timeout().toMillis();
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return failed(new IOException("No connection became free within " + settings.timeout()), fallback);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback;
+        }
+
+        Connection connection = idle.poll();
+        try {
+            if (connection == null) {
+                connection = new Connection(settings);
+            }
+            for (List<String> command : commands) {
+                connection.write(command);
+            }
+            connection.flush();
+            List<Object> replies = new ArrayList<>(commands.size());
+            for (int i = 0; i < commands.size(); i++) {
+                replies.add(connection.read());
+            }
+            idle.offer(connection);
+            connection = null;
+
+            RespError error = findError(replies);
+            if (error != null) {
+                return failed(new IOException(error.message()), fallback);
+            }
+            if (unavailable.compareAndSet(true, false)) {
+                log.info("Shared state store at {}:{} is reachable again", settings.host(), settings.port());
+            }
+            return mapper.apply(replies);
+        } catch (IOException | RuntimeException e) {
+            return failed(e, fallback);
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+            permits.release();
+        }
+    }
+
+    private <T> T failed(Exception e, T fallback) {
+        failures.incrementAndGet();
+        if (unavailable.compareAndSet(false, true)) {
+            log.warn("Shared state store at {}:{} failed, continuing without it: {}",
+                    settings.host(), settings.port(), e.getMessage());
+        } else {
+            log.debug("Shared state store command failed: {}", e.getMessage());
+        }
+        return fallback;
+    }
+
+    private static RespError findError(List<?> replies) {
+        for (Object reply : replies) {
+            if (reply instanceof RespError error) {
+                return error;
+            }
+            if (reply instanceof List<?> nested) {
+                RespError error = findError(nested);
+                if (error != null) {
+                    return error;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * An error reply; kept as a value so the replies after it can still be read
+     */
+    private record RespError(String message) {
+    }
+
+    private static final class Connection implements Closeable {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Connection(Settings settings) throws IOException {
+            int timeoutMillis = (int) Math.min(Integer.MAX_VALUE, settings.timeout().toMillis());
+            socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(settings.host(), settings.port()), timeoutMillis);
+                socket.setSoTimeout(timeoutMillis);
+                socket.setTcpNoDelay(true);
+                in = new BufferedInputStream(socket.getInputStream());
+                out = new BufferedOutputStream(socket.getOutputStream());
+                if (settings.password() != null && !settings.password().isBlank()) {
+                    expectOk(List.of("AUTH", settings.password()));
+                }
+                if (settings.database() != 0) {
+                    expectOk(List.of("SELECT", Integer.toString(settings.database())));
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        void write(List<String> command) throws IOException {
+            writeLine('*', command.size());
+            for (String argument : command) {
+                byte[] bytes = argument.getBytes(StandardCharsets.UTF_8);
+                writeLine('$', bytes.length);
+                out.write(bytes);
+                out.write('\r');
+                out.write('\n');
+            }
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        /**
+         * Reads one reply: a String for simple and bulk strings, a Long for integers, a List for arrays,
+         * null for null replies and a RespError for errors
+         */
+        Object read() throws IOException {
+            int type = in.read();
+            if (type == -1) {
+                throw new EOFException("The shared state store closed the connection");
+            }
+            String line = readLine();
+            switch (type) {
+                case '+':
+                    return line;
+                case '-':
+                    return new RespError(line);
+                case ':':
+                    return Long.parseLong(line);
+                case '$': {
+                    int length = Integer.parseInt(line);
+                    if (length < 0) {
+                        return null;
+                    }
+                    byte[] bytes = in.readNBytes(length);
+                    if (bytes.length < length || in.read() != '\r' || in.read() != '\n') {
+                        throw new EOFException("Truncated reply from the shared state store");
+                    }
+                    return new String(bytes, StandardCharsets.UTF_8);
+                }
+                case '*': {
+                    int count = Integer.parseInt(line);
+                    if (count < 0) {
+                        return null;
+                    }
+                    List<Object> elements = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        elements.add(read());
+                    }
+                    return elements;
+                }
+                default:
+                    throw new IOException("Unexpected reply type '" + (char) type + "' from the shared state store");
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+
+        private void expectOk(List<String> command) throws IOException {
+            write(command);
+            flush();
+            Object reply = read();
+            if (reply instanceof RespError error) {
+                throw new IOException(command.get(0) + " failed: " + error.message());
+            }
+        }
+
+        private void writeLine(char type, int value) throws IOException {
+            out.write(type);
+            out.write(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+            out.write('\r');
+            out.write('\n');
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(32);
+            int previous = -1;
+            while (true) {
+                int next = in.read();
+                if (next == -1) {
+                    throw new EOFException("Truncated reply from the shared state store");
+                }
+                if (previous == '\r' && next == '\n') {
+                    byte[] bytes = line.toByteArray();
+                    return new String(bytes, 0, bytes.length - 1, StandardCharsets.UTF_8);
+                }
+                line.write(next);
+                previous = next;
+            }
+        }
+    }
+}
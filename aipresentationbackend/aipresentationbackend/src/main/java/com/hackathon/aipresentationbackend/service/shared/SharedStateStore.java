@@ -0,0 +1,51 @@
+package com.hackathon.aipresentationbackend.service.shared;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Expiring key-value state that every server behind the load balancer sees: cached model and Murf
+ * responses, job status and rate-limit counters. The in-memory store keeps it to this server; the
+ * Redis store shares it, so a reply cached by one server is a hit on all of them.
+ * <p>
+ * The store is an optimization rather than the source of truth. When it cannot be reached, reads
+ * miss, writes are dropped and counters start from zero, so callers carry on as if nothing were cached.
+ */
+public interface SharedStateStore {
+
+    Optional<String> get(String key);
+
+    /**
+     * Stores the value, replacing any previous one, until the time to live has passed
+     */
+    void put(String key, String value, Duration ttl);
+
+    /**
+     * Adds one to a counter, creating it with the time to live if it does not exist yet
+     *
+     * @return The count after this increment, or 0 if the store could not be reached
+     */
+    long increment(String key, Duration ttl);
+
+    void delete(String key);
+
+    /**
+     * Builds a key from a namespace and the SHA-256 hash of the parts, so long texts are not used as keys
+     */
+    static String hashedKey(String namespace, Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return namespace + ":" + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
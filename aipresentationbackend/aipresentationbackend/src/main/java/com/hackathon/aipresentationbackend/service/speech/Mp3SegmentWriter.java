@@ -0,0 +1,102 @@
+package com.hackathon.aipresentationbackend.service.speech;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Joins separately synthesized MP3 files into one continuous stream.
+ * MP3 frames are self-contained, so files can be concatenated as-is, except that each file may start
+ * with an ID3v2 tag; a tag in the middle of a stream makes some players stop or click. The first
+ * segment's tag is kept and every later segment's leading tag is dropped as it streams past.
+ */
+public class Mp3SegmentWriter {
+    private static final int ID3_HEADER_LENGTH = 10;
+    private static final int ID3_FOOTER_LENGTH = 10;
+
+    private final OutputStream out;
+    private final byte[] header = new byte[ID3_HEADER_LENGTH];
+    private int segments;
+    private int headerFill;
+    private boolean inspecting;
+    private long skipRemaining;
+    private long bytesWritten;
+
+    public Mp3SegmentWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Starts the next file; every segment after the first has its leading ID3v2 tag removed
+     */
+    public void startSegment() throws IOException {
+        endSegment();
+        inspecting = segments > 0;
+        headerFill = 0;
+        skipRemaining = 0;
+        segments++;
+    }
+
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (skipRemaining > 0) {
+                int skipped = (int) Math.min(skipRemaining, length);
+                skipRemaining -= skipped;
+                offset += skipped;
+                length -= skipped;
+            } else if (inspecting) {
+                int copied = Math.min(ID3_HEADER_LENGTH - headerFill, length);
+                System.arraycopy(bytes, offset, header, headerFill, copied);
+                headerFill += copied;
+                offset += copied;
+                length -= copied;
+                if (headerFill == ID3_HEADER_LENGTH) {
+                    inspecting = false;
+                    if (isId3Header()) {
+                        skipRemaining = tagBodyLength();
+                    } else {
+                        emit(header, 0, ID3_HEADER_LENGTH);
+                    }
+                }
+            } else {
+                emit(bytes, offset, length);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finishes the current file, writing out any bytes held back while checking for a tag
+     */
+    public void endSegment() throws IOException {
+        if (inspecting && headerFill > 0) {
+            emit(header, 0, headerFill);
+        }
+        inspecting = false;
+        headerFill = 0;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private boolean isId3Header() {
+        return header[0] == 'I' && header[1] == 'D' && header[2] == '3';
+    }
+
+    /**
+     * Tag size after the header: a 28-bit sync-safe integer, plus a footer if the footer flag is set
+     */
+    private long tagBodyLength() {
+        long size = ((header[6] & 0x7F) << 21) | ((header[7] & 0x7F) << 14) | ((header[8] & 0x7F) << 7) | (header[9] & 0x7F);
+        return (header[5] & 0x10) != 0 ? size + ID3_FOOTER_LENGTH : size;
+    }
+
+    private void emit(byte[] bytes, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+        bytesWritten += length;
+    }
+}
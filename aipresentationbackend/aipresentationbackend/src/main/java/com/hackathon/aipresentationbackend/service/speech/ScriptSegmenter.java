@@ -0,0 +1,70 @@
+package com.hackathon.aipresentationbackend.service.speech;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits a script into segments small enough to synthesize independently.
+ * Segments never cross a paragraph break (a blank line). Within a paragraph, consecutive sentences
+ * are grouped while they fit in the maximum length, so short sentences do not each cost a call;
+ * a single sentence longer than the maximum is split at the last space that fits.
+ * The same text always produces the same segments, so unchanged sentences keep hitting the cache.
+ */
+public class ScriptSegmenter {
+    private final int maxSegmentChars;
+
+    public ScriptSegmenter(int maxSegmentChars) {
+        if (maxSegmentChars < 1) {
+            throw new IllegalArgumentException("maxSegmentChars must be at least 1");
+        }
+        this.maxSegmentChars = maxSegmentChars;
+    }
+
+    public List<String> segment(String text) {
+        List<String> segments = new ArrayList<>();
+        if (text == null) {
+            return segments;
+        }
+        for (String paragraph : text.split("\\R\\s*\\R")) {
+            segmentParagraph(paragraph.strip().replaceAll("\\s+", " "), segments);
+        }
+        return segments;
+    }
+
+    private void segmentParagraph(String paragraph, List<String> segments) {
+        if (paragraph.isEmpty()) {
+            return;
+        }
+        BreakIterator sentences = BreakIterator.getSentenceInstance(Locale.ROOT);
+        sentences.setText(paragraph);
+        StringBuilder current = new StringBuilder();
+        int start = sentences.first();
+        for (int end = sentences.next(); end != BreakIterator.DONE; start = end, end = sentences.next()) {
+            String sentence = paragraph.substring(start, end).strip();
+            if (sentence.isEmpty()) {
+                continue;
+            }
+            if (!current.isEmpty() && current.length() + 1 + sentence.length() > maxSegmentChars) {
+                segments.add(current.toString());
+                current.setLength(0);
+            }
+            while (sentence.length() > maxSegmentChars) {
+                int split = sentence.lastIndexOf(' ', maxSegmentChars);
+                if (split <= 0) {
+                    split = maxSegmentChars;
+                }
+                segments.add(sentence.substring(0, split).strip());
+                sentence = sentence.substring(split).strip();
+            }
+            if (!current.isEmpty()) {
+                current.append(' ');
+            }
+            current.append(sentence);
+        }
+        if (!current.isEmpty()) {
+            segments.add(current.toString());
+        }
+    }
+}
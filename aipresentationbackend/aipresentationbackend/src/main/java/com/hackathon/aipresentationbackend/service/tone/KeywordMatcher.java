@@ -0,0 +1,205 @@
+package com.hackathon.aipresentationbackend.service.tone;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Aho-Corasick matcher that finds every keyword of a fixed set in one pass over the text.
+ * Matching ignores case, treats every whitespace character as a space, and only reports
+ * whole words: a keyword must not be preceded or followed by a letter or digit, so "um"
+ * does not match inside "maximum". Scanning allocates nothing.
+ *
+ * @param <T> Label reported for each keyword
+ */
+public final class KeywordMatcher<T> {
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+    private static final int CHARS = Character.MAX_VALUE + 1;
+    private static final boolean[] WORD_CHARS = new boolean[CHARS];
+
+    static {
+        for (int c = 0; c < CHARS; c++) {
+            WORD_CHARS[c] = Character.isLetterOrDigit((char) c);
+        }
+    }
+
+    private final char[] charClass;
+    private final int classCount;
+    private final int[] transitions;
+    private final int[] keywordAt;
+    private final int[] outputLink;
+    private final int[] keywordLength;
+    private final List<T> labels;
+    private final double[] weights;
+
+    /**
+     * Receives each keyword occurrence
+     */
+    @FunctionalInterface
+    public interface MatchHandler<T> {
+        /**
+         * @param label  Label of the matched keyword
+         * @param weight Weight of the matched keyword
+         * @param start  Index of the first matched character
+         * @param end    Index after the last matched character
+         */
+        void onMatch(T label, double weight, int start, int end);
+    }
+
+    /**
+     * Compiles the trie into a full transition table. Characters that appear in no keyword share
+     * class 0, and every other character is folded (case, whitespace) into its keyword character's class,
+     * so the table stays small and scanning needs one lookup per character and no failure-link walks.
+     */
+    private KeywordMatcher(Builder<T> builder) {
+        int states = builder.children.size();
+        this.keywordLength = builder.lengths.stream().mapToInt(Integer::intValue).toArray();
+        this.labels = List.copyOf(builder.labels);
+        this.weights = builder.weights.stream().mapToDouble(Double::doubleValue).toArray();
+        this.keywordAt = builder.terminal.stream().mapToInt(Integer::intValue).toArray();
+        this.outputLink = new int[states];
+
+        Map<Character, Integer> classes = new HashMap<>();
+        for (Map<Character, Integer> edges : builder.children) {
+            for (char c : edges.keySet()) {
+                classes.putIfAbsent(c, classes.size() + 1);
+            }
+        }
+        this.classCount = classes.size() + 1;
+        this.charClass = new char[CHARS];
+        for (int c = 0; c < CHARS; c++) {
+            Integer index = classes.get(fold((char) c));
+            charClass[c] = index == null ? 0 : (char) index.intValue();
+        }
+
+        this.transitions = new int[states * classCount];
+        int[] fail = new int[states];
+        Arrays.fill(outputLink, NONE);
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(ROOT);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            Map<Character, Integer> edges = builder.children.get(state);
+            if (state != ROOT) {
+                // Missing edges behave like the failure state's edges
+                System.arraycopy(transitions, fail[state] * classCount, transitions, state * classCount, classCount);
+            }
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                int child = edge.getValue();
+                int childClass = classes.get(edge.getKey());
+                fail[child] = state == ROOT ? ROOT : transitions[fail[state] * classCount + childClass];
+                // Nearest shorter keyword that also ends here
+                int suffix = fail[child];
+                outputLink[child] = keywordAt[suffix] != NONE ? suffix : outputLink[suffix];
+                transitions[state * classCount + childClass] = child;
+                queue.add(child);
+            }
+        }
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Scans the text once, reporting each whole-word keyword occurrence in order of where it ends
+     */
+    public void scan(CharSequence text, MatchHandler<? super T> handler) {
+        int state = ROOT;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            state = transitions[state * classCount + charClass[text.charAt(i)]];
+            int output = keywordAt[state] != NONE ? state : outputLink[state];
+            if (output == NONE) {
+                continue;
+            }
+
+            int end = i + 1;
+            if (end < length && WORD_CHARS[text.charAt(end)]) {
+                continue;
+            }
+            for (; output != NONE; output = outputLink[output]) {
+                int keyword = keywordAt[output];
+                int start = end - keywordLength[keyword];
+                if (start == 0 || !WORD_CHARS[text.charAt(start - 1)]) {
+                    handler.onMatch(labels.get(keyword), weights[keyword], start, end);
+                }
+            }
+        }
+    }
+
+    public int getKeywordCount() {
+        return keywordLength.length;
+    }
+
+    private static char fold(char c) {
+        return Character.isWhitespace(c) ? ' ' : Character.toLowerCase(c);
+    }
+
+    /**
+     * Collects keywords; runs of whitespace inside a keyword are collapsed to a single space
+     */
+    public static final class Builder<T> {
+        private final List<Map<Character, Integer>> children = new ArrayList<>();
+        private final List<Integer> terminal = new ArrayList<>();
+        private final List<Integer> lengths = new ArrayList<>();
+        private final List<T> labels = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+
+        private Builder() {
+            newState();
+        }
+
+        /**
+         * Adds a keyword. Adding the same keyword again replaces its label and weight.
+         */
+        public Builder<T> add(String keyword, T label, double weight) {
+            String normalized = keyword.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            if (normalized.isEmpty()) {
+                throw new IllegalArgumentException("Keywords must not be blank");
+            }
+            int state = ROOT;
+            for (int i = 0; i < normalized.length(); i++) {
+                state = child(state, normalized.charAt(i));
+            }
+            int existing = terminal.get(state);
+            if (existing != NONE) {
+                labels.set(existing, label);
+                weights.set(existing, weight);
+            } else {
+                terminal.set(state, lengths.size());
+                lengths.add(normalized.length());
+                labels.add(label);
+                weights.add(weight);
+            }
+            return this;
+        }
+
+        public KeywordMatcher<T> build() {
+            return new KeywordMatcher<>(this);
+        }
+
+        private int child(int state, char c) {
+            Integer existing = children.get(state).get(c);
+            if (existing != null) {
+                return existing;
+            }
+            int created = newState();
+            children.get(state).put(c, created);
+            return created;
+        }
+
+        private int newState() {
+            children.add(new LinkedHashMap<>());
+            terminal.add(NONE);
+            return children.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.hackathon.aipresentationbackend.service.tone;
+
+import com.hackathon.aipresentationbackend.model.ToneType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Probability of each tone for one speech, as scored by the {@link ToneClassifier}
+ */
+public final class ToneClassification {
+    private final ToneType tone;
+    private final Map<ToneType, Double> probabilities;
+
+    ToneClassification(ToneType tone, EnumMap<ToneType, Double> probabilities) {
+        this.tone = tone;
+        this.probabilities = Collections.unmodifiableMap(probabilities);
+    }
+
+    /**
+     * The most probable tone
+     */
+    public ToneType getTone() {
+        return tone;
+    }
+
+    /**
+     * Probability of the most probable tone, between 0 and 1
+     */
+    public double getConfidence() {
+        return getProbability(tone);
+    }
+
+    public double getProbability(ToneType tone) {
+        return probabilities.getOrDefault(tone, 0.0);
+    }
+
+    public Map<ToneType, Double> getProbabilities() {
+        return probabilities;
+    }
+}
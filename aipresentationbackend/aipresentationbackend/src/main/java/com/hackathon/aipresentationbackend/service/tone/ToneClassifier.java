@@ -0,0 +1,261 @@
+package com.hackathon.aipresentationbackend.service.tone;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.model.ToneType;
+import com.hackathon.aipresentationbackend.model.TranscriptionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Recommends a tone with a multinomial logistic regression loaded from a model file.
+ * Each speech becomes a fixed feature vector: tone keyword rates from the lexicon scan, pacing from
+ * the transcript's word timings when available, and whether the delivery was described as hesitant.
+ * The features are standardized with the model's mean and scale, every tone's logit is computed in
+ * one pass over a flat weight matrix, and a softmax turns the logits into probabilities.
+ * The bundled tone/tone-model.json holds hand-set placeholder weights that encode the old keyword rules,
+ * not weights fitted to labelled rehearsals; a fitted model replaces it through {@code tone.model}.
+ */
+@Service
+public class ToneClassifier {
+    private static final Logger log = LoggerFactory.getLogger(ToneClassifier.class);
+
+    // Features the classifier can compute; the model lists which ones it uses and in what order
+    static final String KEYWORDS_PREFIX = "keywords.";
+    static final String WORDS_PER_MINUTE = "pace.wordsPerMinute";
+    static final String PAUSE_RATE = "pace.pauseRate";
+    static final String LOW_CONFIDENCE = "pace.lowConfidence";
+    static final String HESITANT = "delivery.hesitant";
+
+    // A gap between words longer than this counts as a pause
+    private static final double PAUSE_MILLIS = 700;
+
+    private final ToneType[] tones;
+    private final String[] features;
+    private final double[] mean;
+    private final double[] scale;
+    private final double[] bias;
+    private final double[] weights;
+
+    public ToneClassifier(ObjectMapper objectMapper,
+                          @Value("${tone.model:classpath:tone/tone-model.json}") Resource model) {
+        JsonNode root;
+        try (InputStream input = model.getInputStream()) {
+            root = objectMapper.readTree(input);
+        } catch (IOException e) {
+            throw new IllegalStateException("Tone model could not be read: " + model.getDescription(), e);
+        }
+
+        List<ToneType> toneList = new ArrayList<>();
+        root.path("tones").forEach(tone -> toneList.add(ToneType.fromValue(tone.asText())));
+        this.tones = toneList.toArray(ToneType[]::new);
+        List<String> featureList = new ArrayList<>();
+        root.path("features").forEach(feature -> featureList.add(feature.asText()));
+        this.features = featureList.toArray(String[]::new);
+        if (tones.length == 0 || features.length == 0) {
+            throw new IllegalStateException("Tone model must list at least one tone and one feature: " + model.getDescription());
+        }
+
+        for (String feature : features) {
+            if (!isKnownFeature(feature)) {
+                throw new IllegalStateException("Unknown tone model feature " + feature + ": " + model.getDescription());
+            }
+        }
+
+        this.mean = vector(root.path("mean"), features.length, "mean", model);
+        this.scale = vector(root.path("scale"), features.length, "scale", model);
+        for (double value : scale) {
+            if (value == 0) {
+                throw new IllegalStateException("Tone model scale values must be non-zero: " + model.getDescription());
+            }
+        }
+        this.bias = vector(root.path("bias"), tones.length, "bias", model);
+        // Row-major, one row of feature weights per tone
+        this.weights = new double[tones.length * features.length];
+        for (int t = 0; t < tones.length; t++) {
+            double[] row = vector(root.path("weights").path(tones[t].getValue()), features.length,
+                    "weights." + tones[t].getValue(), model);
+            System.arraycopy(row, 0, weights, t * features.length, features.length);
+        }
+        log.info("Tone model loaded with {} tones and {} features from {}", tones.length, features.length,
+                model.getDescription());
+    }
+
+    /**
+     * Scores every tone for a speech
+     *
+     * @param text          The speech text
+     * @param keywordScores Result of scanning the same text with the {@link ToneKeywordDetector}
+     * @param detectedTone  The delivery tone reported by the analysis, or null
+     * @param words         Word timings from the transcript, or null if there are none
+     * @return Probabilities for the model's tones
+     */
+    public ToneClassification classify(String text, ToneScores keywordScores, String detectedTone,
+                                       List<TranscriptionResponse.Word> words) {
+        double[] x = extractFeatures(text, keywordScores, detectedTone, words);
+
+        double[] logits = new double[tones.length];
+        double maxLogit = Double.NEGATIVE_INFINITY;
+        for (int t = 0; t < tones.length; t++) {
+            double logit = bias[t];
+            int row = t * features.length;
+            for (int f = 0; f < x.length; f++) {
+                logit += weights[row + f] * x[f];
+            }
+            logits[t] = logit;
+            maxLogit = Math.max(maxLogit, logit);
+        }
+
+        // Softmax, shifted by the largest logit so the exponentials cannot overflow
+        double sum = 0;
+        for (int t = 0; t < tones.length; t++) {
+            logits[t] = Math.exp(logits[t] - maxLogit);
+            sum += logits[t];
+        }
+        EnumMap<ToneType, Double> probabilities = new EnumMap<>(ToneType.class);
+        ToneType best = tones[0];
+        double bestProbability = -1;
+        for (int t = 0; t < tones.length; t++) {
+            double probability = logits[t] / sum;
+            probabilities.put(tones[t], probability);
+            // Ties go to the tone the model lists first
+            if (probability > bestProbability) {
+                best = tones[t];
+                bestProbability = probability;
+            }
+        }
+        return new ToneClassification(best, probabilities);
+    }
+
+    /**
+     * Builds the standardized feature vector in model order. Pacing features the transcript
+     * cannot provide are left at the model's mean, so they do not move any tone.
+     */
+    double[] extractFeatures(String text, ToneScores keywordScores, String detectedTone,
+                             List<TranscriptionResponse.Word> words) {
+        Pacing pacing = Pacing.of(words);
+        int wordCount = pacing != null ? pacing.words : countWords(text);
+        double[] x = new double[features.length];
+        for (int f = 0; f < features.length; f++) {
+            double value = switch (features[f]) {
+                case WORDS_PER_MINUTE -> pacing != null && pacing.wordsPerMinute > 0 ? pacing.wordsPerMinute : mean[f];
+                case PAUSE_RATE -> pacing != null ? pacing.pauseRate : mean[f];
+                case LOW_CONFIDENCE -> pacing != null && pacing.meanConfidence >= 0 ? 1 - pacing.meanConfidence : mean[f];
+                case HESITANT -> isHesitant(detectedTone) ? 1 : 0;
+                default -> keywordRate(features[f], keywordScores, wordCount);
+            };
+            x[f] = (value - mean[f]) / scale[f];
+        }
+        return x;
+    }
+
+    /**
+     * Keyword score per 100 words, log-damped so one keyword in a short text does not swamp every other feature
+     */
+    private static double keywordRate(String feature, ToneScores keywordScores, int wordCount) {
+        if (keywordScores == null || wordCount == 0) {
+            return 0;
+        }
+        ToneType tone = ToneType.fromValue(feature.substring(KEYWORDS_PREFIX.length()));
+        return Math.log1p(keywordScores.getScore(tone) * 100.0 / wordCount);
+    }
+
+    private static boolean isKnownFeature(String feature) {
+        return switch (feature) {
+            case WORDS_PER_MINUTE, PAUSE_RATE, LOW_CONFIDENCE, HESITANT -> true;
+            default -> feature.startsWith(KEYWORDS_PREFIX)
+                    && ToneType.isValidTone(feature.substring(KEYWORDS_PREFIX.length()));
+        };
+    }
+
+    private static boolean isHesitant(String detectedTone) {
+        if (detectedTone == null) {
+            return false;
+        }
+        String lower = detectedTone.toLowerCase(Locale.ROOT);
+        return lower.contains("hesitant") || lower.contains("uncertain");
+    }
+
+    private static int countWords(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int count = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            boolean wordChar = Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && !inWord) {
+                count++;
+            }
+            inWord = wordChar;
+        }
+        return count;
+    }
+
+    private static double[] vector(JsonNode node, int length, String name, Resource model) {
+        if (!node.isArray() || node.size() != length) {
+            throw new IllegalStateException("Tone model " + name + " must have " + length + " values: "
+                    + model.getDescription());
+        }
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = node.get(i).asDouble();
+        }
+        return values;
+    }
+
+    /**
+     * Delivery pace measured from word timings, which AssemblyAI reports in milliseconds
+     */
+    private record Pacing(int words, double wordsPerMinute, double pauseRate, double meanConfidence) {
+        private static Pacing of(List<TranscriptionResponse.Word> words) {
+            if (words == null || words.size() < 2) {
+                return null;
+            }
+            double first = Double.NaN;
+            double previousEnd = Double.NaN;
+            double last = Double.NaN;
+            int gaps = 0;
+            int pauses = 0;
+            double confidenceSum = 0;
+            int confidenceCount = 0;
+            for (TranscriptionResponse.Word word : words) {
+                if (word.getConfidence() != null) {
+                    confidenceSum += word.getConfidence();
+                    confidenceCount++;
+                }
+                if (word.getStart() == null || word.getEnd() == null) {
+                    continue;
+                }
+                if (Double.isNaN(first)) {
+                    first = word.getStart();
+                } else {
+                    gaps++;
+                    if (word.getStart() - previousEnd > PAUSE_MILLIS) {
+                        pauses++;
+                    }
+                }
+                previousEnd = word.getEnd();
+                last = word.getEnd();
+            }
+            if (gaps == 0) {
+                return null;
+            }
+            double minutes = (last - first) / 60_000.0;
+            return new Pacing(words.size(),
+                    minutes > 0 ? words.size() / minutes : 0,
+                    (double) pauses / gaps,
+                    confidenceCount > 0 ? confidenceSum / confidenceCount : -1);
+        }
+    }
+}
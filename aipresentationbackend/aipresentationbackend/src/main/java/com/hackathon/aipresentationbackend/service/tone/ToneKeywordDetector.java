@@ -0,0 +1,92 @@
+package com.hackathon.aipresentationbackend.service.tone;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.model.ToneType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Scores speech text against the tone lexicon in a single pass.
+ * The lexicon maps keywords to the tone they call for, with a weight, and lists content cues
+ * (such as business vocabulary) used when choosing a voice. It is compiled once into a
+ * {@link KeywordMatcher} when the application starts.
+ */
+@Service
+public class ToneKeywordDetector {
+    private static final Logger log = LoggerFactory.getLogger(ToneKeywordDetector.class);
+
+    private final KeywordMatcher<Entry> matcher;
+
+    public ToneKeywordDetector(ObjectMapper objectMapper,
+                               @Value("${tone.lexicon:classpath:tone/tone-lexicon.json}") Resource lexicon) {
+        this.matcher = compile(objectMapper, lexicon);
+        log.info("Tone lexicon compiled with {} keywords from {}", matcher.getKeywordCount(), lexicon.getDescription());
+    }
+
+    /**
+     * Finds every lexicon keyword in the text as a whole word
+     *
+     * @param text The speech text
+     * @return Weighted hits per tone and the cues present
+     */
+    public ToneScores analyze(String text) {
+        EnumMap<ToneType, Double> scores = new EnumMap<>(ToneType.class);
+        Set<String> cues = new HashSet<>();
+        if (text != null) {
+            matcher.scan(text, (entry, weight, start, end) -> {
+                if (entry.tone != null) {
+                    scores.merge(entry.tone, weight, Double::sum);
+                }
+                if (entry.cue != null) {
+                    cues.add(entry.cue);
+                }
+            });
+        }
+        return new ToneScores(scores, cues);
+    }
+
+    private static KeywordMatcher<Entry> compile(ObjectMapper objectMapper, Resource lexicon) {
+        JsonNode root;
+        try (InputStream input = lexicon.getInputStream()) {
+            root = objectMapper.readTree(input);
+        } catch (IOException e) {
+            throw new IllegalStateException("Tone lexicon could not be read: " + lexicon.getDescription(), e);
+        }
+
+        // A keyword can be both a tone signal and a cue, so collect both before building
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> tone : root.path("tones").properties()) {
+            ToneType toneType = ToneType.fromValue(tone.getKey());
+            for (Map.Entry<String, JsonNode> keyword : tone.getValue().properties()) {
+                entries.put(keyword.getKey(), new Entry(toneType, keyword.getValue().asDouble(1.0), null));
+            }
+        }
+        for (Map.Entry<String, JsonNode> cue : root.path("cues").properties()) {
+            for (JsonNode keyword : cue.getValue()) {
+                Entry existing = entries.get(keyword.asText());
+                entries.put(keyword.asText(), existing != null
+                        ? new Entry(existing.tone, existing.weight, cue.getKey())
+                        : new Entry(null, 0, cue.getKey()));
+            }
+        }
+
+        KeywordMatcher.Builder<Entry> builder = KeywordMatcher.builder();
+        entries.forEach((keyword, entry) -> builder.add(keyword, entry, entry.weight));
+        return builder.build();
+    }
+
+    private record Entry(ToneType tone, double weight, String cue) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.hackathon.aipresentationbackend.service.tone;
+
+import com.hackathon.aipresentationbackend.model.ToneType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Weighted keyword hits per tone, and the content cues found, from one scan of a speech text
+ */
+public final class ToneScores {
+    private final Map<ToneType, Double> scores;
+    private final Set<String> cues;
+
+    ToneScores(EnumMap<ToneType, Double> scores, Set<String> cues) {
+        this.scores = Collections.unmodifiableMap(scores);
+        this.cues = Collections.unmodifiableSet(cues);
+    }
+
+    public double getScore(ToneType tone) {
+        return scores.getOrDefault(tone, 0.0);
+    }
+
+    public Map<ToneType, Double> getScores() {
+        return scores;
+    }
+
+    public boolean hasCue(String cue) {
+        return cues.contains(cue);
+    }
+
+    public Set<String> getCues() {
+        return cues;
+    }
+
+    /**
+     * The tone with the highest positive score; ties go to the tone listed first
+     *
+     * @param priority Tones to consider, in tie-break order
+     * @return The winning tone, or null if none of them scored
+     */
+    public ToneType strongest(List<ToneType> priority) {
+        ToneType best = null;
+        double bestScore = 0;
+        for (ToneType tone : priority) {
+            double score = getScore(tone);
+            if (score > bestScore) {
+                best = tone;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,69 @@
+-- Rehearsal history. Every statement must be safe to run on each start.
+
+CREATE TABLE IF NOT EXISTS rehearsal_script (
+    script_id   CHAR(64)                 PRIMARY KEY,
+    script_text CLOB                     NOT NULL,
+    created_at  TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS rehearsal (
+    id                 BIGINT AUTO_INCREMENT    PRIMARY KEY,
+    user_id            VARCHAR(128)             NOT NULL,
+    script_id          CHAR(64)                 NOT NULL REFERENCES rehearsal_script (script_id),
+    transcript_hash    CHAR(64)                 NOT NULL,
+    created_at         TIMESTAMP WITH TIME ZONE NOT NULL,
+    score              INT                      NOT NULL,
+    positive_feedback  CLOB,
+    improvement_points CLOB,
+    spoken_transcript  CLOB,
+    audio_url          VARCHAR(2048),
+    speech_activity    CLOB,
+    word_timings       CLOB
+);
+
+-- A user's attempts at one script, in order, for score trends
+CREATE INDEX IF NOT EXISTS rehearsal_user_script_created ON rehearsal (user_id, script_id, created_at);
+-- A user's most recent attempts across scripts
+CREATE INDEX IF NOT EXISTS rehearsal_user_created ON rehearsal (user_id, created_at);
+-- Earlier analyses of the same delivery, which can be served without calling the model
+CREATE INDEX IF NOT EXISTS rehearsal_script_transcript ON rehearsal (script_id, transcript_hash);
+
+-- Feedback on single paragraphs, reused when an unchanged paragraph is delivered the same way again.
+-- Both hashes are of normalized words (see ScriptSections), so rewording a paragraph or saying it differently misses.
+CREATE TABLE IF NOT EXISTS section_analysis (
+    section_hash       CHAR(64)                 NOT NULL,
+    spoken_hash        CHAR(64)                 NOT NULL,
+    created_at         TIMESTAMP WITH TIME ZONE NOT NULL,
+    score              INT                      NOT NULL,
+    positive_feedback  CLOB,
+    improvement_points CLOB,
+    PRIMARY KEY (section_hash, spoken_hash)
+);
+
+-- Rehearsals queued for analysis. Each stage's output is saved as it completes, so a job resumes from
+-- its last checkpoint on any node after a restart. A node owns a job while its lease has not expired.
+CREATE TABLE IF NOT EXISTS analysis_job (
+    id                 CHAR(36)                 PRIMARY KEY,
+    user_id            VARCHAR(128)             NOT NULL,
+    script_text        CLOB                     NOT NULL,
+    audio_path         VARCHAR(1024)            NOT NULL,
+    audio_filename     VARCHAR(255),
+    audio_content_type VARCHAR(255),
+    stage              VARCHAR(16)              NOT NULL,
+    upload_url         VARCHAR(2048),
+    speech_activity    CLOB,
+    transcript_id      VARCHAR(128),
+    transcript         CLOB,
+    analysis           CLOB,
+    result             CLOB,
+    error              VARCHAR(1024),
+    attempts           INT                      NOT NULL,
+    available_at       TIMESTAMP WITH TIME ZONE NOT NULL,
+    lease_owner        VARCHAR(128),
+    lease_expires_at   TIMESTAMP WITH TIME ZONE,
+    created_at         TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at         TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Jobs that are ready to run, oldest first, and finished jobs past their retention
+CREATE INDEX IF NOT EXISTS analysis_job_stage_available ON analysis_job (stage, available_at);
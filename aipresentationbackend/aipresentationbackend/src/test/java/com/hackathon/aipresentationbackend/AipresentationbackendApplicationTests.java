@@ -3,7 +3,8 @@ package com.hackathon.aipresentationbackend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Keeps the rehearsal history in memory instead of the data directory
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:rehearsal-history")
 class AipresentationbackendApplicationTests {
 
 	@Test
@@ -0,0 +1,83 @@
+package com.hackathon.aipresentationbackend.controller;
+
+import com.hackathon.aipresentationbackend.model.SpeechRequest;
+import com.hackathon.aipresentationbackend.model.SpeechResponse;
+import com.hackathon.aipresentationbackend.model.SpeechSegment;
+import com.hackathon.aipresentationbackend.service.SegmentedSpeechService;
+import com.hackathon.aipresentationbackend.service.SpeechStreamingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Streams speech through the real servlet container, with synthesis that takes longer than its default async timeout
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:streaming-history")
+public class PresentationControllerStreamingTest {
+    private static final Duration SEGMENT_DELAY = Duration.ofSeconds(4);
+    private static final int SEGMENTS = 9;
+
+    @LocalServerPort
+    private int port;
+
+    @MockitoBean
+    private SpeechStreamingService speechStreamingService;
+
+    @MockitoBean
+    private SegmentedSpeechService segmentedSpeechService;
+
+    @Test
+    void streamingEndpoints_KeepStreamingPastThirtySecondsOfSynthesis() throws Exception {
+        // Arrange - each segment takes 4s to synthesize, 36s in all
+        when(speechStreamingService.streamAudio(any(SpeechRequest.class), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            for (int i = 0; i < SEGMENTS; i++) {
+                Thread.sleep(SEGMENT_DELAY.toMillis());
+                out.write(("segment-" + i + ";").getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            }
+            return 0L;
+        });
+        when(segmentedSpeechService.streamSegments(any(SpeechRequest.class))).thenReturn(
+                Flux.interval(SEGMENT_DELAY).take(SEGMENTS).map(i -> SpeechSegment.success(i.intValue(), "Sentence " + i,
+                        SpeechResponse.withAudioUrl("https://murf.test/" + i + ".mp3", 4, "en-US-marcus", 1.0), false)));
+        WebClient client = WebClient.create("http://localhost:" + port + "/api/v1");
+        Map<String, Object> request = Map.of("text", "Hello. World.", "voiceId", "en-US-marcus");
+
+        // Act - both endpoints at once, so the test waits for the synthesis only once
+        Mono<String> audio = client.post().uri("/generate-speech/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(String.class);
+        Mono<List<String>> events = client.post().uri("/generate-speech/segments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(request)
+                .retrieve()
+                .bodyToFlux(String.class)
+                .collectList();
+        var results = Mono.zip(audio, events).block(Duration.ofSeconds(90));
+
+        // Assert
+        assertNotNull(results);
+        assertTrue(results.getT1().endsWith("segment-" + (SEGMENTS - 1) + ";"));
+        assertEquals(SEGMENTS, results.getT2().size());
+    }
+}
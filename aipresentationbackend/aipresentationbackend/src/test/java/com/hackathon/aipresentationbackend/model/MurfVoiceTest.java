@@ -0,0 +1,38 @@
+package com.hackathon.aipresentationbackend.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MurfVoiceTest {
+
+    @Test
+    void getVoicesByTone_ReturnsVoicesWithThatPrimaryTone() {
+        // Act
+        MurfVoice[] voices = MurfVoice.getVoicesByTone(ToneType.EMPATHETIC);
+        
+        // Assert
+        assertArrayEquals(new MurfVoice[]{MurfVoice.MICHAEL, MurfVoice.GRACE}, voices);
+        
+        // Callers get their own copy of the index entry
+        voices[0] = MurfVoice.RYAN;
+        assertEquals(MurfVoice.MICHAEL, MurfVoice.getVoicesByTone(ToneType.EMPATHETIC)[0]);
+    }
+    
+    @Test
+    void getVoicesByGenderAndTone_FiltersOnBoth() {
+        // Act & Assert
+        assertArrayEquals(new MurfVoice[]{MurfVoice.SARAH, MurfVoice.EMMA},
+                MurfVoice.getVoicesByGenderAndTone(VoiceGender.FEMALE, ToneType.CONFIDENT));
+        assertArrayEquals(new MurfVoice[]{MurfVoice.RYAN},
+                MurfVoice.getVoicesByGenderAndTone(VoiceGender.MALE, ToneType.URGENT));
+    }
+    
+    @Test
+    void fromVoiceId_IgnoresCaseAndWhitespace() {
+        // Act & Assert
+        assertEquals(MurfVoice.MAYA, MurfVoice.fromVoiceId(" Maya "));
+        assertNull(MurfVoice.fromVoiceId(null));
+        assertThrows(IllegalArgumentException.class, () -> MurfVoice.fromVoiceId("unknown"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.hackathon.aipresentationbackend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToneBatchRequestTest {
+
+    @Test
+    void toRehearsalRequests_ExpandsDistinctVoicesAndTones() {
+        // Arrange
+        ToneBatchRequest request = new ToneBatchRequest("Hello", "en-US-marcus", List.of("urgent", "URGENT", "confident"));
+        request.setVoiceIds(Arrays.asList("en-US-julia", "en-US-marcus", null));
+
+        // Act
+        List<ToneRehearsalRequest> requests = request.toRehearsalRequests();
+
+        // Assert
+        assertEquals(4, requests.size());
+        assertEquals("en-US-marcus", requests.get(0).getVoiceId());
+        assertEquals("urgent", requests.get(0).getTone());
+        assertEquals("confident", requests.get(1).getTone());
+        assertEquals("en-US-julia", requests.get(2).getVoiceId());
+        assertTrue(requests.stream().allMatch(r -> r.getSentence().equals("Hello")));
+    }
+
+    @Test
+    void toRehearsalRequests_DefaultsToEveryTone() {
+        // Act
+        List<ToneRehearsalRequest> requests = new ToneBatchRequest("Hello", "en-US-marcus", List.of()).toRehearsalRequests();
+
+        // Assert
+        assertEquals(ToneType.values().length, requests.size());
+    }
+
+    @Test
+    void validation_RejectsUnknownTonesAndOversizedBatches() {
+        // Arrange
+        ToneBatchRequest unknownTone = new ToneBatchRequest("Hello", "en-US-marcus", List.of("sarcastic"));
+        ToneBatchRequest oversized = new ToneBatchRequest("Hello", "en-US-marcus", null);
+        oversized.setVoiceIds(List.of("v1", "v2", "v3", "v4"));
+
+        // Act & Assert
+        assertFalse(unknownTone.isTonesValid());
+        assertTrue(unknownTone.isBatchSizeValid());
+        assertTrue(oversized.isTonesValid());
+        assertFalse(oversized.isBatchSizeValid());
+    }
+}
@@ -4,11 +4,13 @@ import com.hackathon.aipresentationbackend.exception.AssemblyAIException;
 import com.hackathon.aipresentationbackend.model.AudioUploadResponse;
 import com.hackathon.aipresentationbackend.model.TranscriptionRequest;
 import com.hackathon.aipresentationbackend.model.TranscriptionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -43,6 +45,9 @@ public class AssemblyAIServiceTest {
     @Mock
     private WebClient.ResponseSpec responseSpec;
 
+    @Spy
+    private PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private AssemblyAIService assemblyAIService;
 
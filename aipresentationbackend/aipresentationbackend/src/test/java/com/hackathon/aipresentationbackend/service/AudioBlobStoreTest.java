@@ -0,0 +1,290 @@
+package com.hackathon.aipresentationbackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AudioBlobStoreTest {
+    private static final String REMOTE_URL = "https://murf.test/files/speech.mp3?signature=abc";
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger downloads = new AtomicInteger();
+
+    @Test
+    void register_DownloadsOnceAndServesTheLocalCopy() throws Exception {
+        // Arrange
+        AudioBlobStore store = store(Map.of(REMOTE_URL, "mp3-bytes"), DataSize.ofMegabytes(1), "http://localhost:8080/");
+
+        // Act
+        String localUrl = store.register(REMOTE_URL);
+        String again = store.register(REMOTE_URL);
+        Optional<AudioBlobStore.AudioBlob> blob = store.findByUrl(localUrl);
+        store.register(REMOTE_URL);
+
+        // Assert
+        assertEquals(localUrl, again);
+        assertTrue(localUrl.startsWith("http://localhost:8080/api/v1/audio/"));
+        assertTrue(localUrl.endsWith(".mp3"));
+        assertTrue(blob.isPresent());
+        assertEquals("mp3-bytes", Files.readString(blob.get().path()));
+        assertEquals(MediaType.parseMediaType("audio/mpeg"), blob.get().contentType());
+        assertEquals(1, downloads.get());
+    }
+
+    @Test
+    void find_EvictsTheLeastRecentlyServedFilesOverTheLimit() {
+        // Arrange - room for two 10-byte files
+        AudioBlobStore store = store(Map.of(
+                "https://murf.test/a.wav", "aaaaaaaaaa",
+                "https://murf.test/b.wav", "bbbbbbbbbb",
+                "https://murf.test/c.wav", "cccccccccc"), DataSize.ofBytes(25), "");
+        String a = name(store.register("https://murf.test/a.wav"));
+        store.find(a);
+        String b = name(store.register("https://murf.test/b.wav"));
+        store.find(b);
+        store.find(a);
+
+        // Act
+        String c = name(store.register("https://murf.test/c.wav"));
+        store.find(c);
+
+        // Assert
+        assertTrue(store.find(a).isPresent());
+        assertTrue(store.find(b).isEmpty());
+        assertTrue(store.find(c).isPresent());
+        assertEquals(20, store.getTotalBytes());
+    }
+
+    @Test
+    void acquire_KeepsAFileBeingServedUntilItIsReleased() {
+        // Arrange - room for one 10-byte file
+        AudioBlobStore store = store(Map.of(
+                "https://murf.test/a.wav", "aaaaaaaaaa",
+                "https://murf.test/b.wav", "bbbbbbbbbb",
+                "https://murf.test/c.wav", "cccccccccc"), DataSize.ofBytes(15), "");
+        String a = name(store.register("https://murf.test/a.wav"));
+        AudioBlobStore.AudioBlob served = store.acquire(a).orElseThrow();
+
+        // Act
+        String b = name(store.register("https://murf.test/b.wav"));
+        store.find(b);
+        boolean keptWhileServed = Files.exists(served.path());
+        store.release(served);
+        String c = name(store.register("https://murf.test/c.wav"));
+        store.find(c);
+
+        // Assert
+        assertTrue(keptWhileServed);
+        assertTrue(store.find(a).isEmpty());
+        assertTrue(store.find(c).isPresent());
+        assertEquals(Optional.of("https://murf.test/a.wav"), store.findSource(a));
+        assertTrue(Files.exists(tempDir.resolve(a + ".source")));
+        assertEquals(10, store.getTotalBytes());
+    }
+
+    @Test
+    void restore_DownloadsAnEvictedFileAgainAndReturnsItsSource() {
+        // Arrange - room for one 10-byte file
+        AudioBlobStore store = store(Map.of(
+                "https://murf.test/a.wav", "aaaaaaaaaa",
+                "https://murf.test/b.wav", "bbbbbbbbbb"), DataSize.ofBytes(15), "");
+        String a = name(store.register("https://murf.test/a.wav"));
+        store.find(a);
+        store.find(name(store.register("https://murf.test/b.wav")));
+        AudioBlobStore restarted = store(Map.of("https://murf.test/a.wav", "aaaaaaaaaa"), DataSize.ofBytes(15), "");
+        boolean evicted = restarted.find(a).isEmpty();
+
+        // Act
+        Optional<String> source = restarted.restore(a);
+
+        // Assert
+        assertTrue(evicted);
+        assertEquals(Optional.of("https://murf.test/a.wav"), source);
+        assertTrue(restarted.find(a).isPresent());
+        assertEquals(3, downloads.get());
+        assertEquals(Optional.empty(), restarted.restore("0123456789abcdef0123456789abcdef.mp3"));
+    }
+
+    @Test
+    void register_KeepsTheSourceNextToTheFileAcrossRestarts() throws Exception {
+        // Arrange
+        AudioBlobStore store = store(Map.of(REMOTE_URL, "mp3-bytes"), DataSize.ofMegabytes(1), "");
+        String name = name(store.register(REMOTE_URL));
+        store.find(name);
+        Path expired = Files.writeString(tempDir.resolve("0123456789abcdef0123456789abcdef.mp3.source"), "https://murf.test/gone.mp3");
+        Files.setLastModifiedTime(expired, FileTime.from(Instant.now().minus(Duration.ofDays(31))));
+
+        // Act
+        AudioBlobStore restarted = store(Map.of(), DataSize.ofMegabytes(1), "");
+
+        // Assert
+        assertTrue(restarted.find(name).isPresent());
+        assertEquals(Optional.of(REMOTE_URL), restarted.findSource(name));
+        assertEquals(Optional.of(REMOTE_URL), restarted.findSourceByUrl(AudioBlobStore.PATH_PREFIX + name));
+        assertFalse(Files.exists(tempDir.resolve("0123456789abcdef0123456789abcdef.mp3.source")));
+        assertEquals(1, restarted.getBlobCount());
+    }
+
+    @Test
+    void find_FailedDownloadsKeepTheSourceForRedirects() {
+        // Arrange
+        AudioBlobStore store = store(Map.of(), DataSize.ofMegabytes(1), "");
+
+        // Act
+        String name = name(store.register(REMOTE_URL));
+
+        // Assert
+        assertTrue(store.find(name).isEmpty());
+        assertEquals(Optional.of(REMOTE_URL), store.findSource(name));
+        assertEquals(0, store.getBlobCount());
+        assertFalse(Files.exists(tempDir.resolve(name + ".part")));
+    }
+
+    @Test
+    void constructor_IndexesFilesFromAPreviousRun() throws Exception {
+        // Arrange
+        Files.writeString(tempDir.resolve("0123456789abcdef0123456789abcdef.wav"), "stored");
+        Files.writeString(tempDir.resolve("0123456789abcdef0123456789abcdef.wav.part"), "partial");
+
+        // Act
+        AudioBlobStore store = store(Map.of(), DataSize.ofMegabytes(1), "");
+
+        // Assert
+        assertTrue(store.find("0123456789abcdef0123456789abcdef.wav").isPresent());
+        assertEquals(1, store.getBlobCount());
+        assertFalse(Files.exists(tempDir.resolve("0123456789abcdef0123456789abcdef.wav.part")));
+    }
+
+    @Test
+    void store_WritesGeneratedAudioOncePerKey() throws Exception {
+        // Arrange
+        AudioBlobStore store = store(Map.of(), DataSize.ofMegabytes(1), "http://localhost:8080");
+        AtomicInteger writes = new AtomicInteger();
+
+        // Act
+        String localUrl = store.store("speech|en-US-marcus|Hello.", "mp3", out -> {
+            writes.incrementAndGet();
+            out.write("stitched".getBytes(StandardCharsets.US_ASCII));
+        });
+        String again = store.store("speech|en-US-marcus|Hello.", "mp3", out -> writes.incrementAndGet());
+        assertThrows(IllegalStateException.class, () -> store.store("speech|en-US-marcus|Bye.", "mp3", out -> {
+            out.write(1);
+            throw new IllegalStateException("segment failed");
+        }));
+
+        // Assert
+        assertEquals(localUrl, again);
+        assertEquals(1, writes.get());
+        assertEquals("stitched", Files.readString(store.findByUrl(localUrl).orElseThrow().path()));
+        assertEquals(1, store.getBlobCount());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void storeInBackground_ReturnsTheUrlFirstAndFallsBackToTheNextWriter() throws Exception {
+        // Arrange
+        AudioBlobStore store = store(Map.of(), DataSize.ofMegabytes(1), "");
+        List<Runnable> tasks = new ArrayList<>();
+
+        // Act
+        String localUrl = store.storeInBackground("speech|en-US-marcus|Hello.", "mp3", tasks::add,
+                out -> {
+                    out.write("partial".getBytes(StandardCharsets.US_ASCII));
+                    throw new IllegalStateException("segment failed");
+                },
+                out -> out.write("whole".getBytes(StandardCharsets.US_ASCII)));
+        String again = store.storeInBackground("speech|en-US-marcus|Hello.", "mp3", tasks::add, out -> out.write(1));
+        int scheduled = tasks.size();
+        boolean storedBeforeRunning = Files.exists(tempDir.resolve(name(localUrl)));
+        tasks.forEach(Runnable::run);
+
+        // Assert
+        assertEquals(localUrl, again);
+        assertEquals(1, scheduled);
+        assertFalse(storedBeforeRunning);
+        assertEquals("whole", Files.readString(store.findByUrl(localUrl).orElseThrow().path()));
+        assertEquals(1, store.getBlobCount());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void storeInBackground_IsNotFoundWhenEveryWriterFails() {
+        // Arrange
+        AudioBlobStore store = store(Map.of(), DataSize.ofMegabytes(1), "");
+
+        // Act
+        String localUrl = store.storeInBackground("speech|en-US-marcus|Bye.", "mp3", Runnable::run, out -> {
+            throw new IllegalStateException("segment failed");
+        });
+
+        // Assert
+        assertTrue(store.findByUrl(localUrl).isEmpty());
+        assertEquals(0, store.getBlobCount());
+    }
+
+    @Test
+    void find_RejectsNamesOutsideTheStore() {
+        // Arrange
+        AudioBlobStore store = store(Map.of(), DataSize.ofMegabytes(1), "");
+
+        // Act & Assert
+        assertTrue(store.find("../application.yml").isEmpty());
+        assertTrue(store.findByUrl("https://elsewhere.test/api/v1/audio/x.mp3").isEmpty());
+    }
+
+    @Test
+    void eTag_IsQuotedAndStableForAName() {
+        // Arrange
+        AudioBlobStore.AudioBlob blob = new AudioBlobStore.AudioBlob("0123456789abcdef0123456789abcdef.mp3",
+                tempDir, 0, MediaType.APPLICATION_OCTET_STREAM);
+
+        // Act & Assert
+        assertEquals("\"0123456789abcdef0123456789abcdef\"", blob.eTag());
+        assertEquals(AudioBlobStore.blobName(REMOTE_URL), AudioBlobStore.blobName(REMOTE_URL));
+    }
+
+    private AudioBlobStore store(Map<String, String> files, DataSize maxSize, String publicBaseUrl) {
+        WebClient webClient = WebClient.builder().exchangeFunction(request -> {
+            downloads.incrementAndGet();
+            String body = files.get(request.url().toString());
+            if (body == null) {
+                return Mono.just(ClientResponse.create(HttpStatus.FORBIDDEN).build());
+            }
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body.getBytes(StandardCharsets.US_ASCII))))
+                    .build());
+        }).build();
+        return new AudioBlobStore(webClient, tempDir.toString(), maxSize, publicBaseUrl);
+    }
+
+    private static String name(String localUrl) {
+        return localUrl.substring(localUrl.lastIndexOf('/') + 1);
+    }
+}
@@ -1,15 +1,19 @@
 package com.hackathon.aipresentationbackend.service;
 
 import com.hackathon.aipresentationbackend.exception.AudioProcessingException;
+import com.hackathon.aipresentationbackend.model.SpeechActivity;
+import com.hackathon.aipresentationbackend.service.audio.AudioEncoding;
+import com.hackathon.aipresentationbackend.service.audio.PreparedAudio;
+import com.hackathon.aipresentationbackend.service.audio.StoredAudio;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.sound.sampled.AudioFileFormat;
@@ -17,10 +21,13 @@ import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,7 +35,6 @@ import static org.junit.jupiter.api.Assertions.*;
 @ExtendWith(MockitoExtension.class)
 public class AudioProcessingServiceTest {
 
-    @InjectMocks
     private AudioProcessingService audioProcessingService;
     
     @TempDir
@@ -36,7 +42,9 @@ public class AudioProcessingServiceTest {
     
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(audioProcessingService, "tempDirectory", tempDir.toString());
+        TempFileJanitor janitor = new TempFileJanitor(tempDir.toString(), Duration.ofMinutes(30),
+                Duration.ofMinutes(2), DataSize.ofGigabytes(2), DataSize.ofBytes(0), Clock.systemUTC());
+        audioProcessingService = new AudioProcessingService(janitor);
     }
     
     @Test
@@ -170,6 +178,30 @@ public class AudioProcessingServiceTest {
         assertTrue(result.getName().endsWith(".mp3"));
     }
     
+    @Test
+    void cleanupAllTempFiles_SkipsFilesLeasedByStoredUploads() throws IOException {
+        // Arrange
+        File idle = File.createTempFile("idle", ".tmp", tempDir.toFile());
+        age(idle);
+        MultipartFile audioFile = new MockMultipartFile(
+                "audio.mp3",
+                "audio.mp3",
+                "audio/mpeg",
+                "test audio content".getBytes()
+        );
+        
+        try (StoredAudio stored = audioProcessingService.storeUpload(audioFile)) {
+            // Act
+            int deletedCount = audioProcessingService.cleanupAllTempFiles();
+            
+            // Assert
+            assertEquals(1, deletedCount);
+            assertFalse(idle.exists());
+            assertTrue(Files.exists(stored.getPath()));
+        }
+        assertEquals(0, tempDir.toFile().listFiles().length);
+    }
+    
     @Test
     void cleanupTempFile_ExistingFile_DeletesFile() throws IOException {
         // Arrange
@@ -202,6 +234,10 @@ public class AudioProcessingServiceTest {
         File file1 = File.createTempFile("test1", ".tmp", tempDir.toFile());
         File file2 = File.createTempFile("test2", ".tmp", tempDir.toFile());
         File file3 = File.createTempFile("test3", ".tmp", tempDir.toFile());
+        File justCreated = File.createTempFile("test4", ".tmp", tempDir.toFile());
+        age(file1);
+        age(file2);
+        age(file3);
         
         // Act
         int deletedCount = audioProcessingService.cleanupAllTempFiles();
@@ -211,6 +247,7 @@ public class AudioProcessingServiceTest {
         assertFalse(file1.exists());
         assertFalse(file2.exists());
         assertFalse(file3.exists());
+        assertTrue(justCreated.exists());
     }
     
     @Test
@@ -246,4 +283,257 @@ public class AudioProcessingServiceTest {
             assertTrue(e.getMessage().contains("audio") || e.getMessage().contains("metadata"));
         }
     }
-}
\ No newline at end of file
+    
+    @Test
+    void extractAudioMetadata_ToneWav_ReturnsHeaderValuesWithoutTempFiles() throws Exception {
+        // Arrange
+        MultipartFile audioFile = new MockMultipartFile(
+                "tone.wav",
+                "tone.wav",
+                "audio/wav",
+                createToneWav(44100, 2, 2.5)
+        );
+        
+        // Act
+        Map<String, Object> metadata = audioProcessingService.extractAudioMetadata(audioFile);
+        
+        // Assert
+        assertEquals(2_500_000L, metadata.get("durationMicros"));
+        assertEquals(2.5, metadata.get("durationSeconds"));
+        assertEquals(44100, metadata.get("sampleRate"));
+        assertEquals(2, metadata.get("channels"));
+        assertEquals("WAV", metadata.get("container"));
+        assertEquals(0, tempDir.toFile().listFiles().length);
+    }
+    
+    @Test
+    void estimateDurationMillis_UsesHeadersAndFallsBackToFileSize() throws Exception {
+        // Arrange
+        MultipartFile wav = new MockMultipartFile("tone.wav", "tone.wav", "audio/wav", createToneWav(16000, 1, 1.5));
+        MultipartFile unknown = new MockMultipartFile("clip.webm", "clip.webm", "audio/webm", new byte[48_000]);
+
+        // Act
+        long wavMillis = audioProcessingService.estimateDurationMillis(wav);
+        long unknownMillis = audioProcessingService.estimateDurationMillis(unknown);
+
+        // Assert
+        assertEquals(1500, wavMillis);
+        assertEquals(3000, unknownMillis);
+    }
+
+    @Test
+    void convertAudioFormat_StereoWav_ProducesSpeechRateMonoWav() throws Exception {
+        // Arrange - two seconds of a 440 Hz tone at 44.1 kHz stereo
+        MultipartFile audioFile = new MockMultipartFile(
+                "tone.wav",
+                "tone.wav",
+                "audio/wav",
+                createToneWav(44100, 2, 2.0)
+        );
+        
+        // Act
+        File converted = audioProcessingService.convertAudioFormat(audioFile);
+        
+        // Assert
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(converted)) {
+            AudioFormat format = stream.getFormat();
+            assertEquals(16000f, format.getSampleRate());
+            assertEquals(1, format.getChannels());
+            assertEquals(16, format.getSampleSizeInBits());
+            assertEquals(32000, stream.getFrameLength(), 2);
+        }
+        assertTrue(converted.length() < audioFile.getSize() / 5);
+        assertEquals(1, tempDir.toFile().listFiles().length);
+    }
+    
+    @Test
+    void convertAudioFormat_UndecodableInput_ThrowsAndLeavesNoTempFiles() {
+        // Arrange
+        MultipartFile audioFile = new MockMultipartFile(
+                "broken.wav",
+                "broken.wav",
+                "audio/wav",
+                "not really a wav file".getBytes()
+        );
+        
+        // Act & Assert
+        AudioProcessingException exception = assertThrows(AudioProcessingException.class,
+                () -> audioProcessingService.convertAudioFormat(audioFile));
+        
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, exception.getStatusCode());
+        assertEquals(0, tempDir.toFile().listFiles().length);
+    }
+    
+    @Test
+    void prepareForTranscription_TrimsSilenceAroundSpeech() throws Exception {
+        // Arrange - one second of silence either side of a two second tone
+        ReflectionTestUtils.setField(audioProcessingService, "uploadEncoding", AudioEncoding.WAV);
+        byte[] wav = createToneWav(44100, 2, 2.0);
+        MultipartFile audioFile = new MockMultipartFile(
+                "padded.wav",
+                "padded.wav",
+                "audio/wav",
+                padWithSilence(wav, 44100 * 2 * 2)
+        );
+        
+        // Act
+        PreparedAudio prepared = audioProcessingService.prepareForTranscription(audioFile);
+        
+        // Assert
+        SpeechActivity activity = prepared.getSpeechActivity();
+        assertTrue(activity.isSpeechDetected());
+        assertEquals(4000, activity.getOriginalDurationMillis(), 5);
+        assertEquals(2200, activity.getProcessedDurationMillis(), 40);
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(prepared.getFile())) {
+            assertEquals(activity.getProcessedDurationMillis() * 16, stream.getFrameLength());
+        }
+    }
+    
+    @Test
+    void prepareForTranscription_DetectionDisabled_ReturnsConvertedFileOnly() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(audioProcessingService, "vadEnabled", false);
+        MultipartFile audioFile = new MockMultipartFile(
+                "tone.wav",
+                "tone.wav",
+                "audio/wav",
+                createToneWav(16000, 1, 1.0)
+        );
+        
+        // Act
+        PreparedAudio prepared = audioProcessingService.prepareForTranscription(audioFile);
+        
+        // Assert
+        assertNull(prepared.getSpeechActivity());
+        assertTrue(prepared.getFile().exists());
+    }
+    
+    @Test
+    void prepareForTranscription_DefaultsToFlac() throws Exception {
+        // Arrange
+        MultipartFile audioFile = new MockMultipartFile(
+                "tone.wav",
+                "tone.wav",
+                "audio/wav",
+                createToneWav(16000, 1, 2.0)
+        );
+        
+        // Act
+        PreparedAudio prepared = audioProcessingService.prepareForTranscription(audioFile);
+        
+        // Assert
+        byte[] encoded = Files.readAllBytes(prepared.getFile().toPath());
+        assertTrue(prepared.getFile().getName().endsWith(".flac"));
+        assertEquals("fLaC", new String(encoded, 0, 4));
+        assertTrue(encoded.length < audioFile.getSize() / 2);
+    }
+    
+    @Test
+    void prepareForTranscription_LeasesTheConvertedFileUntilItIsUploaded() throws Exception {
+        // Arrange
+        MultipartFile audioFile = new MockMultipartFile(
+                "tone.wav",
+                "tone.wav",
+                "audio/wav",
+                createToneWav(16000, 1, 1.0)
+        );
+        
+        // Act
+        PreparedAudio prepared = audioProcessingService.prepareForTranscription(audioFile);
+        age(prepared.getFile());
+        int deletedWhilePrepared = audioProcessingService.cleanupAllTempFiles();
+        try (StoredAudio opened = audioProcessingService.openPrepared(prepared)) {
+            assertEquals(0, audioProcessingService.cleanupAllTempFiles());
+        }
+        
+        // Assert
+        assertEquals(0, deletedWhilePrepared);
+        assertFalse(prepared.getFile().exists());
+        assertEquals(0, tempDir.toFile().listFiles().length);
+    }
+    
+    @Test
+    void storeUpload_SharesOneFileAcrossStagesAndDeletesItOnClose() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(audioProcessingService, "uploadEncoding", AudioEncoding.WAV);
+        MultipartFile audioFile = new MockMultipartFile(
+                "tone.wav",
+                "tone.wav",
+                "audio/wav",
+                createToneWav(44100, 2, 1.0)
+        );
+        
+        // Act
+        File storedFile;
+        PreparedAudio prepared;
+        try (StoredAudio stored = audioProcessingService.storeUpload(audioFile)) {
+            storedFile = stored.getPath().toFile();
+            prepared = audioProcessingService.prepareForTranscription(stored);
+            
+            // Assert - each stage read the same stored file
+            assertEquals(audioFile.getSize(), stored.size());
+            assertEquals(2, tempDir.toFile().listFiles().length);
+        }
+        assertFalse(storedFile.exists());
+        assertTrue(prepared.getSpeechActivity().isSpeechDetected());
+        assertTrue(prepared.getFile().exists());
+    }
+    
+    @Test
+    void storeUpload_UnsupportedFormat_ThrowsWithoutWritingFile() {
+        // Arrange
+        MultipartFile audioFile = new MockMultipartFile(
+                "notes.txt",
+                "notes.txt",
+                "text/plain",
+                "not audio".getBytes()
+        );
+        
+        // Act & Assert
+        assertThrows(AudioProcessingException.class, () -> audioProcessingService.storeUpload(audioFile));
+        assertEquals(0, tempDir.toFile().listFiles().length);
+    }
+    
+    /**
+     * Surrounds the PCM data of a 16-bit WAV file with the given number of zero bytes on each side
+     */
+    private static byte[] padWithSilence(byte[] wav, int paddingBytes) throws Exception {
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(new ByteArrayInputStream(wav))) {
+            byte[] pcm = stream.readAllBytes();
+            byte[] padded = new byte[pcm.length + 2 * paddingBytes];
+            System.arraycopy(pcm, 0, padded, paddingBytes, pcm.length);
+            AudioFormat format = stream.getFormat();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(padded), format,
+                    padded.length / format.getFrameSize()), AudioFileFormat.Type.WAVE, out);
+            return out.toByteArray();
+        }
+    }
+    
+    /**
+     * Builds an in-memory 16-bit PCM WAV file containing a 440 Hz tone
+     */
+    static byte[] createToneWav(float sampleRate, int channels, double seconds) throws IOException {
+        int frames = (int) (sampleRate * seconds);
+        byte[] pcm = new byte[frames * channels * 2];
+        for (int i = 0, position = 0; i < frames; i++) {
+            short sample = (short) (Math.sin(2 * Math.PI * 440 * i / sampleRate) * 12000);
+            for (int channel = 0; channel < channels; channel++) {
+                pcm[position++] = (byte) sample;
+                pcm[position++] = (byte) (sample >> 8);
+            }
+        }
+        AudioFormat format = new AudioFormat(sampleRate, 16, channels, true, false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(pcm), format, frames),
+                AudioFileFormat.Type.WAVE, out);
+        return out.toByteArray();
+    }
+    
+    /**
+     * Backdates a file past the janitor's minimum age
+     */
+    private static void age(File file) {
+        assertTrue(file.setLastModified(System.currentTimeMillis() - Duration.ofMinutes(5).toMillis()));
+    }
+}
@@ -1,16 +1,20 @@
 package com.hackathon.aipresentationbackend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hackathon.aipresentationbackend.exception.MurfApiException;
 import com.hackathon.aipresentationbackend.model.SpeechRequest;
 import com.hackathon.aipresentationbackend.model.SpeechResponse;
 import com.hackathon.aipresentationbackend.model.ToneRehearsalRequest;
 import com.hackathon.aipresentationbackend.model.VoiceOption;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -45,14 +49,26 @@ class MurfServiceTest {
     @Mock
     private WebClient.ResponseSpec responseSpec;
 
+    // The bundled catalog, which is what the service serves until Murf is reachable
+    @Spy
+    private VoiceCatalogService voiceCatalogService = new VoiceCatalogService(mock(WebClient.class),
+            new ObjectMapper(), "test-api-key", new ClassPathResource("voices/murf-voices.json"));
+
+    @Spy
+    private PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private MurfService murfService;
 
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(murfService, "murfApiKey", "test-api-key");
+    }
 
-        // Common mocking setup for the WebClient chain
+    /**
+     * Mocks the WebClient chain for the tests that call Murf; voice lookups are served from the catalog
+     */
+    private void stubMurfRequest() {
         when(webClient.post()).thenReturn(requestBodyUriSpec);
         when(requestBodyUriSpec.uri(anyString())).thenReturn(requestBodySpec);
         when(requestBodySpec.header(anyString(), anyString())).thenReturn(requestBodySpec);
@@ -74,6 +90,7 @@ class MurfServiceTest {
         responseBody.put("audioFile", "https://example.com/audio.mp3");
         responseBody.put("duration", 10);
 
+        stubMurfRequest();
         // CORRECTED: Mock the Mono returned by bodyToMono
         when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(responseBody));
 
@@ -111,6 +128,7 @@ class MurfServiceTest {
                 null
         );
 
+        stubMurfRequest();
         // CORRECTED: Mock the Mono to return an error
         when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.error(exception));
 
@@ -136,6 +154,7 @@ class MurfServiceTest {
         responseBody.put("audioFile", "https://example.com/audio.mp3");
         responseBody.put("duration", 5);
 
+        stubMurfRequest();
         // CORRECTED: Mock the Mono
         when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(responseBody));
 
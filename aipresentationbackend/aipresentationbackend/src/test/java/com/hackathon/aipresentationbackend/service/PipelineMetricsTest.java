@@ -0,0 +1,134 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.hackathon.aipresentationbackend.service.support.ExpiringLruCache;
+import com.hackathon.aipresentationbackend.service.support.SingleFlight;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.ObservationView;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PipelineMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PipelineMetrics metrics = new PipelineMetrics(registry);
+
+    @Test
+    void time_TagsStagesWithTheirOutcome() {
+        // Act
+        String result = metrics.time("analysis", () -> "ok");
+        assertThrows(IllegalStateException.class, () -> metrics.time("analysis", () -> {
+            throw new IllegalStateException("model down");
+        }));
+        metrics.time("upload", Mono.just("url")).block();
+        metrics.record("transcription.queue", Duration.ofSeconds(4));
+
+        // Assert
+        assertEquals("ok", result);
+        assertEquals(1, stageCount("analysis", "success"));
+        assertEquals(1, stageCount("analysis", "error"));
+        assertEquals(1, stageCount("upload", "success"));
+        assertEquals(4.0, registry.get(PipelineMetrics.STAGE_TIMER).tags("stage", "transcription.queue")
+                .timer().totalTime(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void time_RecordsStagesTheCallerGaveUpOn() {
+        // Act
+        assertThrows(IllegalStateException.class,
+                () -> metrics.time("transcription", Mono.never()).block(Duration.ofMillis(50)));
+
+        // Assert
+        assertEquals(1, stageCount("transcription", "cancelled"));
+        assertTrue(registry.get(PipelineMetrics.STAGE_TIMER).tags("stage", "transcription", "outcome", "cancelled")
+                .timer().totalTime(TimeUnit.MILLISECONDS) >= 50);
+    }
+
+    @Test
+    void recordMethods_PublishCountsAndSizes() {
+        // Act
+        metrics.recordRetry("murf");
+        metrics.recordRetry("murf");
+        metrics.recordTranscriptionPolls(5);
+        metrics.recordTokens("gemini-fast", "prompt", 1200);
+        metrics.recordSections("reused", 3);
+
+        // Assert
+        assertEquals(2.0, registry.get(PipelineMetrics.RETRIES).tag("dependency", "murf").counter().count());
+        assertEquals(5.0, registry.get(PipelineMetrics.TRANSCRIPTION_POLLS).summary().totalAmount());
+        assertEquals(1200.0, registry.get(PipelineMetrics.ANALYSIS_TOKENS)
+                .tags("model", "gemini-fast", "type", "prompt").summary().totalAmount());
+        assertEquals(3.0, registry.get(PipelineMetrics.ANALYSIS_SECTIONS).tag("result", "reused").counter().count());
+    }
+
+    @Test
+    void startRehearsal_CountsRehearsalsUntilStopped() {
+        // Arrange
+        LongTaskTimer active = registry.get(PipelineMetrics.REHEARSALS).longTaskTimer();
+
+        // Act
+        LongTaskTimer.Sample rehearsal = metrics.startRehearsal();
+        int during = active.activeTasks();
+        rehearsal.stop();
+
+        // Assert
+        assertEquals(1, during);
+        assertEquals(0, active.activeTasks());
+    }
+
+    @Test
+    void monitor_ReadsSharedCallAndCacheCounters() {
+        // Arrange
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, Duration.ofHours(1));
+        metrics.monitor("murf.speech", flight);
+        metrics.monitor("speech.segments", cache);
+
+        // Act
+        flight.execute("key", () -> "value");
+        cache.put("key", "value");
+        cache.get("key");
+        cache.get("other");
+
+        // Assert
+        assertEquals(1.0, registry.get("presentation.singleflight.calls")
+                .tags("name", "murf.speech", "result", "executed").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "speech.segments", "result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "speech.segments", "result", "miss")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").tag("cache", "speech.segments").gauge().value());
+    }
+
+    @Test
+    void time_MakesTheStageTheParentOfCallsMadeWhileItRuns() {
+        // Arrange
+        ObservationRegistry observations = ObservationRegistry.create();
+        observations.observationConfig().observationHandler(context -> true);
+        PipelineMetrics traced = new PipelineMetrics(registry, observations);
+
+        // Act
+        ObservationView blockingParent = traced.time("speech", () ->
+                Observation.start("http.client.requests", observations).getContextView().getParentObservation());
+        Observation reactiveParent = traced.time("upload",
+                Mono.deferContextual(context -> Mono.just(context.<Observation>get(ObservationThreadLocalAccessor.KEY))))
+                .block();
+
+        // Assert
+        assertEquals("speech", blockingParent.getContextView().getContextualName());
+        assertEquals("upload", reactiveParent.getContextView().getContextualName());
+        assertNull(observations.getCurrentObservation());
+    }
+
+    private long stageCount(String stage, String outcome) {
+        return registry.get(PipelineMetrics.STAGE_TIMER).tags("stage", stage, "outcome", outcome).timer().count();
+    }
+}
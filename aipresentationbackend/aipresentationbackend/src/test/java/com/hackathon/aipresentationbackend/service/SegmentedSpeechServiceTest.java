@@ -0,0 +1,206 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.exception.MurfApiException;
+import com.hackathon.aipresentationbackend.model.SpeechPlaylist;
+import com.hackathon.aipresentationbackend.model.SpeechRequest;
+import com.hackathon.aipresentationbackend.model.SpeechResponse;
+import com.hackathon.aipresentationbackend.model.SpeechSegment;
+import com.hackathon.aipresentationbackend.service.shared.InMemorySharedStateStore;
+import com.hackathon.aipresentationbackend.service.shared.SharedStateStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SegmentedSpeechServiceTest {
+    private static final String SCRIPT = "Good morning everyone.\n\nOur results were strong.\n\nThank you.";
+
+    @Mock
+    private MurfService murfService;
+
+    private SegmentedSpeechService service;
+    private SharedStateStore sharedState;
+
+    @BeforeEach
+    void setUp() {
+        sharedState = new InMemorySharedStateStore(100);
+        service = newService();
+    }
+
+    private SegmentedSpeechService newService() {
+        return newService(null);
+    }
+
+    private SegmentedSpeechService newService(AudioBlobStore audioBlobStore) {
+        return new SegmentedSpeechService(murfService, audioBlobStore, new PipelineMetrics(new SimpleMeterRegistry()), sharedState,
+                new ObjectMapper(), 400, 2, 1, 100, Duration.ofHours(1), Clock.systemUTC());
+    }
+
+    @Test
+    void generatePlaylist_ReturnsSegmentsInScriptOrder() {
+        // Arrange
+        when(murfService.generateSpeech(any(SpeechRequest.class))).thenAnswer(invocation -> {
+            SpeechRequest request = invocation.getArgument(0);
+            // Earlier segments finish last, so order must come from the playlist, not completion
+            Thread.sleep(request.getText().startsWith("Good") ? 100 : 0);
+            return SpeechResponse.withAudioUrl("https://murf.ai/" + request.getText().hashCode() + ".mp3",
+                    2, request.getVoiceId(), request.getSpeed());
+        });
+
+        // Act
+        SpeechPlaylist playlist = service.generatePlaylist(new SpeechRequest(SCRIPT, "en-US-marcus", 1.0, "confident"));
+
+        // Assert
+        assertEquals(List.of("Good morning everyone.", "Our results were strong.", "Thank you."),
+                playlist.getSegments().stream().map(SpeechSegment::getText).toList());
+        assertTrue(playlist.isComplete());
+        assertEquals(6, playlist.getTotalDuration());
+        verify(murfService).generateSpeech(argThat((SpeechRequest request) -> request.getText().equals("Thank you.")
+                && request.getTone().equals("confident") && request.getVoiceId().equals("en-US-marcus")));
+    }
+
+    @Test
+    void generatePlaylist_OnlyResynthesizesChangedSegments() {
+        // Arrange
+        when(murfService.generateSpeech(any(SpeechRequest.class))).thenAnswer(invocation -> {
+            SpeechRequest request = invocation.getArgument(0);
+            return SpeechResponse.withAudioUrl("https://murf.ai/audio.mp3", 2, request.getVoiceId(), request.getSpeed());
+        });
+        service.generatePlaylist(new SpeechRequest(SCRIPT, "en-US-marcus", 1.0, null));
+
+        // Act
+        SpeechPlaylist edited = service.generatePlaylist(new SpeechRequest(
+                SCRIPT.replace("strong", "very strong"), "en-US-marcus", 1.0, null));
+
+        // Assert
+        assertEquals(2, edited.getCachedSegments());
+        assertFalse(edited.getSegments().get(1).isCached());
+        verify(murfService, times(4)).generateSpeech(any(SpeechRequest.class));
+    }
+
+    @Test
+    void generatePlaylist_RetriesServerErrorsAndKeepsOtherSegmentsOnFailure() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        when(murfService.generateSpeech(any(SpeechRequest.class))).thenAnswer(invocation -> {
+            SpeechRequest request = invocation.getArgument(0);
+            if (request.getText().equals("Good morning everyone.") && attempts.incrementAndGet() == 1) {
+                throw new MurfApiException("Murf unavailable", HttpStatus.BAD_GATEWAY);
+            }
+            if (request.getText().equals("Thank you.")) {
+                throw new MurfApiException("Invalid voice", HttpStatus.BAD_REQUEST);
+            }
+            return SpeechResponse.withAudioUrl("https://murf.ai/audio.mp3", 2, request.getVoiceId(), request.getSpeed());
+        });
+
+        // Act
+        SpeechPlaylist playlist = service.generatePlaylist(new SpeechRequest(SCRIPT, "en-US-marcus", 1.0, null));
+
+        // Assert
+        List<SpeechSegment> segments = playlist.getSegments();
+        assertTrue(segments.get(0).isSuccess());
+        assertEquals(2, attempts.get());
+        assertTrue(segments.get(1).isSuccess());
+        assertFalse(segments.get(2).isSuccess());
+        assertEquals("Invalid voice", segments.get(2).getError());
+        assertFalse(playlist.isComplete());
+        // Client errors are not retried
+        verify(murfService, times(1)).generateSpeech(argThat((SpeechRequest request) -> request.getText().equals("Thank you.")));
+    }
+
+    @Test
+    void generatePlaylist_RetriesTimeoutsButNotFailuresMurfServiceAlreadyRetried() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        when(murfService.generateSpeech(any(SpeechRequest.class))).thenAnswer(invocation -> {
+            SpeechRequest request = invocation.getArgument(0);
+            if (request.getText().equals("Good morning everyone.") && attempts.incrementAndGet() == 1) {
+                throw new MurfApiException("Failed to generate speech", HttpStatus.INTERNAL_SERVER_ERROR,
+                        new TimeoutException("Did not observe any item within 30000ms"));
+            }
+            if (request.getText().equals("Our results were strong.")) {
+                throw new MurfApiException("Failed to generate speech", HttpStatus.INTERNAL_SERVER_ERROR,
+                        new MurfApiException("Failed to generate speech after retries", HttpStatus.INTERNAL_SERVER_ERROR));
+            }
+            if (request.getText().equals("Thank you.")) {
+                throw new MurfApiException("Failed to generate speech", HttpStatus.INTERNAL_SERVER_ERROR,
+                        new ClassCastException("Unexpected response"));
+            }
+            return SpeechResponse.withAudioUrl("https://murf.ai/audio.mp3", 2, request.getVoiceId(), request.getSpeed());
+        });
+
+        // Act
+        SpeechPlaylist playlist = service.generatePlaylist(new SpeechRequest(SCRIPT, "en-US-marcus", 1.0, null));
+
+        // Assert
+        List<SpeechSegment> segments = playlist.getSegments();
+        assertTrue(segments.get(0).isSuccess());
+        assertEquals(2, attempts.get());
+        assertFalse(segments.get(1).isSuccess());
+        assertFalse(segments.get(2).isSuccess());
+        verify(murfService, times(1)).generateSpeech(argThat((SpeechRequest request) -> request.getText().equals("Our results were strong.")));
+        verify(murfService, times(1)).generateSpeech(argThat((SpeechRequest request) -> request.getText().equals("Thank you.")));
+    }
+
+    @Test
+    void generatePlaylist_ReusesSegmentsSynthesizedByAnotherServer() {
+        // Arrange
+        when(murfService.generateSpeech(any(SpeechRequest.class))).thenAnswer(invocation -> {
+            SpeechRequest request = invocation.getArgument(0);
+            return SpeechResponse.withAudioUrl("https://murf.ai/" + request.getText().hashCode() + ".mp3",
+                    2, request.getVoiceId(), request.getSpeed());
+        });
+        SpeechPlaylist first = service.generatePlaylist(new SpeechRequest(SCRIPT, "en-US-marcus", 1.0, null));
+
+        // Act
+        SpeechPlaylist second = newService().generatePlaylist(new SpeechRequest(SCRIPT, "en-US-marcus", 1.0, null));
+
+        // Assert
+        assertEquals(3, second.getCachedSegments());
+        assertEquals(first.getSegments().get(1).getAudioUrl(), second.getSegments().get(1).getAudioUrl());
+        verify(murfService, times(3)).generateSpeech(any(SpeechRequest.class));
+    }
+
+    @Test
+    void generatePlaylist_SharesMurfUrlsAndKeepsALocalCopyOnEachServer() {
+        // Arrange
+        AudioBlobStore firstServerBlobs = mock(AudioBlobStore.class);
+        AudioBlobStore secondServerBlobs = mock(AudioBlobStore.class);
+        when(murfService.generateSpeech(any(SpeechRequest.class))).thenAnswer(invocation -> {
+            SpeechRequest request = invocation.getArgument(0);
+            return SpeechResponse.withAudioUrl("/api/v1/audio/" + request.getText().hashCode() + ".mp3",
+                    2, request.getVoiceId(), request.getSpeed());
+        });
+        when(firstServerBlobs.findSourceByUrl(any())).thenAnswer(invocation ->
+                Optional.of(((String) invocation.getArgument(0)).replace("/api/v1/audio/", "https://murf.ai/")));
+        when(secondServerBlobs.register(any())).thenAnswer(invocation ->
+                ((String) invocation.getArgument(0)).replace("https://murf.ai/", "/api/v1/audio/"));
+        SpeechPlaylist first = newService(firstServerBlobs).generatePlaylist(new SpeechRequest(SCRIPT, "en-US-marcus", 1.0, null));
+
+        // Act
+        SpeechPlaylist second = newService(secondServerBlobs).generatePlaylist(new SpeechRequest(SCRIPT, "en-US-marcus", 1.0, null));
+
+        // Assert
+        assertEquals(3, second.getCachedSegments());
+        assertEquals(first.getSegments().get(1).getAudioUrl(), second.getSegments().get(1).getAudioUrl());
+        verify(secondServerBlobs).register("https://murf.ai/" + "Our results were strong.".hashCode() + ".mp3");
+        verify(murfService, times(3)).generateSpeech(any(SpeechRequest.class));
+    }
+}
@@ -0,0 +1,230 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.hackathon.aipresentationbackend.exception.MurfApiException;
+import com.hackathon.aipresentationbackend.model.SpeechRequest;
+import com.hackathon.aipresentationbackend.model.SpeechResponse;
+import com.hackathon.aipresentationbackend.model.SpeechSegment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SpeechStreamingServiceTest {
+
+    @Mock
+    private SegmentedSpeechService segmentedSpeechService;
+
+    @Mock
+    private MurfService murfService;
+
+    @Mock
+    private AudioBlobStore audioBlobStore;
+
+    @Test
+    void streamAudio_WritesSegmentsInOrderAsMp3() throws Exception {
+        // Arrange
+        passRemoteUrlsThrough();
+        when(segmentedSpeechService.streamSegments(argThat(request -> "MP3".equals(request.getFormat()))))
+                .thenReturn(Flux.just(segment(0, "https://murf.test/0.mp3"), segment(1, "https://murf.test/1.mp3")));
+        SpeechStreamingService service = new SpeechStreamingService(segmentedSpeechService, murfService,
+                audioServer(Map.of("https://murf.test/0.mp3", "first-", "https://murf.test/1.mp3", "second")), audioBlobStore);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long written = service.streamAudio(new SpeechRequest("Hello. World.", "en-US-marcus", 1.0, null), out);
+
+        // Assert
+        assertEquals("first-second", out.toString(StandardCharsets.US_ASCII));
+        assertEquals(12, written);
+    }
+
+    @Test
+    void streamAudio_SkipsSegmentsThatFail() throws Exception {
+        // Arrange
+        passRemoteUrlsThrough();
+        when(segmentedSpeechService.streamSegments(argThat(request -> true))).thenReturn(Flux.just(
+                segment(0, "https://murf.test/0.mp3"),
+                SpeechSegment.failure(1, "World.", "Murf unavailable"),
+                segment(2, "https://murf.test/missing.mp3"),
+                segment(3, "https://murf.test/3.mp3")));
+        SpeechStreamingService service = new SpeechStreamingService(segmentedSpeechService, murfService,
+                audioServer(Map.of("https://murf.test/0.mp3", "first-", "https://murf.test/3.mp3", "last")), audioBlobStore);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        service.streamAudio(new SpeechRequest("Hello. World.", "en-US-marcus", 1.0, null), out);
+
+        // Assert
+        assertEquals("first-last", out.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void streamAudio_FailsWhenNoSegmentHasAudio() {
+        // Arrange
+        when(segmentedSpeechService.streamSegments(argThat(request -> true)))
+                .thenReturn(Flux.just(SpeechSegment.failure(0, "Hello.", "Murf unavailable")));
+        SpeechStreamingService service = new SpeechStreamingService(segmentedSpeechService, murfService, audioServer(Map.of()), audioBlobStore);
+
+        // Act & Assert
+        MurfApiException exception = assertThrows(MurfApiException.class, () -> service.streamAudio(
+                new SpeechRequest("Hello.", "en-US-marcus", 1.0, null), new ByteArrayOutputStream()));
+        assertEquals(HttpStatus.BAD_GATEWAY, exception.getStatusCode());
+    }
+
+    @Test
+    void streamAudio_ReadsLocallyStoredSegmentsFromDisk(@TempDir Path tempDir) throws Exception {
+        // Arrange
+        passRemoteUrlsThrough();
+        Path stored = Files.writeString(tempDir.resolve("0123456789abcdef0123456789abcdef.mp3"), "local-");
+        String localUrl = "/api/v1/audio/" + stored.getFileName();
+        when(segmentedSpeechService.streamSegments(argThat(request -> true)))
+                .thenReturn(Flux.just(segment(0, localUrl), segment(1, "https://murf.test/1.mp3")));
+        when(audioBlobStore.findByUrl(localUrl)).thenReturn(Optional.of(new AudioBlobStore.AudioBlob(
+                stored.getFileName().toString(), stored, Files.size(stored), MediaType.parseMediaType("audio/mpeg"))));
+        SpeechStreamingService service = new SpeechStreamingService(segmentedSpeechService, murfService,
+                audioServer(Map.of("https://murf.test/1.mp3", "remote")), audioBlobStore);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        service.streamAudio(new SpeechRequest("Hello. World.", "en-US-marcus", 1.0, null), out);
+
+        // Assert
+        assertEquals("local-remote", out.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void storeAudio_StoresTheWholeScriptAsOneFile() throws Exception {
+        // Arrange
+        passRemoteUrlsThrough();
+        when(segmentedSpeechService.streamSegments(argThat(request -> "MP3".equals(request.getFormat()))))
+                .thenReturn(Flux.just(segment(0, "https://murf.test/0.mp3"), segment(1, "https://murf.test/1.mp3")));
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        when(audioBlobStore.store(argThat(key -> key.endsWith("|Hello. World.")), eq("mp3"), any())).thenAnswer(invocation -> {
+            invocation.<AudioBlobStore.BlobWriter>getArgument(2).write(stored);
+            return "/api/v1/audio/0123456789abcdef0123456789abcdef.mp3";
+        });
+        SpeechStreamingService service = new SpeechStreamingService(segmentedSpeechService, murfService,
+                audioServer(Map.of("https://murf.test/0.mp3", "first-", "https://murf.test/1.mp3", "second")), audioBlobStore);
+
+        // Act
+        String url = service.storeAudio(new SpeechRequest("Hello. World.", "en-US-marcus", 1.0, "conversational"));
+
+        // Assert
+        assertEquals("/api/v1/audio/0123456789abcdef0123456789abcdef.mp3", url);
+        assertEquals("first-second", stored.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void storeAudio_FailsInsteadOfStoringAGap() throws Exception {
+        // Arrange
+        passRemoteUrlsThrough();
+        when(segmentedSpeechService.streamSegments(argThat(request -> true))).thenReturn(Flux.just(
+                segment(0, "https://murf.test/0.mp3"), SpeechSegment.failure(1, "World.", "Murf unavailable")));
+        when(audioBlobStore.store(any(), eq("mp3"), any())).thenAnswer(invocation -> {
+            invocation.<AudioBlobStore.BlobWriter>getArgument(2).write(new ByteArrayOutputStream());
+            return "/api/v1/audio/0123456789abcdef0123456789abcdef.mp3";
+        });
+        SpeechStreamingService service = new SpeechStreamingService(segmentedSpeechService, murfService,
+                audioServer(Map.of("https://murf.test/0.mp3", "first-")), audioBlobStore);
+
+        // Act & Assert
+        MurfApiException exception = assertThrows(MurfApiException.class,
+                () -> service.storeAudio(new SpeechRequest("Hello. World.", "en-US-marcus", 1.0, null)));
+        assertEquals(HttpStatus.BAD_GATEWAY, exception.getStatusCode());
+    }
+
+    @Test
+    void storeAudioInBackground_SynthesizesTheWholeScriptWhenASegmentFails(@TempDir Path tempDir) throws Exception {
+        // Arrange
+        when(segmentedSpeechService.streamSegments(argThat(request -> true))).thenReturn(Flux.just(
+                segment(0, "https://murf.test/0.mp3"), SpeechSegment.failure(1, "World.", "Murf unavailable")));
+        when(murfService.generateSpeech(argThat((SpeechRequest request) -> "MP3".equals(request.getFormat())
+                && "Hello. World.".equals(request.getText()))))
+                .thenReturn(SpeechResponse.withAudioUrl("https://murf.test/whole.mp3", 2, "en-US-marcus", 1.0));
+        WebClient audioServer = audioServer(Map.of("https://murf.test/0.mp3", "first-", "https://murf.test/whole.mp3", "whole"));
+        AudioBlobStore store = new AudioBlobStore(audioServer, tempDir.toString(), DataSize.ofMegabytes(1), "");
+        SpeechStreamingService service = new SpeechStreamingService(segmentedSpeechService, murfService,
+                audioServer, store, Runnable::run);
+
+        // Act
+        String url = service.storeAudioInBackground(new SpeechRequest("Hello. World.", "en-US-marcus", 1.0, null));
+
+        // Assert
+        assertEquals("whole", Files.readString(store.findByUrl(url).orElseThrow().path()));
+        assertEquals(1, store.getBlobCount());
+    }
+
+    @Test
+    void streamAudio_FetchesEvictedSegmentsFromTheirSource() throws Exception {
+        // Arrange
+        String localUrl = "/api/v1/audio/0123456789abcdef0123456789abcdef.mp3";
+        when(segmentedSpeechService.streamSegments(argThat(request -> true))).thenReturn(Flux.just(segment(0, localUrl)));
+        when(audioBlobStore.findByUrl(localUrl)).thenReturn(Optional.empty());
+        when(audioBlobStore.findSourceByUrl(localUrl)).thenReturn(Optional.of("https://murf.test/0.mp3"));
+        SpeechStreamingService service = new SpeechStreamingService(segmentedSpeechService, murfService,
+                audioServer(Map.of("https://murf.test/0.mp3", "from-murf")), audioBlobStore);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        service.streamAudio(new SpeechRequest("Hello.", "en-US-marcus", 1.0, null), out);
+
+        // Assert
+        assertEquals("from-murf", out.toString(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Remote URLs have no local copy and are their own source, as in the real store
+     */
+    private void passRemoteUrlsThrough() {
+        when(audioBlobStore.findSourceByUrl(argThat(url -> url.startsWith("https://"))))
+                .thenAnswer(invocation -> Optional.of(invocation.getArgument(0)));
+    }
+
+    private static SpeechSegment segment(int index, String audioUrl) {
+        return SpeechSegment.success(index, "Sentence " + index, SpeechResponse.withAudioUrl(audioUrl, 1, "en-US-marcus", 1.0), false);
+    }
+
+    /**
+     * WebClient that serves each URL's body in two chunks, and 404 for unknown URLs
+     */
+    private static WebClient audioServer(Map<String, String> files) {
+        return WebClient.builder().exchangeFunction(request -> {
+            String body = files.get(request.url().toString());
+            if (body == null) {
+                return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+            int half = bytes.length / 2;
+            DefaultDataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header("Content-Type", "audio/mpeg")
+                    .body(Flux.just(factory.wrap(Arrays.copyOfRange(bytes, 0, half)),
+                            factory.wrap(Arrays.copyOfRange(bytes, half, bytes.length))))
+                    .build());
+        }).build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.hackathon.aipresentationbackend.exception.AudioProcessingException;
+import com.hackathon.aipresentationbackend.service.audio.TempFileLeases;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TempFileJanitorTest {
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void sweep_DeletesExpiredFilesButNotLeasedOrRecentOnes() throws IOException {
+        // Arrange
+        TempFileJanitor janitor = janitor(DataSize.ofMegabytes(10), DataSize.ofBytes(0));
+        File expired = createFile("expired.wav", 100, Duration.ofMinutes(45));
+        File leased = createFile("leased.wav", 100, Duration.ofMinutes(45));
+        File recent = createFile("recent.wav", 100, Duration.ofMinutes(5));
+        TempFileLeases.Lease lease = janitor.lease(leased);
+
+        // Act
+        int deleted = janitor.sweep();
+
+        // Assert
+        assertEquals(1, deleted);
+        assertFalse(expired.exists());
+        assertTrue(leased.exists());
+        assertTrue(recent.exists());
+        assertEquals(1, janitor.getFilesReclaimed());
+        assertEquals(100, janitor.getBytesReclaimed());
+
+        lease.close();
+        assertEquals(1, janitor.sweep());
+        assertFalse(leased.exists());
+    }
+
+    @Test
+    void deleteUnleased_KeepsLeasedAndRecentFiles() throws IOException {
+        // Arrange
+        TempFileJanitor janitor = janitor(DataSize.ofMegabytes(10), DataSize.ofBytes(0));
+        File idle = createFile("idle.wav", 100, Duration.ofMinutes(5));
+        File leased = createFile("leased.wav", 100, Duration.ofMinutes(5));
+        File justCreated = createFile("just-created.wav", 100, Duration.ofSeconds(10));
+        janitor.lease(leased);
+
+        // Act
+        int deleted = janitor.deleteUnleased();
+
+        // Assert
+        assertEquals(1, deleted);
+        assertFalse(idle.exists());
+        assertTrue(leased.exists());
+        assertTrue(justCreated.exists());
+    }
+
+    @Test
+    void sweep_OverSizeLimit_EvictsOldestFirst() throws IOException {
+        // Arrange
+        TempFileJanitor janitor = janitor(DataSize.ofBytes(250), DataSize.ofBytes(0));
+        File oldest = createFile("oldest.wav", 100, Duration.ofMinutes(20));
+        File older = createFile("older.wav", 100, Duration.ofMinutes(10));
+        File newest = createFile("newest.wav", 100, Duration.ofMinutes(3));
+
+        // Act
+        int deleted = janitor.sweep();
+
+        // Assert
+        assertEquals(1, deleted);
+        assertFalse(oldest.exists());
+        assertTrue(older.exists());
+        assertTrue(newest.exists());
+    }
+
+    @Test
+    void ensureCapacity_DirectoryFull_ThrowsServiceUnavailable() throws IOException {
+        // Arrange
+        TempFileJanitor janitor = janitor(DataSize.ofBytes(250), DataSize.ofBytes(0));
+        File inUse = createFile("in-use.wav", 200, Duration.ofMinutes(10));
+        janitor.lease(inUse);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> janitor.ensureCapacity(50));
+        AudioProcessingException exception = assertThrows(AudioProcessingException.class,
+                () -> janitor.ensureCapacity(100));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+        assertEquals(1, janitor.getUploadsRejected());
+    }
+
+    @Test
+    void ensureCapacity_SweepFreesSpace_Accepts() throws IOException {
+        // Arrange
+        TempFileJanitor janitor = janitor(DataSize.ofBytes(250), DataSize.ofBytes(0));
+        File stale = createFile("stale.wav", 200, Duration.ofMinutes(10));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> janitor.ensureCapacity(100));
+        assertFalse(stale.exists());
+    }
+
+    @Test
+    void ensureCapacity_CountsRoomReservedForFilesStillBeingWritten() {
+        // Arrange
+        TempFileJanitor janitor = janitor(DataSize.ofBytes(250), DataSize.ofBytes(0));
+        TempFileJanitor.Reservation first = janitor.ensureCapacity(200);
+
+        // Act & Assert - the directory is still empty, but the first file's room is taken
+        assertThrows(AudioProcessingException.class, () -> janitor.ensureCapacity(100));
+        assertEquals(200, janitor.getReservedBytes());
+
+        first.close();
+        first.close();
+        assertEquals(0, janitor.getReservedBytes());
+        try (TempFileJanitor.Reservation second = janitor.ensureCapacity(100)) {
+            assertEquals(100, second.getBytes());
+        }
+        assertEquals(0, janitor.getReservedBytes());
+    }
+
+    @Test
+    void ensureCapacity_VolumeBelowReservedSpace_ThrowsServiceUnavailable() {
+        // Arrange
+        TempFileJanitor janitor = janitor(DataSize.ofGigabytes(1), DataSize.ofBytes(Long.MAX_VALUE));
+
+        // Act & Assert
+        AudioProcessingException exception = assertThrows(AudioProcessingException.class,
+                () -> janitor.ensureCapacity(1));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+    }
+
+    private TempFileJanitor janitor(DataSize maxDirectorySize, DataSize minFreeSpace) {
+        return new TempFileJanitor(tempDir.toString(), Duration.ofMinutes(30), Duration.ofMinutes(2),
+                maxDirectorySize, minFreeSpace, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private File createFile(String name, int bytes, Duration age) throws IOException {
+        File file = Files.write(tempDir.resolve(name), new byte[bytes]).toFile();
+        assertTrue(file.setLastModified(NOW.minus(age).toEpochMilli()));
+        return file;
+    }
+}
@@ -0,0 +1,127 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.hackathon.aipresentationbackend.exception.MurfApiException;
+import com.hackathon.aipresentationbackend.model.SpeechResponse;
+import com.hackathon.aipresentationbackend.model.ToneBatchRequest;
+import com.hackathon.aipresentationbackend.model.ToneBatchResponse;
+import com.hackathon.aipresentationbackend.model.ToneRehearsalRequest;
+import com.hackathon.aipresentationbackend.model.ToneVariationResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ToneRehearsalServiceTest {
+
+    @Mock
+    private MurfService murfService;
+
+    @Test
+    void generateVariations_DefaultsToEveryToneInRequestOrder() {
+        // Arrange
+        when(murfService.generateToneVariation(any(ToneRehearsalRequest.class))).thenAnswer(invocation -> {
+            ToneRehearsalRequest request = invocation.getArgument(0);
+            return SpeechResponse.withAudioUrl("https://murf.ai/" + request.getTone() + ".mp3", 2,
+                    request.getVoiceId(), 1.0);
+        });
+        ToneRehearsalService service = new ToneRehearsalService(murfService, 4);
+
+        // Act
+        ToneBatchResponse response = service.generateVariations(
+                new ToneBatchRequest("Welcome everyone", "en-US-marcus", null));
+
+        // Assert
+        assertEquals(List.of("confident", "conversational", "urgent", "empathetic"),
+                response.getVariations().stream().map(ToneVariationResult::getTone).toList());
+        assertEquals(4, response.getSucceeded());
+        assertEquals("https://murf.ai/urgent.mp3", response.getVariations().get(2).getSpeech().getAudioUrl());
+        verify(murfService, times(4)).generateToneVariation(any(ToneRehearsalRequest.class));
+    }
+
+    @Test
+    void generateVariations_ReportsFailuresWithoutFailingTheBatch() {
+        // Arrange
+        when(murfService.generateToneVariation(any(ToneRehearsalRequest.class))).thenAnswer(invocation -> {
+            ToneRehearsalRequest request = invocation.getArgument(0);
+            if (request.getTone().equals("urgent")) {
+                throw new MurfApiException("Voice does not support tone", HttpStatus.BAD_REQUEST);
+            }
+            return SpeechResponse.withAudioUrl("https://murf.ai/audio.mp3", 2, request.getVoiceId(), 1.0);
+        });
+        ToneRehearsalService service = new ToneRehearsalService(murfService, 2);
+
+        // Act
+        ToneBatchResponse response = service.generateVariations(
+                new ToneBatchRequest("Welcome everyone", "en-US-marcus", List.of("confident", "urgent")));
+
+        // Assert
+        assertEquals(1, response.getSucceeded());
+        ToneVariationResult failed = response.getVariations().get(1);
+        assertFalse(failed.isSuccess());
+        assertNull(failed.getSpeech());
+        assertEquals("Speech could not be generated for this voice and tone", failed.getError());
+    }
+
+    @Test
+    void streamVariations_NeverExceedsTheConcurrencyCap() {
+        // Arrange
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(murfService.generateToneVariation(any(ToneRehearsalRequest.class))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            ToneRehearsalRequest request = invocation.getArgument(0);
+            return SpeechResponse.withAudioUrl("https://murf.ai/audio.mp3", 2, request.getVoiceId(), 1.0);
+        });
+        ToneRehearsalService service = new ToneRehearsalService(murfService, 2);
+        ToneBatchRequest request = new ToneBatchRequest("Welcome everyone", "en-US-marcus", null);
+        request.setVoiceIds(List.of("en-US-julia"));
+
+        // Act
+        List<ToneVariationResult> results = service.streamVariations(request).collectList().block();
+
+        // Assert
+        assertNotNull(results);
+        assertEquals(8, results.size());
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    void streamVariations_ConcurrentBatchesShareTheConcurrencyCap() {
+        // Arrange
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(murfService.generateToneVariation(any(ToneRehearsalRequest.class))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            ToneRehearsalRequest request = invocation.getArgument(0);
+            return SpeechResponse.withAudioUrl("https://murf.ai/audio.mp3", 2, request.getVoiceId(), 1.0);
+        });
+        ToneRehearsalService service = new ToneRehearsalService(murfService, 2);
+
+        // Act
+        List<ToneVariationResult> results = Flux.merge(
+                        service.streamVariations(new ToneBatchRequest("Welcome everyone", "en-US-marcus", null)),
+                        service.streamVariations(new ToneBatchRequest("Thank you all", "en-US-julia", null)),
+                        service.streamVariations(new ToneBatchRequest("Let's begin", "en-UK-emily", null)))
+                .collectList()
+                .block();
+
+        // Assert
+        assertNotNull(results);
+        assertEquals(12, results.size());
+        assertEquals(2, maxInFlight.get());
+    }
+}
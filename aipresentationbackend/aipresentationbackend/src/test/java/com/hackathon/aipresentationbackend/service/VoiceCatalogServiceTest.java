@@ -0,0 +1,130 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.model.ToneType;
+import com.hackathon.aipresentationbackend.model.VoiceOption;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoiceCatalogServiceTest {
+
+    @Mock
+    private WebClient webClient;
+
+    @Mock
+    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
+
+    @Mock
+    private WebClient.RequestHeadersSpec requestHeadersSpec;
+
+    @Mock
+    private WebClient.ResponseSpec responseSpec;
+
+    private VoiceCatalogService voiceCatalogService;
+
+    @BeforeEach
+    void setUp() {
+        voiceCatalogService = new VoiceCatalogService(webClient, new ObjectMapper(), "test-api-key",
+                new ClassPathResource("voices/murf-voices.json"));
+    }
+
+    @Test
+    void bundledCatalog_IsIndexedBeforeAnyRefresh() {
+        // Act & Assert
+        assertEquals(6, voiceCatalogService.getVoices().size());
+        assertEquals("Marcus", voiceCatalogService.findById("en-US-marcus").orElseThrow().getName());
+        assertEquals("en-UK-emily", voiceCatalogService.findByName("EMILY").orElseThrow().getVoiceId());
+        assertEquals(5, voiceCatalogService.findByTone("Confident").size());
+        assertEquals(3, voiceCatalogService.findByGender("female").size());
+        assertEquals(2, voiceCatalogService.findByAccent("British").size());
+        assertTrue(voiceCatalogService.findByTone("angry").isEmpty());
+        assertTrue(voiceCatalogService.voiceSupportsTone("en-US-marcus", "urgent"));
+        assertFalse(voiceCatalogService.voiceSupportsTone("en-US-marcus", "empathetic"));
+        assertFalse(voiceCatalogService.voiceSupportsTone("missing", "urgent"));
+        verifyNoInteractions(webClient);
+    }
+
+    @Test
+    void findByTone_ToneType_UsesPrecomputedIndexForEveryTone() {
+        // Act
+        List<VoiceOption> urgent = voiceCatalogService.findByTone(ToneType.URGENT);
+
+        // Assert
+        assertEquals(List.of("Marcus", "Thomas", "Alex"), urgent.stream().map(VoiceOption::getName).toList());
+        assertSame(urgent, voiceCatalogService.findByTone(ToneType.URGENT));
+        assertThrows(UnsupportedOperationException.class, () -> urgent.add(urgent.get(0)));
+        for (ToneType tone : ToneType.values()) {
+            assertFalse(voiceCatalogService.findByTone(tone).isEmpty());
+        }
+        assertTrue(voiceCatalogService.findByTone((ToneType) null).isEmpty());
+    }
+
+    @Test
+    void refresh_MurfReturnsVoices_ReplacesCatalog() {
+        // Arrange
+        stubVoicesResponse(Mono.just("""
+                [
+                  {"voiceId": "en-US-natalie", "displayName": "Natalie (F)", "gender": "Female",
+                   "accent": "US & Canada", "availableStyles": ["Promo", "Sad", "Conversational", "Narration"]},
+                  {"voiceId": "en-US-marcus", "displayName": "Marcus (M)", "gender": "Male",
+                   "accent": "American", "availableStyles": ["Wizard"]},
+                  {"displayName": "No id"}
+                ]
+                """));
+
+        // Act
+        boolean refreshed = voiceCatalogService.refresh();
+
+        // Assert
+        assertTrue(refreshed);
+        List<VoiceOption> voices = voiceCatalogService.getVoices();
+        assertEquals(2, voices.size());
+        VoiceOption natalie = voiceCatalogService.findById("en-US-natalie").orElseThrow();
+        assertEquals("Natalie", natalie.getName());
+        assertEquals(List.of("urgent", "conversational"), natalie.getSupportedTones());
+        assertEquals(List.of(natalie), voiceCatalogService.findByAccent("us & canada"));
+        assertTrue(voiceCatalogService.findById("en-UK-emily").isEmpty());
+        assertTrue(voiceCatalogService.findByTone(ToneType.CONVERSATIONAL).contains(natalie));
+        assertTrue(voiceCatalogService.findByTone("promo").isEmpty());
+        assertEquals(List.of("confident", "conversational", "urgent"),
+                voiceCatalogService.findById("en-US-marcus").orElseThrow().getSupportedTones());
+        assertEquals(List.of("Marcus"), voiceCatalogService.findByTone(ToneType.CONFIDENT).stream().map(VoiceOption::getName).toList());
+    }
+
+    @Test
+    void refresh_MurfUnavailable_KeepsCurrentCatalog() {
+        // Arrange
+        stubVoicesResponse(Mono.error(new IllegalStateException("connection refused")));
+
+        // Act
+        boolean refreshed = voiceCatalogService.refresh();
+
+        // Assert
+        assertFalse(refreshed);
+        assertEquals(6, voiceCatalogService.getVoices().size());
+    }
+
+    private void stubVoicesResponse(Mono<String> body) {
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.header(anyString(), anyString())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.accept(any(MediaType.class))).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(String.class)).thenReturn(body);
+    }
+}
@@ -0,0 +1,273 @@
+package com.hackathon.aipresentationbackend.service.admission;
+
+import com.hackathon.aipresentationbackend.exception.RateLimitException;
+import com.hackathon.aipresentationbackend.service.AudioProcessingService;
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import com.hackathon.aipresentationbackend.service.admission.AdmissionService.Cost;
+import com.hackathon.aipresentationbackend.service.admission.AdmissionService.Permit;
+import com.hackathon.aipresentationbackend.service.admission.AdmissionService.Priority;
+import com.hackathon.aipresentationbackend.service.admission.AdmissionService.PriorityClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AdmissionServiceTest {
+
+    @Mock
+    private AudioProcessingService audioProcessingService;
+
+    private SimpleMeterRegistry registry;
+    private MutableClock clock;
+    private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+    private final List<Thread> waiting = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+    }
+
+    @Test
+    void admit_EstimatesCostFromRecordingLengthAndScriptWords() {
+        // Arrange
+        AdmissionService admission = newService(1);
+        MockMultipartFile recording = new MockMultipartFile("audioFile", "talk.wav", "audio/wav", new byte[10]);
+        when(audioProcessingService.estimateDurationMillis(recording)).thenReturn(30 * 60_000L);
+
+        // Act
+        Cost clip = admission.estimate(90_000, "Good morning everyone");
+        Cost talk = admission.estimate(8 * 60_000, "word ".repeat(2000));
+        Permit permit = admission.admit("ada", recording, "word ".repeat(500));
+
+        // Assert
+        assertEquals(Priority.SHORT, clip.priority());
+        assertEquals(3, clip.scriptWords());
+        assertEquals(Duration.ofMillis(10_000 + 22_500 + 30), clip.estimate());
+        assertEquals(Priority.STANDARD, talk.priority());
+        assertEquals(Duration.ofSeconds(10 + 120 + 20), talk.estimate());
+        assertEquals(1, admission.getRunning());
+        permit.close();
+        permit.close();
+        assertEquals(0, admission.getRunning());
+    }
+
+    @Test
+    void admit_StartsShortRecordingsAheadOfLongOnesWithoutStarvingThem() throws Exception {
+        // Arrange
+        AdmissionService admission = newService(1);
+        Permit holder = admission.admit("ada", cost(Priority.LONG, 1));
+        queue(admission, "grace", cost(Priority.LONG, 1), "long-1", Priority.LONG, 1);
+        for (int i = 1; i <= 4; i++) {
+            queue(admission, "linus", cost(Priority.SHORT, 1), "short-" + i, Priority.SHORT, i);
+        }
+
+        // Act
+        holder.close();
+        awaitWaiting();
+
+        // Assert
+        assertEquals(List.of("short-1", "short-2", "short-3", "long-1", "short-4"), started);
+        assertEquals(0, admission.getRunning());
+    }
+
+    @Test
+    void admit_TakesTurnsBetweenUsersWithinAClass() throws Exception {
+        // Arrange
+        AdmissionService admission = newService(1);
+        Permit holder = admission.admit("ada", cost(Priority.STANDARD, 1));
+        queue(admission, "grace", cost(Priority.STANDARD, 1), "grace-1", Priority.STANDARD, 1);
+        queue(admission, "grace", cost(Priority.STANDARD, 1), "grace-2", Priority.STANDARD, 2);
+        queue(admission, "grace", cost(Priority.STANDARD, 1), "grace-3", Priority.STANDARD, 3);
+        queue(admission, "linus", cost(Priority.STANDARD, 1), "linus-1", Priority.STANDARD, 4);
+
+        // Act
+        holder.close();
+        awaitWaiting();
+
+        // Assert
+        assertEquals(List.of("grace-1", "linus-1", "grace-2", "grace-3"), started);
+    }
+
+    @Test
+    void admit_ShedsLoadWhenTheEstimatedWaitIsOverTheClassLimit() throws Exception {
+        // Arrange
+        AdmissionService admission = newService(1);
+        Permit holder = admission.admit("ada", cost(Priority.LONG, 75));
+
+        // Act
+        RateLimitException shed = assertThrows(RateLimitException.class,
+                () -> admission.admit("grace", cost(Priority.SHORT, 5)));
+        clock.advance(Duration.ofSeconds(50));
+        queue(admission, "grace", cost(Priority.SHORT, 5), "short", Priority.SHORT, 1);
+        double queuedSeconds = registry.get("presentation.admission.queue.work").tag("priority", "short").gauge().value();
+        holder.close();
+        awaitWaiting();
+
+        // Assert
+        assertEquals("OVERLOADED", shed.getErrorCode());
+        assertEquals(Duration.ofSeconds(45), shed.getRetryAfter());
+        assertEquals(1, registry.get("presentation.admission.shed").tag("priority", "short").counter().count());
+        assertEquals(5.0, queuedSeconds);
+        assertEquals(List.of("short"), started);
+        assertEquals(0, registry.get("presentation.admission.queue").tag("priority", "short").gauge().value());
+    }
+
+    @Test
+    void admit_KeepsReservedSlotsForShortRecordings() throws Exception {
+        // Arrange
+        AdmissionService admission = newService(2, 1, Duration.ofSeconds(30));
+        Permit longRunning = admission.admit("ada", cost(Priority.LONG, 300));
+        queue(admission, "grace", cost(Priority.LONG, 300), "long", Priority.LONG, 1);
+
+        // Act
+        Permit shortRunning = admission.admit("linus", cost(Priority.SHORT, 5));
+
+        // Assert
+        assertEquals(2, admission.getRunning());
+        assertEquals(1, admission.getQueueDepth(Priority.LONG));
+        shortRunning.close();
+        assertEquals(1, admission.getQueueDepth(Priority.LONG));
+        longRunning.close();
+        awaitWaiting();
+        assertEquals(List.of("long"), started);
+    }
+
+    @Test
+    void admit_EstimatesTheWaitFromTheSlotThatFreesFirst() throws Exception {
+        // Arrange
+        AdmissionService admission = newService(2);
+        Permit longRunning = admission.admit("ada", cost(Priority.LONG, 900));
+        Permit shortRunning = admission.admit("grace", cost(Priority.SHORT, 5));
+
+        // Act
+        queue(admission, "linus", cost(Priority.SHORT, 5), "short", Priority.SHORT, 1);
+        shortRunning.close();
+        awaitWaiting();
+
+        // Assert
+        assertEquals(List.of("short"), started);
+        assertTrue(registry.find("presentation.admission.shed").meters().isEmpty());
+        longRunning.close();
+    }
+
+    @Test
+    void admit_GivesUpOnceTheClassLimitHasPassedWithoutStarting() {
+        // Arrange
+        AdmissionService admission = newService(1, 0, Duration.ofMillis(200));
+        Permit holder = admission.admit("ada", cost(Priority.SHORT, 0));
+
+        // Act
+        RateLimitException shed = assertThrows(RateLimitException.class,
+                () -> admission.admit("grace", cost(Priority.SHORT, 0)));
+
+        // Assert
+        assertEquals("OVERLOADED", shed.getErrorCode());
+        assertEquals(0, admission.getQueueDepth(Priority.SHORT));
+        assertEquals(1, registry.get("presentation.admission.shed").tag("priority", "short").counter().count());
+        holder.close();
+        assertEquals(0, admission.getRunning());
+    }
+
+    @Test
+    void admit_AdmitsEverythingWhenTurnedOff() {
+        // Arrange
+        AdmissionService admission = newService(0);
+
+        // Act
+        Permit first = admission.admit("ada", cost(Priority.LONG, 600));
+        Permit second = admission.admit("ada", cost(Priority.LONG, 600));
+
+        // Assert
+        assertFalse(admission.isEnabled());
+        assertEquals(0, admission.getRunning());
+        assertTrue(registry.find("presentation.admission.queue").meters().isEmpty());
+        first.close();
+        second.close();
+    }
+
+    private AdmissionService newService(int maxConcurrent) {
+        return newService(maxConcurrent, 0, Duration.ofSeconds(30));
+    }
+
+    private AdmissionService newService(int maxConcurrent, int reservedShortSlots, Duration shortMaxWait) {
+        AdmissionService.Settings settings = new AdmissionService.Settings(maxConcurrent, reservedShortSlots, 10,
+                Duration.ofSeconds(10), Duration.ofSeconds(15), Duration.ofSeconds(10), Duration.ofMinutes(5),
+                Duration.ofMinutes(20), Map.of(
+                Priority.SHORT, new PriorityClass(shortMaxWait, 3),
+                Priority.STANDARD, new PriorityClass(Duration.ofMinutes(2), 2),
+                Priority.LONG, new PriorityClass(Duration.ofMinutes(10), 1)));
+        return new AdmissionService(audioProcessingService, new PipelineMetrics(registry), settings, clock);
+    }
+
+    private static Cost cost(Priority priority, int seconds) {
+        return new Cost(priority, 0, 0, Duration.ofSeconds(seconds));
+    }
+
+    /**
+     * Requests admission on another thread, which records its name once started and finishes straight away,
+     * and returns once the request is waiting in its class's queue
+     */
+    private void queue(AdmissionService admission, String userId, Cost cost, String name, Priority priority,
+                       int expectedDepth) throws InterruptedException {
+        Thread thread = new Thread(() -> {
+            try (Permit permit = admission.admit(userId, cost)) {
+                started.add(name);
+            }
+        });
+        thread.start();
+        waiting.add(thread);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (admission.getQueueDepth(priority) < expectedDepth) {
+            assertTrue(System.currentTimeMillis() < deadline, name + " was never queued");
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitWaiting() throws InterruptedException {
+        for (Thread thread : waiting) {
+            thread.join(5000);
+            assertFalse(thread.isAlive());
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
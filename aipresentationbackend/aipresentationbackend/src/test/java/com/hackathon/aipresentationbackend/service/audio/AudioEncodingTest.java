@@ -0,0 +1,72 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks what each upload encoding costs in bytes for a rehearsal, which is what decides its upload time.
+ * Encoding speed is measured by the JMH benchmarks.
+ */
+class AudioEncodingTest {
+    private static final int RATE = SpeechAudioTranscoder.SPEECH_SAMPLE_RATE;
+    private static final int CHUNK = 8192;
+    private static final int SECONDS = 60;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void flacUploadIsUnderSixtyPercentOfWav() throws Exception {
+        // Arrange
+        short[] rehearsal = synthesizeSpeech(SECONDS);
+
+        // Act
+        long wavBytes = encode(AudioEncoding.WAV, rehearsal);
+        long flacBytes = encode(AudioEncoding.FLAC, rehearsal);
+
+        // Assert
+        assertEquals(WavFileWriter.HEADER_BYTES + 2L * SECONDS * RATE, wavBytes);
+        // The noise floor limits how far lossless coding can go; this rehearsal comes out at about 55%
+        assertTrue(flacBytes < wavBytes * 0.6, "FLAC " + flacBytes + " bytes, WAV " + wavBytes + " bytes");
+    }
+
+    private long encode(AudioEncoding encoding, short[] samples) throws Exception {
+        Path target = tempDir.resolve("rehearsal" + encoding.getExtension());
+        try (AudioFileWriter writer = encoding.open(target, RATE)) {
+            for (int offset = 0; offset < samples.length; offset += CHUNK) {
+                writer.write(samples, offset, Math.min(CHUNK, samples.length - offset));
+            }
+            writer.finish();
+            assertEquals(Files.size(target), writer.getFileBytes());
+            return writer.getFileBytes();
+        }
+    }
+
+    /**
+     * Synthesizes speech-like audio: a wandering pitch with formant harmonics, syllable-rate
+     * amplitude modulation, pauses between phrases and a low noise floor
+     */
+    private static short[] synthesizeSpeech(int seconds) {
+        Random random = new Random(seconds);
+        short[] samples = new short[seconds * RATE];
+        double phase = 0;
+        double pitch = 140;
+        for (int i = 0; i < samples.length; i++) {
+            double time = (double) i / RATE;
+            boolean inPhrase = time % 6.0 < 4.5;
+            pitch += (random.nextDouble() - 0.5) * 0.05;
+            pitch = Math.max(90, Math.min(220, pitch));
+            phase += 2 * Math.PI * pitch / RATE;
+            double syllable = 0.5 + 0.5 * Math.sin(2 * Math.PI * 4.5 * time);
+            double voiced = Math.sin(phase) + 0.6 * Math.sin(3 * phase) + 0.3 * Math.sin(7 * phase);
+            samples[i] = (short) ((inPhrase ? syllable * voiced * 5000 : 0) + random.nextGaussian() * 30);
+        }
+        return samples;
+    }
+}
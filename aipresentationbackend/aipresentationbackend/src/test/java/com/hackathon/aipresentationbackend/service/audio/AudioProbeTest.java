@@ -0,0 +1,319 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioProbeTest {
+
+    private final AudioProbe probe = new AudioProbe();
+
+    @Test
+    void wav_ReadsFormatAndDuration() throws Exception {
+        AudioFormat format = new AudioFormat(44100, 16, 2, true, false);
+        byte[] pcm = new byte[44100 * 4 * 3];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(pcm), format, 44100 * 3),
+                AudioFileFormat.Type.WAVE, out);
+
+        AudioInfo info = probe(out.toByteArray());
+
+        assertEquals("WAV", info.getContainer());
+        assertEquals("PCM", info.getCodec());
+        assertEquals(3_000_000, info.getDurationMicros());
+        assertEquals(44100, info.getSampleRate());
+        assertEquals(2, info.getChannels());
+        assertEquals(16, info.getBitsPerSample());
+    }
+
+    @Test
+    void wav_StreamingHeaderUsesFileSize() throws Exception {
+        ByteBuffer wav = ByteBuffer.allocate(44 + 32000).order(ByteOrder.LITTLE_ENDIAN);
+        wav.put(ascii("RIFF")).putInt(-1).put(ascii("WAVEfmt ")).putInt(16)
+                .putShort((short) 1).putShort((short) 1).putInt(16000).putInt(32000)
+                .putShort((short) 2).putShort((short) 16)
+                .put(ascii("data")).putInt(-1);
+
+        AudioInfo info = probe(wav.array());
+
+        assertEquals(1_000_000, info.getDurationMicros());
+    }
+
+    @Test
+    void mp3_ConstantBitrateDurationFromFileSize() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(id3Tag(100));
+        for (int frame = 0; frame < 100; frame++) {
+            out.write(mp3Frame(new byte[0]));
+        }
+
+        AudioInfo info = probe(out.toByteArray());
+
+        assertEquals("MP3", info.getContainer());
+        assertEquals(44100, info.getSampleRate());
+        assertEquals(2, info.getChannels());
+        // 100 frames of 417 bytes at 128 kbps
+        assertEquals(41_700L * 8_000 / 128, info.getDurationMicros());
+    }
+
+    @Test
+    void mp3_XingHeaderGivesExactDuration() throws Exception {
+        ByteBuffer xing = ByteBuffer.allocate(32 + 12);
+        xing.position(32);
+        xing.put(ascii("Xing")).putInt(1).putInt(500);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(mp3Frame(xing.array()));
+        out.write(mp3Frame(new byte[0]));
+
+        AudioInfo info = probe(out.toByteArray());
+
+        assertEquals(500L * 1152 * 1_000_000 / 44100, info.getDurationMicros());
+    }
+
+    @Test
+    void m4a_MoovAfterLargeMdatIsFoundWithoutReadingPayload() throws Exception {
+        byte[] stsdEntry = ByteBuffer.allocate(36)
+                .putInt(36).put(ascii("mp4a")).put(new byte[6]).putShort((short) 1)
+                .put(new byte[8]).putShort((short) 2).putShort((short) 16).putInt(0)
+                .putInt(44100 << 16).array();
+        byte[] stsd = concat(fullBoxHeader(0), ByteBuffer.allocate(4).putInt(1).array(), stsdEntry);
+        byte[] trak = box("trak", box("mdia",
+                box("mdhd", timing(44100, 44100 * 5)),
+                box("hdlr", concat(new byte[8], ascii("soun"), new byte[12])),
+                box("minf", box("stbl", box("stsd", stsd)))));
+        byte[] moov = box("moov", box("mvhd", timing(1000, 5000)), trak);
+        byte[] file = concat(box("ftyp", concat(ascii("M4A "), new byte[4])),
+                box("mdat", new byte[8 * 1024 * 1024]), moov);
+
+        CountingInputStream input = new CountingInputStream(new ByteArrayInputStream(file));
+        AudioInfo info;
+        try (ForwardOnlyChannel channel = new ForwardOnlyChannel(input, file.length)) {
+            info = probe.probe(channel);
+        }
+
+        assertEquals("M4A", info.getContainer());
+        assertEquals("mp4a", info.getCodec());
+        assertEquals(5_000_000, info.getDurationMicros());
+        assertEquals(44100, info.getSampleRate());
+        assertEquals(2, info.getChannels());
+        assertTrue(input.bytesRead < 32 * 1024, "Read " + input.bytesRead + " bytes");
+    }
+
+    @Test
+    void webm_ReadsDurationFromSegmentInfo() throws Exception {
+        byte[] file = concat(ebmlHeader(),
+                ebml(0x18538067, true,
+                        ebml(0x1549A966, false,
+                                ebml(0x2AD7B1, false, new byte[]{0x0F, 0x42, 0x40}),
+                                ebml(0x4489, false, ByteBuffer.allocate(8).putDouble(12345.0).array())),
+                        audioTracks(),
+                        ebml(0x1F43B675, true, ebml(0xE7, false, new byte[]{0}))));
+
+        AudioInfo info = probe(file);
+
+        assertEquals("WEBM", info.getContainer());
+        assertEquals("A_OPUS", info.getCodec());
+        assertEquals(12_345_000, info.getDurationMicros());
+        assertEquals(48000, info.getSampleRate());
+        assertEquals(1, info.getChannels());
+    }
+
+    @Test
+    void webm_WithoutDurationUsesLastBlockTimecode() throws Exception {
+        // Browser MediaRecorder output: unknown-size segment and clusters, no Duration element
+        byte[] file = concat(ebmlHeader(),
+                ebml(0x18538067, true,
+                        ebml(0x1549A966, false, ebml(0x2AD7B1, false, new byte[]{0x0F, 0x42, 0x40})),
+                        audioTracks(),
+                        ebml(0x1F43B675, true,
+                                ebml(0xE7, false, new byte[]{0}),
+                                simpleBlock(0), simpleBlock(980)),
+                        ebml(0x1F43B675, true,
+                                ebml(0xE7, false, new byte[]{0x07, (byte) 0xD0}),
+                                simpleBlock(0), simpleBlock(980))));
+
+        AudioInfo info = probe(file);
+
+        assertEquals(2_980_000, info.getDurationMicros());
+    }
+
+    @Test
+    void webm_WithoutDurationEstimatesFromTheFirstClustersOfALongFile() throws Exception {
+        // A minute of one-second clusters of the same size, of which only about the first two are read
+        ByteArrayOutputStream clusters = new ByteArrayOutputStream();
+        for (int second = 0; second < 60; second++) {
+            clusters.writeBytes(ebml(0x1F43B675, true,
+                    ebml(0xE7, false, ByteBuffer.allocate(4).putInt(second * 1000).array()),
+                    simpleBlock(0), simpleBlock(250), simpleBlock(500), simpleBlock(750)));
+        }
+        byte[] file = concat(ebmlHeader(),
+                ebml(0x18538067, true,
+                        ebml(0x1549A966, false, ebml(0x2AD7B1, false, new byte[]{0x0F, 0x42, 0x40})),
+                        audioTracks(),
+                        clusters.toByteArray()));
+        int clusterBytes = clusters.size() / 60;
+        CountingInputStream input = new CountingInputStream(new ByteArrayInputStream(file));
+
+        AudioInfo info;
+        try (ForwardOnlyChannel channel = new ForwardOnlyChannel(input, file.length)) {
+            info = new AudioProbe(2L * clusterBytes).probe(channel);
+        }
+
+        assertEquals(60_000_000, info.getDurationMicros(), 1_000_000);
+        assertTrue(input.bytesRead < file.length / 2, "Read " + input.bytesRead + " of " + file.length + " bytes");
+    }
+
+    @Test
+    void webm_SkipsOversizedStringElements() throws Exception {
+        byte[] file = concat(ebmlHeader(),
+                ebml(0x18538067, true,
+                        ebml(0x1549A966, false,
+                                ebml(0x2AD7B1, false, new byte[]{0x0F, 0x42, 0x40}),
+                                ebml(0x4489, false, ByteBuffer.allocate(8).putDouble(1000.0).array())),
+                        ebml(0x1654AE6B, false,
+                                ebml(0xAE, false,
+                                        ebml(0xD7, false, new byte[]{1}),
+                                        ebml(0x83, false, new byte[]{2}),
+                                        ebml(0x86, false, new byte[20_000]))),
+                        ebml(0x1F43B675, true, ebml(0xE7, false, new byte[]{0}))));
+
+        AudioInfo info = probe(file);
+
+        assertNull(info.getCodec());
+        assertEquals(1_000_000, info.getDurationMicros());
+    }
+
+    @Test
+    void unknownContainer_Throws() {
+        assertThrows(UnsupportedAudioFileException.class,
+                () -> probe("definitely not an audio file".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private AudioInfo probe(byte[] file) throws Exception {
+        try (ForwardOnlyChannel channel = new ForwardOnlyChannel(new ByteArrayInputStream(file), file.length)) {
+            return probe.probe(channel);
+        }
+    }
+
+    private static byte[] id3Tag(int bodyBytes) {
+        byte[] tag = new byte[10 + bodyBytes];
+        System.arraycopy(ascii("ID3"), 0, tag, 0, 3);
+        tag[3] = 4;
+        tag[9] = (byte) bodyBytes;
+        return tag;
+    }
+
+    /**
+     * A 417-byte MPEG-1 Layer III frame at 128 kbps, 44.1 kHz joint stereo, starting with the given payload
+     */
+    private static byte[] mp3Frame(byte[] payload) {
+        byte[] frame = new byte[417];
+        ByteBuffer.wrap(frame).putInt(0xFFFB9044);
+        System.arraycopy(payload, 0, frame, 4, payload.length);
+        return frame;
+    }
+
+    private static byte[] timing(int timescale, int duration) {
+        return ByteBuffer.allocate(20).putInt(0).putInt(0).putInt(0).putInt(timescale).putInt(duration).array();
+    }
+
+    private static byte[] fullBoxHeader(int version) {
+        return new byte[]{(byte) version, 0, 0, 0};
+    }
+
+    private static byte[] box(String type, byte[]... children) {
+        byte[] body = concat(children);
+        return concat(ByteBuffer.allocate(8).putInt(8 + body.length).put(ascii(type)).array(), body);
+    }
+
+    private static byte[] ebmlHeader() {
+        return ebml(0x1A45DFA3, false, ebml(0x4286, false, new byte[]{1}), ebml(0x4282, false, ascii("webm")));
+    }
+
+    private static byte[] audioTracks() {
+        return ebml(0x1654AE6B, false,
+                ebml(0xAE, false,
+                        ebml(0xD7, false, new byte[]{1}),
+                        ebml(0x83, false, new byte[]{2}),
+                        ebml(0x86, false, ascii("A_OPUS")),
+                        ebml(0xE1, false,
+                                ebml(0xB5, false, ByteBuffer.allocate(8).putDouble(48000.0).array()),
+                                ebml(0x9F, false, new byte[]{1}))));
+    }
+
+    private static byte[] simpleBlock(int relativeTimecode) {
+        return ebml(0xA3, false, concat(new byte[]{(byte) 0x81},
+                ByteBuffer.allocate(2).putShort((short) relativeTimecode).array(), new byte[]{(byte) 0x80}, new byte[200]));
+    }
+
+    /**
+     * Encodes an EBML element with an 8-byte size field, or the reserved unknown size
+     */
+    private static byte[] ebml(int id, boolean unknownSize, byte[]... children) {
+        byte[] body = concat(children);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            if ((id >>> shift) != 0) {
+                out.write(id >>> shift);
+            }
+        }
+        ByteBuffer size = ByteBuffer.allocate(8).putLong(unknownSize ? 0x00FFFFFFFFFFFFFFL : body.length);
+        byte[] sizeBytes = size.array();
+        sizeBytes[0] = 0x01;
+        out.writeBytes(sizeBytes);
+        out.writeBytes(body);
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long bytesRead;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                bytesRead++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                bytesRead += read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlacFileWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTripsSpeechLikeAudioLosslessly() throws Exception {
+        short[] samples = speechLike(16000 * 5 + 1234);
+
+        byte[] flac = encode(samples);
+        DecodedFlac decoded = decode(flac);
+
+        assertEquals(16000, decoded.sampleRate);
+        assertEquals(samples.length, decoded.totalSamples);
+        assertArrayEquals(samples, decoded.samples);
+        assertArrayEquals(md5(samples), decoded.md5);
+        // Lossless speech should come out well under the 16-bit PCM size
+        assertTrue(flac.length < samples.length * 2 * 0.7, "FLAC size " + flac.length);
+    }
+
+    @Test
+    void roundTripsSilenceNoiseAndFullScaleBlocks() throws Exception {
+        Random random = new Random(7);
+        short[] samples = new short[FlacFileWriter.BLOCK_SIZE * 3 + 17];
+        for (int i = FlacFileWriter.BLOCK_SIZE; i < samples.length; i++) {
+            // White noise, then full-scale square waves that stress the predictors
+            samples[i] = i < 2 * FlacFileWriter.BLOCK_SIZE
+                    ? (short) random.nextInt(65536)
+                    : (i / 3 % 2 == 0 ? Short.MAX_VALUE : Short.MIN_VALUE);
+        }
+
+        DecodedFlac decoded = decode(encode(samples));
+
+        assertArrayEquals(samples, decoded.samples);
+    }
+
+    @Test
+    void shortStreamIsSingleFrame() throws Exception {
+        short[] samples = speechLike(100);
+
+        byte[] flac = encode(samples);
+        DecodedFlac decoded = decode(flac);
+
+        assertArrayEquals(samples, decoded.samples);
+        assertEquals(1, decoded.frames);
+    }
+
+    private byte[] encode(short[] samples) throws Exception {
+        Path target = tempDir.resolve("audio.flac");
+        try (FlacFileWriter writer = new FlacFileWriter(target, 16000)) {
+            for (int offset = 0; offset < samples.length; offset += 1000) {
+                writer.write(samples, offset, Math.min(1000, samples.length - offset));
+            }
+            writer.finish();
+            assertEquals(Files.size(target), writer.getFileBytes());
+        }
+        return Files.readAllBytes(target);
+    }
+
+    private static short[] speechLike(int length) {
+        Random random = new Random(length);
+        short[] samples = new short[length];
+        for (int i = 0; i < length; i++) {
+            double envelope = 0.5 + 0.5 * Math.sin(2 * Math.PI * 4 * i / 16000.0);
+            double voiced = Math.sin(2 * Math.PI * 140 * i / 16000.0) + 0.5 * Math.sin(2 * Math.PI * 280 * i / 16000.0)
+                    + 0.25 * Math.sin(2 * Math.PI * 700 * i / 16000.0);
+            samples[i] = (short) (envelope * voiced * 6000 + random.nextGaussian() * 40);
+        }
+        return samples;
+    }
+
+    private static byte[] md5(short[] samples) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (short sample : samples) {
+            bytes.write(sample);
+            bytes.write(sample >> 8);
+        }
+        return MessageDigest.getInstance("MD5").digest(bytes.toByteArray());
+    }
+
+    /**
+     * Minimal decoder for the subset of FLAC the writer produces, checking both frame CRCs
+     */
+    private static DecodedFlac decode(byte[] data) {
+        BitReader in = new BitReader(data);
+        assertEquals("fLaC", new String(data, 0, 4));
+        in.skip(32);
+        assertEquals(1, in.read(1), "STREAMINFO should be the last metadata block");
+        assertEquals(0, in.read(7));
+        assertEquals(34, in.read(24));
+        in.skip(16 + 16 + 24 + 24);
+        DecodedFlac result = new DecodedFlac();
+        result.sampleRate = (int) in.read(20);
+        assertEquals(0, in.read(3));
+        assertEquals(15, in.read(5));
+        result.totalSamples = in.read(36);
+        result.md5 = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            result.md5[i] = (byte) in.read(8);
+        }
+
+        short[] samples = new short[(int) result.totalSamples];
+        int decoded = 0;
+        while (in.position() < data.length) {
+            int frameStart = in.position();
+            assertEquals(0b11111111111110, in.read(14));
+            in.skip(2);
+            int sizeCode = (int) in.read(4);
+            in.skip(4 + 4 + 3 + 1);
+            int first = (int) in.read(8);
+            int extraBytes = Integer.numberOfLeadingZeros(~(first << 24));
+            in.skip(8 * Math.max(0, extraBytes - 1));
+            int blockSize = sizeCode == 0b1100 ? 4096 : (int) in.read(16) + 1;
+            int headerCrc = (int) in.read(8);
+            assertEquals(crc8(data, frameStart, in.position() - 1), headerCrc);
+
+            int[] block = new int[blockSize];
+            assertEquals(0, in.read(1));
+            int type = (int) in.read(6);
+            assertEquals(0, in.read(1));
+            if (type == 0) {
+                Arrays.fill(block, in.readSigned(16));
+            } else if (type == 1) {
+                for (int i = 0; i < blockSize; i++) {
+                    block[i] = in.readSigned(16);
+                }
+            } else {
+                int order = type & 0b111;
+                for (int i = 0; i < order; i++) {
+                    block[i] = in.readSigned(16);
+                }
+                assertEquals(0, in.read(2));
+                int partitionOrder = (int) in.read(4);
+                int partitionSize = blockSize >> partitionOrder;
+                for (int partition = 0, i = order; partition < (1 << partitionOrder); partition++) {
+                    int parameter = (int) in.read(4);
+                    for (int end = (partition + 1) * partitionSize; i < end; i++) {
+                        int quotient = 0;
+                        while (in.read(1) == 0) {
+                            quotient++;
+                        }
+                        int value = (quotient << parameter) | (int) in.read(parameter);
+                        block[i] = (value >>> 1) ^ -(value & 1);
+                    }
+                }
+                for (int i = order; i < blockSize; i++) {
+                    block[i] += switch (order) {
+                        case 0 -> 0;
+                        case 1 -> block[i - 1];
+                        case 2 -> 2 * block[i - 1] - block[i - 2];
+                        case 3 -> 3 * block[i - 1] - 3 * block[i - 2] + block[i - 3];
+                        default -> 4 * block[i - 1] - 6 * block[i - 2] + 4 * block[i - 3] - block[i - 4];
+                    };
+                }
+            }
+            in.alignToByte();
+            int frameCrc = (int) in.read(16);
+            assertEquals(crc16(data, frameStart, in.position() - 2), frameCrc);
+
+            for (int value : block) {
+                samples[decoded++] = (short) value;
+            }
+            result.frames++;
+        }
+        result.samples = samples;
+        return result;
+    }
+
+    private static int crc8(byte[] data, int from, int to) {
+        int crc = 0;
+        for (int i = from; i < to; i++) {
+            crc ^= data[i] & 0xFF;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x80) != 0 ? ((crc << 1) ^ 0x07) & 0xFF : (crc << 1) & 0xFF;
+            }
+        }
+        return crc;
+    }
+
+    private static int crc16(byte[] data, int from, int to) {
+        int crc = 0;
+        for (int i = from; i < to; i++) {
+            crc ^= (data[i] & 0xFF) << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? ((crc << 1) ^ 0x8005) & 0xFFFF : (crc << 1) & 0xFFFF;
+            }
+        }
+        return crc;
+    }
+
+    private static class DecodedFlac {
+        private int sampleRate;
+        private long totalSamples;
+        private byte[] md5;
+        private short[] samples;
+        private int frames;
+    }
+
+    private static class BitReader {
+        private final byte[] data;
+        private long bitPosition;
+
+        BitReader(byte[] data) {
+            this.data = data;
+        }
+
+        long read(int bits) {
+            long value = 0;
+            for (int i = 0; i < bits; i++, bitPosition++) {
+                int bit = (data[(int) (bitPosition >> 3)] >> (7 - (bitPosition & 7))) & 1;
+                value = (value << 1) | bit;
+            }
+            return value;
+        }
+
+        int readSigned(int bits) {
+            long value = read(bits);
+            return (int) (value << (64 - bits) >> (64 - bits));
+        }
+
+        void skip(int bits) {
+            bitPosition += bits;
+        }
+
+        void alignToByte() {
+            bitPosition = (bitPosition + 7) & ~7L;
+        }
+
+        int position() {
+            return (int) (bitPosition >> 3);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PcmResamplerTest {
+
+    @Test
+    void downsampling_ProducesExpectedSampleCount() throws Exception {
+        CollectingSink sink = new CollectingSink();
+        PcmResampler resampler = new PcmResampler(44100, 16000, sink);
+
+        short[] input = tone(440, 44100, 44100);
+        // Feed in uneven blocks to exercise the streaming state
+        resampler.write(input, 0, 1000);
+        resampler.write(input, 1000, input.length - 1000);
+        resampler.finish();
+
+        assertEquals(16000, sink.count, 1);
+        assertTrue(sink.finished);
+    }
+
+    @Test
+    void downsampling_PreservesSpeechBandTone() throws Exception {
+        CollectingSink sink = new CollectingSink();
+        PcmResampler resampler = new PcmResampler(48000, 16000, sink);
+
+        resampler.write(tone(440, 48000, 48000), 0, 48000);
+        resampler.finish();
+
+        // Skip the filter warm-up and compare against the ideal 440 Hz tone at 16 kHz
+        double inputRms = rms(tone(440, 16000, 16000), 100, 15900);
+        double outputRms = rms(sink.samples, 100, 15900);
+        assertEquals(inputRms, outputRms, inputRms * 0.05);
+    }
+
+    @Test
+    void downsampling_AttenuatesFrequenciesAboveNewNyquist() throws Exception {
+        CollectingSink sink = new CollectingSink();
+        PcmResampler resampler = new PcmResampler(44100, 16000, sink);
+
+        short[] input = tone(12000, 44100, 44100);
+        resampler.write(input, 0, input.length);
+        resampler.finish();
+
+        assertTrue(rms(sink.samples, 100, 15900) < rms(input, 100, 44000) * 0.1);
+    }
+
+    @Test
+    void equalRates_PassSamplesThrough() throws Exception {
+        CollectingSink sink = new CollectingSink();
+        PcmResampler resampler = new PcmResampler(16000, 16000, sink);
+
+        short[] input = tone(440, 16000, 1600);
+        resampler.write(input, 0, input.length);
+        resampler.finish();
+
+        assertArrayEquals(input, Arrays.copyOf(sink.samples, sink.count));
+    }
+
+    private static short[] tone(double frequency, int sampleRate, int length) {
+        short[] samples = new short[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (short) (Math.sin(2 * Math.PI * frequency * i / sampleRate) * 10000);
+        }
+        return samples;
+    }
+
+    private static double rms(short[] samples, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += (double) samples[i] * samples[i];
+        }
+        return Math.sqrt(sum / (to - from));
+    }
+
+    private static class CollectingSink implements PcmSink {
+        private short[] samples = new short[1024];
+        private int count;
+        private boolean finished;
+
+        @Override
+        public void write(short[] block, int offset, int length) {
+            if (count + length > samples.length) {
+                samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + length));
+            }
+            System.arraycopy(block, offset, samples, count, length);
+            count += length;
+        }
+
+        @Override
+        public void finish() {
+            finished = true;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StoredAudioTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void views_ReadIndependentlyFromTheSameMapping() throws Exception {
+        // Arrange
+        Path file = Files.write(tempDir.resolve("upload.bin"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        try (StoredAudio stored = StoredAudio.map(file, "upload.bin", "audio/wav");
+             InputStream stream = stored.openStream();
+             SeekableByteChannel channel = stored.openChannel()) {
+            // Act
+            assertEquals(3, stream.skip(3));
+            ByteBuffer tail = ByteBuffer.allocate(3);
+            channel.position(5).read(tail);
+            channel.position(0);
+            ByteBuffer head = ByteBuffer.allocate(2);
+            channel.read(head);
+
+            // Assert
+            assertEquals(8, stored.size());
+            assertEquals(4, stream.read());
+            assertArrayEquals(new byte[]{6, 7, 8}, tail.array());
+            assertArrayEquals(new byte[]{1, 2}, head.array());
+            assertEquals(8, stored.asByteBuffer().remaining());
+            assertTrue(stored.asByteBuffer().isReadOnly());
+            assertEquals(-1, channel.position(8).read(ByteBuffer.allocate(1)));
+            assertThrows(NonWritableChannelException.class, () -> channel.write(ByteBuffer.allocate(1)));
+        }
+    }
+
+    @Test
+    void close_DeletesFileOnce() throws Exception {
+        // Arrange
+        Path file = Files.write(tempDir.resolve("upload.bin"), new byte[]{1, 2, 3});
+        StoredAudio stored = StoredAudio.map(file);
+
+        // Act
+        stored.close();
+        stored.close();
+
+        // Assert
+        assertFalse(Files.exists(file));
+        assertEquals("upload.bin", stored.getOriginalFilename());
+    }
+}
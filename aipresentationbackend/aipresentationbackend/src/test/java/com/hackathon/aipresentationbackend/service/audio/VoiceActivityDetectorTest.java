@@ -0,0 +1,191 @@
+package com.hackathon.aipresentationbackend.service.audio;
+
+import com.hackathon.aipresentationbackend.model.PauseSegment;
+import com.hackathon.aipresentationbackend.model.SpeechActivity;
+import com.hackathon.aipresentationbackend.model.TranscriptionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VoiceActivityDetectorTest {
+    private static final int RATE = 16000;
+
+    @Test
+    void trimsLeadingAndTrailingSilence() throws Exception {
+        CollectingSink sink = new CollectingSink();
+        VoiceActivityDetector detector = new VoiceActivityDetector(RATE, -40, true, 1500, 600, 250, sink);
+
+        short[] audio = concat(noise(1000), tone(2000), noise(3000));
+        detector.write(audio, 0, audio.length);
+        detector.finish();
+
+        SpeechActivity activity = detector.getActivity();
+        assertTrue(activity.isSpeechDetected());
+        assertEquals(6000, activity.getOriginalDurationMillis());
+        assertEquals(900, activity.getLeadingSilenceMillis());
+        assertEquals(2900, activity.getTrailingSilenceMillis());
+        assertEquals(2200, activity.getProcessedDurationMillis());
+        assertEquals(2200 * RATE / 1000, sink.count);
+        assertTrue(activity.getPauses().isEmpty());
+        assertTrue(sink.finished);
+    }
+
+    @Test
+    void compressesLongPausesAndRecordsTheirPositions() throws Exception {
+        CollectingSink sink = new CollectingSink();
+        VoiceActivityDetector detector = new VoiceActivityDetector(RATE, -40, true, 1500, 600, 250, sink);
+
+        short[] audio = concat(tone(1000), noise(4000), tone(1000), noise(500), tone(1000));
+        // Feed in blocks that do not line up with frames
+        for (int offset = 0; offset < audio.length; offset += 777) {
+            detector.write(audio, offset, Math.min(777, audio.length - offset));
+        }
+        detector.finish();
+
+        SpeechActivity activity = detector.getActivity();
+        assertEquals(2, activity.getPauseCount());
+
+        PauseSegment longPause = activity.getPauses().get(0);
+        assertEquals(1000, longPause.getStartMillis());
+        assertEquals(4000, longPause.getDurationMillis());
+        assertEquals(1000, longPause.getProcessedStartMillis());
+        assertEquals(600, longPause.getKeptMillis());
+        assertTrue(longPause.isCompressed());
+
+        PauseSegment shortPause = activity.getPauses().get(1);
+        assertEquals(6000, shortPause.getStartMillis());
+        assertEquals(500, shortPause.getDurationMillis());
+        assertFalse(shortPause.isCompressed());
+
+        assertEquals(4100, activity.getProcessedDurationMillis());
+        assertEquals(4000, activity.getLongestPauseMillis());
+        // A word at 2.0 s in the trimmed audio was spoken at 5.4 s in the original
+        assertEquals(5400, activity.toOriginalMillis(2000));
+        assertEquals(500, activity.toOriginalMillis(500));
+
+        TranscriptionResponse.Word word = new TranscriptionResponse.Word();
+        word.setText("results");
+        word.setStart(2000.0);
+        word.setEnd(2400.0);
+        TranscriptionResponse.Word mapped = activity.toOriginalTimeline(List.of(word)).get(0);
+        assertEquals("results", mapped.getText());
+        assertEquals(5400.0, mapped.getStart());
+        assertEquals(5800.0, mapped.getEnd());
+    }
+
+    @Test
+    void keepsPausesWhenCompressionIsDisabled() throws Exception {
+        CollectingSink sink = new CollectingSink();
+        VoiceActivityDetector detector = new VoiceActivityDetector(RATE, -40, false, 1500, 600, 250, sink);
+
+        short[] audio = concat(tone(1000), noise(4000), tone(1000));
+        detector.write(audio, 0, audio.length);
+        detector.finish();
+
+        SpeechActivity activity = detector.getActivity();
+        assertEquals(6000, activity.getProcessedDurationMillis());
+        assertEquals(1, activity.getPauseCount());
+        assertFalse(activity.getPauses().get(0).isCompressed());
+        assertArrayEquals(audio, Arrays.copyOf(sink.samples, sink.count));
+    }
+
+    @Test
+    void quietFricativeIsTreatedAsSpeech() throws Exception {
+        CollectingSink sink = new CollectingSink();
+        VoiceActivityDetector detector = new VoiceActivityDetector(RATE, -40, true, 1500, 600, 250, sink);
+
+        // Hiss well below the energy threshold but far above the background
+        short[] audio = concat(silence(500), hiss(300), silence(500));
+        detector.write(audio, 0, audio.length);
+        detector.finish();
+
+        SpeechActivity activity = detector.getActivity();
+        assertTrue(activity.isSpeechDetected());
+        assertEquals(400, activity.getLeadingSilenceMillis());
+    }
+
+    @Test
+    void recordingWithoutSpeechProducesNoAudio() throws Exception {
+        CollectingSink sink = new CollectingSink();
+        VoiceActivityDetector detector = new VoiceActivityDetector(RATE, -40, true, 1500, 600, 250, sink);
+
+        short[] audio = noise(2000);
+        detector.write(audio, 0, audio.length);
+        detector.finish();
+
+        SpeechActivity activity = detector.getActivity();
+        assertFalse(activity.isSpeechDetected());
+        assertEquals(2000, activity.getLeadingSilenceMillis());
+        assertEquals(0, sink.count);
+    }
+
+    private static short[] tone(int millis) {
+        short[] samples = new short[millis * RATE / 1000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (Math.sin(2 * Math.PI * 220 * i / RATE) * 8000);
+        }
+        return samples;
+    }
+
+    /**
+     * Low-level background noise around -60 dBFS
+     */
+    private static short[] noise(int millis) {
+        Random random = new Random(millis);
+        short[] samples = new short[millis * RATE / 1000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (random.nextGaussian() * 30);
+        }
+        return samples;
+    }
+
+    /**
+     * Broadband noise around -45 dBFS with a high zero-crossing rate
+     */
+    private static short[] hiss(int millis) {
+        Random random = new Random(millis);
+        short[] samples = new short[millis * RATE / 1000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (random.nextGaussian() * 180);
+        }
+        return samples;
+    }
+
+    private static short[] silence(int millis) {
+        return new short[millis * RATE / 1000];
+    }
+
+    private static short[] concat(short[]... parts) {
+        short[] result = new short[Arrays.stream(parts).mapToInt(part -> part.length).sum()];
+        int position = 0;
+        for (short[] part : parts) {
+            System.arraycopy(part, 0, result, position, part.length);
+            position += part.length;
+        }
+        return result;
+    }
+
+    private static class CollectingSink implements PcmSink {
+        private short[] samples = new short[1024];
+        private int count;
+        private boolean finished;
+
+        @Override
+        public void write(short[] block, int offset, int length) {
+            if (count + length > samples.length) {
+                samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + length));
+            }
+            System.arraycopy(block, offset, samples, count, length);
+            count += length;
+        }
+
+        @Override
+        public void finish() {
+            finished = true;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.hackathon.aipresentationbackend.service.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.model.AnalysisResponse;
+import com.hackathon.aipresentationbackend.model.PauseSegment;
+import com.hackathon.aipresentationbackend.model.RehearsalRecord;
+import com.hackathon.aipresentationbackend.model.RehearsalSummary;
+import com.hackathon.aipresentationbackend.model.ScriptProgress;
+import com.hackathon.aipresentationbackend.model.SpeechActivity;
+import com.hackathon.aipresentationbackend.model.TranscriptionResponse;
+import com.hackathon.aipresentationbackend.service.sections.ScriptSections;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RehearsalHistoryServiceTest {
+    private static final String SCRIPT = "Good morning everyone. We believe this quarter proves our strategy is working.";
+    private static final Instant START = Instant.parse("2025-03-01T09:00:00Z");
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .addScript("classpath:schema.sql")
+            .build();
+    private final RehearsalHistoryRepository repository = new RehearsalHistoryRepository(JdbcClient.create(database));
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void record_StoresTheRehearsalForItsUserOnly() {
+        // Arrange
+        TranscriptionResponse.Word word = new TranscriptionResponse.Word();
+        word.setText("Good");
+        word.setStart(120.0);
+        word.setEnd(380.0);
+
+        // Act
+        Long id = serviceAt(0).record("ada", SCRIPT, analysis(7, "Good morning, um, everyone."), List.of(word));
+        Optional<RehearsalRecord> stored = serviceAt(1).findRehearsal("ada", id);
+
+        // Assert
+        assertTrue(stored.isPresent());
+        assertEquals(7, stored.get().getScore());
+        assertEquals(RehearsalHistoryService.scriptId(SCRIPT), stored.get().getScriptId());
+        assertEquals("Good morning, um, everyone.", stored.get().getSpokenTranscript());
+        assertEquals("/api/v1/audio/ideal.mp3", stored.get().getAudioUrl());
+        assertEquals(START, stored.get().getCreatedAt());
+        assertTrue(stored.get().getWordTimings().contains("\"start\":120.0"));
+        assertTrue(serviceAt(1).findRehearsal("grace", id).isEmpty());
+    }
+
+    @Test
+    void record_StoresWordTimingsOnTheOriginalRecordingsTimeline() {
+        // Arrange
+        TranscriptionResponse.Word before = new TranscriptionResponse.Word();
+        before.setText("Good");
+        before.setStart(100.0);
+        before.setEnd(400.0);
+        TranscriptionResponse.Word after = new TranscriptionResponse.Word();
+        after.setText("everyone");
+        after.setStart(1500.0);
+        after.setEnd(1900.0);
+        // 2s of leading silence and a 3s pause at 1s of trimmed audio, of which 0.3s was kept
+        SpeechActivity activity = new SpeechActivity(true, 8000, 2300, 2000, 0,
+                List.of(new PauseSegment(3000, 3000, 1000, 300)));
+        AnalysisResponse analysis = new AnalysisResponse.Builder()
+                .score(7)
+                .spokenTranscript("Good everyone.")
+                .speechActivity(activity)
+                .build();
+
+        // Act
+        Long id = serviceAt(0).record("ada", SCRIPT, analysis, List.of(before, after));
+        String timings = serviceAt(1).findRehearsal("ada", id).orElseThrow().getWordTimings();
+
+        // Assert
+        assertTrue(timings.contains("\"start\":2100.0,\"end\":2400.0"));
+        assertTrue(timings.contains("\"start\":6200.0,\"end\":6600.0"));
+        assertEquals(100.0, before.getStart());
+    }
+
+    @Test
+    void findAnalysis_ReusesOnlyAnIdenticalDelivery() {
+        // Arrange
+        serviceAt(0).record("ada", SCRIPT, analysis(6, "Good morning, um, everyone."), List.of());
+
+        // Act
+        Optional<AnalysisResponse> same = serviceAt(1).findAnalysis(SCRIPT + "\n", "Good morning, um, everyone.");
+        Optional<AnalysisResponse> different = serviceAt(1).findAnalysis(SCRIPT, "Good morning everyone.");
+        Optional<AnalysisResponse> disabled = new RehearsalHistoryService(repository, new ObjectMapper(), false)
+                .findAnalysis(SCRIPT, "Good morning, um, everyone.");
+
+        // Assert
+        assertTrue(same.isPresent());
+        assertEquals(6, same.get().getScore());
+        assertEquals("Pace was steady.", same.get().getPositiveFeedback());
+        assertTrue(different.isEmpty());
+        assertTrue(disabled.isEmpty());
+    }
+
+    @Test
+    void findSectionAnalysis_MatchesTheSameWordsHoweverTheyAreWritten() {
+        // Arrange
+        String paragraph = ScriptSections.fingerprint("We believe this quarter proves our strategy is working.");
+        serviceAt(0).recordSectionAnalysis(paragraph, "We believe this quarter, um, proves our strategy", analysis(5, "first"));
+        serviceAt(1).recordSectionAnalysis(paragraph, "We believe this quarter, um, proves our strategy", analysis(9, "again"));
+
+        // Act
+        Optional<AnalysisResponse> same = serviceAt(2).findSectionAnalysis(paragraph, "we believe this quarter um proves our strategy");
+        Optional<AnalysisResponse> different = serviceAt(2).findSectionAnalysis(paragraph, "We believe this quarter proves our strategy");
+
+        // Assert
+        assertTrue(same.isPresent());
+        assertEquals(5, same.get().getScore());
+        assertEquals("Drop the filler words.", same.get().getImprovementPoints());
+        assertTrue(different.isEmpty());
+    }
+
+    @Test
+    void findProgress_SummarizesEachScriptsScores() {
+        // Arrange
+        serviceAt(0).record("ada", SCRIPT, analysis(4, "first"), List.of());
+        serviceAt(1).record("ada", SCRIPT, analysis(8, "second"), List.of());
+        serviceAt(2).record("ada", SCRIPT, analysis(6, "third"), List.of());
+        serviceAt(3).record("ada", "A different script.", analysis(9, "other"), List.of());
+        serviceAt(4).record("grace", SCRIPT, analysis(2, "someone else"), List.of());
+
+        // Act
+        List<ScriptProgress> progress = serviceAt(5).findProgress("ada");
+        List<RehearsalSummary> scores = serviceAt(5).findScores("ada", RehearsalHistoryService.scriptId(SCRIPT));
+        List<RehearsalSummary> recent = serviceAt(5).findRecent("ada", 2);
+
+        // Assert
+        assertEquals(2, progress.size());
+        assertEquals("A different script.", progress.get(0).getScriptPreview());
+        ScriptProgress script = progress.get(1);
+        assertEquals(3, script.getAttempts());
+        assertEquals(4, script.getFirstScore());
+        assertEquals(6, script.getLatestScore());
+        assertEquals(8, script.getBestScore());
+        assertEquals(6.0, script.getAverageScore());
+        assertEquals(2, script.getImprovement());
+        assertEquals(START.plusSeconds(2 * 3600), script.getLastRehearsedAt());
+        assertEquals(List.of(4, 8, 6), scores.stream().map(RehearsalSummary::getScore).toList());
+        assertEquals(List.of(9, 6), recent.stream().map(RehearsalSummary::getScore).toList());
+    }
+
+    @Test
+    void record_ReturnsNullWhenTheDatabaseIsUnavailable() {
+        // Arrange
+        database.shutdown();
+
+        // Act & Assert
+        assertNull(serviceAt(0).record("ada", SCRIPT, analysis(5, "transcript"), List.of()));
+        assertTrue(serviceAt(0).findAnalysis(SCRIPT, "transcript").isEmpty());
+    }
+
+    /**
+     * A service whose clock reads the given number of hours after START
+     */
+    private RehearsalHistoryService serviceAt(int hours) {
+        return new RehearsalHistoryService(repository, new ObjectMapper(), true,
+                Clock.fixed(START.plusSeconds(hours * 3600L), ZoneOffset.UTC));
+    }
+
+    private static AnalysisResponse analysis(int score, String transcript) {
+        return new AnalysisResponse.Builder()
+                .score(score)
+                .positiveFeedback("Pace was steady.")
+                .improvementPoints("Drop the filler words.")
+                .spokenTranscript(transcript)
+                .audioUrl("/api/v1/audio/ideal.mp3")
+                .build();
+    }
+}
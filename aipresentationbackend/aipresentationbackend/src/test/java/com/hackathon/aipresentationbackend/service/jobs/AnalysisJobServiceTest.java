@@ -0,0 +1,244 @@
+package com.hackathon.aipresentationbackend.service.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.exception.AssemblyAIException;
+import com.hackathon.aipresentationbackend.model.AnalysisJob;
+import com.hackathon.aipresentationbackend.model.AnalysisResponse;
+import com.hackathon.aipresentationbackend.model.SpeechActivity;
+import com.hackathon.aipresentationbackend.model.TranscriptionResponse;
+import com.hackathon.aipresentationbackend.service.AnalysisService;
+import com.hackathon.aipresentationbackend.service.AssemblyAIService;
+import com.hackathon.aipresentationbackend.service.AudioProcessingService;
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import com.hackathon.aipresentationbackend.service.audio.StoredAudio;
+import com.hackathon.aipresentationbackend.service.shared.InMemorySharedStateStore;
+import com.hackathon.aipresentationbackend.service.shared.SharedStateStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AnalysisJobServiceTest {
+    private static final String SCRIPT = "Good morning everyone.";
+    private static final Instant START = Instant.parse("2025-03-01T09:00:00Z");
+
+    @Mock
+    private AnalysisService analysisService;
+
+    @Mock
+    private AssemblyAIService assemblyAIService;
+
+    @Mock
+    private AudioProcessingService audioProcessingService;
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .addScript("classpath:schema.sql")
+            .build();
+    private final AnalysisJobRepository repository = new AnalysisJobRepository(JdbcClient.create(database));
+    private final SharedStateStore sharedState = new InMemorySharedStateStore(100);
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void poll_RunsAQueuedJobThroughEveryStage() throws Exception {
+        // Arrange
+        AnalysisJob queued = service("node-a", 0).submit(recording(), SCRIPT, "ada");
+        when(audioProcessingService.storeCopy(any(), eq("talk.wav"), eq("audio/wav"))).thenReturn(mock(StoredAudio.class));
+        when(analysisService.uploadRecording(any())).thenReturn(new AnalysisService.UploadedRecording("https://cdn/upload", activity()));
+        when(assemblyAIService.submit("https://cdn/upload")).thenReturn("transcript-1");
+        when(assemblyAIService.awaitTranscript("transcript-1")).thenReturn(transcript("completed", SCRIPT));
+        when(analysisService.analyzeDelivery(SCRIPT, SCRIPT)).thenReturn(analysis(8, null));
+        when(analysisService.completeRehearsal(eq(SCRIPT), any(), any(), any(), eq("ada")))
+                .thenAnswer(invocation -> analysis(8, "/api/v1/audio/ideal.mp3"));
+
+        // Act
+        service("node-a", 1).poll();
+        AnalysisJob done = repository.findById("ada", queued.getId()).orElseThrow();
+
+        // Assert
+        assertEquals("queued", queued.getStatus());
+        assertEquals("done", done.getStatus());
+        assertTrue(done.getResult().contains("\"score\":8"));
+        assertTrue(done.getResult().contains("ideal.mp3"));
+        assertTrue(repository.findById("grace", queued.getId()).isEmpty());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void poll_ResumesAJobAbandonedByAnotherNodeFromItsCheckpoint() throws Exception {
+        // Arrange
+        String id = service("node-a", 0).submit(recording(), SCRIPT, "ada").getId();
+        repository.claim(id, "node-a", START, START.plusSeconds(60));
+        repository.saveUpload(id, "node-a", "https://cdn/upload", objectMapper.writeValueAsString(activity()), START);
+        repository.saveTranscriptId(id, "node-a", "transcript-1", START);
+        when(assemblyAIService.awaitTranscript("transcript-1")).thenReturn(transcript("completed", SCRIPT));
+        when(analysisService.analyzeDelivery(SCRIPT, SCRIPT)).thenReturn(analysis(6, null));
+        when(analysisService.completeRehearsal(eq(SCRIPT), any(), any(), any(SpeechActivity.class), eq("ada")))
+                .thenAnswer(invocation -> analysis(6, null));
+
+        // Act
+        service("node-b", 30).poll();
+        String whileLeased = repository.findById("ada", id).orElseThrow().getStatus();
+        service("node-b", 61).poll();
+
+        // Assert
+        assertEquals("submitted", whileLeased);
+        assertEquals("done", repository.findById("ada", id).orElseThrow().getStatus());
+        verify(analysisService, never()).uploadRecording(any());
+        verify(assemblyAIService, never()).submit(anyString());
+    }
+
+    @Test
+    void poll_RetriesFromTheLastCheckpointThenFails() throws Exception {
+        // Arrange
+        String id = service("node-a", 0).submit(recording(), SCRIPT, "ada").getId();
+        when(audioProcessingService.storeCopy(any(), anyString(), anyString())).thenReturn(mock(StoredAudio.class));
+        when(analysisService.uploadRecording(any())).thenReturn(new AnalysisService.UploadedRecording("https://cdn/upload", activity()));
+        when(assemblyAIService.submit("https://cdn/upload"))
+                .thenThrow(new AssemblyAIException("AssemblyAI is down", HttpStatus.BAD_GATEWAY));
+
+        // Act
+        service("node-a", 1).poll();
+        AnalysisJob retrying = repository.findById("ada", id).orElseThrow();
+        service("node-a", 5).poll();
+        String beforeBackoff = repository.findById("ada", id).orElseThrow().getStatus();
+        service("node-a", 11).poll();
+        service("node-a", 31).poll();
+        AnalysisJob failed = repository.findById("ada", id).orElseThrow();
+
+        // Assert
+        assertEquals("uploaded", retrying.getStatus());
+        assertEquals(1, retrying.getAttempts());
+        assertEquals("AssemblyAI is down", retrying.getError());
+        assertEquals("uploaded", beforeBackoff);
+        assertEquals("failed", failed.getStatus());
+        assertEquals(3, failed.getAttempts());
+        verify(analysisService).uploadRecording(any());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void shutdown_ReleasesRunningJobsWithoutUsingAnAttempt() throws Exception {
+        // Arrange
+        String id = service("node-a", 0).submit(recording(), SCRIPT, "ada").getId();
+        AnalysisJobService node = service("node-a", 1);
+        when(audioProcessingService.storeCopy(any(), anyString(), anyString())).thenReturn(mock(StoredAudio.class));
+        when(analysisService.uploadRecording(any())).thenReturn(new AnalysisService.UploadedRecording("https://cdn/upload", activity()));
+        when(assemblyAIService.submit("https://cdn/upload")).thenAnswer(invocation -> {
+            // The worker is interrupted mid-request as the server stops
+            node.shutdown();
+            throw new IllegalStateException("Interrupted while waiting for AssemblyAI");
+        });
+
+        // Act
+        node.poll();
+        AnalysisJob stopped = repository.findById("ada", id).orElseThrow();
+
+        // Assert
+        assertEquals("uploaded", stopped.getStatus());
+        assertEquals(0, stopped.getAttempts());
+        assertNull(stopped.getError());
+        assertEquals(List.of(id), repository.findClaimable(START.plusSeconds(1), 10));
+    }
+
+    @Test
+    void find_AnswersFromTheSharedStateForJobsRunByAnotherServer() {
+        // Arrange
+        EmbeddedDatabase otherDatabase = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("classpath:schema.sql")
+                .build();
+        AnalysisJobService otherServer = service(new AnalysisJobRepository(JdbcClient.create(otherDatabase)), "node-b", 0);
+        String id = service("node-a", 0).submit(recording(), SCRIPT, "ada").getId();
+
+        try {
+            // Act
+            AnalysisJob job = otherServer.find("ada", id).orElseThrow();
+
+            // Assert
+            assertEquals("queued", job.getStatus());
+            assertEquals(START, job.getCreatedAt());
+            assertTrue(otherServer.find("grace", id).isEmpty());
+        } finally {
+            otherDatabase.shutdown();
+        }
+    }
+
+    private AnalysisJobService service(String nodeId, long secondsAfterStart) {
+        return service(repository, nodeId, secondsAfterStart);
+    }
+
+    private AnalysisJobService service(AnalysisJobRepository repository, String nodeId, long secondsAfterStart) {
+        AnalysisJobService.Settings settings = new AnalysisJobService.Settings(directory, nodeId, 2, Duration.ofSeconds(60),
+                3, Duration.ofSeconds(10), Duration.ofDays(7));
+        return new AnalysisJobService(repository, analysisService, assemblyAIService, audioProcessingService,
+                new PipelineMetrics(new SimpleMeterRegistry()), objectMapper, sharedState, settings,
+                Clock.fixed(START.plusSeconds(secondsAfterStart), ZoneOffset.UTC), Runnable::run);
+    }
+
+    private static MockMultipartFile recording() {
+        return new MockMultipartFile("audioFile", "talk.wav", "audio/wav", new byte[]{1, 2, 3, 4});
+    }
+
+    private static SpeechActivity activity() {
+        return new SpeechActivity(true, 4000, 3500, 300, 200, List.of());
+    }
+
+    private static TranscriptionResponse transcript(String status, String text) {
+        TranscriptionResponse transcript = new TranscriptionResponse();
+        transcript.setStatus(status);
+        transcript.setText(text);
+        return transcript;
+    }
+
+    private static AnalysisResponse analysis(int score, String audioUrl) {
+        return new AnalysisResponse.Builder()
+                .score(score)
+                .positiveFeedback("Clear opening.")
+                .improvementPoints("Slow down.")
+                .audioUrl(audioUrl)
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.hackathon.aipresentationbackend.service.llm;
+
+import com.hackathon.aipresentationbackend.exception.AnalysisModelException;
+import com.hackathon.aipresentationbackend.exception.GeminiApiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisModelRouterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private StubModel fastModel;
+    private StubModel largeModel;
+    private AnalysisModelRouter router;
+
+    @BeforeEach
+    void setUp() {
+        fastModel = new StubModel("fast", 1000);
+        largeModel = new StubModel("large", 100_000);
+        router = new AnalysisModelRouter(List.of(largeModel, fastModel),
+                Duration.ofSeconds(10), 0.5, Duration.ofSeconds(60), clock::get);
+    }
+
+    @Test
+    void shortPrompt_GoesToFastModel() {
+        assertEquals("fast", router.generate("x".repeat(500)));
+    }
+
+    @Test
+    void longPrompt_GoesToLargeContextModel() {
+        assertEquals("large", router.generate("x".repeat(5000)));
+    }
+
+    @Test
+    void promptLargerThanEveryModel_ThrowsPayloadTooLarge() {
+        AnalysisModelException exception = assertThrows(AnalysisModelException.class,
+                () -> router.generate("x".repeat(200_000)));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, exception.getStatusCode());
+    }
+
+    @Test
+    void transientFailure_FailsOverToNextCandidate() {
+        fastModel.failures.add(new GeminiApiException("Unavailable", HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertEquals("large", router.generate("short prompt"));
+        assertEquals(1, fastModel.calls);
+        assertEquals(1, largeModel.calls);
+    }
+
+    @Test
+    void clientError_IsNotFailedOver() {
+        fastModel.failures.add(new GeminiApiException("Blocked", HttpStatus.BAD_REQUEST));
+
+        assertThrows(GeminiApiException.class, () -> router.generate("short prompt"));
+        assertEquals(0, largeModel.calls);
+    }
+
+    @Test
+    void modelWithHighErrorRate_IsDemotedUntilErrorsDecay() {
+        fastModel.failures.add(new GeminiApiException("Unavailable", HttpStatus.SERVICE_UNAVAILABLE));
+        fastModel.failures.add(new GeminiApiException("Unavailable", HttpStatus.SERVICE_UNAVAILABLE));
+        router.generate("short prompt");
+        router.generate("short prompt");
+
+        assertEquals(List.of(largeModel, fastModel), router.candidatesFor(100, Duration.ofSeconds(10)));
+
+        clock.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertEquals(List.of(fastModel, largeModel), router.candidatesFor(100, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void clientErrors_DoNotDemoteTheModel() {
+        fastModel.failures.add(new GeminiApiException("Blocked", HttpStatus.BAD_REQUEST));
+        fastModel.failures.add(new GeminiApiException("Blocked", HttpStatus.BAD_REQUEST));
+        assertThrows(GeminiApiException.class, () -> router.generate("short prompt"));
+        assertThrows(GeminiApiException.class, () -> router.generate("short prompt"));
+
+        assertEquals(List.of(fastModel, largeModel), router.candidatesFor(100, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void slowModel_IsRankedAfterModelsWithinLatencyBudget() {
+        fastModel.latency = Duration.ofSeconds(30);
+        router.generate("short prompt");
+
+        assertEquals(List.of(largeModel, fastModel), router.candidatesFor(100, Duration.ofSeconds(10)));
+        assertEquals(List.of(fastModel, largeModel), router.candidatesFor(100, Duration.ofSeconds(60)));
+    }
+
+    private class StubModel implements AnalysisModel {
+        private final String name;
+        private final int maxPromptChars;
+        private final Deque<RuntimeException> failures = new ArrayDeque<>();
+        private Duration latency = Duration.ofMillis(100);
+        private int calls;
+
+        private StubModel(String name, int maxPromptChars) {
+            this.name = name;
+            this.maxPromptChars = maxPromptChars;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getMaxPromptChars() {
+            return maxPromptChars;
+        }
+
+        @Override
+        public String generate(String prompt) {
+            calls++;
+            clock.addAndGet(latency.toNanos());
+            RuntimeException failure = failures.poll();
+            if (failure != null) {
+                throw failure;
+            }
+            return name;
+        }
+    }
+}
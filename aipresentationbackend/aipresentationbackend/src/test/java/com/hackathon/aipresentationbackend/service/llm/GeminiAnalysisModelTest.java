@@ -0,0 +1,98 @@
+package com.hackathon.aipresentationbackend.service.llm;
+
+import com.hackathon.aipresentationbackend.exception.GeminiApiException;
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeminiAnalysisModelTest {
+
+    @Mock
+    private WebClient webClient;
+
+    @Mock
+    private WebClient.RequestBodyUriSpec requestBodyUriSpec;
+
+    @Mock
+    private WebClient.RequestBodySpec requestBodySpec;
+
+    @Mock
+    private WebClient.RequestHeadersSpec requestHeadersSpec;
+
+    @Mock
+    private WebClient.ResponseSpec responseSpec;
+
+    private GeminiAnalysisModel model;
+
+    @BeforeEach
+    void setUp() {
+        model = new GeminiAnalysisModel("gemini-fast", webClient,
+                "https://generativelanguage.googleapis.com/v1beta", "models/gemini-1.5-flash-latest",
+                "test-api-key", 24000, new PipelineMetrics(new SimpleMeterRegistry()));
+
+        when(webClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(anyString())).thenReturn(requestBodySpec);
+        when(requestBodySpec.bodyValue(any())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+    }
+
+    @Test
+    void generate_ReturnsFirstCandidateText() {
+        // Arrange
+        Map<String, Object> response = Map.of("candidates", List.of(
+                Map.of("content", Map.of("parts", List.of(Map.of("text", "{\"score\": 9}"))))));
+        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(response));
+
+        // Act
+        String text = model.generate("Score this presentation");
+
+        // Assert
+        assertEquals("{\"score\": 9}", text);
+        verify(requestBodyUriSpec).uri(
+                "https://generativelanguage.googleapis.com/v1beta/models/gemini-1.5-flash-latest:generateContent?key=test-api-key");
+    }
+
+    @Test
+    void generate_ApiError_KeepsStatus() {
+        // Arrange
+        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.error(new WebClientResponseException(
+                HttpStatus.UNAUTHORIZED.value(), "Unauthorized", null, null, null)));
+
+        // Act & Assert
+        GeminiApiException exception = assertThrows(GeminiApiException.class,
+                () -> model.generate("Score this presentation"));
+        assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatusCode());
+        assertEquals("GEMINI_API_UNAUTHORIZED", exception.getErrorCode());
+    }
+
+    @Test
+    void generate_BlockedPrompt_ThrowsBadRequest() {
+        // Arrange
+        Map<String, Object> response = Map.of(
+                "candidates", List.of(),
+                "promptFeedback", Map.of("blockReason", "SAFETY"));
+        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(response));
+
+        // Act & Assert
+        GeminiApiException exception = assertThrows(GeminiApiException.class,
+                () -> model.generate("Score this presentation"));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+}
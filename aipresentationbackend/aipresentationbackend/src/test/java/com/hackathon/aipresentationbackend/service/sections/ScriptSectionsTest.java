@@ -0,0 +1,75 @@
+package com.hackathon.aipresentationbackend.service.sections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScriptSectionsTest {
+    private static final String SCRIPT = """
+            Good morning, everyone. Thanks for coming.
+
+            Revenue grew twelve percent this quarter.
+              Costs stayed flat.
+
+            Questions are welcome at the end.""";
+
+    @Test
+    void split_FingerprintsParagraphsByTheirWords() {
+        // Act
+        List<ScriptSections.Section> sections = ScriptSections.split(SCRIPT);
+        List<ScriptSections.Section> reformatted = ScriptSections.split(SCRIPT.replace("Costs stayed flat.", "costs   stayed flat"));
+        List<ScriptSections.Section> edited = ScriptSections.split(SCRIPT.replace("twelve", "fifteen"));
+
+        // Assert
+        assertEquals(3, sections.size());
+        assertEquals("Revenue grew twelve percent this quarter. Costs stayed flat.", sections.get(1).text());
+        assertEquals(9, sections.get(1).wordCount());
+        assertEquals(sections.get(1).fingerprint(), reformatted.get(1).fingerprint());
+        assertNotEquals(sections.get(1).fingerprint(), edited.get(1).fingerprint());
+        assertEquals(sections.get(0).fingerprint(), edited.get(0).fingerprint());
+        assertEquals(sections.get(2).fingerprint(), edited.get(2).fingerprint());
+    }
+
+    @Test
+    void alignTranscript_AssignsSpokenWordsToTheirParagraphs() {
+        // Arrange
+        List<ScriptSections.Section> sections = ScriptSections.split(SCRIPT);
+
+        // Act
+        List<String> spoken = ScriptSections.alignTranscript(sections,
+                "Um, good morning everyone thanks for coming. Revenue grew, uh, twelve percent this quarter and costs stayed flat. Questions at the end.");
+
+        // Assert
+        assertEquals(List.of(
+                "Um, good morning everyone thanks for coming.",
+                "Revenue grew, uh, twelve percent this quarter and costs stayed flat.",
+                "Questions at the end."), spoken);
+    }
+
+    @Test
+    void alignTranscript_LeavesSkippedParagraphsEmpty() {
+        // Arrange
+        List<ScriptSections.Section> sections = ScriptSections.split(SCRIPT);
+
+        // Act
+        List<String> spoken = ScriptSections.alignTranscript(sections,
+                "Good morning everyone, thanks for coming. Questions are welcome at the end.");
+
+        // Assert
+        assertEquals(List.of("Good morning everyone, thanks for coming.", "", "Questions are welcome at the end."), spoken);
+    }
+
+    @Test
+    void alignTranscript_SplitsByLengthWhenTheAlignmentWouldBeTooLarge() {
+        // Arrange
+        List<ScriptSections.Section> sections = ScriptSections.split("One two three four.\n\nFive six seven eight.");
+
+        // Act
+        List<String> spoken = ScriptSections.alignTranscript(sections, "a b c d e f", 10);
+
+        // Assert
+        assertEquals(List.of("a b c", "d e f"), spoken);
+    }
+}
@@ -0,0 +1,104 @@
+package com.hackathon.aipresentationbackend.service.sections;
+
+import com.hackathon.aipresentationbackend.model.AnalysisResponse;
+import com.hackathon.aipresentationbackend.model.SectionAnalysis;
+import com.hackathon.aipresentationbackend.service.GeminiService;
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import com.hackathon.aipresentationbackend.service.history.RehearsalHistoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SectionAnalysisServiceTest {
+    private static final String OPENING = "Good morning everyone.";
+    private static final String RESULTS = "Revenue grew twelve percent this quarter while costs stayed flat.";
+    private static final String SCRIPT = OPENING + "\n\n" + RESULTS;
+
+    @Mock
+    private GeminiService geminiService;
+
+    @Mock
+    private RehearsalHistoryService rehearsalHistory;
+
+    @Test
+    void analyze_OnlySendsParagraphsWithoutStoredFeedback() {
+        // Arrange
+        String openingFingerprint = ScriptSections.fingerprint(OPENING);
+        when(rehearsalHistory.findSectionAnalysis(openingFingerprint, "Good morning everyone."))
+                .thenReturn(Optional.of(analysis(9, "Warm opening.", "None.")));
+        when(rehearsalHistory.findSectionAnalysis(eq(ScriptSections.fingerprint(RESULTS)), anyString()))
+                .thenReturn(Optional.empty());
+        when(geminiService.analyzePresentation(RESULTS, "Revenue grew, um, twelve percent this quarter while costs stayed flat."))
+                .thenReturn(analysis(5, "Clear numbers.", "Drop the filler words."));
+
+        // Act
+        AnalysisResponse response = service(true).analyze(SCRIPT,
+                "Good morning everyone. Revenue grew, um, twelve percent this quarter while costs stayed flat.");
+
+        // Assert
+        verify(geminiService, never()).analyzePresentation(eq(OPENING), anyString());
+        verify(rehearsalHistory).recordSectionAnalysis(eq(ScriptSections.fingerprint(RESULTS)), anyString(), any());
+        List<SectionAnalysis> sections = response.getSections();
+        assertEquals(2, sections.size());
+        assertTrue(sections.get(0).isReused());
+        assertFalse(sections.get(1).isReused());
+        // (9 * 3 words + 5 * 10 words) / 13 words
+        assertEquals(6, response.getScore());
+        assertEquals("Warm opening.", response.getPositiveFeedback());
+        assertEquals("Paragraph 1: None.\nParagraph 2: Drop the filler words.", response.getImprovementPoints());
+    }
+
+    @Test
+    void appliesTo_ScriptsWithSeveralParagraphsWhenEnabled() {
+        // Act & Assert
+        assertTrue(service(true).appliesTo(SCRIPT));
+        assertFalse(service(true).appliesTo(OPENING + " " + RESULTS));
+        assertFalse(service(false).appliesTo(SCRIPT));
+    }
+
+    @Test
+    void combine_ListsTheWeakestParagraphsInScriptOrder() {
+        // Arrange
+        List<ScriptSections.Section> sections = ScriptSections.split("One.\n\nTwo.\n\nThree.\n\nFour.");
+        List<SectionAnalysis> results = List.of(
+                new SectionAnalysis(0, 4, "a", "Slow down.", false),
+                new SectionAnalysis(1, 9, "b", "Keep it up.", true),
+                new SectionAnalysis(2, 3, "c", "Say the numbers.", false),
+                new SectionAnalysis(3, 6, "d", "Pause here.", true));
+
+        // Act
+        AnalysisResponse response = SectionAnalysisService.combine(sections, results);
+
+        // Assert
+        assertEquals(6, response.getScore());
+        assertEquals("b", response.getPositiveFeedback());
+        assertEquals("Paragraph 1: Slow down.\nParagraph 3: Say the numbers.\nParagraph 4: Pause here.",
+                response.getImprovementPoints());
+    }
+
+    private SectionAnalysisService service(boolean enabled) {
+        return new SectionAnalysisService(geminiService, rehearsalHistory, new PipelineMetrics(new SimpleMeterRegistry()), enabled, 2);
+    }
+
+    private static AnalysisResponse analysis(int score, String positiveFeedback, String improvementPoints) {
+        return new AnalysisResponse.Builder()
+                .score(score)
+                .positiveFeedback(positiveFeedback)
+                .improvementPoints(improvementPoints)
+                .build();
+    }
+}
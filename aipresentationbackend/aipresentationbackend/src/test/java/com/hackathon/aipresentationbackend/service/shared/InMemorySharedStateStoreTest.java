@@ -0,0 +1,92 @@
+package com.hackathon.aipresentationbackend.service.shared;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemorySharedStateStoreTest {
+
+    @Test
+    void get_TreatsExpiredKeysAsMissing() {
+        // Arrange
+        MutableClock clock = new MutableClock();
+        InMemorySharedStateStore store = new InMemorySharedStateStore(10, clock);
+        store.put("a", "1", Duration.ofMinutes(5));
+
+        // Act
+        Optional<String> fresh = store.get("a");
+        clock.advance(Duration.ofMinutes(5));
+        Optional<String> expired = store.get("a");
+
+        // Assert
+        assertEquals(Optional.of("1"), fresh);
+        assertTrue(expired.isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void increment_KeepsTheExpiryOfTheFirstIncrement() {
+        // Arrange
+        MutableClock clock = new MutableClock();
+        InMemorySharedStateStore store = new InMemorySharedStateStore(10, clock);
+
+        // Act
+        long first = store.increment("count", Duration.ofMinutes(1));
+        clock.advance(Duration.ofSeconds(40));
+        long second = store.increment("count", Duration.ofMinutes(1));
+        clock.advance(Duration.ofSeconds(20));
+        long afterExpiry = store.increment("count", Duration.ofMinutes(1));
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(1, afterExpiry);
+    }
+
+    @Test
+    void put_EvictsTheLeastRecentlyUsedKeyWhenFull() {
+        // Arrange
+        InMemorySharedStateStore store = new InMemorySharedStateStore(2);
+        store.put("a", "1", Duration.ofHours(1));
+        store.put("b", "2", Duration.ofHours(1));
+        store.get("a");
+
+        // Act
+        store.put("c", "3", Duration.ofHours(1));
+
+        // Assert
+        assertTrue(store.get("a").isPresent());
+        assertTrue(store.get("b").isEmpty());
+        assertTrue(store.get("c").isPresent());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
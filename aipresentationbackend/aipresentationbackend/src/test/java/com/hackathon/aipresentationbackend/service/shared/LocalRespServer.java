@@ -0,0 +1,204 @@
+package com.hackathon.aipresentationbackend.service.shared;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in for a Redis server, answering the RESP commands RespSharedStateStore sends
+ * (AUTH, SELECT, GET, SET with PX and NX, INCR, DEL, MULTI and EXEC) from an in-memory map
+ */
+class LocalRespServer implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final String password;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final List<Socket> clients = new ArrayList<>();
+
+    LocalRespServer(String password) throws IOException {
+        this.password = password;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "local-resp-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Milliseconds until the key expires, or -1 if it has no expiry
+     */
+    long ttlMillis(String key) {
+        Entry entry = entries.get(key);
+        return entry == null || entry.expiresAt == Long.MAX_VALUE ? -1 : entry.expiresAt - System.currentTimeMillis();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        synchronized (clients) {
+            for (Socket client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                synchronized (clients) {
+                    clients.add(client);
+                }
+                Thread handler = new Thread(() -> serve(client), "local-resp-client");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client) {
+            InputStream in = new BufferedInputStream(client.getInputStream());
+            OutputStream out = new BufferedOutputStream(client.getOutputStream());
+            boolean authenticated = password == null;
+            List<List<String>> transaction = null;
+            List<String> command;
+            while ((command = readCommand(in)) != null) {
+                String name = command.get(0).toUpperCase();
+                if (name.equals("AUTH")) {
+                    authenticated = command.get(1).equals(password);
+                    out.write((authenticated ? "+OK\r\n" : "-WRONGPASS invalid password\r\n").getBytes(StandardCharsets.UTF_8));
+                } else if (!authenticated) {
+                    out.write("-NOAUTH Authentication required.\r\n".getBytes(StandardCharsets.UTF_8));
+                } else if (name.equals("MULTI")) {
+                    transaction = new ArrayList<>();
+                    out.write("+OK\r\n".getBytes(StandardCharsets.UTF_8));
+                } else if (name.equals("EXEC") && transaction != null) {
+                    StringBuilder replies = new StringBuilder("*" + transaction.size() + "\r\n");
+                    synchronized (entries) {
+                        for (List<String> queued : transaction) {
+                            replies.append(execute(queued));
+                        }
+                    }
+                    transaction = null;
+                    out.write(replies.toString().getBytes(StandardCharsets.UTF_8));
+                } else if (transaction != null) {
+                    transaction.add(command);
+                    out.write("+QUEUED\r\n".getBytes(StandardCharsets.UTF_8));
+                } else {
+                    synchronized (entries) {
+                        out.write(execute(command).getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The client disconnected
+        }
+    }
+
+    private String execute(List<String> command) {
+        String key = command.size() > 1 ? command.get(1) : null;
+        switch (command.get(0).toUpperCase()) {
+            case "PING":
+                return "+PONG\r\n";
+            case "SELECT":
+                return "+OK\r\n";
+            case "GET": {
+                Entry entry = live(key);
+                return entry == null ? "$-1\r\n" : bulk(entry.value);
+            }
+            case "SET": {
+                long expiresAt = Long.MAX_VALUE;
+                boolean onlyIfMissing = false;
+                for (int i = 3; i < command.size(); i++) {
+                    if (command.get(i).equalsIgnoreCase("PX")) {
+                        expiresAt = System.currentTimeMillis() + Long.parseLong(command.get(++i));
+                    } else if (command.get(i).equalsIgnoreCase("NX")) {
+                        onlyIfMissing = true;
+                    }
+                }
+                if (onlyIfMissing && live(key) != null) {
+                    return "$-1\r\n";
+                }
+                entries.put(key, new Entry(command.get(2), expiresAt));
+                return "+OK\r\n";
+            }
+            case "INCR": {
+                Entry entry = live(key);
+                long count = entry == null ? 1 : Long.parseLong(entry.value) + 1;
+                entries.put(key, new Entry(Long.toString(count), entry == null ? Long.MAX_VALUE : entry.expiresAt));
+                return ":" + count + "\r\n";
+            }
+            case "DEL":
+                return ":" + (entries.remove(key) == null ? 0 : 1) + "\r\n";
+            default:
+                return "-ERR unknown command '" + command.get(0) + "'\r\n";
+        }
+    }
+
+    private Entry live(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.currentTimeMillis() >= entry.expiresAt) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private static String bulk(String value) {
+        return "$" + value.getBytes(StandardCharsets.UTF_8).length + "\r\n" + value + "\r\n";
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            return null;
+        }
+        if (type != '*') {
+            throw new IOException("Expected an array of bulk strings");
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<String> command = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Expected a bulk string");
+            }
+            int length = Integer.parseInt(readLine(in));
+            command.add(new String(in.readNBytes(length), StandardCharsets.UTF_8));
+            in.readNBytes(2);
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int next;
+        while ((next = in.read()) != '\r') {
+            if (next == -1) {
+                throw new IOException("Connection closed mid-command");
+            }
+            line.write(next);
+        }
+        in.read();
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private record Entry(String value, long expiresAt) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.hackathon.aipresentationbackend.service.shared;
+
+import com.hackathon.aipresentationbackend.exception.RateLimitException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    @Test
+    void acquire_RejectsRequestsOverTheLimitUntilTheNextWindow() {
+        // Arrange
+        MutableClock clock = new MutableClock();
+        RateLimiter limiter = new RateLimiter(new InMemorySharedStateStore(10, clock), "analysis", 2,
+                Duration.ofMinutes(1), clock);
+        limiter.acquire("ada");
+        limiter.acquire("ada");
+        clock.advance(Duration.ofSeconds(45));
+
+        // Act
+        RateLimitException rejected = assertThrows(RateLimitException.class, () -> limiter.acquire("ada"));
+        limiter.acquire("grace");
+        clock.advance(Duration.ofSeconds(15));
+
+        // Assert
+        assertEquals(Duration.ofSeconds(15), rejected.getRetryAfter());
+        assertEquals(15, rejected.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> limiter.acquire("ada"));
+        assertFalse(new RateLimiter(new InMemorySharedStateStore(10), "analysis", 0, Duration.ofMinutes(1)).isEnabled());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
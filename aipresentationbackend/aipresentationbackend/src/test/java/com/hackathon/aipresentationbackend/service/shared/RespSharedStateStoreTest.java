@@ -0,0 +1,104 @@
+package com.hackathon.aipresentationbackend.service.shared;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RespSharedStateStoreTest {
+    private LocalRespServer server;
+    private RespSharedStateStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LocalRespServer("secret");
+        store = store(server.getPort(), "secret");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+        server.close();
+    }
+
+    @Test
+    void put_IsVisibleToEveryServerUsingTheStore() {
+        // Arrange
+        RespSharedStateStore otherServer = store(server.getPort(), "secret");
+
+        // Act
+        store.put("speech:abc", "{\"audioUrl\":\"https://murf.ai/a.mp3\"}", Duration.ofMinutes(5));
+        Optional<String> shared = otherServer.get("speech:abc");
+        long ttl = server.ttlMillis("orator:speech:abc");
+        otherServer.delete("speech:abc");
+
+        // Assert
+        assertEquals(Optional.of("{\"audioUrl\":\"https://murf.ai/a.mp3\"}"), shared);
+        assertTrue(store.get("speech:abc").isEmpty());
+        assertTrue(ttl > 0 && ttl <= 300_000, "ttl was " + ttl);
+        otherServer.close();
+    }
+
+    @Test
+    void increment_CountsAcrossConnectionsAndSetsTheExpiryOnce() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        try {
+            CompletableFuture.allOf(IntStream.range(0, 40)
+                    .mapToObj(i -> CompletableFuture.runAsync(() -> store.increment("ratelimit:ada", Duration.ofMinutes(1)), executor))
+                    .toArray(CompletableFuture[]::new)).get();
+        } finally {
+            executor.shutdown();
+        }
+        long count = store.increment("ratelimit:ada", Duration.ofMinutes(1));
+
+        // Assert
+        assertEquals(41, count);
+        long ttl = server.ttlMillis("orator:ratelimit:ada");
+        assertTrue(ttl > 50_000 && ttl <= 60_000, "ttl was " + ttl);
+        assertEquals(0, store.getFailures());
+    }
+
+    @Test
+    void get_MissesWhenTheStoreIsUnreachableOrRejectsTheCommand() throws IOException {
+        // Arrange
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        RespSharedStateStore unreachable = store(closedPort, "secret");
+        RespSharedStateStore wrongPassword = store(server.getPort(), "guess");
+        store.put("analysis:abc", "reply", Duration.ofMinutes(5));
+
+        // Act
+        Optional<String> fromUnreachable = unreachable.get("analysis:abc");
+        long countFromUnreachable = unreachable.increment("ratelimit:ada", Duration.ofMinutes(1));
+        Optional<String> fromWrongPassword = wrongPassword.get("analysis:abc");
+
+        // Assert
+        assertTrue(fromUnreachable.isEmpty());
+        assertEquals(0, countFromUnreachable);
+        assertTrue(fromWrongPassword.isEmpty());
+        assertEquals(2, unreachable.getFailures());
+        assertEquals(Optional.of("reply"), store.get("analysis:abc"));
+        unreachable.close();
+        wrongPassword.close();
+    }
+
+    private static RespSharedStateStore store(int port, String password) {
+        return new RespSharedStateStore(new RespSharedStateStore.Settings("127.0.0.1", port, password, 1,
+                Duration.ofSeconds(2), 4, "orator:"));
+    }
+}
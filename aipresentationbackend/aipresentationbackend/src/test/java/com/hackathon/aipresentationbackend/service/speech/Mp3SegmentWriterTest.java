@@ -0,0 +1,96 @@
+package com.hackathon.aipresentationbackend.service.speech;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Mp3SegmentWriterTest {
+    // MPEG-1 Layer III frame sync followed by payload bytes
+    private static final byte[] FRAMES = {(byte) 0xFF, (byte) 0xFB, (byte) 0x90, 0x64, 1, 2, 3, 4};
+
+    @Test
+    void write_KeepsTheFirstTagAndDropsLaterOnes() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mp3SegmentWriter writer = new Mp3SegmentWriter(out);
+        byte[] segment = concat(id3Tag(5, false), FRAMES);
+
+        // Act
+        writer.startSegment();
+        writer.write(segment, 0, segment.length);
+        writer.startSegment();
+        writer.write(segment, 0, segment.length);
+        writer.endSegment();
+
+        // Assert
+        assertArrayEquals(concat(segment, FRAMES), out.toByteArray());
+        assertEquals(segment.length + FRAMES.length, writer.getBytesWritten());
+    }
+
+    @Test
+    void write_DropsTagsSplitAcrossBuffers() throws IOException {
+        // Arrange - a tag with a footer, delivered one byte at a time
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mp3SegmentWriter writer = new Mp3SegmentWriter(out);
+        byte[] segment = concat(id3Tag(300, true), FRAMES);
+
+        // Act
+        writer.startSegment();
+        writer.endSegment();
+        writer.startSegment();
+        for (byte b : segment) {
+            writer.write(new byte[]{b}, 0, 1);
+        }
+        writer.endSegment();
+
+        // Assert
+        assertArrayEquals(FRAMES, out.toByteArray());
+    }
+
+    @Test
+    void write_PassesThroughSegmentsWithoutTags() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mp3SegmentWriter writer = new Mp3SegmentWriter(out);
+        byte[] shortSegment = {(byte) 0xFF, (byte) 0xFB, 1};
+
+        // Act
+        writer.startSegment();
+        writer.write(FRAMES, 0, FRAMES.length);
+        writer.startSegment();
+        writer.write(FRAMES, 0, FRAMES.length);
+        writer.startSegment();
+        writer.write(shortSegment, 0, shortSegment.length);
+        writer.endSegment();
+
+        // Assert
+        assertArrayEquals(concat(concat(FRAMES, FRAMES), shortSegment), out.toByteArray());
+    }
+
+    /**
+     * ID3v2.4 header with a sync-safe body size, followed by that many body bytes and the optional footer
+     */
+    private static byte[] id3Tag(int bodySize, boolean footer) {
+        byte[] tag = new byte[10 + bodySize + (footer ? 10 : 0)];
+        tag[0] = 'I';
+        tag[1] = 'D';
+        tag[2] = '3';
+        tag[3] = 4;
+        tag[5] = (byte) (footer ? 0x10 : 0);
+        tag[6] = (byte) ((bodySize >> 21) & 0x7F);
+        tag[7] = (byte) ((bodySize >> 14) & 0x7F);
+        tag[8] = (byte) ((bodySize >> 7) & 0x7F);
+        tag[9] = (byte) (bodySize & 0x7F);
+        return tag;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] joined = new byte[first.length + second.length];
+        System.arraycopy(first, 0, joined, 0, first.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+}
@@ -0,0 +1,63 @@
+package com.hackathon.aipresentationbackend.service.speech;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScriptSegmenterTest {
+
+    @Test
+    void segment_GroupsSentencesUpToTheMaximumLength() {
+        // Arrange
+        ScriptSegmenter segmenter = new ScriptSegmenter(40);
+
+        // Act
+        List<String> segments = segmenter.segment("Good morning. Thanks for coming. Today we look at the quarterly results.");
+
+        // Assert
+        assertEquals(List.of("Good morning. Thanks for coming.", "Today we look at the quarterly results."), segments);
+    }
+
+    @Test
+    void segment_NeverCrossesParagraphBreaks() {
+        // Arrange
+        ScriptSegmenter segmenter = new ScriptSegmenter(400);
+
+        // Act
+        List<String> segments = segmenter.segment("First point.\n  Still first.\n\n\r\nSecond   point.");
+
+        // Assert
+        assertEquals(List.of("First point. Still first.", "Second point."), segments);
+    }
+
+    @Test
+    void segment_SplitsOverlongSentencesAtSpaces() {
+        // Arrange
+        ScriptSegmenter segmenter = new ScriptSegmenter(20);
+
+        // Act
+        List<String> segments = segmenter.segment("This sentence is far too long to fit in one segment");
+
+        // Assert
+        assertTrue(segments.size() > 1);
+        assertTrue(segments.stream().allMatch(segment -> segment.length() <= 20));
+        assertEquals("This sentence is far too long to fit in one segment", String.join(" ", segments));
+    }
+
+    @Test
+    void segment_UnchangedSentencesKeepTheirSegments() {
+        // Arrange
+        ScriptSegmenter segmenter = new ScriptSegmenter(30);
+
+        // Act
+        List<String> before = segmenter.segment("We grew fast.\n\nWe hired well.\n\nWe shipped often.");
+        List<String> after = segmenter.segment("We grew fast.\n\nWe hired very well.\n\nWe shipped often.");
+
+        // Assert
+        assertEquals(before.get(0), after.get(0));
+        assertNotEquals(before.get(1), after.get(1));
+        assertEquals(before.get(2), after.get(2));
+    }
+}
@@ -0,0 +1,75 @@
+package com.hackathon.aipresentationbackend.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpiringLruCacheTest {
+
+    @Test
+    void put_EvictsTheLeastRecentlyUsedEntryWhenFull() {
+        // Arrange
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(2, Duration.ofHours(1));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+
+        // Act
+        cache.put("c", 3);
+
+        // Assert
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void get_TreatsExpiredEntriesAsMissing() {
+        // Arrange
+        MutableClock clock = new MutableClock();
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(10, Duration.ofMinutes(5), clock);
+        cache.put("a", 1);
+
+        // Act
+        Integer fresh = cache.get("a");
+        clock.advance(Duration.ofMinutes(5));
+        Integer expired = cache.get("a");
+
+        // Assert
+        assertEquals(1, fresh);
+        assertNull(expired);
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.hackathon.aipresentationbackend.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    @Test
+    void execute_ConcurrentIdenticalCalls_RunOnce() throws Exception {
+        // Arrange
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            // Act
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> flight.execute("script", () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "audio-url";
+                })));
+            }
+            waitFor(() -> flight.getExecutions() + flight.getCoalesced() == 8);
+            release.countDown();
+
+            // Assert
+            for (Future<String> result : results) {
+                assertEquals("audio-url", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(7, flight.getCoalesced());
+            assertEquals(0, flight.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_FailedCall_SharesExceptionWithWaiters() throws Exception {
+        // Arrange
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("vendor down");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<String> first = executor.submit(() -> flight.execute("script", () -> {
+                await(release);
+                throw failure;
+            }));
+            waitFor(() -> flight.getInFlight() == 1);
+            Future<String> second = executor.submit(() -> flight.execute("script", () -> "unused"));
+            waitFor(() -> flight.getCoalesced() == 1);
+            release.countDown();
+
+            // Assert
+            Exception firstError = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+            Exception secondError = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertSame(failure, firstError.getCause());
+            assertSame(failure, secondError.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_SequentialCalls_AreNotCached() {
+        // Arrange
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        int first = flight.execute("script", calls::incrementAndGet);
+        int second = flight.execute("script", calls::incrementAndGet);
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(0, flight.getCoalesced());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for callers");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.hackathon.aipresentationbackend.service.tone;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeywordMatcherTest {
+
+    @Test
+    void scan_MatchesWholeWordsOnly() {
+        // Arrange
+        KeywordMatcher<String> matcher = KeywordMatcher.<String>builder()
+                .add("um", "filler", 1.0)
+                .add("team", "cue", 1.0)
+                .build();
+
+        // Act
+        List<String> hits = matches(matcher, "Um, the maximum team-size is, um... our TEAM's numbers");
+
+        // Assert
+        assertEquals(List.of("Um", "team", "um", "TEAM"), hits);
+    }
+
+    @Test
+    void scan_ReportsOverlappingAndNestedKeywords() {
+        // Arrange
+        KeywordMatcher<String> matcher = KeywordMatcher.<String>builder()
+                .add("right away", "phrase", 2.0)
+                .add("away", "word", 1.0)
+                .add("help", "word", 1.0)
+                .add("helping", "word", 1.0)
+                .build();
+
+        // Act
+        List<String> hits = matches(matcher, "We start right\naway, helping and help");
+
+        // Assert
+        assertEquals(List.of("right\naway", "away", "helping", "help"), hits);
+    }
+
+    @Test
+    void scan_FollowsFailureLinksAcrossPartialMatches() {
+        // Arrange - "he" and "she" share a suffix, "hers" extends "he"
+        KeywordMatcher<String> matcher = KeywordMatcher.<String>builder()
+                .add("he", "he", 1.0)
+                .add("she", "she", 1.0)
+                .add("hers", "hers", 1.0)
+                .build();
+        List<String> labels = new ArrayList<>();
+
+        // Act
+        matcher.scan("ushers she hers he", (label, weight, start, end) -> labels.add(label));
+
+        // Assert
+        assertEquals(List.of("she", "hers", "he"), labels);
+    }
+
+    @Test
+    void add_DuplicateKeyword_ReplacesLabelAndWeight() {
+        // Arrange
+        KeywordMatcher<String> matcher = KeywordMatcher.<String>builder()
+                .add("deadline", "first", 1.0)
+                .add("  DEADLINE ", "second", 3.0)
+                .build();
+        List<Double> weights = new ArrayList<>();
+
+        // Act
+        matcher.scan("deadline", (label, weight, start, end) -> {
+            assertEquals("second", label);
+            weights.add(weight);
+        });
+
+        // Assert
+        assertEquals(1, matcher.getKeywordCount());
+        assertEquals(List.of(3.0), weights);
+    }
+
+    private static List<String> matches(KeywordMatcher<String> matcher, String text) {
+        List<String> hits = new ArrayList<>();
+        matcher.scan(text, (label, weight, start, end) -> hits.add(text.substring(start, end)));
+        return hits;
+    }
+}
@@ -0,0 +1,140 @@
+package com.hackathon.aipresentationbackend.service.tone;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.model.ToneType;
+import com.hackathon.aipresentationbackend.model.TranscriptionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToneClassifierTest {
+    private static final String NEUTRAL_TEXT = "Today I will walk you through the plan for the next product launch";
+
+    private ToneKeywordDetector detector;
+    private ToneClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        detector = new ToneKeywordDetector(objectMapper, new ClassPathResource("tone/tone-lexicon.json"));
+        classifier = new ToneClassifier(objectMapper, new ClassPathResource("tone/tone-model.json"));
+    }
+
+    @Test
+    void classify_ProbabilitiesCoverEveryToneAndSumToOne() {
+        // Act
+        ToneClassification result = classify("We must act quickly, the deadline is tomorrow", "neutral", null);
+
+        // Assert
+        assertEquals(ToneType.values().length, result.getProbabilities().size());
+        double total = result.getProbabilities().values().stream().mapToDouble(Double::doubleValue).sum();
+        assertEquals(1.0, total, 1e-9);
+        assertEquals(result.getProbability(result.getTone()), result.getConfidence());
+    }
+
+    @Test
+    void classify_SpeechWithoutSignalsStaysConversational() {
+        // Act
+        ToneClassification result = classify(NEUTRAL_TEXT, "neutral", null);
+
+        // Assert
+        assertEquals(ToneType.CONVERSATIONAL, result.getTone());
+    }
+
+    @Test
+    void classify_KeywordsSelectTheirTone() {
+        // Act
+        ToneClassification urgent = classify("We must act quickly, the deadline is tomorrow", "neutral", null);
+        ToneClassification empathetic = classify("I understand, and we will support you together", "neutral", null);
+
+        // Assert
+        assertEquals(ToneType.URGENT, urgent.getTone());
+        assertEquals(ToneType.EMPATHETIC, empathetic.getTone());
+    }
+
+    @Test
+    void classify_HesitantDeliveryCallsForConfidence() {
+        // Act
+        ToneClassification result = classify(NEUTRAL_TEXT, "Hesitant and uncertain", null);
+
+        // Assert
+        assertEquals(ToneType.CONFIDENT, result.getTone());
+        assertTrue(result.getConfidence() > 0.5);
+    }
+
+    @Test
+    void classify_LongPausesRaiseConfidentProbability() {
+        // Arrange - same words, spoken fluently and with a long pause before every word
+        List<TranscriptionResponse.Word> fluent = timedWords(NEUTRAL_TEXT, 100);
+        List<TranscriptionResponse.Word> halting = timedWords(NEUTRAL_TEXT, 1500);
+
+        // Act
+        ToneClassification fluentResult = classify(NEUTRAL_TEXT, "neutral", fluent);
+        ToneClassification haltingResult = classify(NEUTRAL_TEXT, "neutral", halting);
+
+        // Assert
+        assertTrue(haltingResult.getProbability(ToneType.CONFIDENT) > fluentResult.getProbability(ToneType.CONFIDENT));
+        assertEquals(ToneType.CONFIDENT, haltingResult.getTone());
+    }
+
+    @Test
+    void extractFeatures_LeavesMissingPacingAtTheMean() {
+        // Act
+        double[] features = classifier.extractFeatures(NEUTRAL_TEXT, detector.analyze(NEUTRAL_TEXT), null, null);
+
+        // Assert - no keywords, no timings and no hesitation give an all-zero standardized vector
+        for (double feature : features) {
+            assertEquals(0.0, feature);
+        }
+    }
+
+    @Test
+    void constructor_RejectsMismatchedWeights() {
+        // Arrange
+        String model = "{\"tones\": [\"urgent\"], \"features\": [\"keywords.urgent\", \"delivery.hesitant\"],"
+                + " \"mean\": [0, 0], \"scale\": [1, 1], \"bias\": [0], \"weights\": {\"urgent\": [1.0]}}";
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> new ToneClassifier(new ObjectMapper(), new ByteArrayResource(model.getBytes())));
+    }
+
+    @Test
+    void constructor_RejectsUnknownFeatures() {
+        // Arrange
+        String model = "{\"tones\": [\"urgent\"], \"features\": [\"keywords.sarcastic\"],"
+                + " \"mean\": [0], \"scale\": [1], \"bias\": [0], \"weights\": {\"urgent\": [1.0]}}";
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> new ToneClassifier(new ObjectMapper(), new ByteArrayResource(model.getBytes())));
+    }
+
+    private ToneClassification classify(String text, String detectedTone, List<TranscriptionResponse.Word> words) {
+        return classifier.classify(text, detector.analyze(text), detectedTone, words);
+    }
+
+    /**
+     * One 300 ms word every (300 + gap) ms, with AssemblyAI's millisecond timings
+     */
+    private static List<TranscriptionResponse.Word> timedWords(String text, double gapMillis) {
+        List<TranscriptionResponse.Word> words = new ArrayList<>();
+        double start = 0;
+        for (String token : text.split(" ")) {
+            TranscriptionResponse.Word word = new TranscriptionResponse.Word();
+            word.setText(token);
+            word.setStart(start);
+            word.setEnd(start + 300);
+            word.setConfidence(0.95);
+            words.add(word);
+            start += 300 + gapMillis;
+        }
+        return words;
+    }
+}
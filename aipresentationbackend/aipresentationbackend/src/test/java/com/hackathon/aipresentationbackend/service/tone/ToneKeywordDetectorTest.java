@@ -0,0 +1,72 @@
+package com.hackathon.aipresentationbackend.service.tone;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.model.ToneType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToneKeywordDetectorTest {
+    private static final List<ToneType> PRIORITY = List.of(ToneType.CONFIDENT, ToneType.EMPATHETIC, ToneType.URGENT);
+
+    private ToneKeywordDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = new ToneKeywordDetector(new ObjectMapper(), new ClassPathResource("tone/tone-lexicon.json"));
+    }
+
+    @Test
+    void analyze_WeighsHitsPerToneAndCollectsCues() {
+        // Act
+        ToneScores scores = detector.analyze(
+                "Um, our quarterly results show growth. We must act quickly to meet the deadline, right away.");
+
+        // Assert
+        assertEquals(4.0, scores.getScore(ToneType.CONFIDENT));
+        assertEquals(3.0, scores.getScore(ToneType.URGENT));
+        assertEquals(0.0, scores.getScore(ToneType.EMPATHETIC));
+        assertTrue(scores.hasCue("business"));
+        assertFalse(scores.hasCue("authority"));
+        assertEquals(ToneType.CONFIDENT, scores.strongest(PRIORITY));
+    }
+
+    @Test
+    void analyze_IgnoresKeywordsInsideLongerWords() {
+        // Act - "um" in "maximum", "help" in "helpful" and "team" in "steam" are not hits
+        ToneScores scores = detector.analyze("The maximum steam pressure is helpful");
+
+        // Assert
+        assertTrue(scores.getScores().isEmpty());
+        assertTrue(scores.getCues().isEmpty());
+        assertNull(scores.strongest(PRIORITY));
+    }
+
+    @Test
+    void analyze_TiesGoToTheFirstToneInPriorityOrder() {
+        // Act
+        ToneScores scores = detector.analyze("Let's work together on the deadline");
+
+        // Assert
+        assertEquals(ToneType.EMPATHETIC, scores.strongest(PRIORITY));
+    }
+
+    @Test
+    void constructor_UsesConfiguredLexicon() {
+        // Arrange
+        String lexicon = "{\"tones\": {\"urgent\": {\"asap\": 5}}, \"cues\": {\"team\": [\"squad\"]}}";
+
+        // Act
+        ToneKeywordDetector custom = new ToneKeywordDetector(new ObjectMapper(), new ByteArrayResource(lexicon.getBytes()));
+        ToneScores scores = custom.analyze("Squad, ASAP please");
+
+        // Assert
+        assertEquals(5.0, scores.getScore(ToneType.URGENT));
+        assertTrue(scores.hasCue("team"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.hackathon.aipresentationbackend.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file with the recorded baseline and exits with status 1 if any benchmark
+ * got slower than the tolerance allows. A benchmark only counts as slower by as much as both runs'
+ * confidence intervals allow, so noise in either run neither fails the check nor hides a real regression
+ * behind a lucky score. Benchmarks are matched by name and parameters; ones missing from either file are
+ * listed but do not fail the check.
+ * <p>
+ * Usage: {@code BaselineCheck <baseline.json> <results.json> [tolerance, default 0.10]}
+ */
+public final class BaselineCheck {
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCheck <baseline.json> <results.json> [tolerance]");
+            System.exit(2);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(new File(args[0])));
+        Map<String, JsonNode> results = index(objectMapper.readTree(new File(args[1])));
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> result : results.entrySet()) {
+            JsonNode expected = baseline.get(result.getKey());
+            if (expected == null) {
+                System.out.printf("NEW        %s%n", result.getKey());
+                continue;
+            }
+            double change = slowdown(expected, result.getValue());
+            double leastChange = leastSlowdown(expected, result.getValue());
+            boolean regressed = leastChange > tolerance;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-10s %s  %.3f ±%.3f -> %.3f ±%.3f %s (%+.1f%%, at least %+.1f%%)%n",
+                    regressed ? "REGRESSED" : "ok", result.getKey(), score(expected), error(expected),
+                    score(result.getValue()), error(result.getValue()),
+                    result.getValue().path("primaryMetric").path("scoreUnit").asText(), change * 100, leastChange * 100);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!results.containsKey(missing)) {
+                System.out.printf("NOT RUN    %s%n", missing);
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) slower than the baseline by more than %.0f%%%n", regressions, tolerance * 100);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * How much slower the result is than the baseline, as a fraction; negative when it got faster.
+     * Throughput scores are higher-is-better, every other mode is a time per operation.
+     */
+    static double slowdown(JsonNode baseline, JsonNode result) {
+        double before = score(baseline);
+        double after = score(result);
+        return "thrpt".equals(result.path("mode").asText()) ? before / after - 1 : after / before - 1;
+    }
+
+    /**
+     * The smallest slowdown both runs' confidence intervals allow: the result at the fast end of its interval
+     * against the baseline at the slow end of its own. Negative when the intervals overlap or it got faster.
+     */
+    static double leastSlowdown(JsonNode baseline, JsonNode result) {
+        if ("thrpt".equals(result.path("mode").asText())) {
+            return (score(baseline) - error(baseline)) / (score(result) + error(result)) - 1;
+        }
+        return (score(result) - error(result)) / (score(baseline) + error(baseline)) - 1;
+    }
+
+    private static double score(JsonNode run) {
+        return run.path("primaryMetric").path("score").asDouble();
+    }
+
+    /**
+     * Half-width of the score's 99.9% confidence interval, as JMH reports it; a single iteration has none
+     */
+    private static double error(JsonNode run) {
+        double error = run.path("primaryMetric").path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    /**
+     * Keys each run by benchmark name, mode and sorted parameters
+     */
+    static Map<String, JsonNode> index(JsonNode runs) {
+        Map<String, JsonNode> indexed = new LinkedHashMap<>();
+        for (JsonNode run : runs) {
+            Map<String, String> params = new TreeMap<>();
+            for (Map.Entry<String, JsonNode> field : run.path("params").properties()) {
+                params.put(field.getKey(), field.getValue().asText());
+            }
+            String name = run.path("benchmark").asText().replace("com.hackathon.aipresentationbackend.", "");
+            indexed.put(name + " [" + run.path("mode").asText() + "]" + (params.isEmpty() ? "" : " " + params), run);
+        }
+        return indexed;
+    }
+}
@@ -0,0 +1,128 @@
+package com.hackathon.aipresentationbackend.benchmarks;
+
+import com.hackathon.aipresentationbackend.model.TranscriptionResponse;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic inputs shared by the benchmarks, sized like real rehearsals
+ */
+public final class BenchmarkFixtures {
+    private static final String[] SENTENCES = {
+            "Good morning everyone, and thank you for joining us today.",
+            "We believe this quarter proves that our strategy is working.",
+            "Um, so the next slide shows how revenue grew in every region.",
+            "I understand that the migration has been difficult for many of you.",
+            "We must act now, because the deadline is only two weeks away.",
+            "Let me walk you through what changed and why it matters.",
+            "Honestly, I think we can, like, deliver this ahead of schedule.",
+            "Our customers told us clearly what they need from us next year."
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * A presentation script of roughly the given number of words, in paragraphs of four sentences
+     */
+    public static String script(int words) {
+        StringBuilder script = new StringBuilder();
+        int written = 0;
+        for (int i = 0; written < words; i++) {
+            String sentence = SENTENCES[i % SENTENCES.length];
+            script.append(sentence).append(i % 4 == 3 ? "\n\n" : " ");
+            written += sentence.split(" ").length;
+        }
+        return script.toString().trim();
+    }
+
+    /**
+     * Word timings for the script, in milliseconds as AssemblyAI reports them, with a pause between sentences
+     */
+    public static List<TranscriptionResponse.Word> words(String script) {
+        Random random = new Random(42);
+        List<TranscriptionResponse.Word> words = new ArrayList<>();
+        double time = 0;
+        for (String token : script.split("\\s+")) {
+            TranscriptionResponse.Word word = new TranscriptionResponse.Word();
+            word.setText(token);
+            word.setStart(time);
+            time += 180 + random.nextInt(220);
+            word.setEnd(time);
+            word.setConfidence(0.7 + random.nextDouble() * 0.3);
+            words.add(word);
+            time += token.endsWith(".") ? 600 + random.nextInt(900) : 40;
+        }
+        return words;
+    }
+
+    /**
+     * A completed AssemblyAI transcript for a script of roughly the given number of words
+     */
+    public static TranscriptionResponse transcript(int words) {
+        String text = script(words);
+        TranscriptionResponse response = new TranscriptionResponse();
+        response.setId("5551722-f677-48a7-9a7b-4b06b4a4c3a9");
+        response.setStatus("completed");
+        response.setText(text);
+        response.setWords(words(text));
+        response.setConfidence(0.91);
+        response.setAudioDuration(words * 0.4);
+        return response;
+    }
+
+    /**
+     * A reply in the shape analysis models actually send: the JSON object inside a markdown fence
+     */
+    public static String analysisReply() {
+        return "Here is my analysis of the delivery:\n```json\n{\n"
+                + "  \"score\": 7,\n"
+                + "  \"positiveFeedback\": \"You kept a steady, confident pace through the results section.\",\n"
+                + "  \"improvementPoints\": \"Replace the filler words in the opening with a short pause.\"\n"
+                + "}\n```\n";
+    }
+
+    /**
+     * A 16-bit stereo 44.1 kHz WAV file of speech-like audio with pauses between phrases
+     */
+    public static byte[] speechWav(int seconds) {
+        float rate = 44_100;
+        int frames = (int) (seconds * rate);
+        byte[] pcm = new byte[frames * 4];
+        Random random = new Random(seconds);
+        double phase = 0;
+        double pitch = 140;
+        for (int i = 0; i < frames; i++) {
+            double time = i / rate;
+            boolean inPhrase = time % 6.0 < 4.5;
+            pitch = Math.max(90, Math.min(220, pitch + (random.nextDouble() - 0.5) * 0.05));
+            phase += 2 * Math.PI * pitch / rate;
+            double syllable = 0.5 + 0.5 * Math.sin(2 * Math.PI * 4.5 * time);
+            double voiced = Math.sin(phase) + 0.6 * Math.sin(3 * phase) + 0.3 * Math.sin(7 * phase);
+            short sample = (short) ((inPhrase ? syllable * voiced * 5000 : 0) + random.nextGaussian() * 30);
+            for (int channel = 0; channel < 2; channel++) {
+                pcm[i * 4 + channel * 2] = (byte) sample;
+                pcm[i * 4 + channel * 2 + 1] = (byte) (sample >> 8);
+            }
+        }
+
+        AudioFormat format = new AudioFormat(rate, 16, 2, true, false);
+        try (AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(pcm), format, frames)) {
+            ByteArrayOutputStream wav = new ByteArrayOutputStream(pcm.length + 44);
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, wav);
+            return wav.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.hackathon.aipresentationbackend.model;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.benchmarks.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson reading and writing of completed transcripts, whose per-word timings dominate their size
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class TranscriptionJsonBenchmark {
+
+    @Param({"1000", "10000"})
+    public int words;
+
+    // Same as the mapper Spring Boot builds: derived getters such as isProcessing() are ignored on read
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private TranscriptionResponse transcript;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        transcript = BenchmarkFixtures.transcript(words);
+        json = objectMapper.writeValueAsBytes(transcript);
+    }
+
+    @Benchmark
+    public TranscriptionResponse deserialize() throws Exception {
+        return objectMapper.readValue(json, TranscriptionResponse.class);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(transcript);
+    }
+}
@@ -0,0 +1,125 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.hackathon.aipresentationbackend.benchmarks.BenchmarkFixtures;
+import com.hackathon.aipresentationbackend.service.audio.PreparedAudio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting a 44.1 kHz stereo WAV upload in {@link AudioProcessingService}: plain conversion to 16 kHz mono
+ * WAV, and the full preparation for transcription (voice activity detection plus FLAC encoding).
+ * Each invocation writes its output to a temp directory and deletes it afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class AudioConversionBenchmark {
+
+    @Param({"30", "120"})
+    public int seconds;
+
+    private Path tempDir;
+    private AudioProcessingService audioProcessingService;
+    private MultipartFile upload;
+
+    @Setup
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("audio-benchmark");
+        TempFileJanitor janitor = new TempFileJanitor(tempDir.toString(), Duration.ofMinutes(30), Duration.ofMinutes(2),
+                DataSize.ofGigabytes(2), DataSize.ofBytes(0));
+        audioProcessingService = new AudioProcessingService(janitor);
+        upload = new InMemoryMultipartFile("rehearsal.wav", "audio/wav", BenchmarkFixtures.speechWav(seconds));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(tempDir);
+    }
+
+    @Benchmark
+    public long convertAudioFormat() {
+        File converted = audioProcessingService.convertAudioFormat(upload);
+        long length = converted.length();
+        audioProcessingService.cleanupTempFile(converted);
+        return length;
+    }
+
+    @Benchmark
+    public long prepareForTranscription() {
+        PreparedAudio prepared = audioProcessingService.prepareForTranscription(upload);
+        long length = prepared.getFile().length();
+        audioProcessingService.cleanupTempFile(prepared.getFile());
+        return length;
+    }
+
+    /**
+     * An upload held in memory, so reading it costs the same every invocation
+     */
+    private record InMemoryMultipartFile(String originalFilename, String contentType, byte[] bytes)
+            implements MultipartFile {
+        @Override
+        public String getName() {
+            return "audio";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return bytes.length == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return bytes.length;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.write(dest.toPath(), bytes);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.benchmarks.BenchmarkFixtures;
+import com.hackathon.aipresentationbackend.model.AnalysisResponse;
+import com.hackathon.aipresentationbackend.service.llm.AnalysisModel;
+import com.hackathon.aipresentationbackend.service.llm.AnalysisModelRouter;
+import com.hackathon.aipresentationbackend.service.shared.InMemorySharedStateStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt building and reply parsing in {@link GeminiService}, with the model call replaced by a canned
+ * reply so only the work done on this server is measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class GeminiServiceBenchmark {
+
+    @Param({"300", "3000"})
+    public int scriptWords;
+
+    private GeminiService geminiService;
+    private String script;
+    private String transcript;
+    private String reply;
+
+    @Setup
+    public void setUp() {
+        script = BenchmarkFixtures.script(scriptWords);
+        transcript = script.replace("Good morning", "Um, good morning");
+        reply = BenchmarkFixtures.analysisReply();
+        AnalysisModelRouter router = new AnalysisModelRouter(List.of(new CannedModel(reply)),
+                Duration.ofSeconds(20), 0.5, Duration.ofSeconds(60));
+        // The reply cache is off so every analyzePresentation call builds and parses a reply
+        geminiService = new GeminiService(router, new ObjectMapper(), new PipelineMetrics(new SimpleMeterRegistry()),
+                new InMemorySharedStateStore(1), Duration.ZERO);
+    }
+
+    @Benchmark
+    public String createAnalysisPrompt() {
+        return geminiService.createAnalysisPrompt(script, transcript);
+    }
+
+    @Benchmark
+    public String cleanJsonString() {
+        return geminiService.cleanJsonString(reply);
+    }
+
+    @Benchmark
+    public AnalysisResponse parseAnalysisResponse() {
+        return geminiService.parseAnalysisResponse(reply);
+    }
+
+    /**
+     * The whole call: prompt, hashing for request sharing, routing, parsing and metrics
+     */
+    @Benchmark
+    public AnalysisResponse analyzePresentation() {
+        return geminiService.analyzePresentation(script, transcript);
+    }
+
+    private record CannedModel(String reply) implements AnalysisModel {
+        @Override
+        public String getName() {
+            return "canned";
+        }
+
+        @Override
+        public int getMaxPromptChars() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public String generate(String prompt) {
+            return reply;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.hackathon.aipresentationbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.benchmarks.BenchmarkFixtures;
+import com.hackathon.aipresentationbackend.model.TranscriptionResponse;
+import com.hackathon.aipresentationbackend.model.VoiceRecommendation;
+import com.hackathon.aipresentationbackend.service.tone.ToneClassifier;
+import com.hackathon.aipresentationbackend.service.tone.ToneKeywordDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tone detection, classification and voice ranking in {@link VoiceAnalysisService}, using the bundled
+ * voice catalog, lexicon and model
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class VoiceAnalysisBenchmark {
+
+    @Param({"100", "2000"})
+    public int words;
+
+    private VoiceAnalysisService voiceAnalysisService;
+    private String text;
+    private List<TranscriptionResponse.Word> timings;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        VoiceCatalogService catalog = new VoiceCatalogService(WebClient.create(), objectMapper, "",
+                new ClassPathResource("voices/murf-voices.json"));
+        voiceAnalysisService = new VoiceAnalysisService(catalog,
+                new ToneKeywordDetector(objectMapper, new ClassPathResource("tone/tone-lexicon.json")),
+                new ToneClassifier(objectMapper, new ClassPathResource("tone/tone-model.json")));
+        text = BenchmarkFixtures.script(words);
+        timings = BenchmarkFixtures.words(text);
+    }
+
+    @Benchmark
+    public VoiceRecommendation analyzeText() {
+        return voiceAnalysisService.analyzeAndRecommendVoice(text, null);
+    }
+
+    @Benchmark
+    public VoiceRecommendation analyzeWithTimings() {
+        return voiceAnalysisService.analyzeAndRecommendVoice(text, null, timings);
+    }
+}
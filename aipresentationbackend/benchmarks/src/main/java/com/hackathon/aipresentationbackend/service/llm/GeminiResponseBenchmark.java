@@ -0,0 +1,65 @@
+package com.hackathon.aipresentationbackend.service.llm;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.benchmarks.BenchmarkFixtures;
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a generateContent reply and extracting its text, as {@link GeminiAnalysisModel} does for every call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class GeminiResponseBenchmark {
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private GeminiAnalysisModel model;
+    private byte[] body;
+    private Map<String, Object> response;
+
+    @Setup
+    public void setUp() throws Exception {
+        model = new GeminiAnalysisModel("gemini-fast", WebClient.create(), "http://localhost", "models/benchmark",
+                "", 24000, new PipelineMetrics(new SimpleMeterRegistry()));
+        Map<String, Object> reply = Map.of(
+                "candidates", List.of(Map.of(
+                        "content", Map.of("role", "model",
+                                "parts", List.of(Map.of("text", BenchmarkFixtures.analysisReply()))),
+                        "finishReason", "STOP")),
+                "usageMetadata", Map.of("promptTokenCount", 812, "candidatesTokenCount", 74, "totalTokenCount", 886));
+        body = objectMapper.writeValueAsBytes(reply);
+        response = objectMapper.readValue(body, MAP);
+    }
+
+    @Benchmark
+    public String extractTextFromResponse() {
+        return model.extractTextFromResponse(response);
+    }
+
+    @Benchmark
+    public String decodeAndExtract() throws Exception {
+        return model.extractTextFromResponse(objectMapper.readValue(body, MAP));
+    }
+}
@@ -0,0 +1,85 @@
+package com.hackathon.aipresentationbackend.service.tone;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link ToneKeywordDetector} scan against the previous approach of lower-casing the transcript and
+ * running a separate {@code String.contains} check per keyword, on a 10,000-word transcript
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ToneKeywordBenchmark {
+    private static final int WORDS = 10_000;
+
+    // The checks determineRecommendedTone and selectBestVoice made before the lexicon was introduced
+    private static final List<String> LEGACY_KEYWORDS = List.of(
+            "um", "uh", "results", "growth", "achievement", "success",
+            "support", "help", "understand", "together",
+            "urgent", "immediately", "quickly", "deadline",
+            "business", "professional", "quarterly", "results", "team", "everyone");
+
+    private static final String[] VOCABULARY = {
+            "the", "we", "our", "plan", "maximum", "customers", "will", "and", "to", "of", "quarter",
+            "a", "next", "product", "launch", "market", "this", "is", "about", "people", "summary",
+            "revenue", "steam", "humble", "thank", "you", "for", "questions", "helpful", "umbrella"
+    };
+
+    private ToneKeywordDetector detector;
+    private String transcript;
+
+    @Setup
+    public void setUp() {
+        detector = new ToneKeywordDetector(new ObjectMapper(), new ClassPathResource("tone/tone-lexicon.json"));
+        transcript = transcript(new Random(42));
+    }
+
+    @Benchmark
+    public int stringContains() {
+        String lowerText = transcript.toLowerCase();
+        int hits = 0;
+        for (String keyword : LEGACY_KEYWORDS) {
+            if (lowerText.contains(keyword)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public ToneScores keywordMatcher() {
+        return detector.analyze(transcript);
+    }
+
+    /**
+     * Builds a transcript that, like real speech, rarely contains the lexicon's words,
+     * so the contains checks have to scan most of it
+     */
+    private static String transcript(Random random) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < WORDS; i++) {
+            text.append(i % 15 == 0 ? "Um" : VOCABULARY[random.nextInt(VOCABULARY.length)]);
+            text.append(i % 12 == 11 ? ". " : " ");
+        }
+        text.append("Thanks to the whole team.");
+        return text.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package com.hackathon.aipresentationbackend.loadtest;
+
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Samples threads, heap and work in progress once a second while the load runs.
+ * The backend runs in this JVM, so the counts include the driver's and stand-ins' threads; those are
+ * virtual threads, which ThreadMXBean does not count, so live threads are the backend's platform threads.
+ */
+final class JvmSampler implements AutoCloseable {
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "load-test-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentLinkedQueue<Sample> samples = new ConcurrentLinkedQueue<>();
+    private final MeterRegistry registry;
+    private final IntSupplier inFlight;
+    private final long startedAt = System.nanoTime();
+
+    JvmSampler(MeterRegistry registry, IntSupplier inFlight) {
+        this.registry = registry;
+        this.inFlight = inFlight;
+        scheduler.scheduleAtFixedRate(this::sample, 0, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Samples taken after the given time since sampling began
+     */
+    List<Sample> samplesAfter(Duration warmup) {
+        return samples.stream().filter(sample -> sample.elapsedMillis() >= warmup.toMillis()).toList();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void sample() {
+        long gcMillis = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(t -> t > 0).sum();
+        Gauge busyThreads = registry.find("tomcat.threads.busy").gauge();
+        LongTaskTimer rehearsals = registry.find(PipelineMetrics.REHEARSALS).longTaskTimer();
+        samples.add(new Sample(
+                Duration.ofNanos(System.nanoTime() - startedAt).toMillis(),
+                threads.getThreadCount(),
+                memory.getHeapMemoryUsage().getUsed() / (1024 * 1024),
+                gcMillis,
+                inFlight.getAsInt(),
+                busyThreads == null ? 0 : (int) busyThreads.value(),
+                rehearsals == null ? 0 : rehearsals.activeTasks()));
+    }
+
+    /**
+     * @param gcMillis Total time spent in garbage collection since the JVM started
+     * @param tomcatBusyThreads Request threads currently handling a request
+     * @param activeRehearsals Rehearsals inside the analysis pipeline
+     */
+    record Sample(long elapsedMillis, int liveThreads, long heapUsedMb, long gcMillis, int inFlight,
+                  int tomcatBusyThreads, int activeRehearsals) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.hackathon.aipresentationbackend.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latency and failures of a vendor endpoint. Latency is log-normal, which fits API response times:
+ * most calls are near the median and a long tail reaches the 99th percentile.
+ */
+record LatencyProfile(Duration median, Duration p99, double errorRate) {
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_99 = 2.326;
+
+    LatencyProfile {
+        if (p99.compareTo(median) < 0) {
+            throw new IllegalArgumentException("p99 latency " + p99 + " is below the median " + median);
+        }
+    }
+
+    Duration sampleLatency() {
+        double sigma = Math.log((double) p99.toNanos() / Math.max(1, median.toNanos())) / Z_99;
+        double nanos = median.toNanos() * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+        return Duration.ofNanos((long) nanos);
+    }
+
+    boolean sampleError() {
+        return ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+}
@@ -0,0 +1,138 @@
+package com.hackathon.aipresentationbackend.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends rehearsals to /api/v1/analyze at a fixed rate, whether or not earlier ones have finished, the way
+ * independent users would. Latency is measured from when a request was due rather than when it was sent,
+ * so a driver that falls behind reports the delay instead of hiding it.
+ */
+final class LoadGenerator {
+    // The backend gives up on a transcription after five minutes
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(6);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final URI analyzeUri;
+    private final String boundary = "rehearsal-" + UUID.randomUUID();
+    private final byte[] recordingPart;
+    private final String script;
+    private final boolean uniqueScripts;
+    private final int maxInFlight;
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Queue<Result> results = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param uniqueScripts Give every request its own script, as real users would, so identical calls are not
+     *                      coalesced or cached; when false, every request shares the backend's cached results
+     */
+    LoadGenerator(URI analyzeUri, byte[] recording, String script, boolean uniqueScripts, int maxInFlight) {
+        this.analyzeUri = analyzeUri;
+        this.recordingPart = recordingPart(recording);
+        this.script = script;
+        this.uniqueScripts = uniqueScripts;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Sends requests for the warmup and then the measured duration, and waits for all of them to finish.
+     * Only requests due after the warmup are returned.
+     */
+    List<Result> run(double rps, Duration warmup, Duration duration) {
+        long interval = (long) (1_000_000_000 / rps);
+        long start = System.nanoTime();
+        long measuredFrom = start + warmup.toNanos();
+        long end = measuredFrom + duration.toNanos();
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+
+        for (long due = start; due < end; due += interval) {
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = due >= measuredFrom;
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    dropped.incrementAndGet();
+                }
+                continue;
+            }
+            pending.add(send(due, measured));
+        }
+
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        return List.copyOf(results);
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    private CompletableFuture<?> send(long due, boolean measured) {
+        HttpRequest request = HttpRequest.newBuilder(analyzeUri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofByteArray(recordingPart),
+                        HttpRequest.BodyPublishers.ofByteArray(scriptPart(sent.incrementAndGet()))))
+                .build();
+        inFlight.incrementAndGet();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    inFlight.decrementAndGet();
+                    if (measured) {
+                        results.add(new Result(System.nanoTime() - due, failure == null ? response.statusCode() : 0));
+                    }
+                    return null;
+                });
+    }
+
+    private byte[] recordingPart(byte[] recording) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(recording.length + 256);
+        out.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"audioFile\"; filename=\"rehearsal.wav\"\r\n"
+                + "Content-Type: audio/wav\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(recording);
+        return out.toByteArray();
+    }
+
+    private byte[] scriptPart(long request) {
+        String text = uniqueScripts ? script + "\n\nThis is rehearsal number " + request + "." : script;
+        return ("\r\n--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"originalScript\"\r\n"
+                + "Content-Type: text/plain; charset=UTF-8\r\n\r\n"
+                + text + "\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param status HTTP status of the response, or 0 if no response was received
+     */
+    record Result(long latencyNanos, int status) {
+        boolean succeeded() {
+            return status >= 200 && status < 300;
+        }
+    }
+}
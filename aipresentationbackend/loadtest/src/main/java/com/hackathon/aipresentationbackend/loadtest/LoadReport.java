@@ -0,0 +1,97 @@
+package com.hackathon.aipresentationbackend.loadtest;
+
+import com.hackathon.aipresentationbackend.service.PipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a load test run measured. Latencies are in milliseconds and cover successful requests only.
+ *
+ * @param stages Pipeline stage latencies from the backend's own timers, including the warmup
+ */
+record LoadReport(double targetRps, long durationSeconds, long completed, long succeeded, long dropped,
+                  Map<String, Long> failuresByStatus, double throughputRps, Latency latency, Jvm jvm,
+                  Map<String, Stage> stages, Map<String, Map<String, Long>> vendorCalls, List<JvmSampler.Sample> samples) {
+
+    static LoadReport of(double targetRps, Duration duration, List<LoadGenerator.Result> results, long dropped,
+                         List<JvmSampler.Sample> samples, MeterRegistry registry, Map<String, Map<String, Long>> vendorCalls) {
+        long[] latencies = results.stream().filter(LoadGenerator.Result::succeeded)
+                .mapToLong(LoadGenerator.Result::latencyNanos).sorted().toArray();
+        Map<String, Long> failures = new TreeMap<>();
+        results.stream().filter(result -> !result.succeeded())
+                .forEach(result -> failures.merge(result.status() == 0 ? "no response" : String.valueOf(result.status()), 1L, Long::sum));
+
+        Map<String, Stage> stages = new TreeMap<>();
+        for (Timer timer : registry.find(PipelineMetrics.STAGE_TIMER).timers()) {
+            stages.put(timer.getId().getTag("stage") + " (" + timer.getId().getTag("outcome") + ")",
+                    new Stage(timer.count(), timer.mean(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS)));
+        }
+
+        return new LoadReport(targetRps, duration.toSeconds(), results.size(), latencies.length, dropped, failures,
+                latencies.length / (double) duration.toSeconds(), Latency.of(latencies), Jvm.of(samples),
+                stages, vendorCalls, samples);
+    }
+
+    void print(PrintStream out) {
+        out.println();
+        out.printf("Target rate        %.2f rehearsals/s for %ds%n", targetRps, durationSeconds);
+        out.printf("Completed          %d (%d succeeded, %d dropped by the driver)%n", completed, succeeded, dropped);
+        failuresByStatus.forEach((status, count) -> out.printf("  failed %-11s %d%n", status, count));
+        out.printf("Throughput         %.2f successful rehearsals/s%n", throughputRps);
+        out.printf("Latency            p50 %.0f ms, p90 %.0f ms, p99 %.0f ms, max %.0f ms%n",
+                latency.p50(), latency.p90(), latency.p99(), latency.max());
+        out.printf("Platform threads   peak %d, mean %.0f%n", jvm.peakLiveThreads(), jvm.meanLiveThreads());
+        out.printf("Tomcat busy        peak %d request threads%n", jvm.peakTomcatBusyThreads());
+        out.printf("Heap used          peak %d MB, mean %.0f MB, %d ms in GC%n", jvm.peakHeapUsedMb(), jvm.meanHeapUsedMb(), jvm.gcMillis());
+        out.println("Pipeline stages");
+        stages.forEach((stage, timing) -> out.printf("  %-32s %6d calls, mean %7.0f ms, max %7.0f ms%n",
+                stage, timing.count(), timing.meanMillis(), timing.maxMillis()));
+        out.println("Vendor stand-ins");
+        vendorCalls.forEach((endpoint, calls) -> out.printf("  %-32s %6d calls, %d injected errors%n",
+                endpoint, calls.get("calls"), calls.get("injectedErrors")));
+    }
+
+    record Latency(double p50, double p90, double p99, double max) {
+        static Latency of(long[] sortedNanos) {
+            return new Latency(percentile(sortedNanos, 0.50), percentile(sortedNanos, 0.90),
+                    percentile(sortedNanos, 0.99), percentile(sortedNanos, 1.0));
+        }
+
+        private static double percentile(long[] sortedNanos, double quantile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    /**
+     * @param gcMillis Time spent in garbage collection while the load was measured
+     */
+    record Jvm(int peakLiveThreads, double meanLiveThreads, long peakHeapUsedMb, double meanHeapUsedMb,
+               int peakTomcatBusyThreads, long gcMillis) {
+        static Jvm of(List<JvmSampler.Sample> samples) {
+            if (samples.isEmpty()) {
+                return new Jvm(0, 0, 0, 0, 0, 0);
+            }
+            return new Jvm(
+                    samples.stream().mapToInt(JvmSampler.Sample::liveThreads).max().orElse(0),
+                    samples.stream().mapToInt(JvmSampler.Sample::liveThreads).average().orElse(0),
+                    samples.stream().mapToLong(JvmSampler.Sample::heapUsedMb).max().orElse(0),
+                    samples.stream().mapToLong(JvmSampler.Sample::heapUsedMb).average().orElse(0),
+                    samples.stream().mapToInt(JvmSampler.Sample::tomcatBusyThreads).max().orElse(0),
+                    samples.getLast().gcMillis() - samples.getFirst().gcMillis());
+        }
+    }
+
+    record Stage(long count, double meanMillis, double maxMillis) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.hackathon.aipresentationbackend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.aipresentationbackend.AipresentationbackendApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the backend against local stand-ins for AssemblyAI, Gemini and Murf, drives /api/v1/analyze
+ * at a target rate and reports throughput, latency, threads and heap. See loadtest.properties for settings.
+ * <p>
+ * Usage: {@code java -jar target/loadtest.jar [key=value | file.properties]...}
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load(args);
+        double rps = config.getDouble("rps");
+        Duration warmup = config.getDuration("warmup");
+        Duration duration = config.getDuration("duration");
+        String script = Rehearsals.script(config.getInt("script-words"));
+
+        Path workDirectory = Files.createTempDirectory("presentation-coach-loadtest");
+        LoadReport report;
+        try (VendorStubs stubs = new VendorStubs(config, script, Rehearsals.analysisReply());
+             ConfigurableApplicationContext backend = startBackend(config, stubs, workDirectory)) {
+            int port = ((WebServerApplicationContext) backend).getWebServer().getPort();
+            LoadGenerator generator = new LoadGenerator(URI.create("http://127.0.0.1:" + port + "/api/v1/analyze"),
+                    Rehearsals.recording(config.getInt("audio-seconds")), script, config.getBoolean("unique-scripts"),
+                    config.getInt("max-in-flight"));
+            MeterRegistry registry = backend.getBean(MeterRegistry.class);
+
+            System.out.printf("Sending %.2f rehearsals/s for %ds after a %ds warmup...%n", rps, duration.toSeconds(), warmup.toSeconds());
+            try (JvmSampler sampler = new JvmSampler(registry, generator::getInFlight)) {
+                List<LoadGenerator.Result> results = generator.run(rps, warmup, duration);
+                report = LoadReport.of(rps, duration, results, generator.getDropped(), sampler.samplesAfter(warmup),
+                        registry, stubs.stats());
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(workDirectory);
+        }
+
+        report.print(System.out);
+        String reportPath = config.getString("report");
+        if (!reportPath.isBlank()) {
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(new File(reportPath), report);
+            System.out.println("Report written to " + reportPath);
+        }
+    }
+
+    private static ConfigurableApplicationContext startBackend(LoadTestConfig config, VendorStubs stubs, Path workDirectory) {
+        // Command line arguments take precedence over any application.yml on the classpath
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--server.tomcat.mbeanregistry.enabled=true",
+                "--assemblyai.api.key=load-test",
+                "--assemblyai.api.base-url=" + stubs.url("/assemblyai/v2"),
+                "--gemini.api.key=load-test",
+                "--gemini.api.base-url=" + stubs.url("/gemini/v1beta"),
+                "--murf.api.key=load-test",
+                "--murf.api.base-url=" + stubs.url("/murf/v1"),
+                "--audio.temp.directory=" + workDirectory.resolve("uploads"),
+                "--audio.blobs.directory=" + workDirectory.resolve("audio"),
+                "--spring.datasource.url=jdbc:h2:file:" + workDirectory.resolve("history")));
+        config.appProperties().forEach((key, value) -> args.add("--" + key + "=" + value));
+        return SpringApplication.run(AipresentationbackendApplication.class, args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,90 @@
+package com.hackathon.aipresentationbackend.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Load test settings: the defaults in loadtest.properties, then each argument in order.
+ * An argument is either key=value or the path of a .properties file.
+ */
+final class LoadTestConfig {
+    private static final String APP_PREFIX = "app.";
+
+    private final Properties properties;
+
+    private LoadTestConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    static LoadTestConfig load(String... args) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream defaults = LoadTestConfig.class.getResourceAsStream("/loadtest.properties")) {
+            properties.load(defaults);
+        }
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals > 0) {
+                properties.setProperty(arg.substring(0, equals).trim(), arg.substring(equals + 1).trim());
+            } else {
+                try (Reader reader = Files.newBufferedReader(Path.of(arg))) {
+                    properties.load(reader);
+                }
+            }
+        }
+        return new LoadTestConfig(properties);
+    }
+
+    String getString(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing load test setting: " + key);
+        }
+        return value;
+    }
+
+    int getInt(String key) {
+        return Integer.parseInt(getString(key));
+    }
+
+    boolean getBoolean(String key) {
+        return Boolean.parseBoolean(getString(key));
+    }
+
+    double getDouble(String key) {
+        return Double.parseDouble(getString(key));
+    }
+
+    Duration getDuration(String key) {
+        return DurationStyle.detectAndParse(getString(key));
+    }
+
+    /**
+     * How the stand-in for one vendor endpoint behaves, e.g. "gemini.generate"
+     */
+    LatencyProfile profile(String endpoint) {
+        return new LatencyProfile(getDuration(endpoint + ".latency.median"), getDuration(endpoint + ".latency.p99"),
+                getDouble(endpoint + ".error-rate"));
+    }
+
+    /**
+     * Settings for the backend under test, with the app. prefix removed
+     */
+    Map<String, String> appProperties() {
+        Map<String, String> app = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(APP_PREFIX)) {
+                app.put(key.substring(APP_PREFIX.length()), properties.getProperty(key));
+            }
+        }
+        return app;
+    }
+}
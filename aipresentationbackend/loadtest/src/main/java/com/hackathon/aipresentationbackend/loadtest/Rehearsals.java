@@ -0,0 +1,88 @@
+package com.hackathon.aipresentationbackend.loadtest;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * The rehearsal every simulated user sends, and the replies the vendor stand-ins give for it
+ */
+final class Rehearsals {
+    private static final String[] SENTENCES = {
+            "Good morning everyone, and thank you for joining us today.",
+            "We believe this quarter proves that our strategy is working.",
+            "Um, so the next slide shows how revenue grew in every region.",
+            "I understand that the migration has been difficult for many of you.",
+            "We must act now, because the deadline is only two weeks away.",
+            "Let me walk you through what changed and why it matters.",
+            "Honestly, I think we can, like, deliver this ahead of schedule.",
+            "Our customers told us clearly what they need from us next year."
+    };
+
+    private Rehearsals() {
+    }
+
+    /**
+     * A presentation script of roughly the given number of words
+     */
+    static String script(int words) {
+        StringBuilder script = new StringBuilder();
+        int written = 0;
+        for (int i = 0; written < words; i++) {
+            String sentence = SENTENCES[i % SENTENCES.length];
+            script.append(sentence).append(i % 4 == 3 ? "\n\n" : " ");
+            written += sentence.split(" ").length;
+        }
+        return script.toString().trim();
+    }
+
+    /**
+     * An analysis in the shape Gemini sends it: the JSON object inside a markdown fence
+     */
+    static String analysisReply() {
+        return "```json\n{\n"
+                + "  \"score\": 7,\n"
+                + "  \"positiveFeedback\": \"You kept a steady, confident pace through the results section.\",\n"
+                + "  \"improvementPoints\": \"Replace the filler words in the opening with a short pause.\"\n"
+                + "}\n```\n";
+    }
+
+    /**
+     * A 16-bit mono 16 kHz WAV recording of speech-like audio with pauses between phrases,
+     * so silence trimming has work to do. Thirty seconds fit the backend's default 1MB upload limit.
+     */
+    static byte[] recording(int seconds) {
+        float rate = 16_000;
+        int frames = (int) (seconds * rate);
+        byte[] pcm = new byte[frames * 2];
+        Random random = new Random(seconds);
+        double phase = 0;
+        double pitch = 140;
+        for (int i = 0; i < frames; i++) {
+            double time = i / rate;
+            boolean inPhrase = time % 6.0 < 4.5;
+            pitch = Math.max(90, Math.min(220, pitch + (random.nextDouble() - 0.5) * 0.05));
+            phase += 2 * Math.PI * pitch / rate;
+            double syllable = 0.5 + 0.5 * Math.sin(2 * Math.PI * 4.5 * time);
+            double voiced = Math.sin(phase) + 0.6 * Math.sin(3 * phase) + 0.3 * Math.sin(7 * phase);
+            short sample = (short) ((inPhrase ? syllable * voiced * 5000 : 0) + random.nextGaussian() * 30);
+            pcm[i * 2] = (byte) sample;
+            pcm[i * 2 + 1] = (byte) (sample >> 8);
+        }
+
+        AudioFormat format = new AudioFormat(rate, 16, 1, true, false);
+        try (AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(pcm), format, frames)) {
+            ByteArrayOutputStream wav = new ByteArrayOutputStream(pcm.length + 44);
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, wav);
+            return wav.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
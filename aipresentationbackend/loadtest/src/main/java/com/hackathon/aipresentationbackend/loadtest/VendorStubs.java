@@ -0,0 +1,200 @@
+package com.hackathon.aipresentationbackend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local HTTP servers standing in for AssemblyAI, Gemini and Murf, speaking just enough of each API
+ * for a rehearsal to complete. Each endpoint waits for a latency drawn from its profile and fails
+ * some calls with 503, so the backend's retries and timeouts are exercised as they would be in production.
+ * Every call is handled on its own virtual thread, so the stand-ins never limit concurrency.
+ */
+final class VendorStubs implements AutoCloseable {
+    private static final byte[] AUDIO = new byte[96 * 1024];
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final Map<String, TranscriptJob> transcripts = new ConcurrentHashMap<>();
+    private final LatencyProfile processing;
+    private final String transcript;
+    private final String analysisReply;
+    private final byte[] voices;
+
+    VendorStubs(LoadTestConfig config, String transcript, String analysisReply) throws IOException {
+        this.processing = config.profile("assemblyai.processing");
+        this.transcript = transcript;
+        this.analysisReply = analysisReply;
+        try (InputStream fallbackVoices = VendorStubs.class.getResourceAsStream("/voices/murf-voices.json")) {
+            this.voices = fallbackVoices == null ? "[]".getBytes() : fallbackVoices.readAllBytes();
+        }
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.setExecutor(executor);
+        route(config, "assemblyai.upload", "/assemblyai/v2/upload", this::upload);
+        // POST submits a transcription job and GET polls it; they are separate AssemblyAI requests with their own latency
+        Endpoint submit = endpoint(config, "assemblyai.submit");
+        Endpoint poll = endpoint(config, "assemblyai.poll");
+        server.createContext("/assemblyai/v2/transcript", exchange -> send(exchange, "POST".equals(exchange.getRequestMethod())
+                ? submit.handle(exchange, this::submit) : poll.handle(exchange, this::poll)));
+        route(config, "gemini.generate", "/gemini/", this::generateContent);
+        route(config, "murf.generate", "/murf/v1/speech/generate", this::generateSpeech);
+        route(config, "murf.download", "/murf/files/", exchange -> new Reply(200, "audio/mpeg", AUDIO));
+        server.createContext("/murf/v1/speech/voices", exchange -> send(exchange, new Reply(200, "application/json", voices)));
+        server.start();
+    }
+
+    /**
+     * Base URL of the stand-ins followed by the path, e.g. url("/gemini/v1beta")
+     */
+    String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    /**
+     * Calls and injected failures per endpoint so far
+     */
+    Map<String, Map<String, Long>> stats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        endpoints.forEach((name, endpoint) -> stats.put(name,
+                Map.of("calls", endpoint.calls.sum(), "injectedErrors", endpoint.errors.sum())));
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private Reply upload(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        return json(Map.of("upload_url", url("/assemblyai/files/" + UUID.randomUUID())));
+    }
+
+    /**
+     * Starts a job that finishes after a processing time drawn from its profile.
+     * Its error rate is the share of jobs that AssemblyAI reports as failed rather than completed.
+     */
+    private Reply submit(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        String id = UUID.randomUUID().toString();
+        transcripts.put(id, new TranscriptJob(System.nanoTime() + processing.sampleLatency().toNanos(), processing.sampleError()));
+        return json(Map.of("id", id, "status", "queued"));
+    }
+
+    private Reply poll(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        TranscriptJob job = transcripts.get(id);
+        if (job == null) {
+            return new Reply(404, "application/json", "{\"error\":\"Transcript not found\"}".getBytes());
+        }
+        if (System.nanoTime() < job.readyAt()) {
+            return json(Map.of("id", id, "status", "processing"));
+        }
+        transcripts.remove(id);
+        if (job.failed()) {
+            return json(Map.of("id", id, "status", "error", "error", "Injected transcription failure"));
+        }
+        return json(Map.of("id", id, "status", "completed", "text", transcript, "confidence", 0.92));
+    }
+
+    private Reply generateContent(HttpExchange exchange) throws IOException {
+        long promptBytes = exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        return json(Map.of(
+                "candidates", List.of(Map.of(
+                        "content", Map.of("role", "model", "parts", List.of(Map.of("text", analysisReply))),
+                        "finishReason", "STOP")),
+                "usageMetadata", Map.of("promptTokenCount", promptBytes / 4, "candidatesTokenCount", analysisReply.length() / 4)));
+    }
+
+    private Reply generateSpeech(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        // Murf signs a new URL for every call, so the backend downloads each one
+        return json(Map.of("audioFile", url("/murf/files/" + UUID.randomUUID() + ".mp3"), "duration", 30));
+    }
+
+    private Reply json(Object body) throws IOException {
+        return new Reply(200, "application/json", objectMapper.writeValueAsBytes(body));
+    }
+
+    private void route(LoadTestConfig config, String name, String path, Handler handler) {
+        Endpoint endpoint = endpoint(config, name);
+        server.createContext(path, exchange -> send(exchange, endpoint.handle(exchange, handler)));
+    }
+
+    private Endpoint endpoint(LoadTestConfig config, String name) {
+        Endpoint endpoint = new Endpoint(config.profile(name));
+        endpoints.put(name, endpoint);
+        return endpoint;
+    }
+
+    private static void send(HttpExchange exchange, Reply reply) throws IOException {
+        try (exchange) {
+            exchange.getResponseHeaders().set("Content-Type", reply.contentType());
+            exchange.sendResponseHeaders(reply.status(), reply.body().length == 0 ? -1 : reply.body().length);
+            if (reply.body().length > 0) {
+                exchange.getResponseBody().write(reply.body());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Reply handle(HttpExchange exchange) throws IOException;
+    }
+
+    private record Reply(int status, String contentType, byte[] body) {
+    }
+
+    private record TranscriptJob(long readyAt, boolean failed) {
+    }
+
+    private static final class Endpoint {
+        private final LatencyProfile profile;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private Endpoint(LatencyProfile profile) {
+            this.profile = profile;
+        }
+
+        private Reply handle(HttpExchange exchange, Handler handler) throws IOException {
+            calls.increment();
+            sleep(profile.sampleLatency());
+            if (profile.sampleError()) {
+                errors.increment();
+                exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+                return new Reply(503, "application/json", "{\"error\":\"Injected failure\"}".getBytes());
+            }
+            return handler.handle(exchange);
+        }
+
+        private static void sleep(Duration latency) throws IOException {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while simulating latency", e);
+            }
+        }
+    }
+}